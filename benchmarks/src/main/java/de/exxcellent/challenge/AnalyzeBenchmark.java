@@ -0,0 +1,82 @@
+package de.exxcellent.challenge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Benchmarks the reading of CSV files and the full App.analyze flow.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g", "--add-modules=jdk.incubator.vector"})
+public class AnalyzeBenchmark {
+
+    /**
+     * State selecting the reader used to load the generated file.
+     */
+    @State(Scope.Benchmark)
+    public static class ReadState extends TableState {
+
+        @Param({"CSV", "CSV_PARALLEL", "CSV_CACHED", "CSV_LAZY", "MAPPED"})
+        ReadEngine reader;
+    }
+
+    /**
+     * TableReader.readAsTable of the selected reader.
+     * Lazy readers only index the file here; see {@link #readAndAnalyze(ReadState)} for the full cost.
+     */
+    @Benchmark
+    public Table readAsTable(ReadState state) throws IOException {
+        return state.reader.read(state.file);
+    }
+
+    /**
+     * Reading the file and answering the extreme-spread question with App.analyze.
+     */
+    @Benchmark
+    public String readAndAnalyze(ReadState state) throws IOException {
+        Table table = state.reader.read(state.file);
+        return App.analyze(table, state.shape.column1, state.shape.column2, QueryEngine.PRIMITIVE_SPREAD, false);
+    }
+
+    /**
+     * Reading only the key and the two compared columns of the rows where column1 is positive
+     * and answering the extreme-spread question on them. Readers without pushdown filter the
+     * streamed rows.
+     */
+    @Benchmark
+    public String readSelectedAndAnalyze(ReadState state) throws IOException {
+        Shape shape = state.shape;
+        ReadRequest request = new ReadRequest(Arrays.asList(shape.keyColumn, shape.column1, shape.column2),
+                Arrays.asList(new ColumnPredicate(shape.column1, ColumnPredicate.Comparison.GT, "0")));
+        Table table = state.reader.reader(state.file).readAsTable(request);
+        return App.analyze(table, shape.column1, shape.column2, QueryEngine.PRIMITIVE_SPREAD, false);
+    }
+
+    /**
+     * App.analyze on a loaded table (the original flow for the baseline engine).
+     */
+    @Benchmark
+    public String analyze(QueryState state) {
+        if (state.engine == QueryEngine.BASELINE) {
+            return state.legacy.analyze(state.shape.column1, state.shape.column2, QueryEngine.SPREAD, false);
+        }
+        DoubleBinaryOperator op = state.engine == QueryEngine.VECTOR ? ColumnOp.ABS_DIFF : QueryEngine.PRIMITIVE_SPREAD;
+        return App.analyze(state.table, state.shape.column1, state.shape.column2, op, false);
+    }
+}
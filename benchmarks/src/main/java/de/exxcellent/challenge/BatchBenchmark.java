@@ -0,0 +1,71 @@
+package de.exxcellent.challenge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a report of six extreme-value questions against one table:
+ * asked one by one versus asked as one batch with Table.analyze.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g", "--add-modules=jdk.incubator.vector"})
+public class BatchBenchmark {
+
+    /**
+     * A loaded table and the questions of the report:
+     * minimum and maximum spread, and the extremes of both compared columns.
+     */
+    public static class ReportState extends TableState {
+
+        Table table;
+
+        List<AnalysisSpec> specs;
+
+        @Setup(Level.Trial)
+        public void load() throws IOException {
+            generate();
+            table = ReadEngine.CSV_PARALLEL.read(file);
+            specs = Arrays.asList(
+                    new AnalysisSpec(shape.column1, shape.column2, QueryEngine.PRIMITIVE_SPREAD, false),
+                    new AnalysisSpec(shape.column1, shape.column2, QueryEngine.PRIMITIVE_SPREAD, true),
+                    new AnalysisSpec(shape.column1, true),
+                    new AnalysisSpec(shape.column1, false),
+                    new AnalysisSpec(shape.column2, true),
+                    new AnalysisSpec(shape.column2, false));
+        }
+    }
+
+    @Benchmark
+    public List<List<Integer>> oneByOne(ReportState state) {
+        List<List<Integer>> answers = new ArrayList<>();
+        for (AnalysisSpec spec : state.specs) {
+            if (spec.getOperator() == null) {
+                answers.add(state.table.getExtremeIndices(spec.getHeader1(), spec.isFindMax()));
+            } else {
+                answers.add(state.table.getExtremeIndicesAsDouble(spec.getHeader1(), spec.getHeader2(), spec.getOperator(), spec.isFindMax()));
+            }
+        }
+        return answers;
+    }
+
+    @Benchmark
+    public List<AnalysisResult> batch(ReportState state) {
+        return state.table.analyze(state.specs);
+    }
+}
@@ -0,0 +1,93 @@
+package de.exxcellent.challenge;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates synthetic CSV files shaped like weather.csv and football.csv.
+ * Files are written once per shape and size into the directory given by the system property
+ * {@code bench.data.dir} (default {@code target/bench-data}) and reused by later runs.
+ */
+final class DataGenerator {
+
+    private DataGenerator() {
+    }
+
+    /**
+     * Returns a generated CSV file with the given shape and number of rows, generating it if necessary.
+     *
+     * @param shape shape of the file
+     * @param rows number of data rows
+     * @return path of the file
+     * @throws IOException if the file cannot be written
+     */
+    static Path file(Shape shape, int rows) throws IOException {
+        Path dir = Paths.get(System.getProperty("bench.data.dir", "target/bench-data"));
+        Path file = dir.resolve(shape.name().toLowerCase() + "-" + rows + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "gen", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            if (shape == Shape.WEATHER) {
+                writeWeather(out, rows);
+            } else {
+                writeFootball(out, rows);
+            }
+        }
+        return Files.move(tmp, file);
+    }
+
+    private static void writeWeather(BufferedWriter out, int rows) throws IOException {
+        Random random = new Random(42);
+        out.write("Day,MxT,MnT,AvT,AvDP,1HrP TPcpn,PDir,AvSp,Dir,MxS,SkyC,MxR,Mn,R AvSLP\n");
+        StringBuilder line = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            int max = 50 + random.nextInt(50);
+            int min = max - 1 - random.nextInt(40);
+            line.setLength(0);
+            line.append(i).append(',')
+                    .append(max).append(',')
+                    .append(min).append(',')
+                    .append((max + min) / 2).append(',')
+                    .append(30 + random.nextInt(400) / 10.0).append(',')
+                    .append(random.nextInt(5)).append(',')
+                    .append(random.nextInt(36) * 10).append(',')
+                    .append(random.nextInt(200) / 10.0).append(',')
+                    .append(random.nextInt(36) * 10).append(',')
+                    .append(5 + random.nextInt(25)).append(',')
+                    .append(random.nextInt(90) / 10.0).append(',')
+                    .append(50 + random.nextInt(50)).append(',')
+                    .append(10 + random.nextInt(50)).append(',')
+                    .append(990 + random.nextInt(300) / 10.0).append('\n');
+            out.append(line);
+        }
+    }
+
+    private static void writeFootball(BufferedWriter out, int rows) throws IOException {
+        Random random = new Random(42);
+        out.write("Team,Games,Wins,Losses,Draws,Goals,Goals Allowed,Points\n");
+        StringBuilder line = new StringBuilder();
+        for (int i = 1; i <= rows; i++) {
+            int wins = random.nextInt(30);
+            int losses = random.nextInt(38 - wins);
+            int draws = 38 - wins - losses;
+            line.setLength(0);
+            line.append("Team_").append(i).append(',')
+                    .append(38).append(',')
+                    .append(wins).append(',')
+                    .append(losses).append(',')
+                    .append(draws).append(',')
+                    .append(20 + random.nextInt(80)).append(',')
+                    .append(20 + random.nextInt(80)).append(',')
+                    .append(wins * 3 + draws).append('\n');
+            out.append(line);
+        }
+    }
+}
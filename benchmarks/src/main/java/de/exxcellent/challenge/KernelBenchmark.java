@@ -0,0 +1,89 @@
+package de.exxcellent.challenge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the column kernels on preallocated arrays, so that the scalar and the
+ * vectorized kernels are compared without the allocation of result columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g", "--add-modules=jdk.incubator.vector"})
+public class KernelBenchmark {
+
+    /**
+     * Two weather-like integer columns, their spread and the selected kernels.
+     */
+    @State(Scope.Benchmark)
+    public static class KernelState {
+
+        @Param({"SCALAR", "VECTOR"})
+        String kernels;
+
+        @Param({"10000", "1000000", "10000000"})
+        int rows;
+
+        ColumnKernels impl;
+
+        long[] max;
+
+        long[] min;
+
+        double[] spread;
+
+        final long[] noneMissing = new long[0];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            impl = "VECTOR".equals(kernels) ? ColumnKernels.get() : ColumnKernels.scalar();
+            if ("VECTOR".equals(kernels) && !impl.isVectorized())
+                throw new IllegalStateException("Vector API not available");
+            Random random = new Random(42);
+            max = new long[rows];
+            min = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                max[i] = 50 + random.nextInt(50);
+                min[i] = max[i] - 1 - random.nextInt(40);
+            }
+            spread = new double[rows];
+            ColumnKernels.scalar().apply(ColumnOp.ABS_DIFF, max, min, spread, 0, rows);
+        }
+    }
+
+    @Benchmark
+    public double[] absDiff(KernelState state) {
+        state.impl.apply(ColumnOp.ABS_DIFF, state.max, state.min, state.spread, 0, state.rows);
+        return state.spread;
+    }
+
+    @Benchmark
+    public double minSpread(KernelState state) {
+        return state.impl.extreme(state.spread, state.noneMissing, 0, state.rows, false);
+    }
+
+    @Benchmark
+    public double maxTemperature(KernelState state) {
+        return state.impl.extreme(state.max, state.noneMissing, 0, state.rows, true);
+    }
+
+    @Benchmark
+    public int[] rowsWithMaxTemperature(KernelState state) {
+        return state.impl.indicesOf(state.max, state.noneMissing, 0, state.rows, 99L);
+    }
+}
@@ -0,0 +1,85 @@
+package de.exxcellent.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * The original row-oriented, string-based table implementation, kept as baseline
+ * so that new engines can be compared against it side by side.
+ * Only the operations used by the analysis are included.
+ */
+final class LegacyTable {
+
+    private final List<String> headers;
+
+    private final List<List<String>> rows;
+
+    LegacyTable(List<String> headers, List<List<String>> rows) {
+        this.headers = new ArrayList<>(headers);
+        this.rows = new ArrayList<>();
+        for (List<String> row : rows) {
+            this.rows.add(new ArrayList<>(row));
+        }
+    }
+
+    List<String> getRow(int rowIndex) {
+        return new ArrayList<>(rows.get(rowIndex));
+    }
+
+    List<String> processColumns(String header1, String header2, BiFunction<Double, Double, Double> operator) {
+        int idx1 = headers.indexOf(header1);
+        int idx2 = headers.indexOf(header2);
+        List<String> result = new ArrayList<>();
+        for (List<String> row : rows) {
+            try {
+                double calcRes = operator.apply(Double.parseDouble(row.get(idx1)), Double.parseDouble(row.get(idx2)));
+                result.add(Double.toString(calcRes));
+            } catch (NumberFormatException e) {
+                result.add(null);
+            }
+        }
+        return result;
+    }
+
+    List<Integer> getExtremeIndices(List<String> col, boolean findMax) {
+        Double extreme = null;
+        for (String val : col) {
+            if (val == null || val.isEmpty()) continue;
+            try {
+                double num = Double.parseDouble(val);
+                if (extreme == null || (findMax && num > extreme) || (!findMax && num < extreme)) {
+                    extreme = num;
+                }
+            } catch (NumberFormatException e) {
+                // skipped like in the original implementation
+            }
+        }
+        List<Integer> indices = new ArrayList<>();
+        if (extreme == null) return indices;
+        for (int i = 0; i < col.size(); i++) {
+            String val = col.get(i);
+            try {
+                if (val != null && !val.isEmpty() && Double.parseDouble(val) == extreme) {
+                    indices.add(i);
+                }
+            } catch (NumberFormatException e) {
+                // skipped like in the original implementation
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * The original analysis flow of App.analyze.
+     */
+    String analyze(String col1, String col2, BiFunction<Double, Double, Double> op, boolean isMax) {
+        List<String> procdCol = processColumns(col1, col2, op);
+        List<Integer> rowIdxs = getExtremeIndices(procdCol, isMax);
+        List<String> result = new ArrayList<>();
+        for (Integer idx : rowIdxs) {
+            result.add(getRow(idx).get(0));
+        }
+        return String.join(", ", result);
+    }
+}
@@ -0,0 +1,49 @@
+package de.exxcellent.challenge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the column operations of a loaded table for every query engine.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx16g", "--add-modules=jdk.incubator.vector"})
+public class QueryBenchmark {
+
+    /**
+     * Table.processColumns (LegacyTable.processColumns for the baseline, Table.processColumnsAsDouble
+     * for the primitive and vector engines). This operation has no fused variant, so COLUMNAR and FUSED run the same code.
+     */
+    @Benchmark
+    public Object processColumns(QueryState state) {
+        if (state.engine == QueryEngine.BASELINE) {
+            return state.legacy.processColumns(state.shape.column1, state.shape.column2, QueryEngine.SPREAD);
+        }
+        if (state.engine == QueryEngine.PRIMITIVE) {
+            return state.table.processColumnsAsDouble(state.shape.column1, state.shape.column2, QueryEngine.PRIMITIVE_SPREAD);
+        }
+        if (state.engine == QueryEngine.VECTOR) {
+            return state.table.processColumnsAsDouble(state.shape.column1, state.shape.column2, ColumnOp.ABS_DIFF);
+        }
+        return state.table.processColumns(state.shape.column1, state.shape.column2, QueryEngine.SPREAD);
+    }
+
+    /**
+     * The extreme-spread row search of the selected engine.
+     */
+    @Benchmark
+    public List<Integer> extremeIndices(QueryState state) {
+        return state.engine.extremeIndices(state);
+    }
+}
@@ -0,0 +1,58 @@
+package de.exxcellent.challenge;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * The available implementations of the extreme-spread query, from the original
+ * row-oriented baseline to the current engines.
+ */
+public enum QueryEngine {
+    /** Original string-based table: processColumns, getExtremeIndices and getRow copies. */
+    BASELINE {
+        @Override
+        List<Integer> extremeIndices(QueryState state) {
+            List<String> col = state.legacy.processColumns(state.shape.column1, state.shape.column2, SPREAD);
+            return state.legacy.getExtremeIndices(col, false);
+        }
+    },
+    /** Columnar table, but with the intermediate List of stringified results. */
+    COLUMNAR {
+        @Override
+        List<Integer> extremeIndices(QueryState state) {
+            List<String> col = state.table.processColumns(state.shape.column1, state.shape.column2, SPREAD);
+            return state.table.getExtremeIndices(col, false);
+        }
+    },
+    /** Columnar table with the fused single-pass search. */
+    FUSED {
+        @Override
+        List<Integer> extremeIndices(QueryState state) {
+            return state.table.getExtremeIndices(state.shape.column1, state.shape.column2, SPREAD, false);
+        }
+    },
+    /** Columnar table with the fused single-pass search and a primitive operator. */
+    PRIMITIVE {
+        @Override
+        List<Integer> extremeIndices(QueryState state) {
+            return state.table.getExtremeIndicesAsDouble(state.shape.column1, state.shape.column2, PRIMITIVE_SPREAD, false);
+        }
+    },
+    /**
+     * Columnar table with {@link ColumnOp#ABS_DIFF}, which runs as SIMD column kernels
+     * (scalar kernels with -Dchallenge.vector=false).
+     */
+    VECTOR {
+        @Override
+        List<Integer> extremeIndices(QueryState state) {
+            return state.table.getExtremeIndicesAsDouble(state.shape.column1, state.shape.column2, ColumnOp.ABS_DIFF, false);
+        }
+    };
+
+    static final BiFunction<Double, Double, Double> SPREAD = (x, y) -> Math.abs(x - y);
+
+    static final DoubleBinaryOperator PRIMITIVE_SPREAD = (x, y) -> Math.abs(x - y);
+
+    abstract List<Integer> extremeIndices(QueryState state);
+}
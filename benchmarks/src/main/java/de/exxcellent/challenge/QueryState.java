@@ -0,0 +1,37 @@
+package de.exxcellent.challenge;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+
+/**
+ * Benchmark state holding a loaded table for the selected query engine.
+ * The baseline engine gets its own copy in the original row-oriented representation.
+ */
+public class QueryState extends TableState {
+
+    @Param({"BASELINE", "COLUMNAR", "FUSED", "PRIMITIVE", "VECTOR"})
+    QueryEngine engine;
+
+    /** Row-count threshold for parallel execution; 2147483647 runs every operation serially. */
+    @Param({"262144", "2147483647"})
+    int parallelThreshold;
+
+    Table table;
+
+    LegacyTable legacy;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        // JMH does not order the setup methods of a state hierarchy
+        generate();
+        table = ReadEngine.CSV_PARALLEL.read(file);
+        table.setParallelThreshold(parallelThreshold);
+        if (engine == QueryEngine.BASELINE) {
+            legacy = new LegacyTable(table.getHeaders(), table.getRows());
+            table = null;
+        }
+    }
+}
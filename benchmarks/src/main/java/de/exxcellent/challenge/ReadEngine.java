@@ -0,0 +1,48 @@
+package de.exxcellent.challenge;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The available ways of loading a CSV file into a Table.
+ */
+public enum ReadEngine {
+    CSV {
+        @Override
+        TableReader reader(Path file) {
+            return new CSVReader(file.toString());
+        }
+    },
+    CSV_PARALLEL {
+        @Override
+        TableReader reader(Path file) {
+            return new CSVReader(file.toString(), ",", CSVReader.Mode.PARALLEL);
+        }
+    },
+    /** Sequential CSV reader with a binary cache; all but the first read load the cache file. */
+    CSV_CACHED {
+        @Override
+        TableReader reader(Path file) {
+            return new CSVReader(file.toString(), ",", CSVReader.Mode.SEQUENTIAL, file.resolveSibling("cache"));
+        }
+    },
+    /** CSV reader that only parses the columns a query touches. */
+    CSV_LAZY {
+        @Override
+        TableReader reader(Path file) {
+            return new CSVReader(file.toString(), ",", CSVReader.Mode.LAZY);
+        }
+    },
+    MAPPED {
+        @Override
+        TableReader reader(Path file) {
+            return new MappedCSVReader(file);
+        }
+    };
+
+    abstract TableReader reader(Path file);
+
+    Table read(Path file) throws IOException {
+        return reader(file).readAsTable();
+    }
+}
@@ -0,0 +1,21 @@
+package de.exxcellent.challenge;
+
+/**
+ * The shapes of the generated CSV files together with the columns the analysis compares.
+ */
+public enum Shape {
+    WEATHER("Day", "MxT", "MnT"),
+    FOOTBALL("Team", "Goals", "Goals Allowed");
+
+    final String keyColumn;
+
+    final String column1;
+
+    final String column2;
+
+    Shape(String keyColumn, String column1, String column2) {
+        this.keyColumn = keyColumn;
+        this.column1 = column1;
+        this.column2 = column2;
+    }
+}
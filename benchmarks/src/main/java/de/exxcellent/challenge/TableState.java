@@ -0,0 +1,32 @@
+package de.exxcellent.challenge;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Benchmark state holding a generated CSV file of the selected shape and size.
+ */
+@State(Scope.Benchmark)
+public class TableState {
+
+    @Param({"WEATHER", "FOOTBALL"})
+    Shape shape;
+
+    @Param({"10000", "100000", "1000000", "10000000", "100000000"})
+    int rows;
+
+    Path file;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        if (file == null) {
+            file = DataGenerator.file(shape, rows);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package de.exxcellent.challenge;
+
+import java.util.Locale;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * One aggregate column of {@link Table#groupBy(java.util.List, java.util.List)}: a function applied
+ * per group either to the values of a single column, or to the values an operation derives from two
+ * columns, e.g. the smallest temperature spread per month.
+ * Cells that are not numeric are skipped; a group without numeric values gets a missing value.
+ */
+public final class Aggregate {
+
+    /**
+     * The aggregate function.
+     */
+    public enum Function {
+        /** Number of rows of the group, or of numeric values if a column is given. */
+        COUNT,
+        /** Sum of the values. */
+        SUM,
+        /** Smallest value. */
+        MIN,
+        /** Largest value. */
+        MAX,
+        /** Mean of the values. */
+        AVG,
+        /** Identifier (first column) of the row with the smallest value; ties go to the first row. */
+        ARGMIN,
+        /** Identifier (first column) of the row with the largest value; ties go to the first row. */
+        ARGMAX
+    }
+
+    private final String name;
+
+    private final Function function;
+
+    private final String header1;
+
+    private final String header2;
+
+    private final DoubleBinaryOperator operator;
+
+    /**
+     * Creates an aggregate of operator(header1, header2).
+     *
+     * @param function the aggregate function
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param operator Operation that derives the aggregated value from the two column values
+     */
+    public Aggregate(Function function, String header1, String header2, DoubleBinaryOperator operator) {
+        this(null, function, header1, header2, operator);
+        if (header1 == null || header2 == null || operator == null)
+            throw new IllegalArgumentException("Headers and operator must not be null!");
+    }
+
+    /**
+     * Creates an aggregate of the values of a column.
+     *
+     * @param function the aggregate function
+     * @param header Name of the column; may be null for {@link Function#COUNT} to count the rows
+     */
+    public Aggregate(Function function, String header) {
+        this(null, function, header, null, null);
+        if (header == null && function != Function.COUNT)
+            throw new IllegalArgumentException("Header must not be null!");
+    }
+
+    private Aggregate(String name, Function function, String header1, String header2, DoubleBinaryOperator operator) {
+        if (function == null)
+            throw new IllegalArgumentException("Function must not be null!");
+        this.function = function;
+        this.header1 = header1;
+        this.header2 = header2;
+        this.operator = operator;
+        this.name = name != null ? name : function.name().toLowerCase(Locale.ROOT)
+                + (header1 == null ? "" : "(" + header1 + (header2 == null ? "" : "," + header2) + ")");
+    }
+
+    /**
+     * Returns a copy of this aggregate whose result column has the given name.
+     *
+     * @param name Name of the result column
+     * @return the renamed aggregate
+     */
+    public Aggregate named(String name) {
+        if (name == null)
+            throw new IllegalArgumentException("Name must not be null!");
+        return new Aggregate(name, function, header1, header2, operator);
+    }
+
+    /**
+     * Returns the name of the result column, by default e.g. "min(MxT)" or "count".
+     *
+     * @return column name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the aggregate function.
+     *
+     * @return the function
+     */
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * Returns the name of the first (or only) column.
+     *
+     * @return column name, or null if rows are counted
+     */
+    public String getHeader1() {
+        return header1;
+    }
+
+    /**
+     * Returns the name of the second column.
+     *
+     * @return column name, or null for an aggregate of a single column
+     */
+    public String getHeader2() {
+        return header2;
+    }
+
+    /**
+     * Returns the operation applied to the two columns.
+     *
+     * @return the operator, or null for an aggregate of a single column
+     */
+    public DoubleBinaryOperator getOperator() {
+        return operator;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,56 @@
+package de.exxcellent.challenge;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The answer to one {@link AnalysisSpec}: the extreme value and the rows in which it occurs.
+ */
+public final class AnalysisResult {
+
+    private final AnalysisSpec spec;
+
+    private final Double extreme;
+
+    private final List<Integer> indices;
+
+    /**
+     * Creates a result.
+     *
+     * @param spec the answered question
+     * @param extreme the extreme value, or null if no row had a numeric value
+     * @param indices the row indices of the extreme value in row order
+     */
+    AnalysisResult(AnalysisSpec spec, Double extreme, List<Integer> indices) {
+        this.spec = spec;
+        this.extreme = extreme;
+        this.indices = Collections.unmodifiableList(indices);
+    }
+
+    /**
+     * Returns the answered question.
+     *
+     * @return the spec
+     */
+    public AnalysisSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Returns the extreme value.
+     *
+     * @return the extreme value, or null if no row had a numeric value
+     */
+    public Double getExtreme() {
+        return extreme;
+    }
+
+    /**
+     * Returns the rows in which the extreme value occurs.
+     *
+     * @return unmodifiable list of row indices in row order
+     */
+    public List<Integer> getIndices() {
+        return indices;
+    }
+}
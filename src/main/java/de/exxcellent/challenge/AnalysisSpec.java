@@ -0,0 +1,92 @@
+package de.exxcellent.challenge;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * One extreme-value question for {@link Table#analyze(java.util.List)}: either the rows with the
+ * extreme value of a single column, or the rows for which an operation on two columns is extreme.
+ */
+public final class AnalysisSpec {
+
+    private final String header1;
+
+    private final String header2;
+
+    private final DoubleBinaryOperator operator;
+
+    private final boolean findMax;
+
+    /**
+     * Creates a question for the rows in which operator(header1, header2) is extreme.
+     *
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param operator Operation that derives the compared value from the two column values
+     * @param findMax true for maximum, false for minimum
+     */
+    public AnalysisSpec(String header1, String header2, DoubleBinaryOperator operator, boolean findMax) {
+        if (header1 == null || header2 == null || operator == null)
+            throw new IllegalArgumentException("Headers and operator must not be null!");
+        this.header1 = header1;
+        this.header2 = header2;
+        this.operator = operator;
+        this.findMax = findMax;
+    }
+
+    /**
+     * Creates a question for the rows in which the value of a column is extreme.
+     *
+     * @param header Name of the column
+     * @param findMax true for maximum, false for minimum
+     */
+    public AnalysisSpec(String header, boolean findMax) {
+        if (header == null)
+            throw new IllegalArgumentException("Header must not be null!");
+        this.header1 = header;
+        this.header2 = null;
+        this.operator = null;
+        this.findMax = findMax;
+    }
+
+    /**
+     * Returns the name of the first (or only) column.
+     *
+     * @return column name
+     */
+    public String getHeader1() {
+        return header1;
+    }
+
+    /**
+     * Returns the name of the second column.
+     *
+     * @return column name, or null for a single-column question
+     */
+    public String getHeader2() {
+        return header2;
+    }
+
+    /**
+     * Returns the operation applied to the two column values.
+     *
+     * @return the operation, or null for a single-column question
+     */
+    public DoubleBinaryOperator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Returns whether the maximum or the minimum is searched.
+     *
+     * @return true for maximum, false for minimum
+     */
+    public boolean isFindMax() {
+        return findMax;
+    }
+
+    @Override
+    public String toString() {
+        String value = header2 == null ? header1 : operator + "(" + header1 + ", " + header2 + ")";
+        return (findMax ? "max " : "min ") + value;
+    }
+}
@@ -3,7 +3,7 @@ package de.exxcellent.challenge;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
 
 /**
  * The entry class for your solution. This class is only aimed as starting point and not intended as baseline for your software
@@ -38,10 +38,13 @@ public final class App {
 			System.exit(0);
 		}
         
-        String dayWithSmallestTempSpread = analyze(tab1, col1, col2,(x,y)-> Math.abs(x - y), false);
+        String dayWithSmallestTempSpread = analyze(tab1, col1, col2, ColumnOp.ABS_DIFF, false);
         System.out.printf("Day with smallest temperature spread : %s%n", dayWithSmallestTempSpread);
 
-        String teamWithSmallestGoalSpread = analyze(tab2, col3, col4,(x,y)-> Math.abs(x - y), false);
+        String daysWithSmallestTempSpreads = analyzeTop(tab1, col1, col2, ColumnOp.ABS_DIFF, 3, false);
+        System.out.printf("Days with 3 smallest temp. spreads   : %s%n", daysWithSmallestTempSpreads);
+
+        String teamWithSmallestGoalSpread = analyze(tab2, col3, col4, ColumnOp.ABS_DIFF, false);
         System.out.printf("Team with smallest goal spread       : %s%n", teamWithSmallestGoalSpread);
     }
     
@@ -58,15 +61,59 @@ public final class App {
      * @param isMax true to search for max values, false for min values
      * @return concatenated string of identifiers (from column 0) of the extreme rows
      */
-    private static String analyze(Table tab, String col1, String col2,BiFunction<Double,Double,Double> op, boolean isMax) {
-    	List<String> procdCol = tab.processColumns(col1, col2, op);
-		List<Integer> rowIdxs = tab.getExtremeIndices(procdCol, isMax);
+    static String analyze(Table tab, String col1, String col2,DoubleBinaryOperator op, boolean isMax) {
+		Metrics.Timer timer = Metrics.global().startTimer();
+		List<Integer> rowIdxs = tab.getExtremeIndicesAsDouble(col1, col2, op, isMax);
 		List<String> result = new ArrayList<>();
 		for(Integer idx : rowIdxs) {
-			List<String> val = tab.getRow(idx);
-			String name = val.get(0);
-			result.add(name);
+			result.add(tab.getValue(idx, 0));
 		}
-		return String.join(", ", result);
+		String answer = String.join(", ", result);
+		timer.stop("app.analyze", tab.getRowCount());
+		return answer;
+    }
+
+    /**
+     * Ranking variant of {@link #analyze(Table, String, String, DoubleBinaryOperator, boolean)}:
+     * returns the identifiers of the k rows with the largest or smallest derived values,
+     * e.g. the three days with the smallest temperature spread.
+     *
+     * @param tab   Table containing the data
+     * @param col1  First column name
+     * @param col2  Second column name
+     * @param op    Operation to apply on the two column values
+     * @param k     Number of rows to return at most
+     * @param isMax true to rank the largest values first, false for the smallest values
+     * @return concatenated identifiers (from column 0) of the ranked rows, best first
+     */
+    static String analyzeTop(Table tab, String col1, String col2, DoubleBinaryOperator op, int k, boolean isMax) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        List<String> result = new ArrayList<>();
+        for (Integer idx : tab.getTopIndicesAsDouble(col1, col2, op, k, isMax)) {
+            result.add(tab.getValue(idx, 0));
+        }
+        String answer = String.join(", ", result);
+        timer.stop("app.analyzeTop", tab.getRowCount());
+        return answer;
+    }
+
+    /**
+     * Batch variant of {@link #analyze(Table, String, String, DoubleBinaryOperator, boolean)}:
+     * answers all questions with a single pass over the table.
+     *
+     * @param tab   Table containing the data
+     * @param specs the questions to answer
+     * @return per spec, the concatenated identifiers (from column 0) of the extreme rows
+     */
+    static List<String> analyzeAll(Table tab, List<AnalysisSpec> specs) {
+        List<String> answers = new ArrayList<>();
+        for (AnalysisResult res : tab.analyze(specs)) {
+            List<String> result = new ArrayList<>();
+            for (Integer idx : res.getIndices()) {
+                result.add(tab.getValue(idx, 0));
+            }
+            answers.add(String.join(", ", result));
+        }
+        return answers;
     }
 }
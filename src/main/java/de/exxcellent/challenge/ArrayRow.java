@@ -0,0 +1,30 @@
+package de.exxcellent.challenge;
+
+/**
+ * Row backed by an array of values, e.g. the values of a single CSV line.
+ */
+final class ArrayRow implements Row {
+
+    private String[] values;
+
+    /**
+     * Replaces the values of this row.
+     *
+     * @param values the new values
+     * @return this row
+     */
+    ArrayRow set(String[] values) {
+        this.values = values;
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public String get(int colIndex) {
+        return values[colIndex];
+    }
+}
@@ -0,0 +1,237 @@
+package de.exxcellent.challenge;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * BinaryTableReader is a subclass of TableReader that reads tables written by
+ * {@link BinaryTableWriter}.
+ * Header and footer are read and verified eagerly; every column block is memory-mapped
+ * and only decoded, with a single bulk copy into the primitive arrays of the column,
+ * when the column is accessed for the first time. The checksum of a block is verified
+ * when it is decoded, or, for cache files read with {@link #readIfCurrent(Path, long, long)},
+ * before the table is returned, so a corrupt cache file is detected while the source can
+ * still be parsed instead.
+ */
+public class BinaryTableReader extends TableReader {
+
+    private final Path path;
+
+    /**
+     * Constructor that accepts the path of the binary file.
+     *
+     * @param path path of the binary file
+     */
+    public BinaryTableReader(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the path of the binary file.
+     *
+     * @return file path
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Reads the binary file and returns it as a Table object.
+     * The columns are decoded lazily; a column whose block is corrupt fails with an
+     * {@link UncheckedIOException} when it is accessed.
+     *
+     * @return Table representing the binary file
+     * @throws IOException if the file cannot be read, is no binary table or its footer is corrupt
+     */
+    @Override
+    public Table readAsTable() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, readFooter(channel), false);
+        }
+    }
+
+    /**
+     * Reads the binary file if it was written for a source with the given stamp.
+     * The checksums of all blocks are verified up front, so the returned table never fails
+     * on access of a column.
+     *
+     * @param path path of the binary file
+     * @param sourceModified expected last modification time of the source in milliseconds
+     * @param sourceSize expected size of the source in bytes
+     * @return the table, or null if the file does not exist, is unreadable or corrupt, or belongs to another version of the source
+     */
+    static Table readIfCurrent(Path path, long sourceModified, long sourceSize) {
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer footer = readFooter(channel);
+            if (footer.getLong(4) != sourceModified || footer.getLong(12) != sourceSize) return null;
+            return read(channel, footer, true);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads and verifies header and footer of the file.
+     *
+     * @param channel channel of the file
+     * @return the footer, positioned at its start
+     * @throws IOException if the file is no binary table or the footer is corrupt
+     */
+    private static ByteBuffer readFooter(FileChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, 0, BinaryTableWriter.HEADER_SIZE);
+        if (header.getInt() != BinaryTableWriter.MAGIC)
+            throw new IOException("Not a binary table file");
+        int version = header.getInt();
+        if (version != BinaryTableWriter.VERSION)
+            throw new IOException("Unsupported binary table version: " + version);
+        long footerOffset = header.getLong();
+        int footerLength = header.getInt();
+        int footerChecksum = header.getInt();
+        if (footerOffset < BinaryTableWriter.HEADER_SIZE || footerLength < 0 || footerOffset + footerLength > channel.size())
+            throw new IOException("Corrupt binary table header");
+        ByteBuffer footer = readFully(channel, footerOffset, footerLength);
+        if (checksum(footer) != footerChecksum)
+            throw new IOException("Checksum mismatch in binary table footer");
+        return footer;
+    }
+
+    /**
+     * Creates the table with one lazily decoded column per block of the footer.
+     * The read is recorded as {@code read.binary} and the size of the file as {@code read.bytes}
+     * in the {@link Metrics#global() global metrics}.
+     *
+     * @param channel the open file
+     * @param footer the verified footer, positioned at its start
+     * @param verifyBlocks true to verify the checksums of all blocks now instead of when they are decoded
+     * @return the table
+     * @throws IOException if a block lies outside the file, cannot be mapped or, if verified, is corrupt
+     */
+    private static Table read(FileChannel channel, ByteBuffer footer, boolean verifyBlocks) throws IOException {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        int rowCount = footer.getInt();
+        footer.getLong();
+        footer.getLong();
+        int colCount = footer.getInt();
+        List<String> headers = new ArrayList<>();
+        List<Column> columns = new ArrayList<>();
+        for (int c = 0; c < colCount; c++) {
+            String header = getString(footer);
+            byte type = footer.get();
+            long offset = footer.getLong();
+            long length = footer.getLong();
+            int blockChecksum = footer.getInt();
+            if (offset < BinaryTableWriter.HEADER_SIZE || length < 0 || length > Integer.MAX_VALUE || offset + length > channel.size())
+                throw new IOException("Corrupt block of column " + header);
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            if (verifyBlocks && checksum(block) != blockChecksum)
+                throw new IOException("Checksum mismatch in block of column " + header);
+            headers.add(header);
+            boolean verify = !verifyBlocks;
+            columns.add(new LazyColumn(rowCount, () -> decode(header, type, block, verify, blockChecksum, rowCount)));
+        }
+        Metrics.global().count("read.bytes", channel.size());
+        timer.stop("read.binary", rowCount);
+        return new Table(headers, columns, rowCount);
+    }
+
+    /**
+     * Verifies and decodes one column block.
+     *
+     * @param header name of the column
+     * @param type type tag of the block
+     * @param block the mapped block
+     * @param verify whether the checksum still has to be verified
+     * @param blockChecksum expected CRC32 of the block
+     * @param rowCount number of rows
+     * @return the decoded column
+     * @throws UncheckedIOException if the block is corrupt
+     */
+    private static Column decode(String header, byte type, ByteBuffer block, boolean verify, int blockChecksum, int rowCount) {
+        ByteBuffer buf = block.duplicate();
+        if (verify && checksum(buf) != blockChecksum)
+            throw new UncheckedIOException(new IOException("Checksum mismatch in block of column " + header));
+        int capacity = Math.max(rowCount, Column.DEFAULT_CAPACITY);
+        switch (type) {
+            case BinaryTableWriter.TYPE_LONG: {
+                BitSet missing = getBitmap(buf);
+                long[] values = new long[capacity];
+                buf.asLongBuffer().get(values, 0, rowCount);
+                return new LongColumn(values, missing, rowCount);
+            }
+            case BinaryTableWriter.TYPE_DOUBLE: {
+                BitSet missing = getBitmap(buf);
+                double[] values = new double[capacity];
+                buf.asDoubleBuffer().get(values, 0, rowCount);
+                buf.position(buf.position() + rowCount * 8);
+                byte[] scales = null;
+                if (buf.get() != 0) {
+                    scales = new byte[capacity];
+                    buf.get(scales, 0, rowCount);
+                }
+                int textCount = buf.getInt();
+                Map<Integer, String> texts = textCount == 0 ? null : new HashMap<>();
+                for (int t = 0; t < textCount; t++) {
+                    int row = buf.getInt();
+                    texts.put(row, getString(buf));
+                }
+                return new DoubleColumn(values, missing, scales, texts, rowCount);
+            }
+            case BinaryTableWriter.TYPE_STRING: {
+                int dictSize = buf.getInt();
+                List<String> dictionary = new ArrayList<>(dictSize);
+                for (int d = 0; d < dictSize; d++) {
+                    dictionary.add(getString(buf));
+                }
+                int[] codes = new int[capacity];
+                buf.asIntBuffer().get(codes, 0, rowCount);
+                return new StringColumn(dictionary, codes, rowCount);
+            }
+            default:
+                throw new UncheckedIOException(new IOException("Unknown type " + type + " of column " + header));
+        }
+    }
+
+    private static BitSet getBitmap(ByteBuffer buf) {
+        long[] words = new long[buf.getInt()];
+        buf.asLongBuffer().get(words);
+        buf.position(buf.position() + words.length * 8);
+        return BitSet.valueOf(words);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(ByteBuffer buf) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0)
+                throw new IOException("Unexpected end of binary table file");
+        }
+        buf.flip();
+        return buf;
+    }
+}
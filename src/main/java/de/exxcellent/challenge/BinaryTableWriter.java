@@ -0,0 +1,279 @@
+package de.exxcellent.challenge;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a {@link Table} into the binary columnar format read by {@link BinaryTableReader}.
+ * <p>
+ * The file starts with a fixed-size header holding a magic number, the format version
+ * and the position, length and CRC32 of the footer. The header is followed by one block
+ * per column and the footer. The footer stores the row count, a stamp of the source the
+ * table was read from and, for every column, its name, type, block position, block length
+ * and the CRC32 of the block.
+ * <ul>
+ *   <li>Integer and decimal columns are stored as the words of their null bitmap followed by
+ *   the raw values; decimal columns are followed by the scales and exception texts that
+ *   reproduce the text of their cells.</li>
+ *   <li>All other columns are stored as their dictionary followed by one int code per row.</li>
+ * </ul>
+ * The file is written to a temporary file next to the target and moved into place at the end,
+ * so readers never see a half-written file.
+ */
+public class BinaryTableWriter {
+
+    /** Magic number at the start of every file ("TBL1"). */
+    static final int MAGIC = 0x54424C31;
+
+    /** Version of the file format. */
+    static final int VERSION = 2;
+
+    /** Size of the header in bytes: magic, version, footer position, footer length, footer CRC. */
+    static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+
+    /** Type tag of a {@link LongColumn} block. */
+    static final byte TYPE_LONG = 1;
+
+    /** Type tag of a {@link DoubleColumn} block. */
+    static final byte TYPE_DOUBLE = 2;
+
+    /** Type tag of a {@link StringColumn} block. */
+    static final byte TYPE_STRING = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+
+    /**
+     * Constructor that accepts the path of the file to write.
+     *
+     * @param path path of the binary file
+     */
+    public BinaryTableWriter(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the path of the binary file.
+     *
+     * @return file path
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Writes the given table without a source stamp.
+     *
+     * @param table the table to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Table table) throws IOException {
+        write(table, 0L, -1L);
+    }
+
+    /**
+     * Writes the given table together with a stamp of the source it was read from.
+     *
+     * @param table the table to write
+     * @param sourceModified last modification time of the source in milliseconds
+     * @param sourceSize size of the source in bytes
+     * @throws IOException if the file cannot be written
+     */
+    void write(Table table, long sourceModified, long sourceSize) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeTo(channel, table, sourceModified, sourceSize);
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeTo(FileChannel channel, Table table, long sourceModified, long sourceSize) throws IOException {
+        int colCount = table.getHeaders().size();
+        int rowCount = table.getRowCount();
+        byte[] types = new byte[colCount];
+        long[] offsets = new long[colCount];
+        long[] lengths = new long[colCount];
+        int[] checksums = new int[colCount];
+
+        Output out = new Output(channel, HEADER_SIZE);
+        for (int c = 0; c < colCount; c++) {
+            // Lazily loaded columns are materialized one at a time and stay lazy in the table
+            Column col = table.peekTypedColumn(c);
+            offsets[c] = out.position();
+            out.resetChecksum();
+            if (col instanceof LongColumn) {
+                types[c] = TYPE_LONG;
+                LongColumn longCol = (LongColumn) col;
+                writeBitmap(out, longCol.getMissing().toLongArray());
+                for (int r = 0; r < rowCount; r++) {
+                    out.putLong(longCol.isMissing(r) ? 0L : longCol.getLong(r));
+                }
+            } else if (col instanceof DoubleColumn) {
+                types[c] = TYPE_DOUBLE;
+                DoubleColumn doubleCol = (DoubleColumn) col;
+                writeBitmap(out, doubleCol.getMissing().toLongArray());
+                for (int r = 0; r < rowCount; r++) {
+                    out.putDouble(doubleCol.isMissing(r) ? 0.0 : doubleCol.getDouble(r));
+                }
+                byte[] scales = doubleCol.getScales();
+                out.putByte(scales == null ? (byte) 0 : (byte) 1);
+                if (scales != null) {
+                    for (int r = 0; r < rowCount; r++) {
+                        out.putByte(scales[r]);
+                    }
+                }
+                Map<Integer, String> texts = doubleCol.getTexts() == null ? Collections.emptyMap() : doubleCol.getTexts();
+                out.putInt(texts.size());
+                for (Map.Entry<Integer, String> text : texts.entrySet()) {
+                    out.putInt(text.getKey());
+                    out.putString(text.getValue());
+                }
+            } else {
+                types[c] = TYPE_STRING;
+                StringColumn stringCol = col instanceof StringColumn ? (StringColumn) col : col.toStringColumn();
+                int dictSize = stringCol.getDictionarySize();
+                out.putInt(dictSize);
+                for (int d = 0; d < dictSize; d++) {
+                    out.putString(stringCol.getDictionaryValue(d));
+                }
+                for (int r = 0; r < rowCount; r++) {
+                    out.putInt(stringCol.getCode(r));
+                }
+            }
+            out.flush();
+            lengths[c] = out.position() - offsets[c];
+            checksums[c] = out.checksum();
+        }
+
+        long footerOffset = out.position();
+        out.resetChecksum();
+        out.putInt(rowCount);
+        out.putLong(sourceModified);
+        out.putLong(sourceSize);
+        out.putInt(colCount);
+        for (int c = 0; c < colCount; c++) {
+            out.putString(table.getHeaders().get(c));
+            out.putByte(types[c]);
+            out.putLong(offsets[c]);
+            out.putLong(lengths[c]);
+            out.putInt(checksums[c]);
+        }
+        out.flush();
+        int footerLength = (int) (out.position() - footerOffset);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(footerOffset).putInt(footerLength).putInt(out.checksum());
+        header.flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private static void writeBitmap(Output out, long[] words) throws IOException {
+        out.putInt(words.length);
+        for (long word : words) {
+            out.putLong(word);
+        }
+    }
+
+    /**
+     * Buffered big-endian output to a channel which tracks its position and a running CRC32.
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private final CRC32 crc = new CRC32();
+
+        private long position;
+
+        Output(FileChannel channel, long position) throws IOException {
+            this.channel = channel;
+            this.position = position;
+            channel.position(position);
+        }
+
+        long position() {
+            return position + buffer.position();
+        }
+
+        void resetChecksum() {
+            crc.reset();
+        }
+
+        int checksum() {
+            return (int) crc.getValue();
+        }
+
+        void putByte(byte val) throws IOException {
+            ensure(1);
+            buffer.put(val);
+        }
+
+        void putInt(int val) throws IOException {
+            ensure(4);
+            buffer.putInt(val);
+        }
+
+        void putLong(long val) throws IOException {
+            ensure(8);
+            buffer.putLong(val);
+        }
+
+        void putDouble(double val) throws IOException {
+            ensure(8);
+            buffer.putDouble(val);
+        }
+
+        void putString(String val) throws IOException {
+            byte[] bytes = val.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            int pos = 0;
+            while (pos < bytes.length) {
+                ensure(1);
+                int len = Math.min(buffer.remaining(), bytes.length - pos);
+                buffer.put(bytes, pos, len);
+                pos += len;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
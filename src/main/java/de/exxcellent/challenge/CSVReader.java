@@ -1,31 +1,120 @@
 package de.exxcellent.challenge;
 
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * CSVReader is a subclass of TableReader that reads CSV files as a Table.
- * It stores the file path and delimiter used for parsing.
+ * It stores the file path, the delimiter and the mode used for parsing.
  */
 public class CSVReader extends TableReader {
-    
+
+    /**
+     * Defines how the lines of the CSV file are parsed.
+     */
+    public enum Mode {
+        /** Lines are read and parsed one after another on the calling thread. */
+        SEQUENTIAL,
+        /** The file is split at line boundaries into chunks which are parsed on the common ForkJoinPool. */
+        PARALLEL,
+        /**
+         * The file is loaded and only the start of every line is recorded; a column is extracted
+         * and typed when it is accessed for the first time, so the load time depends on the
+         * columns actually used instead of the width of the file.
+         */
+        LAZY
+    }
+
+    /** Characters that make a single-character delimiter a regular expression instead of a literal. */
+    private static final String REGEX_META = ".$|()[]{}^?*+\\";
+
+    /** Chunks are not made smaller than this number of bytes, so small files are not split needlessly. */
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
 	private final String path;
 
     private final String delimiter;
-    
+
+    private final Mode mode;
+
+    private final Path cacheDir;
+
+    /** Whether the path is only resolved in the file system, never in the classpath. */
+    private final boolean fileSystemOnly;
+
     /**
-     * Constructor that accepts a path and a custom delimiter.
+     * Constructor that accepts a path, a custom delimiter, the parsing mode and a cache directory.
+     * If a cache directory is given, every parsed table is stored there in the binary format
+     * of {@link BinaryTableWriter}, and later reads load the binary file instead of parsing
+     * the CSV file again as long as the modification time and size of the CSV file are unchanged.
      *
      * @param path Path to the CSV file
      * @param delimiter Delimiter used in the CSV file
+     * @param mode Mode used to parse the file
+     * @param cacheDir Directory for binary cache files, or null to disable caching
      */
-    public CSVReader(String path, String delimiter) {
+    public CSVReader(String path, String delimiter, Mode mode, Path cacheDir) {
+        this(path, delimiter, mode, cacheDir, false);
+    }
+
+    /**
+     * Constructor that accepts a file in the file system, a custom delimiter, the parsing mode and
+     * a cache directory. In contrast to the constructors accepting a string path, the file is never
+     * looked up in the classpath, so a resource of the same name cannot shadow it.
+     *
+     * @param file the CSV file
+     * @param delimiter Delimiter used in the CSV file
+     * @param mode Mode used to parse the file
+     * @param cacheDir Directory for binary cache files, or null to disable caching
+     */
+    public CSVReader(Path file, String delimiter, Mode mode, Path cacheDir) {
+        this(file.toString(), delimiter, mode, cacheDir, true);
+    }
+
+    private CSVReader(String path, String delimiter, Mode mode, Path cacheDir, boolean fileSystemOnly) {
         this.path = path;
         this.delimiter = delimiter;
+        this.mode = mode;
+        this.cacheDir = cacheDir;
+        this.fileSystemOnly = fileSystemOnly;
+    }
+
+    /**
+     * Constructor that accepts a path, a custom delimiter and the parsing mode.
+     *
+     * @param path Path to the CSV file
+     * @param delimiter Delimiter used in the CSV file
+     * @param mode Mode used to parse the file
+     */
+    public CSVReader(String path, String delimiter, Mode mode) {
+        this(path, delimiter, mode, null);
+    }
+
+    /**
+     * Constructor that accepts a path and a custom delimiter.
+     * The file is parsed sequentially.
+     *
+     * @param path Path to the CSV file
+     * @param delimiter Delimiter used in the CSV file
+     */
+    public CSVReader(String path, String delimiter) {
+        this(path, delimiter, Mode.SEQUENTIAL);
     }
     
     /**
@@ -56,24 +145,91 @@ public class CSVReader extends TableReader {
 		return this.path;
 	}
 
+    /**
+     * Returns the mode used to parse the CSV file.
+     *
+     * @return parsing mode
+     */
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Returns the directory of the binary cache files.
+     *
+     * @return cache directory, or null if caching is disabled
+     */
+    public Path getCacheDir() {
+        return this.cacheDir;
+    }
+
 	/**
 	 * Reads the CSV file from the classpath and returns it as a Table object.
 	 * The `path` is a relative path within the classpath, e.g., "de/exxcellent/challenge/weather.csv".
+	 * If it is not found in the classpath, it is resolved in the file system.
 	 * The first line of the CSV contains the column headers.
 	 * Missing values are allowed and will be represented as empty strings.
+	 * In {@link Mode#PARALLEL} the whole file is loaded first and then parsed in chunks,
+	 * in {@link Mode#LAZY} the columns are only parsed when they are accessed.
+	 * If a cache directory is set, a current binary cache file is loaded instead of parsing,
+	 * and a missing or outdated one is (re)written after parsing.
+	 * The read is recorded as {@code read.csv} and the bytes read from the file as {@code read.bytes}
+	 * in the {@link Metrics#global() global metrics}.
 	 *
 	 * @return Table representing the CSV file
-	 * @throws IOException if the file cannot be found or read
+	 * @throws IOException if the file cannot be found or read, or the cache file cannot be written
 	 */
 	@Override
 	public Table readAsTable() throws IOException {
+	    Metrics.Timer timer = Metrics.global().startTimer();
+	    Table table = cacheDir == null ? parse() : readCached();
+	    timer.stop("read.csv", table.getRowCount());
+	    return table;
+	}
+
+	/**
+	 * Loads the table from a current cache file, or parses the CSV file and (re)writes the cache file.
+	 *
+	 * @return Table representing the CSV file
+	 * @throws IOException if the file cannot be found or read, or the cache file cannot be written
+	 */
+	private Table readCached() throws IOException {
+	    long[] stamp = sourceStamp();
+	    Path cacheFile = cacheDir.resolve(Paths.get(path).getFileName() + "-"
+	            + Integer.toHexString((path + '\0' + delimiter).hashCode()) + ".tbl");
+	    Table cached = BinaryTableReader.readIfCurrent(cacheFile, stamp[0], stamp[1]);
+	    if (cached != null) {
+	        return cached;
+	    }
+	    Table table = parse();
+	    new BinaryTableWriter(cacheFile).write(table, stamp[0], stamp[1]);
+	    return table;
+	}
+
+	/**
+	 * Parses the CSV file into a Table.
+	 *
+	 * @return Table representing the CSV file
+	 * @throws IOException if the file cannot be found or read
+	 */
+	private Table parse() throws IOException {
 	    List<String> headers = new ArrayList<>();
-	    List<List<String>> rows = new ArrayList<>();
+	    // Values go straight into typed columns, so no cell is kept as string unless it is a new text value
+	    List<ColumnBuilder> builders = new ArrayList<>();
+	    int delim = literalDelimiter();
+	    int rowCount = 0;
 
-	    // Load file from classpath
-	    InputStream is = getClass().getResourceAsStream("/" + path);
-	    if (is == null) {
-	        throw new IOException("File not found in classpath: " + path);
+	    InputStream is = open();
+
+	    if (mode == Mode.PARALLEL || mode == Mode.LAZY) {
+	        byte[] data;
+	        try (is) {
+	            data = is.readAllBytes();
+	        }
+	        if (mode == Mode.LAZY) {
+	            return parseLazy(data);
+	        }
+	        return parseParallel(data, ForkJoinPool.getCommonPoolParallelism() * 4);
 	    }
 
 	    try (BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
@@ -82,29 +238,481 @@ public class CSVReader extends TableReader {
 
 	        while ((line = br.readLine()) != null) {
 	            line = line.trim();
-	            
-	            // Split the line using the delimiter; -1 keeps trailing empty strings
-	            String[] values = line.split(delimiter, -1);
 
 	            if (isFirstLine) {
-	                // First line contains headers
-	                for (String header : values) {
+	                // First line contains headers; -1 keeps trailing empty strings
+	                for (String header : line.split(delimiter, -1)) {
 	                    headers.add(header.trim());
+	                    builders.add(new ColumnBuilder(Column.DEFAULT_CAPACITY));
 	                }
 	                isFirstLine = false;
+	                continue;
+	            }
+	            // Remaining lines are data rows
+	            int fields;
+	            if (delim >= 0) {
+	                // Fields are handed over as ranges of the line, without substrings
+	                fields = 0;
+	                int start = 0;
+	                while (true) {
+	                    int end = line.indexOf(delim, start);
+	                    int stop = end < 0 ? line.length() : end;
+	                    if (fields < builders.size()) {
+	                        int from = start;
+	                        int to = stop;
+	                        while (from < to && line.charAt(from) <= ' ') from++;
+	                        while (to > from && line.charAt(to - 1) <= ' ') to--;
+	                        builders.get(fields).add(line, from, to);
+	                    }
+	                    fields++;
+	                    if (end < 0) break;
+	                    start = end + 1;
+	                }
 	            } else {
-	                // Remaining lines are data rows
-	                List<String> row = new ArrayList<>();
-	                for (String val : values) {
-	                    row.add(val.trim());
+	                String[] values = line.split(delimiter, -1);
+	                fields = values.length;
+	                for (int c = 0; c < values.length && c < builders.size(); c++) {
+	                    builders.get(c).add(values[c].trim());
 	                }
-	                rows.add(row);
 	            }
+	            if (fields != headers.size())
+	                throw new IllegalArgumentException("Wrong number of values in row " + rowCount + "!");
+	            rowCount++;
 	        }
 	    }
 
-	    return new Table(headers, rows);
+	    List<Column> columns = new ArrayList<>();
+	    for (ColumnBuilder builder : builders) {
+	        columns.add(builder.build());
+	    }
+	    return new Table(headers, columns, rowCount);
 	}
 
     
+	/**
+	 * Reads the CSV file line by line and pushes every line into the sink.
+	 * Only the current line is held in memory, independent of the parsing mode.
+	 *
+	 * @param sink the sink receiving the headers and rows
+	 * @throws IOException if the file cannot be found or read
+	 */
+	@Override
+	public void readRows(RowSink sink) throws IOException {
+	    InputStream is = open();
+
+	    Pattern pattern = Pattern.compile(delimiter);
+	    ArrayRow row = new ArrayRow();
+	    try (BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
+	        String line = br.readLine();
+	        sink.start(line == null ? new ArrayList<>() : Arrays.asList(splitLine(pattern, line)));
+	        while ((line = br.readLine()) != null) {
+	            sink.accept(row.set(splitLine(pattern, line)));
+	        }
+	    }
+	    sink.end();
+	}
+
+	/**
+	 * Reads the projected columns of the rows matching all predicates of the request.
+	 * The lines are read one after another; of every line only the projected values and the
+	 * values tested by a predicate are extracted, and rows that do not match are dropped before
+	 * any of their values is stored. With a single-character literal delimiter the predicates are
+	 * tested on the character ranges of the values, and strings are only created for the projected
+	 * values of matching rows. If a cache directory is set, the cached table is read and the
+	 * request is applied to it.
+	 *
+	 * @param request the columns and predicates to apply
+	 * @return Table holding the projected columns of the matching rows
+	 * @throws IOException if the file cannot be found or read
+	 * @throws IllegalArgumentException if the request refers to a column that does not exist
+	 *                                  or a line does not have as many values as there are headers
+	 */
+	@Override
+	public Table readAsTable(ReadRequest request) throws IOException {
+	    RequestSink sink = new RequestSink(request);
+	    if (cacheDir != null) {
+	        Table table = readAsTable();
+	        sink.start(table.getHeaders());
+	        RowCursor cursor = table.cursor();
+	        while (cursor.next()) {
+	            sink.accept(cursor);
+	        }
+	        return sink.toTable();
+	    }
+
+	    Metrics.Timer timer = Metrics.global().startTimer();
+	    Pattern pattern = Pattern.compile(delimiter);
+	    int delim = literalDelimiter();
+	    ArrayRow row = new ArrayRow();
+	    try (BufferedReader br = new BufferedReader(new InputStreamReader(open()))) {
+	        String line = br.readLine();
+	        List<String> headers = line == null ? new ArrayList<>() : Arrays.asList(splitLine(pattern, line));
+	        sink.start(headers);
+	        int colCount = headers.size();
+	        boolean[] used = sink.usedColumns(colCount);
+	        String[] values = new String[colCount];
+	        int[] starts = new int[colCount];
+	        int[] ends = new int[colCount];
+	        row.set(values);
+	        for (int rowIndex = 0; (line = br.readLine()) != null; rowIndex++) {
+	            line = line.trim();
+	            int fields;
+	            if (delim >= 0) {
+	                fields = 0;
+	                int start = 0;
+	                while (true) {
+	                    int end = line.indexOf(delim, start);
+	                    if (fields < colCount && used[fields]) {
+	                        int from = start;
+	                        int to = end < 0 ? line.length() : end;
+	                        while (from < to && line.charAt(from) <= ' ') from++;
+	                        while (to > from && line.charAt(to - 1) <= ' ') to--;
+	                        starts[fields] = from;
+	                        ends[fields] = to;
+	                    }
+	                    fields++;
+	                    if (end < 0) break;
+	                    start = end + 1;
+	                }
+	            } else {
+	                String[] split = splitLine(pattern, line);
+	                fields = split.length;
+	                if (fields == colCount) System.arraycopy(split, 0, values, 0, colCount);
+	            }
+	            if (fields != colCount)
+	                throw new IllegalArgumentException("Wrong number of values in row " + rowIndex + "!");
+	            if (delim >= 0) {
+	                sink.accept(line, starts, ends);
+	            } else {
+	                sink.accept(row);
+	            }
+	        }
+	    }
+	    Table table = sink.toTable();
+	    timer.stop("read.csv", table.getRowCount());
+	    return table;
+	}
+
+	/**
+	 * Returns the delimiter as a single character if it is a literal of one ASCII character,
+	 * so that lines can be split by scanning for it instead of applying a regular expression.
+	 *
+	 * @return the delimiter character, or -1 if the delimiter has to be applied as regular expression
+	 */
+	private int literalDelimiter() {
+	    return delimiter.length() == 1 && delimiter.charAt(0) < 0x80 && REGEX_META.indexOf(delimiter.charAt(0)) < 0
+	            ? delimiter.charAt(0) : -1;
+	}
+
+	/**
+	 * Opens the CSV file, looking it up in the classpath first and in the file system second.
+	 * The bytes read from the stream are counted as {@code read.bytes} in the global metrics.
+	 *
+	 * @return stream of the file content
+	 * @throws IOException if the file is neither found in the classpath nor in the file system
+	 */
+	private InputStream open() throws IOException {
+	    // Load file from classpath
+	    InputStream is = fileSystemOnly ? null : getClass().getResourceAsStream("/" + path);
+	    if (is != null) {
+	        return new CountingInputStream(is);
+	    }
+	    Path file = Paths.get(path);
+	    if (!Files.isRegularFile(file)) {
+	        throw new IOException("File not found in classpath or file system: " + path);
+	    }
+	    return new CountingInputStream(Files.newInputStream(file));
+	}
+
+	/**
+	 * Returns the last modification time and the size of the CSV file,
+	 * looking it up in the same order as {@link #open()}.
+	 *
+	 * @return modification time in milliseconds and size in bytes
+	 * @throws IOException if the file is neither found in the classpath nor in the file system
+	 */
+	private long[] sourceStamp() throws IOException {
+	    URL url = fileSystemOnly ? null : getClass().getResource("/" + path);
+	    if (url != null) {
+	        URLConnection conn = url.openConnection();
+	        long[] stamp = { conn.getLastModified(), conn.getContentLengthLong() };
+	        // Asking for the stamp connects, which opens the resource, e.g. the entry of a jar
+	        conn.getInputStream().close();
+	        return stamp;
+	    }
+	    Path file = Paths.get(path);
+	    if (!Files.isRegularFile(file)) {
+	        throw new IOException("File not found in classpath or file system: " + path);
+	    }
+	    return new long[] { Files.getLastModifiedTime(file).toMillis(), Files.size(file) };
+	}
+
+	/**
+	 * Parses the given CSV content in parallel.
+	 * The data lines are split at line boundaries into at most chunkCount chunks,
+	 * every chunk is parsed into columns on the common ForkJoinPool, and the chunks
+	 * are stitched together in their original order. The lines are split with the
+	 * same rules as in sequential mode.
+	 *
+	 * @param data content of the CSV file
+	 * @param chunkCount maximum number of chunks
+	 * @return Table representing the CSV content
+	 * @throws IllegalArgumentException if a line does not have as many values as there are headers
+	 */
+	Table parseParallel(byte[] data, int chunkCount) {
+	    Pattern pattern = Pattern.compile(delimiter);
+	    Charset charset = Charset.defaultCharset();
+
+	    List<String> headers = new ArrayList<>();
+	    int headerEnd = indexOfNewline(data, 0, data.length);
+	    if (data.length > 0) {
+	        for (String header : splitLine(pattern, new String(data, 0, headerEnd, charset))) {
+	            headers.add(header);
+	        }
+	    }
+
+	    // Chunk boundaries always lie directly behind a newline
+	    int bodyStart = Math.min(headerEnd + 1, data.length);
+	    int bodyLength = data.length - bodyStart;
+	    int chunks = Math.max(1, Math.min(chunkCount, bodyLength / MIN_CHUNK_SIZE));
+	    int[] bounds = new int[chunks + 1];
+	    bounds[0] = bodyStart;
+	    for (int i = 1; i < chunks; i++) {
+	        int target = Math.max(bounds[i - 1], bodyStart + (int) ((long) bodyLength * i / chunks));
+	        bounds[i] = Math.min(indexOfNewline(data, target, data.length) + 1, data.length);
+	    }
+	    bounds[chunks] = data.length;
+
+	    int colCount = headers.size();
+	    List<String[][]> parsed = IntStream.range(0, chunks)
+	            .parallel()
+	            .mapToObj(i -> parseChunk(data, bounds[i], bounds[i + 1], pattern, charset, colCount))
+	            .collect(Collectors.toList());
+
+	    int rowCount = 0;
+	    for (String[][] chunk : parsed) {
+	        rowCount += chunk.length == 0 ? 0 : chunk[0].length;
+	    }
+	    final int totalRows = rowCount;
+
+	    List<Column> columns = IntStream.range(0, colCount)
+	            .parallel()
+	            .mapToObj(c -> {
+	                String[] values = new String[totalRows];
+	                int offset = 0;
+	                for (String[][] chunk : parsed) {
+	                    System.arraycopy(chunk[c], 0, values, offset, chunk[c].length);
+	                    offset += chunk[c].length;
+	                }
+	                return Column.of(Arrays.asList(values));
+	            })
+	            .collect(Collectors.toList());
+
+	    return new Table(headers, columns, totalRows);
+	}
+
+	/**
+	 * Indexes the given CSV content and returns a Table whose columns are parsed on first access.
+	 * The single pass over the content records where every line starts and, for a single-character
+	 * literal delimiter, where every value of the line ends, and checks the number of values; a column
+	 * is then extracted from its recorded ranges, trimmed and typed when it is touched for the first
+	 * time and kept. The lines are split with the same rules as in sequential mode; any other
+	 * delimiter is applied as regular expression to the lines when a column is loaded.
+	 *
+	 * @param data content of the CSV file; referenced by the table until all columns are loaded
+	 * @return Table representing the CSV content
+	 * @throws IllegalArgumentException if a line does not have as many values as there are headers
+	 */
+	Table parseLazy(byte[] data) {
+	    Pattern pattern = Pattern.compile(delimiter);
+	    Charset charset = Charset.defaultCharset();
+	    int delim = literalDelimiter();
+
+	    List<String> headers = new ArrayList<>();
+	    int headerEnd = indexOfNewline(data, 0, data.length);
+	    if (data.length > 0) {
+	        for (String header : splitLine(pattern, new String(data, 0, headerEnd, charset))) {
+	            headers.add(header);
+	        }
+	    }
+	    int colCount = headers.size();
+
+	    // starts[r] is the start of the trimmed data line r, ends[c][r] the end (exclusive) of its value c;
+	    // value c > 0 starts one behind the end of value c - 1
+	    int[] starts = new int[Column.DEFAULT_CAPACITY];
+	    int[][] ends = new int[delim >= 0 ? colCount : 0][Column.DEFAULT_CAPACITY];
+	    int[] lineEnds = delim >= 0 ? null : new int[Column.DEFAULT_CAPACITY];
+	    int rowCount = 0;
+	    int pos = Math.min(headerEnd + 1, data.length);
+	    while (pos < data.length) {
+	        int lineEnd = indexOfNewline(data, pos, data.length);
+	        if (rowCount == starts.length) {
+	            starts = Arrays.copyOf(starts, rowCount * 2);
+	            for (int c = 0; c < ends.length; c++) {
+	                ends[c] = Arrays.copyOf(ends[c], rowCount * 2);
+	            }
+	            if (lineEnds != null) lineEnds = Arrays.copyOf(lineEnds, rowCount * 2);
+	        }
+	        int fields;
+	        if (delim >= 0) {
+	            int end = trimEnd(data, pos, lineEnd);
+	            int start = trimStart(data, pos, end);
+	            starts[rowCount] = start;
+	            fields = 0;
+	            for (int i = start; i < end; i++) {
+	                if (data[i] == delim) {
+	                    if (fields < colCount) ends[fields][rowCount] = i;
+	                    fields++;
+	                }
+	            }
+	            if (fields < colCount) ends[fields][rowCount] = end;
+	            fields++;
+	        } else {
+	            starts[rowCount] = pos;
+	            lineEnds[rowCount] = lineEnd;
+	            fields = splitLine(pattern, new String(data, pos, lineEnd - pos, charset)).length;
+	        }
+	        if (fields != colCount)
+	            throw new IllegalArgumentException("Wrong number of values in row " + rowCount + "!");
+	        rowCount++;
+	        pos = lineEnd + 1;
+	    }
+
+	    final int[] lineStarts = starts;
+	    final int[][] valueEnds = ends;
+	    final int[] regexLineEnds = lineEnds;
+	    final int lines = rowCount;
+	    List<Column> columns = new ArrayList<>();
+	    for (int c = 0; c < colCount; c++) {
+	        final int colIndex = c;
+	        columns.add(new LazyColumn(rowCount, () -> {
+	            // Numbers are parsed straight from the bytes of the value
+	            ColumnBuilder builder = new ColumnBuilder(lines, charset);
+	            for (int r = 0; r < lines; r++) {
+	                if (delim >= 0) {
+	                    int start = colIndex == 0 ? lineStarts[r] : valueEnds[colIndex - 1][r] + 1;
+	                    int end = trimEnd(data, start, valueEnds[colIndex][r]);
+	                    builder.add(data, trimStart(data, start, end), end);
+	                } else {
+	                    int start = lineStarts[r];
+	                    builder.add(splitLine(pattern, new String(data, start, regexLineEnds[r] - start, charset))[colIndex]);
+	                }
+	            }
+	            return builder.build();
+	        }));
+	    }
+	    return new Table(headers, columns, rowCount);
+	}
+
+	/**
+	 * Returns the first position in the range that is no whitespace, as in {@link String#trim()}.
+	 */
+	private static int trimStart(byte[] data, int start, int end) {
+	    while (start < end && (data[start] & 0xFF) <= ' ') start++;
+	    return start;
+	}
+
+	/**
+	 * Returns the position behind the last byte in the range that is no whitespace, as in {@link String#trim()}.
+	 */
+	private static int trimEnd(byte[] data, int start, int end) {
+	    while (end > start && (data[end - 1] & 0xFF) <= ' ') end--;
+	    return end;
+	}
+
+	/**
+	 * Parses the lines of one chunk into columns.
+	 *
+	 * @param data content of the CSV file
+	 * @param start start of the chunk (inclusive)
+	 * @param end end of the chunk (exclusive)
+	 * @param pattern compiled delimiter
+	 * @param charset charset of the content
+	 * @param colCount expected number of values per line
+	 * @return the values of the chunk, indexed by column and row
+	 * @throws IllegalArgumentException if a line does not have colCount values
+	 */
+	private static String[][] parseChunk(byte[] data, int start, int end, Pattern pattern, Charset charset, int colCount) {
+	    List<String[]> lines = new ArrayList<>();
+	    int pos = start;
+	    while (pos < end) {
+	        int lineEnd = indexOfNewline(data, pos, end);
+	        String[] values = splitLine(pattern, new String(data, pos, lineEnd - pos, charset));
+	        if (values.length != colCount)
+	            throw new IllegalArgumentException("Wrong number of values in line: " + String.join(",", values));
+	        lines.add(values);
+	        pos = lineEnd + 1;
+	    }
+	    String[][] columns = new String[colCount][lines.size()];
+	    for (int r = 0; r < lines.size(); r++) {
+	        String[] values = lines.get(r);
+	        for (int c = 0; c < colCount; c++) {
+	            columns[c][r] = values[c];
+	        }
+	    }
+	    return columns;
+	}
+
+	/**
+	 * Splits a line into trimmed values, in the same way as the sequential parser.
+	 *
+	 * @param pattern compiled delimiter
+	 * @param line the line to split
+	 * @return the trimmed values
+	 */
+	private static String[] splitLine(Pattern pattern, String line) {
+	    // -1 keeps trailing empty strings
+	    String[] values = pattern.split(line.trim(), -1);
+	    for (int i = 0; i < values.length; i++) {
+	        values[i] = values[i].trim();
+	    }
+	    return values;
+	}
+
+	/**
+	 * Returns the position of the next newline in the given range.
+	 *
+	 * @param data the content
+	 * @param from start position (inclusive)
+	 * @param to end position (exclusive)
+	 * @return position of the newline, or to if there is none
+	 */
+	private static int indexOfNewline(byte[] data, int from, int to) {
+	    for (int i = from; i < to; i++) {
+	        if (data[i] == '\n') return i;
+	    }
+	    return to;
+	}
+
+	/**
+	 * Stream that adds the number of bytes read to the {@code read.bytes} counter of the global metrics.
+	 * The readers on top of it read in blocks, so the counter is updated once per block.
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+
+	    CountingInputStream(InputStream in) {
+	        super(in);
+	    }
+
+	    @Override
+	    public int read() throws IOException {
+	        int b = super.read();
+	        if (b >= 0) Metrics.global().count("read.bytes", 1);
+	        return b;
+	    }
+
+	    @Override
+	    public int read(byte[] b, int off, int len) throws IOException {
+	        int n = super.read(b, off, len);
+	        if (n > 0) Metrics.global().count("read.bytes", n);
+	        return n;
+	    }
+
+	    @Override
+	    public long skip(long n) throws IOException {
+	        long skipped = super.skip(n);
+	        if (skipped > 0) Metrics.global().count("read.bytes", skipped);
+	        return skipped;
+	    }
+	}
 }	
@@ -0,0 +1,198 @@
+package de.exxcellent.challenge;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A single column of a {@link Table}.
+ * Columns are stored in a typed, columnar form: numeric columns keep their values
+ * in primitive arrays which are parsed exactly once at load time, all other columns
+ * are kept as dictionary-encoded strings.
+ * Every column still reproduces the original text of each cell via {@link #getString(int)}.
+ */
+public abstract class Column {
+
+    /** Initial capacity of the backing arrays of an empty column. */
+    static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Returns the number of values in this column.
+     *
+     * @return number of values
+     */
+    public abstract int size();
+
+    /**
+     * Returns the original text of the cell at the given row.
+     *
+     * @param row index of the row
+     * @return the cell value as String (may be empty or null)
+     */
+    public abstract String getString(int row);
+
+    /**
+     * Returns whether the cell at the given row holds a value that can be read as double.
+     *
+     * @param row index of the row
+     * @return true if {@link #getDouble(int)} may be called for this row
+     */
+    public abstract boolean isNumeric(int row);
+
+    /**
+     * Returns the numeric value of the cell at the given row.
+     * Only valid if {@link #isNumeric(int)} returns true for this row.
+     *
+     * @param row index of the row
+     * @return the cell value as double
+     */
+    public abstract double getDouble(int row);
+
+    /**
+     * Returns whether the cell at the given row holds a whole number that can be read as long.
+     *
+     * @param row index of the row
+     * @return true if {@link #getLong(int)} may be called for this row
+     */
+    public boolean isIntegral(int row) {
+        if (!isNumeric(row)) return false;
+        double val = getDouble(row);
+        return val == Math.rint(val) && Math.abs(val) < 0x1p63;
+    }
+
+    /**
+     * Returns the value of the cell at the given row as long.
+     * Only valid if {@link #isIntegral(int)} returns true for this row.
+     *
+     * @param row index of the row
+     * @return the cell value as long
+     */
+    public long getLong(int row) {
+        return (long) getDouble(row);
+    }
+
+    /**
+     * Returns whether the cell at the given row is missing (an empty string).
+     *
+     * @param row index of the row
+     * @return true if the cell is empty
+     */
+    public boolean isMissing(int row) {
+        String val = getString(row);
+        return val == null || val.isEmpty();
+    }
+
+    /**
+     * Appends a value to this column.
+     * If the value does not fit the type of this column, the column is converted
+     * into a more general one and the converted column is returned.
+     *
+     * @param value the value to append
+     * @return the column holding the appended value (this or a converted column)
+     */
+    abstract Column append(String value);
+
+    /**
+     * Returns a new column of the same type holding the values of the given rows, in the given order.
+     * A row index of -1 yields a missing value.
+     *
+     * @param rows the row indices
+     * @param count number of row indices to use
+     * @return the new column
+     */
+    Column select(int[] rows, int count) {
+        ColumnBuilder builder = new ColumnBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.add(rows[i] < 0 ? "" : getString(rows[i]));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Concatenates columns, e.g. the same column of several files.
+     * Integer columns stay integer, and a mix of integer and decimal columns becomes decimal,
+     * as a single column holding all their values would. Any other mix becomes a string column
+     * whose dictionary is merged once per distinct value of every part. The text of every cell
+     * is kept exactly, as {@link #of(List)} keeps it.
+     *
+     * @param parts the columns, in row order
+     * @return the concatenated column
+     */
+    static Column concat(List<Column> parts) {
+        int size = 0;
+        boolean longs = true;
+        boolean numbers = true;
+        for (Column part : parts) {
+            size += part.size();
+            longs &= part instanceof LongColumn;
+            numbers &= part instanceof LongColumn || part instanceof DoubleColumn;
+        }
+        int capacity = Math.max(size, DEFAULT_CAPACITY);
+        BitSet missing = new BitSet();
+        if (longs) {
+            long[] values = new long[capacity];
+            int offset = 0;
+            for (Column part : parts) {
+                LongColumn col = (LongColumn) part;
+                System.arraycopy(col.getValues(), 0, values, offset, col.size());
+                copyBits(col.getMissing(), col.size(), missing, offset);
+                offset += col.size();
+            }
+            return new LongColumn(values, missing, size);
+        }
+        if (numbers) {
+            List<DoubleColumn> decimals = new ArrayList<>();
+            for (Column part : parts) {
+                decimals.add(part instanceof LongColumn ? ((LongColumn) part).toDoubleColumn() : (DoubleColumn) part);
+            }
+            return DoubleColumn.concat(decimals, size);
+        }
+        List<StringColumn> strings = new ArrayList<>();
+        for (Column part : parts) {
+            strings.add(part.toStringColumn());
+        }
+        return StringColumn.concat(strings, size);
+    }
+
+    private static void copyBits(BitSet from, int size, BitSet to, int offset) {
+        for (int i = from.nextSetBit(0); i >= 0 && i < size; i = from.nextSetBit(i + 1)) {
+            to.set(offset + i);
+        }
+    }
+
+    /**
+     * Converts this column into a dictionary-encoded string column with the same values.
+     *
+     * @return the converted column
+     */
+    StringColumn toStringColumn() {
+        StringColumn col = new StringColumn(Math.max(size(), DEFAULT_CAPACITY));
+        for (int i = 0; i < size(); i++) {
+            col.add(getString(i));
+        }
+        return col;
+    }
+
+    /**
+     * Creates a column from the given values and infers its type once.
+     * A column becomes a {@link LongColumn} if every non-empty value is an integer,
+     * a {@link DoubleColumn} if every non-empty value is a number, and a
+     * {@link StringColumn} otherwise. Numeric columns reproduce the original
+     * text of every cell exactly.
+     * Every value is parsed once, see {@link ColumnBuilder}; the time is recorded as
+     * {@code column.parse} in the {@link Metrics#global() global metrics}.
+     *
+     * @param values the values of the column
+     * @return the typed column
+     */
+    static Column of(List<String> values) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        ColumnBuilder builder = new ColumnBuilder(values.size());
+        for (String val : values) {
+            builder.add(val);
+        }
+        Column col = builder.build();
+        timer.stop("column.parse", values.size());
+        return col;
+    }
+}
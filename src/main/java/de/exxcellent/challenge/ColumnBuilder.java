@@ -0,0 +1,168 @@
+package de.exxcellent.challenge;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds a typed column value by value and infers its type on the way, with the same rules
+ * as {@link Column#of(java.util.List)}.
+ * The column starts as {@link LongColumn}, is widened to a {@link DoubleColumn} when a decimal
+ * number arrives, and becomes a {@link StringColumn} as soon as a value is not numeric. Values are parsed with a {@link NumberParser}, so numeric values given as ranges
+ * of a line or of bytes are stored without creating strings, and values that are not numeric
+ * are detected without exceptions. Text values given as ranges are looked up in the dictionary
+ * of the string column in place, so a string is only created per distinct value.
+ */
+final class ColumnBuilder {
+
+    private final NumberParser parser = new NumberParser();
+
+    private final Charset charset;
+
+    /** Whether numbers can be parsed from the raw bytes, i.e. the charset encodes ASCII as single bytes. */
+    private final boolean asciiBytes;
+
+    private final int capacity;
+
+    private Column column;
+
+    /**
+     * Creates a builder for values given as strings or UTF-8 bytes.
+     *
+     * @param capacity expected number of values
+     */
+    ColumnBuilder(int capacity) {
+        this(capacity, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a builder for values given as strings or bytes in the given charset.
+     *
+     * @param capacity expected number of values
+     * @param charset charset of the values given as bytes
+     */
+    ColumnBuilder(int capacity, Charset charset) {
+        this.capacity = Math.max(capacity, Column.DEFAULT_CAPACITY);
+        this.charset = charset;
+        this.asciiBytes = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+        this.column = new LongColumn(this.capacity);
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param val the value (may be null)
+     */
+    void add(String val) {
+        if (!(column instanceof StringColumn) && val != null) {
+            int kind = parser.parse(val);
+            if (addNumber(kind)) return;
+            if (kind != NumberParser.INVALID) {
+                if (parser.scale() >= 0) {
+                    toDoubles().add(parser.doubleValue(), parser.scale());
+                } else {
+                    toDoubles().addText(parser.doubleValue(), val);
+                }
+                return;
+            }
+        }
+        toStrings().add(val);
+    }
+
+    /**
+     * Adds the value in the given range of a string, e.g. a field of a line.
+     *
+     * @param seq the characters
+     * @param from start of the value (inclusive)
+     * @param to end of the value (exclusive)
+     */
+    void add(CharSequence seq, int from, int to) {
+        if (!(column instanceof StringColumn)) {
+            int kind = parser.parse(seq, from, to);
+            if (addNumber(kind)) return;
+            if (kind != NumberParser.INVALID) {
+                if (parser.scale() >= 0) {
+                    toDoubles().add(parser.doubleValue(), parser.scale());
+                } else {
+                    toDoubles().addText(parser.doubleValue(), seq.subSequence(from, to).toString());
+                }
+                return;
+            }
+        }
+        toStrings().add(seq, from, to);
+    }
+
+    /**
+     * Adds the value encoded in the given byte range.
+     *
+     * @param data the bytes
+     * @param from start of the value (inclusive)
+     * @param to end of the value (exclusive)
+     */
+    void add(byte[] data, int from, int to) {
+        if (!asciiBytes) {
+            add(new String(data, from, to - from, charset));
+            return;
+        }
+        if (!(column instanceof StringColumn)) {
+            int kind = parser.parse(data, from, to);
+            if (addNumber(kind)) return;
+            if (kind != NumberParser.INVALID) {
+                if (parser.scale() >= 0) {
+                    toDoubles().add(parser.doubleValue(), parser.scale());
+                } else {
+                    toDoubles().addText(parser.doubleValue(), new String(data, from, to - from, charset));
+                }
+                return;
+            }
+        }
+        if (!toStrings().addAscii(data, from, to)) {
+            toStrings().add(new String(data, from, to - from, charset));
+        }
+    }
+
+    /**
+     * Returns the built column.
+     *
+     * @return the column holding all added values
+     */
+    Column build() {
+        return column;
+    }
+
+    /**
+     * Adds the last parsed value if it is empty, or an integer and the column holds integers.
+     *
+     * @param kind result of the parser
+     * @return false if the value is a decimal, or does not fit a numeric column at all
+     */
+    private boolean addNumber(int kind) {
+        if (kind == NumberParser.EMPTY) {
+            if (column instanceof LongColumn) {
+                ((LongColumn) column).addMissing();
+            } else {
+                ((DoubleColumn) column).addMissing();
+            }
+            return true;
+        }
+        if (kind == NumberParser.LONG && column instanceof LongColumn) {
+            ((LongColumn) column).add(parser.longValue());
+            return true;
+        }
+        return false;
+    }
+
+    private DoubleColumn toDoubles() {
+        if (column instanceof LongColumn) {
+            column = ((LongColumn) column).toDoubleColumn();
+        }
+        return (DoubleColumn) column;
+    }
+
+    private StringColumn toStrings() {
+        if (!(column instanceof StringColumn)) {
+            column = column.toStringColumn();
+        }
+        return (StringColumn) column;
+    }
+}
@@ -0,0 +1,285 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Whole-column kernels for the operations the queries of {@link Table} spend their time in:
+ * binary operations, min/max reductions and "equal to value" scans over primitive arrays.
+ * <p>
+ * Every kernel works on the rows [from, to) of its arrays, so a column can be processed in ranges,
+ * e.g. by several threads. Missing cells are passed as the words of the null bitmap of a column
+ * ({@link java.util.BitSet#toLongArray()}); rows whose bit is set are skipped. The words array may be
+ * shorter than the number of rows.
+ * <p>
+ * {@link #get()} returns kernels built on the JDK Vector API if the module {@code jdk.incubator.vector}
+ * is available at runtime (e.g. started with {@code --add-modules jdk.incubator.vector}) and the CPU
+ * offers vectors of at least two doubles; otherwise it returns the scalar kernels. Setting the system
+ * property {@value #PROPERTY} to false always selects the scalar kernels.
+ */
+abstract class ColumnKernels {
+
+    /** System property that disables the vectorized kernels if set to false. */
+    static final String PROPERTY = "challenge.vector";
+
+    private static final ColumnKernels INSTANCE = create();
+
+    /**
+     * Returns the best kernels available at runtime.
+     *
+     * @return the kernels
+     */
+    static ColumnKernels get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the scalar kernels, which are always available.
+     *
+     * @return the scalar kernels
+     */
+    static ColumnKernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    private static ColumnKernels create() {
+        if (!Boolean.parseBoolean(System.getProperty(PROPERTY, "true"))
+                || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return scalar();
+        }
+        try {
+            // Loaded reflectively, so this class links without the incubator module
+            return (ColumnKernels) Class.forName("de.exxcellent.challenge.VectorKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return scalar();
+        }
+    }
+
+    /**
+     * Returns whether these kernels use SIMD instructions.
+     *
+     * @return true for the vectorized kernels
+     */
+    abstract boolean isVectorized();
+
+    /**
+     * Applies the operation to the values in the given range of both arrays.
+     *
+     * @param op the operation
+     * @param a first operands
+     * @param b second operands
+     * @param out receives op(a[i], b[i])
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     */
+    abstract void apply(ColumnOp op, double[] a, double[] b, double[] out, int from, int to);
+
+    /**
+     * Applies the operation to the values in the given range of both arrays, converted to double.
+     *
+     * @param op the operation
+     * @param a first operands
+     * @param b second operands
+     * @param out receives op(a[i], b[i])
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     */
+    abstract void apply(ColumnOp op, long[] a, long[] b, double[] out, int from, int to);
+
+    /**
+     * Returns the minimum or maximum of the values in the given range. Skipped rows and NaN values are ignored.
+     *
+     * @param a the values
+     * @param skip null bitmap words of the rows to skip
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     * @param findMax true for the maximum, false for the minimum
+     * @return the extreme value, or NaN if there is no value
+     */
+    abstract double extreme(double[] a, long[] skip, int from, int to, boolean findMax);
+
+    /**
+     * Returns the minimum or maximum of the values in the given range. Skipped rows are ignored.
+     *
+     * @param a the values
+     * @param skip null bitmap words of the rows to skip
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     * @param findMax true for the maximum, false for the minimum
+     * @return the extreme value as double, or NaN if there is no value
+     */
+    abstract double extreme(long[] a, long[] skip, int from, int to, boolean findMax);
+
+    /**
+     * Returns the indices of the values in the given range equal to the given value, skipping the given rows.
+     *
+     * @param a the values
+     * @param skip null bitmap words of the rows to skip
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     * @param value the value to search for
+     * @return the matching indices in ascending order
+     */
+    abstract int[] indicesOf(double[] a, long[] skip, int from, int to, double value);
+
+    /**
+     * Returns the indices of the values in the given range equal to the given value, skipping the given rows.
+     *
+     * @param a the values
+     * @param skip null bitmap words of the rows to skip
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     * @param value the value to search for
+     * @return the matching indices in ascending order
+     */
+    abstract int[] indicesOf(long[] a, long[] skip, int from, int to, long value);
+
+    /**
+     * Returns whether the given row is marked in the null bitmap words.
+     *
+     * @param skip null bitmap words
+     * @param i index of the row
+     * @return true if the row is skipped
+     */
+    static boolean isSkipped(long[] skip, int i) {
+        int word = i >>> 6;
+        return word < skip.length && (skip[word] & (1L << i)) != 0;
+    }
+
+    /**
+     * Combines two partial extremes, either of which may be NaN for none.
+     *
+     * @param x the first partial extreme
+     * @param y the second partial extreme
+     * @param findMax true for the maximum, false for the minimum
+     * @return the combined extreme, or NaN if both are NaN
+     */
+    static double combine(double x, double y, boolean findMax) {
+        if (Double.isNaN(x)) return y;
+        if (Double.isNaN(y)) return x;
+        return findMax ? Math.max(x, y) : Math.min(x, y);
+    }
+
+    /**
+     * Appends an index to a growing index array.
+     *
+     * @param indices the array
+     * @param count number of indices in the array
+     * @param index the index to append
+     * @return the array, or a larger copy of it
+     */
+    static int[] append(int[] indices, int count, int index) {
+        if (count == indices.length) {
+            indices = Arrays.copyOf(indices, Math.max(Column.DEFAULT_CAPACITY, count * 2));
+        }
+        indices[count] = index;
+        return indices;
+    }
+
+    /**
+     * Scalar kernels, used if the Vector API is not available and for the tails of the vectorized loops.
+     */
+    static final class ScalarKernels extends ColumnKernels {
+
+        static final ScalarKernels INSTANCE = new ScalarKernels();
+
+        @Override
+        boolean isVectorized() {
+            return false;
+        }
+
+        @Override
+        void apply(ColumnOp op, double[] a, double[] b, double[] out, int from, int to) {
+            applyRange(op, a, b, out, from, to);
+        }
+
+        @Override
+        void apply(ColumnOp op, long[] a, long[] b, double[] out, int from, int to) {
+            applyRange(op, a, b, out, from, to);
+        }
+
+        @Override
+        double extreme(double[] a, long[] skip, int from, int to, boolean findMax) {
+            return extremeRange(a, skip, from, to, findMax, Double.NaN);
+        }
+
+        @Override
+        double extreme(long[] a, long[] skip, int from, int to, boolean findMax) {
+            return extremeRange(a, skip, from, to, findMax, Double.NaN);
+        }
+
+        @Override
+        int[] indicesOf(double[] a, long[] skip, int from, int to, double value) {
+            return indicesRange(a, skip, from, to, value, new int[0], 0);
+        }
+
+        @Override
+        int[] indicesOf(long[] a, long[] skip, int from, int to, long value) {
+            return indicesRange(a, skip, from, to, value, new int[0], 0);
+        }
+
+        static void applyRange(ColumnOp op, double[] a, double[] b, double[] out, int from, int to) {
+            for (int i = from; i < to; i++) {
+                out[i] = op.applyAsDouble(a[i], b[i]);
+            }
+        }
+
+        static void applyRange(ColumnOp op, long[] a, long[] b, double[] out, int from, int to) {
+            for (int i = from; i < to; i++) {
+                out[i] = op.applyAsDouble(a[i], b[i]);
+            }
+        }
+
+        /**
+         * Scalar reduction over a range, starting from a partial result (NaN for none).
+         */
+        static double extremeRange(double[] a, long[] skip, int from, int to, boolean findMax, double extreme) {
+            for (int i = from; i < to; i++) {
+                double val = a[i];
+                if (Double.isNaN(val) || isSkipped(skip, i)) continue;
+                if (Double.isNaN(extreme) || (findMax && val > extreme) || (!findMax && val < extreme)) {
+                    extreme = val;
+                }
+            }
+            return extreme;
+        }
+
+        /**
+         * Scalar reduction over a range, starting from a partial result (NaN for none).
+         */
+        static double extremeRange(long[] a, long[] skip, int from, int to, boolean findMax, double extreme) {
+            for (int i = from; i < to; i++) {
+                if (isSkipped(skip, i)) continue;
+                double val = a[i];
+                if (Double.isNaN(extreme) || (findMax && val > extreme) || (!findMax && val < extreme)) {
+                    extreme = val;
+                }
+            }
+            return extreme;
+        }
+
+        /**
+         * Scalar scan over a range, appending to the given indices and returning them trimmed.
+         */
+        static int[] indicesRange(double[] a, long[] skip, int from, int to, double value, int[] indices, int count) {
+            for (int i = from; i < to; i++) {
+                if (a[i] == value && !isSkipped(skip, i)) {
+                    indices = append(indices, count++, i);
+                }
+            }
+            return Arrays.copyOf(indices, count);
+        }
+
+        /**
+         * Scalar scan over a range, appending to the given indices and returning them trimmed.
+         */
+        static int[] indicesRange(long[] a, long[] skip, int from, int to, long value, int[] indices, int count) {
+            for (int i = from; i < to; i++) {
+                if (a[i] == value && !isSkipped(skip, i)) {
+                    indices = append(indices, count++, i);
+                }
+            }
+            return Arrays.copyOf(indices, count);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.exxcellent.challenge;
+
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Common binary operations on two numeric columns.
+ * Besides being usable as plain {@link DoubleBinaryOperator}, these operations are
+ * recognized by {@link Table#processColumnsAsDouble(String, String, DoubleBinaryOperator)} and
+ * {@link Table#getExtremeIndicesAsDouble(String, String, DoubleBinaryOperator, boolean)},
+ * which then run them as whole-column kernels that use SIMD instructions where available.
+ */
+public enum ColumnOp implements DoubleBinaryOperator {
+
+    /** x - y */
+    SUBTRACT {
+        @Override
+        public double applyAsDouble(double x, double y) {
+            return x - y;
+        }
+    },
+
+    /** |x - y| */
+    ABS_DIFF {
+        @Override
+        public double applyAsDouble(double x, double y) {
+            return Math.abs(x - y);
+        }
+    },
+
+    /** x / y */
+    RATIO {
+        @Override
+        public double applyAsDouble(double x, double y) {
+            return x / y;
+        }
+    }
+}
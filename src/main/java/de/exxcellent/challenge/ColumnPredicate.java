@@ -0,0 +1,180 @@
+package de.exxcellent.challenge;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A simple condition on the value of one column, e.g. {@code MxT > 80} or {@code Team != ''},
+ * which a {@link TableReader} can evaluate while reading (see {@link ReadRequest}).
+ * <p>
+ * If both the value and the literal are numeric, they are compared as numbers. Otherwise
+ * {@code =} and {@code !=} compare the strings, and the ordering comparisons do not match.
+ * Missing values are empty strings, so {@code Team != ''} drops rows without a team.
+ */
+public final class ColumnPredicate {
+
+    /**
+     * The comparison of a predicate.
+     */
+    public enum Comparison {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        private final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Returns the symbol of the comparison, e.g. "&lt;=".
+         *
+         * @return the symbol
+         */
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    /** Column name, comparison symbol and literal; the header may contain spaces, the literal may be quoted. */
+    private static final Pattern EXPRESSION = Pattern.compile("\\s*(.+?)\\s*(==|!=|<=|>=|=|<|>)\\s*(.*?)\\s*");
+
+    private final String header;
+
+    private final Comparison comparison;
+
+    private final String value;
+
+    /** The literal as number, or NaN if it is not numeric. */
+    private final double number;
+
+    /**
+     * Creates a predicate comparing the value of a column with a literal.
+     *
+     * @param header Name of the column
+     * @param comparison the comparison
+     * @param value the literal; an empty string stands for a missing value
+     */
+    public ColumnPredicate(String header, Comparison comparison, String value) {
+        if (header == null || comparison == null || value == null)
+            throw new IllegalArgumentException("Header, comparison and value must not be null!");
+        this.header = header;
+        this.comparison = comparison;
+        this.value = value;
+        this.number = NumberParser.toDouble(value);
+    }
+
+    /**
+     * Parses a predicate of the form {@code <column> <comparison> <literal>}.
+     * The comparison is one of {@code = == != < <= > >=}; the literal may be enclosed in
+     * single or double quotes, e.g. {@code Team != ''}.
+     *
+     * @param expression the expression
+     * @return the predicate
+     * @throws IllegalArgumentException if the expression cannot be parsed
+     */
+    public static ColumnPredicate parse(String expression) {
+        Matcher m = expression == null ? null : EXPRESSION.matcher(expression);
+        if (m == null || !m.matches())
+            throw new IllegalArgumentException("Invalid predicate: " + expression);
+        String symbol = m.group(2).equals("==") ? "=" : m.group(2);
+        Comparison comparison = null;
+        for (Comparison c : Comparison.values()) {
+            if (c.symbol.equals(symbol)) comparison = c;
+        }
+        String literal = m.group(3);
+        if (literal.length() >= 2 && (literal.charAt(0) == '\'' || literal.charAt(0) == '"')
+                && literal.charAt(literal.length() - 1) == literal.charAt(0)) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        return new ColumnPredicate(m.group(1), comparison, literal);
+    }
+
+    /**
+     * Returns the name of the column the predicate is evaluated on.
+     *
+     * @return column name
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the comparison.
+     *
+     * @return the comparison
+     */
+    public Comparison getComparison() {
+        return comparison;
+    }
+
+    /**
+     * Returns the literal the values are compared with.
+     *
+     * @return the literal
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Tests a value of the column.
+     *
+     * @param cell the value, already trimmed
+     * @return true if the row with this value is kept
+     */
+    public boolean test(String cell) {
+        return test(cell, 0, cell.length(), new NumberParser());
+    }
+
+    /**
+     * Tests the value in a range of a line without creating a string for it, so that readers
+     * only extract the values of rows that are kept.
+     *
+     * @param line the line
+     * @param from start of the trimmed value (inclusive)
+     * @param to end of the trimmed value (exclusive)
+     * @param parser parser reused for all values
+     * @return true if the row with this value is kept
+     */
+    boolean test(String line, int from, int to, NumberParser parser) {
+        if (!Double.isNaN(number)) {
+            int kind = parser.parse(line, from, to);
+            if ((kind == NumberParser.LONG || kind == NumberParser.DOUBLE) && !Double.isNaN(parser.doubleValue())) {
+                return matches(Double.compare(parser.doubleValue(), number));
+            }
+        }
+        boolean equal = to - from == value.length() && line.regionMatches(from, value, 0, value.length());
+        switch (comparison) {
+            case EQ:
+                return equal;
+            case NE:
+                return !equal;
+            default:
+                return false;
+        }
+    }
+
+    private boolean matches(int cmp) {
+        switch (comparison) {
+            case EQ:
+                return cmp == 0;
+            case NE:
+                return cmp != 0;
+            case LT:
+                return cmp < 0;
+            case LE:
+                return cmp <= 0;
+            case GT:
+                return cmp > 0;
+            case GE:
+                return cmp >= 0;
+            default:
+                throw new IllegalStateException("Unknown comparison: " + comparison);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return header + " " + comparison.symbol + " '" + value + "'";
+    }
+}
@@ -0,0 +1,227 @@
+package de.exxcellent.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe, append-only table for rows that arrive while the table is being queried.
+ * <p>
+ * Rows are stored column by column in fixed-size segments which are never moved or copied
+ * once they exist. Any number of threads may call {@link #addRow(List)} concurrently: a writer
+ * reserves a row slot with a CAS, fills the slot and then publishes it; slots are published
+ * strictly in slot order, so the published rows always form a gap-free prefix.
+ * <p>
+ * Readers never block and never copy: {@link #snapshot()} returns a {@link Table} over the rows
+ * published at that moment, reading the cells directly from the segments. All queries of the
+ * returned table therefore see one consistent prefix of the rows, however many rows are appended
+ * meanwhile. Changing the snapshot (e.g. {@link Table#addRow(List)}) copies the affected columns
+ * and does not affect this table. The columns are fixed when the table is created.
+ */
+public class ConcurrentTable {
+
+    private static final int SEGMENT_SHIFT = 14;
+
+    /** Number of rows per segment. */
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /** Number of busy-wait iterations before a writer waiting for its turn to publish yields. */
+    private static final int MAX_SPINS = 100;
+
+    private final List<String> headers;
+
+    /** Number of row slots handed out to writers. */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /** Number of rows visible to readers; always at most reserved. */
+    private final AtomicInteger committed = new AtomicInteger();
+
+    /** Segments by segment number; replaced by a larger copy when it is full. */
+    private volatile Segment[] segments = new Segment[16];
+
+    /**
+     * Creates an empty table with the given headers.
+     *
+     * @param headers List of column headers
+     */
+    public ConcurrentTable(List<String> headers) {
+        this.headers = new ArrayList<>(headers);
+    }
+
+    /**
+     * Returns the headers of the table.
+     *
+     * @return List of headers
+     */
+    public List<String> getHeaders() {
+        return new ArrayList<>(headers);
+    }
+
+    /**
+     * Returns the number of rows published so far.
+     *
+     * @return number of rows visible to readers
+     */
+    public int getRowCount() {
+        return committed.get();
+    }
+
+    /**
+     * Appends a row. May be called from any number of threads at the same time.
+     * The row becomes visible to readers once all rows appended before it are visible.
+     *
+     * @param row List of values for the new row
+     * @throws IllegalArgumentException if the row does not have as many values as there are headers
+     * @throws IllegalStateException if the table is full
+     */
+    public void addRow(List<String> row) {
+        if (row.size() != headers.size())
+            throw new IllegalArgumentException("Wrong number of values in row!");
+        // Parse before reserving, so that a reserved slot is always published
+        String[] texts = row.toArray(new String[0]);
+        double[] numbers = new double[texts.length];
+        boolean[] numeric = new boolean[texts.length];
+        NumberParser parser = new NumberParser();
+        for (int c = 0; c < texts.length; c++) {
+            String val = texts[c];
+            if (val == null) continue;
+            int kind = parser.parse(val);
+            if (kind == NumberParser.LONG || kind == NumberParser.DOUBLE) {
+                numbers[c] = parser.doubleValue();
+                numeric[c] = true;
+            }
+        }
+
+        int slot;
+        do {
+            slot = reserved.get();
+            if (slot == Integer.MAX_VALUE)
+                throw new IllegalStateException("Table is full");
+        } while (!reserved.compareAndSet(slot, slot + 1));
+        Segment segment = segment(slot >>> SEGMENT_SHIFT);
+        int pos = slot & SEGMENT_MASK;
+        for (int c = 0; c < texts.length; c++) {
+            segment.texts[c][pos] = texts[c];
+            segment.numbers[c][pos] = numbers[c];
+            segment.numeric[c][pos] = numeric[c];
+        }
+
+        // Publish in slot order; the writers of earlier slots are already past their reservation,
+        // but may have been descheduled, so stop burning the time slice after a short spin
+        for (int spins = 0; !committed.compareAndSet(slot, slot + 1); spins++) {
+            if (spins < MAX_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Returns a table over the rows published so far.
+     * The table reads the cells directly from the segments of this table; rows appended
+     * later are not part of it.
+     *
+     * @return snapshot of the published rows
+     */
+    public Table snapshot() {
+        int rowCount = committed.get();
+        // Read after committed: every segment holding one of these rows is in this array
+        Segment[] snapshotSegments = segments;
+        List<Column> columns = new ArrayList<>();
+        for (int c = 0; c < headers.size(); c++) {
+            columns.add(new SegmentColumn(snapshotSegments, c, rowCount));
+        }
+        return new Table(headers, columns, rowCount);
+    }
+
+    /**
+     * Returns the segment with the given number and creates it if necessary.
+     *
+     * @param number number of the segment
+     * @return the segment
+     */
+    private Segment segment(int number) {
+        Segment[] current = segments;
+        if (number < current.length && current[number] != null) {
+            return current[number];
+        }
+        // Only reached once per segment and table, readers are never affected by this lock
+        synchronized (this) {
+            current = segments;
+            if (number >= current.length) {
+                current = Arrays.copyOf(current, Math.max(number + 1, current.length * 2));
+            }
+            if (current[number] == null) {
+                current[number] = new Segment(headers.size());
+            }
+            segments = current;
+            return current[number];
+        }
+    }
+
+    /**
+     * Fixed-size block of rows, stored column by column.
+     */
+    private static final class Segment {
+
+        final String[][] texts;
+
+        final double[][] numbers;
+
+        final boolean[][] numeric;
+
+        Segment(int colCount) {
+            texts = new String[colCount][SEGMENT_SIZE];
+            numbers = new double[colCount][SEGMENT_SIZE];
+            numeric = new boolean[colCount][SEGMENT_SIZE];
+        }
+    }
+
+    /**
+     * Read-only view of one column of a snapshot.
+     */
+    private static final class SegmentColumn extends Column {
+
+        private final Segment[] segments;
+
+        private final int col;
+
+        private final int size;
+
+        SegmentColumn(Segment[] segments, int col, int size) {
+            this.segments = segments;
+            this.col = col;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String getString(int row) {
+            return segments[row >>> SEGMENT_SHIFT].texts[col][row & SEGMENT_MASK];
+        }
+
+        @Override
+        public boolean isNumeric(int row) {
+            return segments[row >>> SEGMENT_SHIFT].numeric[col][row & SEGMENT_MASK];
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return segments[row >>> SEGMENT_SHIFT].numbers[col][row & SEGMENT_MASK];
+        }
+
+        @Override
+        Column append(String value) {
+            // Snapshots never write into the shared segments
+            return toStringColumn().append(value);
+        }
+    }
+}
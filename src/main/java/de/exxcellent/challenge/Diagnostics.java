@@ -0,0 +1,270 @@
+package de.exxcellent.challenge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the problems the operations of a {@link Table} run into, instead of printing them.
+ * <p>
+ * For every operation it counts the cells that could not be read as number (parse failures)
+ * and the empty cells that were skipped (missing values). The first parse failures are kept
+ * as samples, up to a fixed limit. An optional {@link DiagnosticsListener} is told about every
+ * parse failure. Operations report after their scan, never from inside the hot loops of
+ * integer and decimal columns; the counters are lock-free, and the value of a failed cell is only
+ * read while samples are still collected or a listener is set.
+ */
+public final class Diagnostics {
+
+    /** Default number of parse failures kept as samples. */
+    public static final int DEFAULT_SAMPLE_LIMIT = 16;
+
+    private final int sampleLimit;
+
+    /** Parse failures and missing values by operation. */
+    private final Map<String, LongAdder[]> counts = new ConcurrentHashMap<>();
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    /** Whether all sample slots are taken; read without lock. */
+    private volatile boolean samplesFull;
+
+    private volatile DiagnosticsListener listener;
+
+    /**
+     * Creates diagnostics keeping {@link #DEFAULT_SAMPLE_LIMIT} samples.
+     */
+    public Diagnostics() {
+        this(DEFAULT_SAMPLE_LIMIT);
+    }
+
+    /**
+     * Creates diagnostics keeping the given number of samples.
+     *
+     * @param sampleLimit maximum number of parse failures kept as samples
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public Diagnostics(int sampleLimit) {
+        if (sampleLimit < 0)
+            throw new IllegalArgumentException("Sample limit must not be negative!");
+        this.sampleLimit = sampleLimit;
+        this.samplesFull = sampleLimit == 0;
+    }
+
+    /**
+     * Returns the names of the operations that reported parse failures or missing values.
+     *
+     * @return operation names in alphabetical order
+     */
+    public Set<String> getOperations() {
+        return new TreeSet<>(counts.keySet());
+    }
+
+    /**
+     * Returns the number of cells the given operation could not read as number.
+     *
+     * @param operation Name of the operation, e.g. "getExtremeValue"
+     * @return number of parse failures since the last reset
+     */
+    public long getParseFailures(String operation) {
+        LongAdder[] c = counts.get(operation);
+        return c == null ? 0 : c[0].sum();
+    }
+
+    /**
+     * Returns the number of empty cells the given operation skipped.
+     *
+     * @param operation Name of the operation, e.g. "getExtremeValue"
+     * @return number of missing values since the last reset
+     */
+    public long getMissingValues(String operation) {
+        LongAdder[] c = counts.get(operation);
+        return c == null ? 0 : c[1].sum();
+    }
+
+    /**
+     * Returns the first parse failures since the last reset.
+     *
+     * @return at most the sample limit of samples, in the order they were reported
+     */
+    public synchronized List<Sample> getSamples() {
+        return new ArrayList<>(samples);
+    }
+
+    /**
+     * Returns the maximum number of samples kept.
+     *
+     * @return sample limit
+     */
+    public int getSampleLimit() {
+        return sampleLimit;
+    }
+
+    /**
+     * Sets the listener that is told about every parse failure.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setListener(DiagnosticsListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the listener.
+     *
+     * @return the listener, or null if none is set
+     */
+    public DiagnosticsListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Clears all counters and samples; the listener stays.
+     */
+    public synchronized void reset() {
+        counts.clear();
+        samples.clear();
+        samplesFull = sampleLimit == 0;
+    }
+
+    /**
+     * Reports a cell that could not be read as number.
+     *
+     * @param operation Name of the operation
+     * @param header Name of the column, or null
+     * @param col the column holding the cell
+     * @param row index of the row
+     */
+    void parseFailure(String operation, String header, Column col, int row) {
+        counters(operation)[0].increment();
+        DiagnosticsListener current = listener;
+        if (samplesFull && current == null) return;
+        String value = col.getString(row);
+        sample(operation, header, row, value);
+        if (current != null) {
+            current.parseFailure(operation, header, row, value);
+        }
+    }
+
+    /**
+     * Reports a value from a list that could not be read as number.
+     *
+     * @param operation Name of the operation
+     * @param row index of the value in the list
+     * @param value the value
+     */
+    void parseFailure(String operation, int row, String value) {
+        counters(operation)[0].increment();
+        sample(operation, null, row, value);
+        DiagnosticsListener current = listener;
+        if (current != null) {
+            current.parseFailure(operation, null, row, value);
+        }
+    }
+
+    /**
+     * Reports a number of empty cells that were skipped.
+     *
+     * @param operation Name of the operation
+     * @param count number of missing values
+     */
+    void missingValues(String operation, long count) {
+        if (count > 0) {
+            counters(operation)[1].add(count);
+        }
+    }
+
+    private LongAdder[] counters(String operation) {
+        LongAdder[] c = counts.get(operation);
+        return c != null ? c : counts.computeIfAbsent(operation, op -> new LongAdder[] { new LongAdder(), new LongAdder() });
+    }
+
+    private void sample(String operation, String header, int row, String value) {
+        if (samplesFull) return;
+        synchronized (this) {
+            if (samples.size() < sampleLimit) {
+                samples.add(new Sample(operation, header, row, value));
+            }
+            samplesFull = samples.size() >= sampleLimit;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (String operation : getOperations()) {
+            sb.append(operation).append(": ").append(getParseFailures(operation)).append(" parse failures, ")
+                    .append(getMissingValues(operation)).append(" missing values").append(System.lineSeparator());
+        }
+        for (Sample sample : getSamples()) {
+            sb.append("  ").append(sample).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A cell that could not be read as number.
+     */
+    public static final class Sample {
+
+        private final String operation;
+
+        private final String header;
+
+        private final int row;
+
+        private final String value;
+
+        Sample(String operation, String header, int row, String value) {
+            this.operation = operation;
+            this.header = header;
+            this.row = row;
+            this.value = value;
+        }
+
+        /**
+         * Returns the name of the operation that reported the cell.
+         *
+         * @return operation name
+         */
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * Returns the name of the column.
+         *
+         * @return column name, or null if the operation was given a list of values
+         */
+        public String getHeader() {
+            return header;
+        }
+
+        /**
+         * Returns the index of the row.
+         *
+         * @return row index
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * Returns the cell value.
+         *
+         * @return the value that is not numeric
+         */
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return operation + " row " + row + (header == null ? "" : " column " + header) + ": \"" + value + "\"";
+        }
+    }
+}
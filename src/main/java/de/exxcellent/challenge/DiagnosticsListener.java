@@ -0,0 +1,20 @@
+package de.exxcellent.challenge;
+
+/**
+ * Receives every cell that a {@link Table} operation could not read as number,
+ * see {@link Diagnostics#setListener(DiagnosticsListener)}.
+ * The listener is called on the thread running the operation, after the scan itself.
+ */
+@FunctionalInterface
+public interface DiagnosticsListener {
+
+    /**
+     * Called for a non-empty cell that is not numeric.
+     *
+     * @param operation Name of the Table operation, e.g. "getExtremeValue"
+     * @param header Name of the column, or null if the operation was given a list of values
+     * @param row index of the row
+     * @param value the cell value
+     */
+    void parseFailure(String operation, String header, int row, String value);
+}
@@ -0,0 +1,344 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column of decimal values stored in a primitive double array.
+ * Empty cells are tracked in a null bitmap.
+ * <p>
+ * The original text of a cell is kept by its scale: a plain decimal such as "50", "53.8" or
+ * "0.00" is reproduced from its value and its number of fraction digits. Computed values have
+ * no text and are written as {@link Double#toString(double)} writes them. The few texts that
+ * cannot be reproduced from the value, e.g. "1e3" or "-0", are kept in a sparse map.
+ */
+public class DoubleColumn extends Column {
+
+    /** Scale of a cell written as {@link Double#toString(double)} writes its value. */
+    static final byte CANONICAL = -1;
+
+    /** Scale of a cell whose text is kept in the map of exception texts. */
+    static final byte EXCEPTION = -2;
+
+    /** Largest number of digits of a plain decimal reproduced from its value and scale. */
+    static final int MAX_PLAIN_DIGITS = 15;
+
+    /** Integers of smaller magnitude are plain decimals of scale 0. */
+    static final long PLAIN_LIMIT = 1_000_000_000_000_000L;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private double[] values;
+
+    private final BitSet missing;
+
+    /** Scale of every cell, or null while all cells are {@link #CANONICAL}. */
+    private byte[] scales;
+
+    /** Texts of the cells with scale {@link #EXCEPTION}, or null if there are none. */
+    private Map<Integer, String> texts;
+
+    private int size;
+
+    /**
+     * Creates an empty column with the given initial capacity.
+     *
+     * @param capacity initial capacity of the backing array
+     */
+    DoubleColumn(int capacity) {
+        this.values = new double[capacity];
+        this.missing = new BitSet();
+    }
+
+    /**
+     * Creates a column that uses the given arrays as they are.
+     *
+     * @param values the values; the array may be larger than size
+     * @param missing null bitmap marking the empty cells
+     * @param size number of values
+     */
+    DoubleColumn(double[] values, BitSet missing, int size) {
+        this(values, missing, null, null, size);
+    }
+
+    /**
+     * Creates a column that uses the given arrays and texts as they are.
+     *
+     * @param values the values; the array may be larger than size
+     * @param missing null bitmap marking the empty cells
+     * @param scales scale of every cell, or null if all cells are canonical; the array may be larger than size
+     * @param texts texts of the cells with scale {@link #EXCEPTION}, or null if there are none
+     * @param size number of values
+     */
+    DoubleColumn(double[] values, BitSet missing, byte[] scales, Map<Integer, String> texts, int size) {
+        this.values = values;
+        this.missing = missing;
+        this.scales = scales;
+        this.texts = texts;
+        this.size = size;
+    }
+
+    /**
+     * Returns the backing array of this column; only the first {@link #size()} values are valid.
+     *
+     * @return the values
+     */
+    double[] getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the null bitmap of this column.
+     *
+     * @return bitmap with one set bit per empty cell
+     */
+    BitSet getMissing() {
+        return missing;
+    }
+
+    /**
+     * Returns the scales of this column; only the first {@link #size()} values are valid.
+     *
+     * @return scale of every cell, or null if all cells are canonical
+     */
+    byte[] getScales() {
+        return scales;
+    }
+
+    /**
+     * Returns the texts of the cells with scale {@link #EXCEPTION}.
+     *
+     * @return map from row to text, or null if there are none
+     */
+    Map<Integer, String> getTexts() {
+        return texts;
+    }
+
+    /**
+     * Returns whether all given values can be stored in a DoubleColumn without losing their text.
+     *
+     * @param values the values to check
+     * @return true if every value is empty or a number
+     */
+    static boolean accepts(List<String> values) {
+        for (String val : values) {
+            if (!accepts(val)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given value can be stored in a DoubleColumn without losing its text.
+     *
+     * @param val the value to check
+     * @return true if the value is empty or a number
+     */
+    static boolean accepts(String val) {
+        if (val == null) return false;
+        int kind = new NumberParser().parse(val);
+        return kind == NumberParser.EMPTY || kind == NumberParser.LONG || kind == NumberParser.DOUBLE;
+    }
+
+    /**
+     * Writes a value as plain decimal with the given number of fraction digits.
+     *
+     * @param value the value
+     * @param scale number of fraction digits
+     * @return the text, or null if the value has more than {@link #MAX_PLAIN_DIGITS} digits
+     */
+    static String format(double value, int scale) {
+        double unscaled = Math.abs(value) * POWERS_OF_TEN[scale];
+        if (!(unscaled < POWERS_OF_TEN[MAX_PLAIN_DIGITS])) return null;
+        String digits = Long.toString(Math.round(unscaled));
+        StringBuilder text = new StringBuilder(digits.length() + 3);
+        if (value < 0) text.append('-');
+        if (scale == 0) return text.append(digits).toString();
+        if (digits.length() <= scale) {
+            text.append("0.");
+            for (int i = digits.length(); i < scale; i++) text.append('0');
+            return text.append(digits).toString();
+        }
+        int point = digits.length() - scale;
+        return text.append(digits, 0, point).append('.').append(digits, point, digits.length()).toString();
+    }
+
+    /**
+     * Adds a value that was checked with {@link #accepts(String)} before.
+     *
+     * @param val the value to add
+     */
+    void add(String val) {
+        NumberParser parser = new NumberParser();
+        if (parser.parse(val) == NumberParser.EMPTY) {
+            addMissing();
+        } else if (parser.scale() >= 0) {
+            add(parser.doubleValue(), parser.scale());
+        } else {
+            addText(parser.doubleValue(), val);
+        }
+    }
+
+    /**
+     * Adds a parsed plain decimal together with its number of fraction digits.
+     *
+     * @param val the value to add
+     * @param scale number of fraction digits of the text
+     */
+    void add(double val, int scale) {
+        add(val);
+        scales()[size - 1] = (byte) scale;
+    }
+
+    /**
+     * Adds a parsed value whose text cannot be reproduced from the value.
+     *
+     * @param val the value to add
+     * @param text the text the value was parsed from
+     */
+    void addText(double val, String text) {
+        add(val);
+        scales()[size - 1] = EXCEPTION;
+        if (texts == null) texts = new HashMap<>();
+        texts.put(size - 1, text);
+    }
+
+    /**
+     * Adds a computed value, written as {@link Double#toString(double)} writes it.
+     *
+     * @param val the value to add
+     */
+    void add(double val) {
+        grow();
+        if (scales != null) scales[size] = CANONICAL;
+        values[size++] = val;
+    }
+
+    /**
+     * Adds a missing (empty) value.
+     */
+    void addMissing() {
+        grow();
+        missing.set(size++);
+    }
+
+    private void grow() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, size * 2));
+            if (scales != null) scales = Arrays.copyOf(scales, values.length);
+        }
+    }
+
+    /**
+     * Returns the scales, allocated with all earlier cells canonical on first use.
+     */
+    private byte[] scales() {
+        if (scales == null) {
+            scales = new byte[values.length];
+            Arrays.fill(scales, CANONICAL);
+        }
+        return scales;
+    }
+
+    /**
+     * Concatenates decimal columns, keeping the text of every cell.
+     *
+     * @param parts the columns, in row order
+     * @param size total number of values
+     * @return the concatenated column
+     */
+    static DoubleColumn concat(List<DoubleColumn> parts, int size) {
+        DoubleColumn merged = new DoubleColumn(Math.max(size, DEFAULT_CAPACITY));
+        for (DoubleColumn part : parts) {
+            if (part.scales != null) merged.scales();
+        }
+        for (DoubleColumn part : parts) {
+            int offset = merged.size;
+            System.arraycopy(part.values, 0, merged.values, offset, part.size);
+            for (int i = part.missing.nextSetBit(0); i >= 0 && i < part.size; i = part.missing.nextSetBit(i + 1)) {
+                merged.missing.set(offset + i);
+            }
+            if (merged.scales != null) {
+                if (part.scales != null) {
+                    System.arraycopy(part.scales, 0, merged.scales, offset, part.size);
+                } else {
+                    Arrays.fill(merged.scales, offset, offset + part.size, CANONICAL);
+                }
+            }
+            if (part.texts != null) {
+                if (merged.texts == null) merged.texts = new HashMap<>();
+                for (Map.Entry<Integer, String> text : part.texts.entrySet()) {
+                    merged.texts.put(offset + text.getKey(), text.getValue());
+                }
+            }
+            merged.size += part.size;
+        }
+        return merged;
+    }
+
+    @Override
+    Column append(String value) {
+        if (!accepts(value)) {
+            return toStringColumn().append(value);
+        }
+        add(value);
+        return this;
+    }
+
+    @Override
+    Column select(int[] rows, int count) {
+        double[] selected = new double[Math.max(count, DEFAULT_CAPACITY)];
+        BitSet selectedMissing = new BitSet();
+        byte[] selectedScales = scales == null ? null : new byte[selected.length];
+        Map<Integer, String> selectedTexts = null;
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            if (row < 0 || missing.get(row)) {
+                selectedMissing.set(i);
+                continue;
+            }
+            selected[i] = values[row];
+            if (selectedScales != null) {
+                selectedScales[i] = scales[row];
+                if (scales[row] == EXCEPTION) {
+                    if (selectedTexts == null) selectedTexts = new HashMap<>();
+                    selectedTexts.put(i, texts.get(row));
+                }
+            }
+        }
+        return new DoubleColumn(selected, selectedMissing, selectedScales, selectedTexts, count);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getString(int row) {
+        if (missing.get(row)) return "";
+        int scale = scales == null ? CANONICAL : scales[row];
+        if (scale == CANONICAL) return Double.toString(values[row]);
+        if (scale == EXCEPTION) return texts.get(row);
+        return format(values[row], scale);
+    }
+
+    @Override
+    public boolean isNumeric(int row) {
+        return !missing.get(row);
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return missing.get(row);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return values[row];
+    }
+}
@@ -0,0 +1,390 @@
+package de.exxcellent.challenge;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorts the rows of a source that may not fit into the heap.
+ * <p>
+ * The rows streamed by a {@link TableReader} are buffered until they reach the
+ * {@link #setMemoryBudget(long) memory budget}; every full buffer is sorted in memory with
+ * {@link Table#sort(List)} and written as sorted run to a temporary file. The runs are then merged
+ * k-way through a binary heap of their current rows, in passes of at most
+ * {@link #setMergeWidth(int) merge width} runs, so only one row per run is in memory while merging.
+ * A source that fits into the budget is sorted in memory without touching the disk.
+ * The bytes written to run files are counted in the metric {@code sort.spilledBytes}.
+ * <p>
+ * Values are ordered as by {@link Table#sort(List)}, and rows with equal keys keep their order.
+ */
+public final class ExternalSort {
+
+    /** Default heap memory the buffered rows may take before they are written as a run. */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /** Default number of runs merged at once. */
+    public static final int DEFAULT_MERGE_WIDTH = 64;
+
+    /** Estimated heap bytes of a buffered cell besides its characters. */
+    private static final int CELL_OVERHEAD = 16;
+
+    private final List<SortKey> keys;
+
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    private int mergeWidth = DEFAULT_MERGE_WIDTH;
+
+    private Path spillDirectory;
+
+    /**
+     * Creates a sort.
+     *
+     * @param keys the sort keys, most significant first
+     * @throws IllegalArgumentException if there are no keys
+     */
+    public ExternalSort(List<SortKey> keys) {
+        if (keys == null || keys.isEmpty())
+            throw new IllegalArgumentException("Sort keys must not be empty!");
+        this.keys = new ArrayList<>(keys);
+    }
+
+    /**
+     * Returns the heap memory the buffered rows may take before they are written as a run.
+     *
+     * @return budget in bytes
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the heap memory the buffered rows may take before they are written as a run.
+     * The size of the buffered rows is estimated from the length of their values.
+     *
+     * @param memoryBudget budget in bytes
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative!");
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Returns the number of runs merged at once.
+     *
+     * @return merge width
+     */
+    public int getMergeWidth() {
+        return mergeWidth;
+    }
+
+    /**
+     * Sets the number of runs merged at once; more runs are merged in several passes.
+     *
+     * @param mergeWidth number of runs, at least 2
+     * @throws IllegalArgumentException if the width is less than 2
+     */
+    public void setMergeWidth(int mergeWidth) {
+        if (mergeWidth < 2)
+            throw new IllegalArgumentException("Merge width must be at least 2!");
+        this.mergeWidth = mergeWidth;
+    }
+
+    /**
+     * Returns the directory of the temporary run files.
+     *
+     * @return the directory, or null for the default temporary directory
+     */
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Sets the directory of the temporary run files.
+     *
+     * @param spillDirectory the directory, or null for the default temporary directory
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Sorts the rows of a source and collects them into a table.
+     *
+     * @param reader Reader of the rows
+     * @return the sorted table
+     * @throws IOException if the source or a run file cannot be read or written
+     * @throws IllegalArgumentException if a key column does not exist
+     */
+    public Table sort(TableReader reader) throws IOException {
+        TableReader.RequestSink sink = new TableReader.RequestSink(new ReadRequest(null, Collections.emptyList()));
+        sort(reader, sink);
+        return sink.toTable();
+    }
+
+    /**
+     * Sorts the rows of a source and pushes them in sorted order into a sink.
+     *
+     * @param reader Reader of the rows
+     * @param sink the sink receiving the sorted rows
+     * @throws IOException if the source or a run file cannot be read or written
+     * @throws IllegalArgumentException if a key column does not exist
+     */
+    public void sort(TableReader reader, RowSink sink) throws IOException {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        long rows;
+        try (Runs runs = new Runs()) {
+            reader.readRows(runs);
+            rows = runs.rows;
+            if (runs.headers == null) {
+                // empty source without header line
+                sink.start(new ArrayList<>());
+                sink.end();
+            } else if (runs.files.isEmpty()) {
+                sink.start(runs.headers);
+                RowCursor cursor = runs.toTable().sort(keys).cursor();
+                while (cursor.next()) {
+                    sink.accept(cursor);
+                }
+                sink.end();
+            } else {
+                runs.flush();
+                List<SpillFile> files = runs.files;
+                while (files.size() > mergeWidth) {
+                    files = mergePass(files, runs.headers.size(), runs.keyIndexes);
+                    runs.files = files;
+                }
+                sink.start(runs.headers);
+                merge(files, runs.keyIndexes, sink::accept);
+                sink.end();
+            }
+        } catch (UncheckedIOException e) {
+            // thrown by the sink buffering the rows, which cannot throw checked exceptions
+            throw e.getCause();
+        }
+        timer.stop("sort.external", rows);
+    }
+
+    /**
+     * Merges groups of {@link #mergeWidth} runs into longer runs and deletes the merged runs.
+     */
+    private List<SpillFile> mergePass(List<SpillFile> files, int columnCount, int[] keyIndexes) throws IOException {
+        List<SpillFile> merged = new ArrayList<>();
+        try {
+            for (int from = 0; from < files.size(); from += mergeWidth) {
+                List<SpillFile> group = files.subList(from, Math.min(from + mergeWidth, files.size()));
+                SpillFile out = new SpillFile(spillDirectory, "sort", columnCount);
+                merged.add(out);
+                merge(group, keyIndexes, out::write);
+                out.finish("sort.spilledBytes");
+                for (SpillFile file : group) {
+                    file.close();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (SpillFile file : merged) {
+                file.close();
+            }
+            throw e;
+        }
+        return merged;
+    }
+
+    /**
+     * Merges sorted runs through a binary heap of run indices ordered by their current rows;
+     * ties go to the earlier run, which holds the earlier rows of the source.
+     */
+    private void merge(List<SpillFile> files, int[] keyIndexes, RowConsumer out) throws IOException {
+        Run[] runs = new Run[files.size()];
+        int[] heap = new int[runs.length];
+        int size = 0;
+        try {
+            for (int r = 0; r < runs.length; r++) {
+                runs[r] = new Run(files.get(r).open(), keyIndexes);
+                if (runs[r].next()) {
+                    heap[size++] = r;
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(heap, i, size, runs);
+            }
+            while (size > 0) {
+                Run run = runs[heap[0]];
+                out.accept(run.reader);
+                if (!run.next()) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, 0, size, runs);
+            }
+        } finally {
+            for (Run run : runs) {
+                if (run != null) run.reader.close();
+            }
+        }
+    }
+
+    private void siftDown(int[] heap, int i, int size, Run[] runs) {
+        while (true) {
+            int least = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && before(heap[left], heap[least], runs)) least = left;
+            if (right < size && before(heap[right], heap[least], runs)) least = right;
+            if (least == i) return;
+            int tmp = heap[i];
+            heap[i] = heap[least];
+            heap[least] = tmp;
+            i = least;
+        }
+    }
+
+    /**
+     * Returns whether the current row of run a comes before the current row of run b.
+     */
+    private boolean before(int a, int b, Run[] runs) {
+        Run runA = runs[a];
+        Run runB = runs[b];
+        for (int k = 0; k < keys.size(); k++) {
+            int c = RowOrder.compareValues(runA.values[k], runB.values[k], keys.get(k).isDescending());
+            if (c != 0) return c < 0;
+        }
+        return a < b;
+    }
+
+    /**
+     * Receives the merged rows.
+     */
+    private interface RowConsumer {
+        void accept(Row row) throws IOException;
+    }
+
+    /**
+     * A sorted run being merged, with the key values of its current row parsed once.
+     */
+    private static final class Run {
+
+        final SpillFile.Reader reader;
+
+        private final int[] keyIndexes;
+
+        final RowOrder.Value[] values;
+
+        private final NumberParser parser = new NumberParser();
+
+        Run(SpillFile.Reader reader, int[] keyIndexes) {
+            this.reader = reader;
+            this.keyIndexes = keyIndexes;
+            this.values = new RowOrder.Value[keyIndexes.length];
+            for (int k = 0; k < values.length; k++) {
+                values[k] = new RowOrder.Value();
+            }
+        }
+
+        boolean next() throws IOException {
+            if (!reader.next()) return false;
+            for (int k = 0; k < keyIndexes.length; k++) {
+                values[k].set(reader.get(keyIndexes[k]), parser);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sink buffering the rows of the source and writing every full buffer as sorted run.
+     * Closing it deletes the run files.
+     */
+    private final class Runs implements RowSink, Closeable {
+
+        List<String> headers;
+
+        int[] keyIndexes;
+
+        List<SpillFile> files = new ArrayList<>();
+
+        long rows;
+
+        private ColumnBuilder[] builders;
+
+        private int rowCount;
+
+        private long bytes;
+
+        @Override
+        public void start(List<String> headers) {
+            this.headers = new ArrayList<>(headers);
+            this.keyIndexes = new int[keys.size()];
+            for (int k = 0; k < keyIndexes.length; k++) {
+                keyIndexes[k] = headers.indexOf(keys.get(k).getHeader());
+                if (keyIndexes[k] < 0)
+                    throw new IllegalArgumentException("Column does not exist: " + keys.get(k).getHeader());
+            }
+            reset();
+        }
+
+        @Override
+        public void accept(Row row) {
+            for (int c = 0; c < builders.length; c++) {
+                String value = c < row.size() ? row.get(c) : null;
+                if (value == null) value = "";
+                builders[c].add(value);
+                bytes += 2L * value.length() + CELL_OVERHEAD;
+            }
+            rowCount++;
+            rows++;
+            if (bytes > memoryBudget) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        /**
+         * Returns the buffered rows as table.
+         */
+        Table toTable() {
+            List<Column> columns = new ArrayList<>();
+            for (ColumnBuilder builder : builders) {
+                columns.add(builder.build());
+            }
+            return new Table(headers, columns, rowCount);
+        }
+
+        /**
+         * Sorts the buffered rows and writes them as run.
+         */
+        void flush() throws IOException {
+            if (rowCount == 0) return;
+            SpillFile run = new SpillFile(spillDirectory, "sort", headers.size());
+            files.add(run);
+            RowCursor cursor = toTable().sort(keys).cursor();
+            while (cursor.next()) {
+                run.write(cursor);
+            }
+            run.finish("sort.spilledBytes");
+            reset();
+        }
+
+        private void reset() {
+            builders = new ColumnBuilder[headers.size()];
+            for (int c = 0; c < builders.length; c++) {
+                builders[c] = new ColumnBuilder(Column.DEFAULT_CAPACITY);
+            }
+            rowCount = 0;
+            bytes = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (SpillFile file : files) {
+                file.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package de.exxcellent.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Group-by engine behind {@link Table#groupBy(List, List)}.
+ * <p>
+ * Every row is mapped to a group by its key: one long per key column (the value of an integer
+ * column, the bits of a decimal value, the dictionary code of a string) plus one long marking the
+ * missing key values. The keys are stored flat in a long array and found through an open-addressing
+ * table of int group ids, and the aggregate states are primitive arrays indexed by group id, so
+ * neither keys nor values are boxed. Row ranges are aggregated into separate {@link Groups} which
+ * are merged afterwards; groups keep the order of their first row.
+ */
+final class GroupBy {
+
+    private final List<String> keyHeaders;
+
+    private final Column[] keys;
+
+    /** Key columns as primitive arrays, by type; null where the key column has another type. */
+    private final long[][] longKeys;
+
+    private final double[][] doubleKeys;
+
+    private final BitSet[] missingKeys;
+
+    private final StringColumn[] stringKeys;
+
+    private final List<Aggregate> aggregates;
+
+    private final Aggregate.Function[] functions;
+
+    /** The values of every aggregate, or null for counting rows. */
+    private final Column[] values;
+
+    /** Identifiers of the rows, for {@link Aggregate.Function#ARGMIN} and {@link Aggregate.Function#ARGMAX}. */
+    private final Column ids;
+
+    private final Diagnostics diagnostics;
+
+    /**
+     * Prepares a group-by.
+     *
+     * @param keyHeaders Names of the key columns
+     * @param keys the key columns
+     * @param aggregates the aggregates
+     * @param values the values of every aggregate, or null for counting rows
+     * @param ids identifiers of the rows
+     * @param diagnostics diagnostics to report skipped cells to
+     */
+    GroupBy(List<String> keyHeaders, Column[] keys, List<Aggregate> aggregates, Column[] values, Column ids, Diagnostics diagnostics) {
+        this.keyHeaders = keyHeaders;
+        this.aggregates = aggregates;
+        this.functions = new Aggregate.Function[aggregates.size()];
+        for (int a = 0; a < functions.length; a++) {
+            functions[a] = aggregates.get(a).getFunction();
+        }
+        this.values = values;
+        this.ids = ids;
+        this.diagnostics = diagnostics;
+        this.keys = new Column[keys.length];
+        this.longKeys = new long[keys.length][];
+        this.doubleKeys = new double[keys.length][];
+        this.missingKeys = new BitSet[keys.length];
+        this.stringKeys = new StringColumn[keys.length];
+        for (int c = 0; c < keys.length; c++) {
+            Column key = keys[c];
+            if (key instanceof LongColumn) {
+                longKeys[c] = ((LongColumn) key).getValues();
+                missingKeys[c] = ((LongColumn) key).getMissing();
+            } else if (key instanceof DoubleColumn) {
+                doubleKeys[c] = ((DoubleColumn) key).getValues();
+                missingKeys[c] = ((DoubleColumn) key).getMissing();
+            } else {
+                // Other columns are grouped by the codes of their strings
+                key = key.toStringColumn();
+                stringKeys[c] = (StringColumn) key;
+            }
+            this.keys[c] = key;
+        }
+    }
+
+    /**
+     * Aggregates a range of rows.
+     *
+     * @param from first row (inclusive)
+     * @param to last row (exclusive)
+     * @return the groups of the range
+     */
+    Groups aggregate(int from, int to) {
+        Groups groups = new Groups();
+        long[] key = new long[keys.length + 1];
+        long missingCount = 0;
+        for (int i = from; i < to; i++) {
+            long mask = 0;
+            for (int c = 0; c < keys.length; c++) {
+                if (stringKeys[c] != null) {
+                    key[c] = stringKeys[c].getCode(i);
+                } else if (missingKeys[c].get(i)) {
+                    key[c] = 0;
+                    mask |= 1L << c;
+                } else {
+                    key[c] = longKeys[c] != null ? longKeys[c][i] : Double.doubleToLongBits(doubleKeys[c][i]);
+                }
+            }
+            key[keys.length] = mask;
+            int g = groups.groupOf(key, i);
+            for (int a = 0; a < values.length; a++) {
+                Column col = values[a];
+                if (col == null) {
+                    groups.counts[a][g]++;
+                } else if (col.isNumeric(i)) {
+                    groups.add(a, g, col.getDouble(i), i);
+                } else if (col.isMissing(i)) {
+                    missingCount++;
+                } else {
+                    diagnostics.parseFailure("groupBy", aggregates.get(a).getHeader1(), col, i);
+                }
+            }
+        }
+        diagnostics.missingValues("groupBy", missingCount);
+        return groups;
+    }
+
+    /**
+     * Merges the groups of consecutive row ranges.
+     *
+     * @param parts the groups of every range, in row order
+     * @return the groups of all rows
+     */
+    Groups merge(List<Groups> parts) {
+        Groups all = parts.get(0);
+        long[] key = new long[keys.length + 1];
+        for (int p = 1; p < parts.size(); p++) {
+            Groups part = parts.get(p);
+            for (int g = 0; g < part.size; g++) {
+                System.arraycopy(part.groupKeys, g * key.length, key, 0, key.length);
+                int target = all.groupOf(key, part.firstRows[g]);
+                for (int a = 0; a < values.length; a++) {
+                    if (values[a] == null) {
+                        all.counts[a][target] += part.counts[a][g];
+                    } else if (part.counts[a][g] > 0) {
+                        all.combine(a, target, part.acc[a][g], part.argRows[a][g], part.counts[a][g]);
+                    }
+                }
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Creates the result table: the key columns followed by one column per aggregate, one row per group.
+     *
+     * @param groups the groups of all rows
+     * @return the table
+     */
+    Table toTable(Groups groups) {
+        int n = groups.size;
+        List<String> headers = new ArrayList<>(keyHeaders);
+        List<Column> columns = new ArrayList<>();
+        for (Column key : keys) {
+            columns.add(key.select(groups.firstRows, n));
+        }
+        for (int a = 0; a < values.length; a++) {
+            Aggregate aggregate = aggregates.get(a);
+            headers.add(aggregate.getName());
+            long[] counts = groups.counts[a];
+            double[] acc = groups.acc[a];
+            BitSet empty = new BitSet();
+            for (int g = 0; g < n; g++) {
+                if (counts[g] == 0) empty.set(g);
+            }
+            switch (aggregate.getFunction()) {
+                case COUNT:
+                    columns.add(new LongColumn(Arrays.copyOf(counts, Math.max(n, Column.DEFAULT_CAPACITY)), new BitSet(), n));
+                    break;
+                case AVG:
+                    double[] means = new double[Math.max(n, Column.DEFAULT_CAPACITY)];
+                    for (int g = 0; g < n; g++) {
+                        means[g] = counts[g] == 0 ? 0 : acc[g] / counts[g];
+                    }
+                    columns.add(new DoubleColumn(means, empty, n));
+                    break;
+                case ARGMIN:
+                case ARGMAX:
+                    columns.add(ids.select(groups.argRows[a], n));
+                    break;
+                default:
+                    columns.add(values[a] instanceof DoubleColumn ? new DoubleColumn(
+                            Arrays.copyOf(acc, Math.max(n, Column.DEFAULT_CAPACITY)), empty, n) : toLongs(acc, empty, n));
+                    break;
+            }
+        }
+        return new Table(headers, columns, n);
+    }
+
+    /**
+     * Sums, minima and maxima of a column that is not decimal stay integers as long as they are
+     * whole numbers and exact.
+     */
+    private static Column toLongs(double[] acc, BitSet empty, int n) {
+        long[] longs = new long[Math.max(n, Column.DEFAULT_CAPACITY)];
+        for (int g = 0; g < n; g++) {
+            if (empty.get(g)) continue;
+            if (Math.abs(acc[g]) > 0x1p53 || acc[g] != Math.rint(acc[g])) {
+                return new DoubleColumn(Arrays.copyOf(acc, longs.length), empty, n);
+            }
+            longs[g] = (long) acc[g];
+        }
+        return new LongColumn(longs, empty, n);
+    }
+
+    /**
+     * The groups of a range of rows: the hash table of the keys and the aggregate states.
+     */
+    final class Groups {
+
+        private final int width = keys.length + 1;
+
+        /** Group id + 1 per slot, 0 for a free slot; the length is a power of two. */
+        private int[] slots = new int[32];
+
+        /** The key of every group, {@link #width} longs each. */
+        private long[] groupKeys = new long[Column.DEFAULT_CAPACITY * width];
+
+        private int[] firstRows = new int[Column.DEFAULT_CAPACITY];
+
+        private int size;
+
+        /** Per aggregate and group: sum, minimum or maximum of the values. */
+        private final double[][] acc = new double[values.length][Column.DEFAULT_CAPACITY];
+
+        /** Per aggregate and group: number of values, or of rows for counting rows. */
+        private final long[][] counts = new long[values.length][Column.DEFAULT_CAPACITY];
+
+        /** Per aggregate and group: row of the minimum or maximum, -1 if there is none. */
+        private final int[][] argRows = new int[values.length][];
+
+        Groups() {
+            for (int a = 0; a < values.length; a++) {
+                argRows[a] = new int[Column.DEFAULT_CAPACITY];
+                Arrays.fill(argRows[a], -1);
+            }
+        }
+
+        /**
+         * Returns the id of the group with the given key and creates the group if necessary.
+         *
+         * @param key the key, {@link #width} longs
+         * @param row the row the key was read from, kept as first row of a new group
+         * @return the group id
+         */
+        int groupOf(long[] key, int row) {
+            int mask = slots.length - 1;
+            int slot = hash(key, 0) & mask;
+            while (true) {
+                int g = slots[slot] - 1;
+                if (g < 0) break;
+                if (Arrays.equals(groupKeys, g * width, g * width + width, key, 0, width)) return g;
+                slot = (slot + 1) & mask;
+            }
+            int g = size++;
+            if (g == firstRows.length) grow();
+            System.arraycopy(key, 0, groupKeys, g * width, width);
+            firstRows[g] = row;
+            slots[slot] = g + 1;
+            if (2 * size > slots.length) rehash();
+            return g;
+        }
+
+        /**
+         * Adds a value to the state of an aggregate.
+         */
+        void add(int a, int g, double value, int row) {
+            if (Double.isNaN(value)) return;
+            combine(a, g, value, row, 1);
+        }
+
+        /**
+         * Combines the state of an aggregate with a value or with the state of another range.
+         *
+         * @param a index of the aggregate
+         * @param g the group
+         * @param value the value, or the sum, minimum or maximum of the other state
+         * @param row row of the value, or of the minimum or maximum of the other state
+         * @param count number of values behind the value
+         */
+        void combine(int a, int g, double value, int row, long count) {
+            long n = counts[a][g];
+            switch (functions[a]) {
+                case SUM:
+                case AVG:
+                    acc[a][g] += value;
+                    break;
+                case MIN:
+                case ARGMIN:
+                    // Ties keep the earlier row, which was added first
+                    if (n == 0 || value < acc[a][g]) {
+                        acc[a][g] = value;
+                        argRows[a][g] = row;
+                    }
+                    break;
+                case MAX:
+                case ARGMAX:
+                    if (n == 0 || value > acc[a][g]) {
+                        acc[a][g] = value;
+                        argRows[a][g] = row;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            counts[a][g] = n + count;
+        }
+
+        private void grow() {
+            int capacity = firstRows.length * 2;
+            groupKeys = Arrays.copyOf(groupKeys, capacity * width);
+            firstRows = Arrays.copyOf(firstRows, capacity);
+            for (int a = 0; a < values.length; a++) {
+                acc[a] = Arrays.copyOf(acc[a], capacity);
+                counts[a] = Arrays.copyOf(counts[a], capacity);
+                int old = argRows[a].length;
+                argRows[a] = Arrays.copyOf(argRows[a], capacity);
+                Arrays.fill(argRows[a], old, capacity, -1);
+            }
+        }
+
+        private void rehash() {
+            int[] table = new int[slots.length * 2];
+            int mask = table.length - 1;
+            for (int g = 0; g < size; g++) {
+                int slot = hash(groupKeys, g * width) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = g + 1;
+            }
+            slots = table;
+        }
+
+        /**
+         * Hashes {@link #width} longs of the array from the given offset.
+         */
+        private int hash(long[] array, int offset) {
+            long h = 0x9E3779B97F4A7C15L;
+            for (int i = offset; i < offset + width; i++) {
+                h = (h ^ array[i]) * 0xBF58476D1CE4E5B9L;
+                h ^= h >>> 31;
+            }
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Hash index over the numeric values of a column for equality lookups.
+ * The distinct values are kept in an open-addressing table of primitive longs,
+ * the matching rows of all values in one int array grouped by value, so neither
+ * keys nor row numbers are boxed.
+ */
+final class HashIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] keys;
+
+    /** Start of the rows of each slot in {@link #rows}; the rows of a slot end at the start of the next used slot. */
+    private final int[] starts;
+
+    private final int[] counts;
+
+    private final int[] rows;
+
+    /**
+     * Builds the index over all numeric values of the column.
+     *
+     * @param col the column to index
+     * @param rowCount number of rows to index
+     */
+    HashIndex(Column col, int rowCount) {
+        int capacity = Integer.highestOneBit((int) Math.min(1L << 28, Math.max(4, rowCount))) << 2;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = new int[capacity];
+        starts = new int[capacity];
+
+        int numeric = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (!col.isNumeric(i) || Double.isNaN(col.getDouble(i))) continue;
+            counts[slot(key(col.getDouble(i)))]++;
+            numeric++;
+        }
+        int offset = 0;
+        for (int s = 0; s < capacity; s++) {
+            starts[s] = offset;
+            offset += counts[s];
+        }
+        rows = new int[numeric];
+        int[] fill = Arrays.copyOf(starts, capacity);
+        for (int i = 0; i < rowCount; i++) {
+            if (!col.isNumeric(i) || Double.isNaN(col.getDouble(i))) continue;
+            rows[fill[slot(key(col.getDouble(i)))]++] = i;
+        }
+    }
+
+    /**
+     * Returns the rows whose value equals the given value, in row order.
+     *
+     * @param value the value to look up
+     * @return the matching row indices (empty if there are none)
+     */
+    int[] lookup(double value) {
+        if (Double.isNaN(value)) return new int[0];
+        long key = key(value);
+        int mask = keys.length - 1;
+        for (int s = hash(key) & mask; keys[s] != EMPTY; s = (s + 1) & mask) {
+            if (keys[s] == key) {
+                return Arrays.copyOfRange(rows, starts[s], starts[s] + counts[s]);
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Returns the slot of the given key and inserts the key if it is not present yet.
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int s = hash(key) & mask;
+        while (keys[s] != EMPTY && keys[s] != key) {
+            s = (s + 1) & mask;
+        }
+        keys[s] = key;
+        return s;
+    }
+
+    /**
+     * Maps a value to its key; 0.0 and -0.0 are equal and therefore get the same key.
+     */
+    private static long key(double value) {
+        return value == 0.0 ? 0L : Double.doubleToLongBits(value);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
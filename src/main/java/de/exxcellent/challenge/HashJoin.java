@@ -0,0 +1,612 @@
+package de.exxcellent.challenge;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Equi-join of two tables on one key column each.
+ * <p>
+ * Tables that are already in memory are joined by {@link Table#join(Table, String, String, JoinType)}:
+ * a {@link JoinIndex} is built over the key of the smaller table and probed with the keys of the
+ * larger one, and the result columns are gathered from the input columns by row number, so no
+ * row is copied into a list.
+ * <p>
+ * Sources too large for the heap are joined by {@link #join(TableReader, TableReader, RowSink)}, which
+ * streams the left source and buffers the right one, which should be the smaller side. As long as the
+ * right rows fit into the {@link #setMemoryBudget(long) memory budget}, the left rows are probed one by
+ * one as they are read. Otherwise both sources are partitioned by the hash of their keys into temporary
+ * files (a grace hash join), and every pair of partitions is joined on its own, so only the right rows
+ * of one partition are in memory at a time. The bytes written are counted in the metric
+ * {@code join.spilledBytes}.
+ * <p>
+ * Keys are compared like {@link Table#getIndicesOfValue(String, double)} compares values: numbers by
+ * value, other strings as they are. Empty keys never match.
+ * The result has the columns of the left table followed by the columns of the right table without its
+ * key column; right headers that also occur in the left table get the suffix {@value #RIGHT_SUFFIX}.
+ */
+public final class HashJoin {
+
+    /** Default heap memory the right rows of a streamed join may take before they are spilled. */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /** Default number of partitions of a spilled join. */
+    public static final int DEFAULT_PARTITION_COUNT = 64;
+
+    /** Suffix of right headers that also occur in the left table. */
+    public static final String RIGHT_SUFFIX = "_right";
+
+    /** Estimated heap bytes of a buffered cell besides its characters. */
+    private static final int CELL_OVERHEAD = 16;
+
+    private final String leftKey;
+
+    private final String rightKey;
+
+    private final JoinType type;
+
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    private int partitionCount = DEFAULT_PARTITION_COUNT;
+
+    private Path spillDirectory;
+
+    /**
+     * Creates a join.
+     *
+     * @param leftKey Name of the key column of the left side
+     * @param rightKey Name of the key column of the right side
+     * @param type the kind of join
+     */
+    public HashJoin(String leftKey, String rightKey, JoinType type) {
+        if (leftKey == null || rightKey == null || type == null)
+            throw new IllegalArgumentException("Keys and join type must not be null!");
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.type = type;
+    }
+
+    /**
+     * Returns the heap memory the right rows of a streamed join may take before they are spilled.
+     *
+     * @return budget in bytes
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the heap memory the right rows of a streamed join may take before they are spilled.
+     * The size of the buffered rows is estimated from the length of their values.
+     *
+     * @param memoryBudget budget in bytes
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative!");
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Returns the number of partitions of a spilled join.
+     *
+     * @return number of partitions
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Sets the number of partitions of a spilled join. A partition of the right side is loaded
+     * into memory as a whole, so the right side should be split into partitions that fit the budget.
+     *
+     * @param partitionCount number of partitions
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public void setPartitionCount(int partitionCount) {
+        if (partitionCount <= 0)
+            throw new IllegalArgumentException("Partition count must be positive!");
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Returns the directory of the temporary partition files.
+     *
+     * @return the directory, or null for the default temporary directory
+     */
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Sets the directory of the temporary partition files.
+     *
+     * @param spillDirectory the directory, or null for the default temporary directory
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Joins two tables in memory, see {@link Table#join(Table, String, String, JoinType)}.
+     *
+     * @param left the left table
+     * @param right the right table
+     * @return the joined table
+     */
+    public Table join(Table left, Table right) {
+        return left.join(right, leftKey, rightKey, type);
+    }
+
+    /**
+     * Joins the rows of two sources and collects the result into a table.
+     *
+     * @param left Reader of the left rows
+     * @param right Reader of the right rows, preferably the smaller side
+     * @return the joined table
+     * @throws IOException if a source or a partition file cannot be read or written
+     * @throws IllegalArgumentException if a key column does not exist
+     */
+    public Table join(TableReader left, TableReader right) throws IOException {
+        TableReader.RequestSink sink = new TableReader.RequestSink(new ReadRequest(null, Collections.emptyList()));
+        join(left, right, sink);
+        return sink.toTable();
+    }
+
+    /**
+     * Joins the rows of two sources and pushes the joined rows into a sink.
+     * Unless the right rows are spilled, the joined rows are in the order of the left rows, and the
+     * matches of a left row in the order of the right rows; a spilled join keeps this order only
+     * within a partition.
+     *
+     * @param left Reader of the left rows, streamed
+     * @param right Reader of the right rows, preferably the smaller side
+     * @param sink the sink receiving the joined rows
+     * @throws IOException if a source or a partition file cannot be read or written
+     * @throws IllegalArgumentException if a key column does not exist
+     */
+    public void join(TableReader left, TableReader right, RowSink sink) throws IOException {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        long rows;
+        try {
+            rows = joinRows(left, right, sink);
+        } catch (UncheckedIOException e) {
+            // thrown by the sinks, which cannot throw checked exceptions
+            throw e.getCause();
+        }
+        timer.stop("join.stream", rows);
+    }
+
+    /**
+     * Joins the rows of two sources, see {@link #join(TableReader, TableReader, RowSink)}.
+     *
+     * @return number of left rows
+     */
+    private long joinRows(TableReader left, TableReader right, RowSink sink) throws IOException {
+        long rows;
+        try (Spool build = new Spool(rightKey, false)) {
+            right.readRows(build);
+            if (!build.isSpilled()) {
+                Probe probe = new Probe(build.toTable(), build.keyIndex, sink);
+                left.readRows(new RowSink() {
+                    int keyIndex;
+
+                    @Override
+                    public void start(List<String> headers) {
+                        keyIndex = keyIndex(headers, leftKey);
+                        sink.start(joinedHeaders(headers, build.headers, build.keyIndex));
+                    }
+
+                    @Override
+                    public void accept(Row row) {
+                        probe.probe(row, keyIndex);
+                    }
+
+                    @Override
+                    public void end() {
+                        sink.end();
+                    }
+                });
+                rows = probe.rows;
+            } else {
+                try (Spool stream = new Spool(leftKey, true)) {
+                    left.readRows(stream);
+                    sink.start(joinedHeaders(stream.headers, build.headers, build.keyIndex));
+                    rows = 0;
+                    for (int p = 0; p < partitionCount; p++) {
+                        Probe probe = new Probe(build.readPartition(p), build.keyIndex, sink);
+                        stream.replayPartition(p, probe);
+                        rows += probe.rows;
+                    }
+                    sink.end();
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Joins two tables in memory: builds the index over the key of the smaller table, probes it with
+     * the keys of the larger one and gathers the result columns by row number.
+     *
+     * @param left the left table
+     * @param right the right table
+     * @param leftKey Name of the key column of the left table
+     * @param rightKey Name of the key column of the right table
+     * @param type the kind of join
+     * @return the joined table, in the order of the left rows
+     */
+    static Table join(Table left, Table right, String leftKey, String rightKey, JoinType type) {
+        int rightKeyIndex = right.getColumnIndex(rightKey);
+        int[][] matches = matchRows(left.getTypedColumn(leftKey), left.getRowCount(),
+                right.getTypedColumn(rightKeyIndex), right.getRowCount(), type);
+        int[] leftRows = matches[0];
+        int[] rightRows = matches[1];
+        List<String> leftHeaders = left.getHeaders();
+        List<String> rightHeaders = right.getHeaders();
+        List<Column> columns = new ArrayList<>();
+        for (int c = 0; c < leftHeaders.size(); c++) {
+            columns.add(left.getTypedColumn(c).select(leftRows, leftRows.length));
+        }
+        for (int c = 0; c < rightHeaders.size(); c++) {
+            if (c != rightKeyIndex) {
+                columns.add(right.getTypedColumn(c).select(rightRows, rightRows.length));
+            }
+        }
+        return new Table(joinedHeaders(leftHeaders, rightHeaders, rightKeyIndex), columns, leftRows.length);
+    }
+
+    /**
+     * Finds the pairs of rows with equal keys.
+     *
+     * @param left key column of the left side
+     * @param leftCount number of left rows
+     * @param right key column of the right side
+     * @param rightCount number of right rows
+     * @param type the kind of join
+     * @return the left rows and the right rows of the pairs, ordered by left row and then by right row;
+     *         the right row is -1 for a left row without a match
+     */
+    static int[][] matchRows(Column left, int leftCount, Column right, int rightCount, JoinType type) {
+        boolean outer = type == JoinType.LEFT;
+        if (leftCount < rightCount) {
+            // Probe with the right rows and place every match at the slots of its left row,
+            // so that the pairs are in left order without sorting them
+            JoinIndex index = new JoinIndex(left, leftCount);
+            int[] groups = index.groupsOf(right, rightCount);
+            int[] offsets = new int[leftCount + 1];
+            for (int r = 0; r < rightCount; r++) {
+                int g = groups[r];
+                if (g < 0) continue;
+                for (int p = index.start(g); p < index.end(g); p++) {
+                    offsets[index.row(p) + 1]++;
+                }
+            }
+            long total = 0;
+            for (int l = 0; l < leftCount; l++) {
+                int n = offsets[l + 1];
+                offsets[l] = (int) Math.min(total, Integer.MAX_VALUE);
+                total += n == 0 && outer ? 1 : n;
+            }
+            int size = checkedSize(total);
+            offsets[leftCount] = size;
+            int[] leftRows = new int[size];
+            int[] rightRows = new int[size];
+            Arrays.fill(rightRows, -1);
+            for (int l = 0; l < leftCount; l++) {
+                Arrays.fill(leftRows, offsets[l], offsets[l + 1], l);
+            }
+            for (int r = 0; r < rightCount; r++) {
+                int g = groups[r];
+                if (g < 0) continue;
+                for (int p = index.start(g); p < index.end(g); p++) {
+                    rightRows[offsets[index.row(p)]++] = r;
+                }
+            }
+            return new int[][] { leftRows, rightRows };
+        }
+        JoinIndex index = new JoinIndex(right, rightCount);
+        int[] groups = index.groupsOf(left, leftCount);
+        long total = 0;
+        for (int l = 0; l < leftCount; l++) {
+            int n = groups[l] < 0 ? 0 : index.end(groups[l]) - index.start(groups[l]);
+            total += n == 0 && outer ? 1 : n;
+        }
+        int size = checkedSize(total);
+        int[] leftRows = new int[size];
+        int[] rightRows = new int[size];
+        int k = 0;
+        for (int l = 0; l < leftCount; l++) {
+            int g = groups[l];
+            if (g < 0 || index.start(g) == index.end(g)) {
+                if (outer) {
+                    leftRows[k] = l;
+                    rightRows[k++] = -1;
+                }
+                continue;
+            }
+            for (int p = index.start(g); p < index.end(g); p++) {
+                leftRows[k] = l;
+                rightRows[k++] = index.row(p);
+            }
+        }
+        return new int[][] { leftRows, rightRows };
+    }
+
+    /**
+     * Returns the headers of a joined table.
+     *
+     * @param left headers of the left side
+     * @param right headers of the right side
+     * @param rightKeyIndex index of the key column of the right side, which is left out
+     * @return the joined headers
+     */
+    static List<String> joinedHeaders(List<String> left, List<String> right, int rightKeyIndex) {
+        List<String> headers = new ArrayList<>(left);
+        for (int c = 0; c < right.size(); c++) {
+            if (c == rightKeyIndex) continue;
+            String header = right.get(c);
+            headers.add(left.contains(header) ? header + RIGHT_SUFFIX : header);
+        }
+        return headers;
+    }
+
+    private static int checkedSize(long total) {
+        if (total > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Join result has too many rows: " + total);
+        return (int) total;
+    }
+
+    private static int keyIndex(List<String> headers, String key) {
+        int index = headers.indexOf(key);
+        if (index < 0) throw new IllegalArgumentException("Column does not exist: " + key);
+        return index;
+    }
+
+    /**
+     * Returns the partition of a key; equal keys, see {@link JoinIndex}, get the same partition.
+     */
+    private int partitionOf(String key) {
+        if (key == null || key.isEmpty()) return 0;
+        double number = NumberParser.toDouble(key);
+        int h = Double.isNaN(number) ? JoinIndex.hash(key.hashCode()) : JoinIndex.hash(JoinIndex.key(number));
+        return Math.floorMod(h, partitionCount);
+    }
+
+    /**
+     * Probes the index over a table of right rows with left rows and pushes the joined rows into a sink.
+     */
+    private final class Probe {
+
+        private final JoinIndex index;
+
+        private final RowCursor right;
+
+        private final JoinedRow joined;
+
+        private final RowSink sink;
+
+        long rows;
+
+        Probe(Table table, int rightKeyIndex, RowSink sink) {
+            this.index = new JoinIndex(table.getTypedColumn(rightKeyIndex), table.getRowCount());
+            this.right = table.cursor();
+            this.joined = new JoinedRow(table.getHeaders().size(), rightKeyIndex);
+            this.sink = sink;
+        }
+
+        /**
+         * Joins one left row.
+         *
+         * @param row the left row
+         * @param keyIndex index of the key within the left row
+         */
+        void probe(Row row, int keyIndex) {
+            rows++;
+            int g = index.groupOf(row.get(keyIndex));
+            if (g < 0 || index.start(g) == index.end(g)) {
+                if (type == JoinType.LEFT) {
+                    sink.accept(joined.set(row, null));
+                }
+                return;
+            }
+            for (int p = index.start(g); p < index.end(g); p++) {
+                sink.accept(joined.set(row, right.moveTo(index.row(p))));
+            }
+        }
+    }
+
+    /**
+     * Row made of a left row and the values of a right row without its key; the right values are
+     * empty for a left row without a match.
+     */
+    private static final class JoinedRow implements Row {
+
+        private final int rightSize;
+
+        private final int rightKeyIndex;
+
+        private Row left;
+
+        private Row right;
+
+        JoinedRow(int rightColumns, int rightKeyIndex) {
+            this.rightSize = rightColumns - 1;
+            this.rightKeyIndex = rightKeyIndex;
+        }
+
+        JoinedRow set(Row left, Row right) {
+            this.left = left;
+            this.right = right;
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return left.size() + rightSize;
+        }
+
+        @Override
+        public String get(int colIndex) {
+            int leftSize = left.size();
+            if (colIndex < leftSize) return left.get(colIndex);
+            if (right == null) return "";
+            int c = colIndex - leftSize;
+            return right.get(c < rightKeyIndex ? c : c + 1);
+        }
+    }
+
+    /**
+     * Sink buffering the rows of one side: in memory while they fit into the budget, otherwise
+     * in one {@link SpillFile} per partition. Closing it deletes the files.
+     */
+    private final class Spool implements RowSink, Closeable {
+
+        private final String key;
+
+        private final boolean partitioned;
+
+        List<String> headers;
+
+        int keyIndex;
+
+        private ColumnBuilder[] builders;
+
+        private int rowCount;
+
+        private long bytes;
+
+        private SpillFile[] partitions;
+
+        /**
+         * @param key Name of the key column
+         * @param partitioned true to write all rows into partition files right away
+         */
+        Spool(String key, boolean partitioned) {
+            this.key = key;
+            this.partitioned = partitioned;
+        }
+
+        boolean isSpilled() {
+            return partitions != null;
+        }
+
+        @Override
+        public void start(List<String> headers) {
+            this.headers = new ArrayList<>(headers);
+            this.keyIndex = keyIndex(headers, key);
+            if (partitioned) {
+                openPartitions();
+                return;
+            }
+            this.builders = new ColumnBuilder[headers.size()];
+            for (int c = 0; c < builders.length; c++) {
+                builders[c] = new ColumnBuilder(Column.DEFAULT_CAPACITY);
+            }
+        }
+
+        @Override
+        public void accept(Row row) {
+            if (partitions != null) {
+                write(row);
+                return;
+            }
+            for (int c = 0; c < builders.length; c++) {
+                String value = c < row.size() ? row.get(c) : null;
+                if (value == null) value = "";
+                builders[c].add(value);
+                bytes += 2L * value.length() + CELL_OVERHEAD;
+            }
+            rowCount++;
+            if (bytes > memoryBudget) {
+                spill();
+            }
+        }
+
+        @Override
+        public void end() {
+            if (partitions == null) return;
+            try {
+                for (SpillFile partition : partitions) {
+                    partition.finish("join.spilledBytes");
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Returns the buffered rows of a spool that was not spilled.
+         */
+        Table toTable() {
+            List<Column> columns = new ArrayList<>();
+            for (ColumnBuilder builder : builders) {
+                columns.add(builder.build());
+            }
+            return new Table(headers, columns, rowCount);
+        }
+
+        /**
+         * Reads the rows of a partition into a table.
+         */
+        Table readPartition(int p) throws IOException {
+            return partitions[p].readTable(headers);
+        }
+
+        /**
+         * Streams the rows of a partition through a probe.
+         */
+        void replayPartition(int p, Probe probe) throws IOException {
+            try (SpillFile.Reader reader = partitions[p].open()) {
+                while (reader.next()) {
+                    probe.probe(reader, keyIndex);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (partitions == null) return;
+            for (SpillFile partition : partitions) {
+                if (partition != null) partition.close();
+            }
+        }
+
+        /**
+         * Moves the rows buffered so far into the partition files.
+         */
+        private void spill() {
+            openPartitions();
+            RowCursor cursor = toTable().cursor();
+            builders = null;
+            while (cursor.next()) {
+                write(cursor);
+            }
+        }
+
+        private void openPartitions() {
+            partitions = new SpillFile[partitionCount];
+            try {
+                for (int p = 0; p < partitionCount; p++) {
+                    partitions[p] = new SpillFile(spillDirectory, "join", headers.size());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void write(Row row) {
+            try {
+                partitions[partitionOf(row.get(keyIndex))].write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package de.exxcellent.challenge;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative long values, e.g. durations in nanoseconds or sizes in bytes,
+ * with a fixed memory footprint and a bounded relative error.
+ * <p>
+ * Like an HdrHistogram, the buckets are linear up to 127 and logarithmic above, with 64 linear
+ * sub-buckets per power of two. Every value is therefore counted in a bucket whose width is at
+ * most 1/64 of the value, so percentiles are accurate to about 1.6 %; count, total, minimum and
+ * maximum are exact. Recording takes no lock and does not allocate, so a histogram can be shared
+ * by any number of threads.
+ */
+public final class Histogram {
+
+    /** Number of sub-buckets per power of two, as bits. */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Values below this limit are counted exactly. */
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * Records a value; negative values are recorded as 0.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        buckets.incrementAndGet(bucket(v));
+        count.increment();
+        total.add(v);
+        min.accumulate(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return count of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of all recorded values.
+     *
+     * @return total of values
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return minimum, or 0 if no value was recorded
+     */
+    public long getMin() {
+        long m = min.get();
+        return m == Long.MAX_VALUE ? 0 : m;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return maximum, or 0 if no value was recorded
+     */
+    public long getMax() {
+        long m = max.get();
+        return m == Long.MIN_VALUE ? 0 : m;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return mean, or NaN if no value was recorded
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? Double.NaN : (double) getTotal() / n;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values lies.
+     * The result is the upper end of the bucket holding that value, capped at the maximum.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the value at the percentile, or 0 if no value was recorded
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException("Percentile must be between 0 and 100!");
+        long n = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns an independent copy of the histogram.
+     *
+     * @return the copy
+     */
+    public Histogram copy() {
+        Histogram copy = new Histogram();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = buckets.get(i);
+            if (c != 0) {
+                copy.buckets.set(i, c);
+                copy.count.add(c);
+            }
+        }
+        copy.total.add(getTotal());
+        copy.min.accumulate(min.get());
+        copy.max.accumulate(max.get());
+        return copy;
+    }
+
+    /**
+     * Returns the index of the bucket counting the given value.
+     *
+     * @param value non-negative value
+     * @return bucket index
+     */
+    static int bucket(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the largest value counted in the given bucket.
+     *
+     * @param bucket bucket index
+     * @return upper bound of the bucket (inclusive)
+     */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket;
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long top = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((top + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " min=" + getMin() + " p50=" + getValueAtPercentile(50)
+                + " p90=" + getValueAtPercentile(90) + " p99=" + getValueAtPercentile(99) + " max=" + getMax()
+                + " total=" + getTotal();
+    }
+}
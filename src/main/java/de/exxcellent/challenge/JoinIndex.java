@@ -0,0 +1,200 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Hash index over the key column of the build side of a join.
+ * <p>
+ * Every distinct key gets a group id, and the rows of all groups are kept in one int array
+ * grouped by id, in row order. Numbers are compared by value, so "7", "7.0" and an integer
+ * column holding 7 are the same key; their keys are kept in an open-addressing table of
+ * primitive longs. Other strings are compared as they are; they are looked up by dictionary
+ * code, so the strings of a dictionary-encoded probe column are hashed once per distinct value
+ * and not once per row. Empty keys never match.
+ */
+final class JoinIndex {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /** Keys of the numeric groups; a key is the bits of the value, see {@link #key(double)}. */
+    private final long[] keys;
+
+    private final int[] slotGroups;
+
+    /** The key column if it holds strings, for looking up strings. */
+    private final StringColumn strings;
+
+    /** Group of every dictionary code of {@link #strings}, -1 for the empty string. */
+    private final int[] codeGroups;
+
+    private int groupCount;
+
+    /** Start of the rows of every group in {@link #rows}; the rows of group g end at starts[g + 1]. */
+    private final int[] starts;
+
+    private final int[] rows;
+
+    /**
+     * Builds the index over the keys of a column.
+     *
+     * @param col the key column
+     * @param rowCount number of rows to index
+     */
+    JoinIndex(Column col, int rowCount) {
+        boolean numeric = col instanceof LongColumn || col instanceof DoubleColumn;
+        strings = numeric ? null : col.toStringColumn();
+        int distinct = numeric ? rowCount : strings.getDictionarySize();
+        int capacity = Integer.highestOneBit((int) Math.min(1L << 28, Math.max(4, distinct))) << 2;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        slotGroups = new int[capacity];
+
+        int[] rowGroups = new int[rowCount];
+        if (numeric) {
+            codeGroups = null;
+            for (int i = 0; i < rowCount; i++) {
+                rowGroups[i] = col.isNumeric(i) ? numericGroup(col.getDouble(i), true) : -1;
+            }
+        } else {
+            codeGroups = new int[distinct];
+            for (int code = 0; code < distinct; code++) {
+                if (strings.getDictionaryValue(code).isEmpty()) {
+                    codeGroups[code] = -1;
+                } else if (strings.isNumericCode(code)) {
+                    codeGroups[code] = numericGroup(strings.getDictionaryDouble(code), true);
+                } else {
+                    codeGroups[code] = groupCount++;
+                }
+            }
+            for (int i = 0; i < rowCount; i++) {
+                int code = strings.getCode(i);
+                rowGroups[i] = code < 0 ? -1 : codeGroups[code];
+            }
+        }
+
+        starts = new int[groupCount + 1];
+        for (int g : rowGroups) {
+            if (g >= 0) starts[g + 1]++;
+        }
+        for (int g = 0; g < groupCount; g++) {
+            starts[g + 1] += starts[g];
+        }
+        rows = new int[starts[groupCount]];
+        int[] fill = Arrays.copyOf(starts, groupCount);
+        for (int i = 0; i < rowCount; i++) {
+            if (rowGroups[i] >= 0) rows[fill[rowGroups[i]]++] = i;
+        }
+    }
+
+    /**
+     * Looks up the group of every row of a probe column.
+     *
+     * @param col the key column of the probe side
+     * @param rowCount number of rows to look up
+     * @return the group of every row, -1 for rows without a match
+     */
+    int[] groupsOf(Column col, int rowCount) {
+        int[] groups = new int[rowCount];
+        if (col instanceof LongColumn || col instanceof DoubleColumn) {
+            for (int i = 0; i < rowCount; i++) {
+                groups[i] = col.isNumeric(i) ? numericGroup(col.getDouble(i), false) : -1;
+            }
+            return groups;
+        }
+        StringColumn probe = col.toStringColumn();
+        int[] translated = new int[probe.getDictionarySize()];
+        for (int code = 0; code < translated.length; code++) {
+            String value = probe.getDictionaryValue(code);
+            translated[code] = probe.isNumericCode(code) ? numericGroup(probe.getDictionaryDouble(code), false) : textGroup(value);
+        }
+        for (int i = 0; i < rowCount; i++) {
+            int code = probe.getCode(i);
+            groups[i] = code < 0 ? -1 : translated[code];
+        }
+        return groups;
+    }
+
+    /**
+     * Looks up the group of a single key.
+     *
+     * @param value the key (may be null)
+     * @return the group, or -1 if no row has this key
+     */
+    int groupOf(String value) {
+        double number = NumberParser.toDouble(value);
+        return Double.isNaN(number) ? textGroup(value) : numericGroup(number, false);
+    }
+
+    /**
+     * Returns the position of the first row of a group in {@link #row(int)}.
+     *
+     * @param group a group id
+     * @return the first position
+     */
+    int start(int group) {
+        return starts[group];
+    }
+
+    /**
+     * Returns the position behind the last row of a group in {@link #row(int)}.
+     *
+     * @param group a group id
+     * @return the end position (exclusive)
+     */
+    int end(int group) {
+        return starts[group + 1];
+    }
+
+    /**
+     * Returns the row at the given position; the rows of a group are in row order.
+     *
+     * @param position position between {@link #start(int)} and {@link #end(int)} of a group
+     * @return index of the row
+     */
+    int row(int position) {
+        return rows[position];
+    }
+
+    /**
+     * Returns the group of a string that is not a number.
+     */
+    private int textGroup(String value) {
+        if (value == null || value.isEmpty() || strings == null) return -1;
+        int code = strings.codeOf(value);
+        return code < 0 ? -1 : codeGroups[code];
+    }
+
+    /**
+     * Returns the group of a number and creates it if requested.
+     *
+     * @param value the number
+     * @param create true to create a missing group
+     * @return the group, or -1 for NaN and for a missing group that is not created
+     */
+    private int numericGroup(double value, boolean create) {
+        if (Double.isNaN(value)) return -1;
+        long key = key(value);
+        int mask = keys.length - 1;
+        int s = hash(key) & mask;
+        while (keys[s] != EMPTY) {
+            if (keys[s] == key) return slotGroups[s];
+            s = (s + 1) & mask;
+        }
+        if (!create) return -1;
+        keys[s] = key;
+        slotGroups[s] = groupCount;
+        return groupCount++;
+    }
+
+    /**
+     * Maps a value to its key; 0.0 and -0.0 are equal and therefore get the same key.
+     */
+    static long key(double value) {
+        return value == 0.0 ? 0L : Double.doubleToLongBits(value);
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,13 @@
+package de.exxcellent.challenge;
+
+/**
+ * Kinds of equi-joins supported by {@link Table#join(Table, String, String, JoinType)} and {@link HashJoin}.
+ */
+public enum JoinType {
+
+    /** Only pairs of rows with equal keys. */
+    INNER,
+
+    /** Pairs of rows with equal keys, plus every left row without a match with empty right values. */
+    LEFT
+}
@@ -0,0 +1,115 @@
+package de.exxcellent.challenge;
+
+import java.util.function.Supplier;
+
+/**
+ * Column whose values are only materialized when they are accessed for the first time.
+ * The loaded column is cached, so the loader runs at most once.
+ */
+final class LazyColumn extends Column {
+
+    private final int size;
+
+    private Supplier<Column> loader;
+
+    private volatile Column loaded;
+
+    /**
+     * Creates a lazy column.
+     *
+     * @param size number of values the loaded column will have
+     * @param loader function that materializes the column
+     */
+    LazyColumn(int size, Supplier<Column> loader) {
+        this.size = size;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the materialized column and loads it if necessary.
+     * The time of loading is recorded as {@code column.parse} in the {@link Metrics#global() global metrics}.
+     *
+     * @return the loaded column
+     */
+    Column load() {
+        Column col = loaded;
+        if (col != null) return col;
+        synchronized (this) {
+            if (loaded == null) {
+                Metrics.Timer timer = Metrics.global().startTimer();
+                loaded = loader.get();
+                loader = null;
+                timer.stop("column.parse", size);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Returns the materialized column if it is loaded, and otherwise materializes it for the caller
+     * only without keeping it, e.g. to write every column of a table once without holding all of them.
+     * The time of materializing is recorded as {@code column.parse} like in {@link #load()}.
+     *
+     * @return the loaded or a freshly materialized column
+     */
+    Column peek() {
+        Column col = loaded;
+        if (col != null) return col;
+        synchronized (this) {
+            if (loaded != null) return loaded;
+            Metrics.Timer timer = Metrics.global().startTimer();
+            col = loader.get();
+            timer.stop("column.parse", size);
+            return col;
+        }
+    }
+
+    /**
+     * Returns whether the column has been materialized already.
+     *
+     * @return true if the column is loaded
+     */
+    boolean isLoaded() {
+        return loaded != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getString(int row) {
+        return load().getString(row);
+    }
+
+    @Override
+    public boolean isNumeric(int row) {
+        return load().isNumeric(row);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return load().getDouble(row);
+    }
+
+    @Override
+    public boolean isIntegral(int row) {
+        return load().isIntegral(row);
+    }
+
+    @Override
+    public long getLong(int row) {
+        return load().getLong(row);
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return load().isMissing(row);
+    }
+
+    @Override
+    Column append(String value) {
+        return load().append(value);
+    }
+}
@@ -0,0 +1,199 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Column of integer values stored in a primitive long array.
+ * Empty cells are tracked in a null bitmap.
+ */
+public class LongColumn extends Column {
+
+    private long[] values;
+
+    private final BitSet missing;
+
+    private int size;
+
+    /**
+     * Creates an empty column with the given initial capacity.
+     *
+     * @param capacity initial capacity of the backing array
+     */
+    LongColumn(int capacity) {
+        this.values = new long[capacity];
+        this.missing = new BitSet();
+    }
+
+    /**
+     * Creates a column that uses the given arrays as they are.
+     *
+     * @param values the values; the array may be larger than size
+     * @param missing null bitmap marking the empty cells
+     * @param size number of values
+     */
+    LongColumn(long[] values, BitSet missing, int size) {
+        this.values = values;
+        this.missing = missing;
+        this.size = size;
+    }
+
+    /**
+     * Returns the backing array of this column; only the first {@link #size()} values are valid.
+     *
+     * @return the values
+     */
+    long[] getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the null bitmap of this column.
+     *
+     * @return bitmap with one set bit per empty cell
+     */
+    BitSet getMissing() {
+        return missing;
+    }
+
+    /**
+     * Returns whether all given values can be stored in a LongColumn without losing their text.
+     *
+     * @param values the values to check
+     * @return true if every value is empty or a canonical integer
+     */
+    static boolean accepts(List<String> values) {
+        for (String val : values) {
+            if (!accepts(val)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given value can be stored in a LongColumn without losing its text.
+     *
+     * @param val the value to check
+     * @return true if the value is empty or a canonical integer
+     */
+    static boolean accepts(String val) {
+        if (val == null) return false;
+        int kind = new NumberParser().parse(val);
+        return kind == NumberParser.EMPTY || kind == NumberParser.LONG;
+    }
+
+    /**
+     * Adds a value that was checked with {@link #accepts(String)} before.
+     *
+     * @param val the value to add
+     */
+    void add(String val) {
+        NumberParser parser = new NumberParser();
+        if (parser.parse(val) == NumberParser.LONG) {
+            add(parser.longValue());
+        } else {
+            addMissing();
+        }
+    }
+
+    /**
+     * Adds a numeric value.
+     *
+     * @param val the value to add
+     */
+    void add(long val) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, size * 2));
+        }
+        values[size++] = val;
+    }
+
+    /**
+     * Adds a missing (empty) value.
+     */
+    void addMissing() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, size * 2));
+        }
+        missing.set(size++);
+    }
+
+    /**
+     * Converts this column into a decimal column with the same values and texts, e.g. when
+     * a decimal number is added to a column of integers.
+     *
+     * @return the converted column
+     */
+    DoubleColumn toDoubleColumn() {
+        DoubleColumn col = new DoubleColumn(values.length);
+        for (int i = 0; i < size; i++) {
+            if (missing.get(i)) {
+                col.addMissing();
+            } else if (values[i] > -DoubleColumn.PLAIN_LIMIT && values[i] < DoubleColumn.PLAIN_LIMIT) {
+                col.add(values[i], 0);
+            } else {
+                col.addText(values[i], Long.toString(values[i]));
+            }
+        }
+        return col;
+    }
+
+    @Override
+    Column append(String value) {
+        if (!accepts(value)) {
+            return DoubleColumn.accepts(value) ? toDoubleColumn().append(value) : toStringColumn().append(value);
+        }
+        add(value);
+        return this;
+    }
+
+    @Override
+    Column select(int[] rows, int count) {
+        long[] selected = new long[Math.max(count, DEFAULT_CAPACITY)];
+        BitSet selectedMissing = new BitSet();
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            if (row < 0 || missing.get(row)) {
+                selectedMissing.set(i);
+            } else {
+                selected[i] = values[row];
+            }
+        }
+        return new LongColumn(selected, selectedMissing, count);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getString(int row) {
+        return missing.get(row) ? "" : Long.toString(values[row]);
+    }
+
+    @Override
+    public boolean isNumeric(int row) {
+        return !missing.get(row);
+    }
+
+    @Override
+    public boolean isMissing(int row) {
+        return missing.get(row);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    @Override
+    public boolean isIntegral(int row) {
+        return !missing.get(row);
+    }
+
+    @Override
+    public long getLong(int row) {
+        return values[row];
+    }
+}
@@ -0,0 +1,291 @@
+package de.exxcellent.challenge;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MappedCSVReader is a subclass of TableReader that reads CSV files from the file system
+ * through a memory mapping instead of a stream.
+ * While loading, only the start of every line is recorded, and in lines of more than
+ * {@value #CHECKPOINT_INTERVAL} values the start of every {@value #CHECKPOINT_INTERVAL}th value;
+ * the cells of a column are decoded and typed when the column is accessed for the first time,
+ * scanning each line from the closest recorded start.
+ * The heap footprint therefore grows with the number of rows and the columns actually used,
+ * not with the size of the file.
+ * The file must not be modified while a table read by this reader is in use.
+ */
+public class MappedCSVReader extends TableReader {
+
+    private static final byte NEWLINE = '\n';
+
+    /** Number of values per line between two recorded value starts. */
+    static final int CHECKPOINT_INTERVAL = 16;
+
+    private final Path path;
+
+    private final String delimiter;
+
+    /**
+     * Constructor that accepts a path and a custom delimiter.
+     *
+     * @param path Path to the CSV file in the file system
+     * @param delimiter Delimiter used in the CSV file; must be a single ASCII character
+     * @throws IllegalArgumentException if the delimiter is not a single ASCII character
+     */
+    public MappedCSVReader(Path path, String delimiter) {
+        if (delimiter.length() != 1 || delimiter.charAt(0) > 0x7F)
+            throw new IllegalArgumentException("Delimiter must be a single ASCII character: " + delimiter);
+        this.path = path;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Constructor that accepts only the file path.
+     * Uses a comma (,) as default delimiter.
+     *
+     * @param path Path to the CSV file in the file system
+     */
+    public MappedCSVReader(Path path) {
+        this(path, ",");
+    }
+
+    /**
+     * Returns the delimiter used for this reader.
+     *
+     * @return CSV delimiter
+     */
+    public String getDelimiter() {
+        return this.delimiter;
+    }
+
+    /**
+     * Returns the path of the CSV file.
+     *
+     * @return CSV file path
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Maps the CSV file and returns it as a Table object.
+     * The first line of the CSV contains the column headers, blank lines are skipped.
+     * Missing values are allowed and will be represented as empty strings.
+     * The read is recorded as {@code read.mapped} and the size of the file as {@code read.bytes}
+     * in the {@link Metrics#global() global metrics}.
+     *
+     * @return Table representing the CSV file
+     * @throws IOException if the file cannot be read or a line has a wrong number of values
+     */
+    @Override
+    public Table readAsTable() throws IOException {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        MappedFile file = MappedFile.map(path);
+        byte delim = (byte) delimiter.charAt(0);
+
+        long headerEnd = file.indexOf(NEWLINE, 0);
+        List<String> headers = new ArrayList<>();
+        if (file.size() > 0) {
+            long start = 0;
+            while (true) {
+                long end = fieldEnd(file, start, delim);
+                headers.add(decodeTrimmed(file, start, end));
+                if (end >= headerEnd || file.get(end) != delim) break;
+                start = end + 1;
+            }
+        }
+
+        int[][] checkpoints = new int[Math.max(0, headers.size() - 1) / CHECKPOINT_INTERVAL][];
+        long[] lineStarts = indexLines(file, headerEnd + 1, delim, headers.size(), checkpoints);
+        int rowCount = lineStarts.length;
+
+        List<Column> columns = new ArrayList<>();
+        for (int c = 0; c < headers.size(); c++) {
+            final int colIndex = c;
+            columns.add(new LazyColumn(rowCount, () -> loadColumn(file, lineStarts, checkpoints, delim, colIndex)));
+        }
+        Metrics.global().count("read.bytes", file.size());
+        timer.stop("read.mapped", rowCount);
+        return new Table(headers, columns, rowCount);
+    }
+
+    /**
+     * Maps the CSV file and pushes its lines one after another into the sink.
+     * Only the current line is decoded, so arbitrarily large files can be processed
+     * in constant heap.
+     *
+     * @param sink the sink receiving the headers and rows
+     * @throws IOException if the file cannot be read or a line has a wrong number of values
+     */
+    @Override
+    public void readRows(RowSink sink) throws IOException {
+        MappedFile file = MappedFile.map(path);
+        byte delim = (byte) delimiter.charAt(0);
+
+        long pos = 0;
+        int lineNo = 0;
+        int fieldCount = -1;
+        ArrayRow row = new ArrayRow();
+        List<String> values = new ArrayList<>();
+        while (pos < file.size()) {
+            lineNo++;
+            long lineEnd = file.indexOf(NEWLINE, pos);
+            values.clear();
+            long start = pos;
+            while (true) {
+                long end = fieldEnd(file, start, delim);
+                values.add(decodeTrimmed(file, start, end));
+                if (end >= lineEnd) break;
+                start = end + 1;
+            }
+            pos = lineEnd + 1;
+            if (fieldCount < 0) {
+                fieldCount = values.size();
+                sink.start(new ArrayList<>(values));
+                continue;
+            }
+            if (values.size() == 1 && values.get(0).isEmpty()) continue;
+            if (values.size() != fieldCount)
+                throw new IOException("Wrong number of values in line " + lineNo + " of " + path);
+            sink.accept(row.set(values.toArray(new String[0])));
+        }
+        if (fieldCount < 0) {
+            sink.start(new ArrayList<>());
+        }
+        sink.end();
+    }
+
+    /**
+     * Records the start position of every non-blank line and the start of every
+     * {@value #CHECKPOINT_INTERVAL}th of its values, and checks its number of values.
+     *
+     * @param file the mapped file
+     * @param from position of the first data line
+     * @param delim delimiter byte
+     * @param fieldCount expected number of values per line
+     * @param checkpoints receives at index k - 1 the start of value {@code k * CHECKPOINT_INTERVAL} in every line,
+     *                    relative to the line start
+     * @return start positions of all data lines
+     * @throws IOException if a line has a wrong number of values
+     */
+    private long[] indexLines(MappedFile file, long from, byte delim, int fieldCount, int[][] checkpoints) throws IOException {
+        long[] starts = new long[Column.DEFAULT_CAPACITY];
+        for (int k = 0; k < checkpoints.length; k++) {
+            checkpoints[k] = new int[starts.length];
+        }
+        int count = 0;
+        long pos = from;
+        int lineNo = 1;
+        while (pos < file.size()) {
+            lineNo++;
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                for (int k = 0; k < checkpoints.length; k++) {
+                    checkpoints[k] = Arrays.copyOf(checkpoints[k], count * 2);
+                }
+            }
+            int fields = 1;
+            boolean blank = true;
+            long i = pos;
+            for (; i < file.size(); i++) {
+                byte b = file.get(i);
+                if (b == NEWLINE) break;
+                if (b == delim) {
+                    // value number "fields" (0-based) starts after this delimiter
+                    if (fields % CHECKPOINT_INTERVAL == 0 && fields / CHECKPOINT_INTERVAL <= checkpoints.length) {
+                        checkpoints[fields / CHECKPOINT_INTERVAL - 1][count] = (int) (i + 1 - pos);
+                    }
+                    fields++;
+                }
+                if ((b & 0xFF) > ' ') blank = false;
+            }
+            if (!blank || fields > 1) {
+                if (fields != fieldCount)
+                    throw new IOException("Wrong number of values in line " + lineNo + " of " + path);
+                if (i - pos > Integer.MAX_VALUE)
+                    throw new IOException("Line " + lineNo + " of " + path + " is too long");
+                starts[count++] = pos;
+            }
+            pos = i + 1;
+        }
+        for (int k = 0; k < checkpoints.length; k++) {
+            checkpoints[k] = Arrays.copyOf(checkpoints[k], count);
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Decodes one column of the file and converts it into a typed column. Every line is scanned
+     * from the recorded start of the closest preceding checkpoint value, so at most
+     * {@code CHECKPOINT_INTERVAL - 1} values are skipped per line.
+     *
+     * @param file the mapped file
+     * @param lineStarts start positions of the data lines
+     * @param checkpoints at index k - 1 the start of value {@code k * CHECKPOINT_INTERVAL} in every line,
+     *                    relative to the line start
+     * @param delim delimiter byte
+     * @param colIndex index of the column to load
+     * @return the typed column
+     */
+    private static Column loadColumn(MappedFile file, long[] lineStarts, int[][] checkpoints, byte delim, int colIndex) {
+        ColumnBuilder builder = new ColumnBuilder(lineStarts.length, StandardCharsets.UTF_8);
+        // Every field is copied into the same buffer, numbers are parsed from there without a String
+        byte[] field = new byte[64];
+        int checkpoint = colIndex / CHECKPOINT_INTERVAL;
+        int[] offsets = checkpoint == 0 ? null : checkpoints[checkpoint - 1];
+        for (int r = 0; r < lineStarts.length; r++) {
+            long start = lineStarts[r] + (offsets == null ? 0 : offsets[r]);
+            for (int c = checkpoint * CHECKPOINT_INTERVAL; c < colIndex; c++) {
+                start = fieldEnd(file, start, delim) + 1;
+            }
+            long end = fieldEnd(file, start, delim);
+            while (start < end && (file.get(start) & 0xFF) <= ' ') start++;
+            while (end > start && (file.get(end - 1) & 0xFF) <= ' ') end--;
+            int length = (int) (end - start);
+            if (length > field.length) {
+                field = new byte[Math.max(length, field.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                field[i] = file.get(start + i);
+            }
+            builder.add(field, 0, length);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the end position (exclusive) of the field starting at the given position.
+     *
+     * @param file the mapped file
+     * @param start start position of the field
+     * @param delim delimiter byte
+     * @return position of the next delimiter, newline or the end of the file
+     */
+    private static long fieldEnd(MappedFile file, long start, byte delim) {
+        long i = start;
+        while (i < file.size()) {
+            byte b = file.get(i);
+            if (b == delim || b == NEWLINE) break;
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Decodes the given byte range without leading and trailing whitespace.
+     *
+     * @param file the mapped file
+     * @param start start position (inclusive)
+     * @param end end position (exclusive)
+     * @return the trimmed value
+     */
+    private static String decodeTrimmed(MappedFile file, long start, long end) {
+        while (start < end && (file.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (file.get(end - 1) & 0xFF) <= ' ') end--;
+        return file.decode(start, end);
+    }
+}
@@ -0,0 +1,108 @@
+package de.exxcellent.challenge;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of a whole file.
+ * Files larger than 2 GB are mapped as several fixed-size segments,
+ * so positions are addressed as long offsets into the file.
+ */
+final class MappedFile {
+
+    private static final int SEGMENT_SHIFT = 30;
+
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final MappedByteBuffer[] segments;
+
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Maps the given file into memory.
+     * The mapping stays valid after this method returns, the channel itself is closed.
+     *
+     * @param path path of the file
+     * @return the mapped file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static MappedFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+            return new MappedFile(segments, size);
+        }
+    }
+
+    /**
+     * Returns the size of the file in bytes.
+     *
+     * @return file size
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Returns the byte at the given position.
+     *
+     * @param pos position in the file
+     * @return the byte at this position
+     */
+    byte get(long pos) {
+        return segments[(int) (pos >>> SEGMENT_SHIFT)].get((int) (pos & SEGMENT_MASK));
+    }
+
+    /**
+     * Returns the position of the next occurrence of the given byte.
+     *
+     * @param b the byte to search for
+     * @param from position to start searching at
+     * @return position of the byte, or the file size if it does not occur
+     */
+    long indexOf(byte b, long from) {
+        while (from < size) {
+            MappedByteBuffer segment = segments[(int) (from >>> SEGMENT_SHIFT)];
+            int limit = segment.limit();
+            for (int i = (int) (from & SEGMENT_MASK); i < limit; i++) {
+                if (segment.get(i) == b) {
+                    return (from & ~SEGMENT_MASK) + i;
+                }
+            }
+            from = (from & ~SEGMENT_MASK) + SEGMENT_SIZE;
+        }
+        return size;
+    }
+
+    /**
+     * Decodes the given byte range as UTF-8 string.
+     *
+     * @param from start position (inclusive)
+     * @param to end position (exclusive)
+     * @return the decoded string
+     */
+    String decode(long from, long to) {
+        int len = (int) (to - from);
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            bytes[i] = get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
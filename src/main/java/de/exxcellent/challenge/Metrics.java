@@ -0,0 +1,406 @@
+package de.exxcellent.challenge;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms measuring where the time of reading and querying tables goes.
+ * <p>
+ * The readers and the query operations of {@link Table} report to the {@link #global() global}
+ * instance. Every timed operation records into the histograms {@code <operation>.nanos} and,
+ * where the JVM can measure it, {@code <operation>.allocatedBytes} (bytes allocated by the calling
+ * thread, so work done by pool threads of parallel operations is not included), and adds its rows
+ * to the counter {@code <operation>.rows}. The operations are
+ * <ul>
+ * <li>{@code read.csv}, {@code read.mapped}, {@code read.binary}: reading a table, with the counter
+ * {@code read.bytes} of the bytes read from the sources,</li>
+ * <li>{@code read.multi}: reading and concatenating the files of a {@link MultiFileReader}; the files
+ * are read on pool threads, so each one is also recorded as {@code read.csv},</li>
+ * <li>{@code column.parse}: parsing one column on first access of a lazy column, or from a list of values;
+ * the sequential CSV parser fills all columns in one pass, so its parse time is part of {@code read.csv},</li>
+ * <li>{@code table.build}: building a table from rows,</li>
+ * <li>{@code query.<method>}: the query methods of {@link Table}, and {@code app.analyze},</li>
+ * <li>{@code join.stream}: joining two sources with {@link HashJoin}, with the counter
+ * {@code join.spilledBytes} of the bytes written to partition files,</li>
+ * <li>{@code sort.external}: sorting a source with {@link ExternalSort}, with the counter
+ * {@code sort.spilledBytes} of the bytes written to run files.</li>
+ * </ul>
+ * While a Flight Recorder recording is running, every timed operation is also recorded as
+ * {@link OperationEvent}. The metrics are read with {@link #snapshot()}, written to a file
+ * with {@link #dump(Path)}, or written periodically with {@link #dumpPeriodically(Path, long, TimeUnit)}.
+ * Recording takes no lock; with {@link #setEnabled(boolean) disabled} metrics it costs a volatile read.
+ */
+public final class Metrics {
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    /** Bean measuring the allocations of the current thread, or null if the JVM does not support it. */
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /** The metrics of every timed operation, so that their names are only built once. */
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled = true;
+
+    /**
+     * Returns the instance the readers and tables report to.
+     *
+     * @return the global metrics
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns whether the allocated bytes of operations are measured by this JVM.
+     *
+     * @return true if the {@code .allocatedBytes} histograms are recorded
+     */
+    public static boolean isAllocationTrackingSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Enables or disables recording; already recorded metrics are kept.
+     *
+     * @param enabled false to stop recording
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether metrics are recorded.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current value of a counter.
+     *
+     * @param name Name of the counter, e.g. "read.bytes"
+     * @return the value, or 0 if nothing was counted
+     */
+    public long getCounter(String name) {
+        LongAdder c = counters.get(name);
+        return c == null ? 0 : c.sum();
+    }
+
+    /**
+     * Returns a copy of the current state of a histogram.
+     *
+     * @param name Name of the histogram, e.g. "query.getExtremeValue.nanos"
+     * @return the copy, or null if nothing was recorded
+     */
+    public Histogram getHistogram(String name) {
+        Histogram h = histograms.get(name);
+        return h == null ? null : h.copy();
+    }
+
+    /**
+     * Returns a copy of all counters and histograms.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, c) -> counterValues.put(name, c.sum()));
+        Map<String, Histogram> histogramCopies = new TreeMap<>();
+        histograms.forEach((name, h) -> histogramCopies.put(name, h.copy()));
+        return new Snapshot(System.currentTimeMillis(), counterValues, histogramCopies);
+    }
+
+    /**
+     * Removes all counters and histograms.
+     */
+    public void reset() {
+        operations.clear();
+        counters.clear();
+        histograms.clear();
+    }
+
+    /**
+     * Writes a snapshot as text to the given file, replacing it.
+     * The snapshot is written to a temporary file next to the target first and then moved into
+     * place, so readers of the file never see a partial dump.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void dump(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, snapshot().toString().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Writes a snapshot to the given file at a fixed rate on a background daemon thread,
+     * see {@link #dump(Path)}. A dump that fails is counted in {@code metrics.dumpFailures} and
+     * retried at the next period. Closing the returned handle stops the dumps and writes a last one.
+     *
+     * @param file the file to write
+     * @param period time between two dumps
+     * @param unit unit of the period
+     * @return handle stopping the dumps
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public Closeable dumpPeriodically(Path file, long period, TimeUnit unit) {
+        if (period <= 0)
+            throw new IllegalArgumentException("Period must be positive!");
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                count("metrics.dumpFailures", 1);
+            }
+        }, period, period, unit);
+        return () -> {
+            if (executor.isShutdown()) return;
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dump(file);
+        };
+    }
+
+    /**
+     * Adds to a counter.
+     *
+     * @param name Name of the counter
+     * @param delta the amount to add
+     */
+    void count(String name, long delta) {
+        if (enabled) {
+            counter(name).add(delta);
+        }
+    }
+
+    /**
+     * Records a value into a histogram.
+     *
+     * @param name Name of the histogram
+     * @param value the value
+     */
+    void record(String name, long value) {
+        if (enabled) {
+            histogram(name).record(value);
+        }
+    }
+
+    /**
+     * Starts timing an operation; the operation reports itself with {@link Timer#stop(String, long)}.
+     *
+     * @return the timer, which does nothing if metrics are disabled
+     */
+    Timer startTimer() {
+        return enabled ? new Timer(this) : Timer.DISABLED;
+    }
+
+    private LongAdder counter(String name) {
+        LongAdder c = counters.get(name);
+        return c != null ? c : counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    private Histogram histogram(String name) {
+        Histogram h = histograms.get(name);
+        return h != null ? h : histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    private Operation operation(String name, boolean hasRows) {
+        Operation op = operations.get(name);
+        return op != null ? op : operations.computeIfAbsent(name, n -> new Operation(histogram(n + ".nanos"),
+                THREADS == null ? null : histogram(n + ".allocatedBytes"), hasRows ? counter(n + ".rows") : null));
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+        } catch (LinkageError | SecurityException e) {
+            // jdk.management is not available, allocations are not measured
+        }
+        return null;
+    }
+
+    /**
+     * Measures the time, the allocations and optionally the Flight Recorder event of one operation.
+     */
+    static final class Timer {
+
+        static final Timer DISABLED = new Timer(null);
+
+        private final Metrics metrics;
+
+        private final long start;
+
+        private final long allocated;
+
+        private final OperationEvent event;
+
+        private Timer(Metrics metrics) {
+            this.metrics = metrics;
+            if (metrics == null) {
+                start = 0;
+                allocated = -1;
+                event = null;
+                return;
+            }
+            OperationEvent e = new OperationEvent();
+            if (e.isEnabled()) {
+                e.begin();
+                event = e;
+            } else {
+                event = null;
+            }
+            allocated = THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+        }
+
+        /**
+         * Ends the operation and records it.
+         *
+         * @param operation Name of the operation
+         * @param rows number of rows read or scanned, or -1 if not applicable
+         */
+        void stop(String operation, long rows) {
+            if (metrics == null) return;
+            long nanos = System.nanoTime() - start;
+            long allocatedBytes = allocated < 0 ? -1 : THREADS.getCurrentThreadAllocatedBytes() - allocated;
+            Operation op = metrics.operation(operation, rows >= 0);
+            op.nanos.record(nanos);
+            if (op.allocatedBytes != null && allocatedBytes >= 0) {
+                op.allocatedBytes.record(allocatedBytes);
+            }
+            if (op.rows != null && rows >= 0) {
+                op.rows.add(rows);
+            }
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = operation;
+                    event.rows = rows;
+                    event.allocated = allocatedBytes;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * The histograms and the counter of one timed operation.
+     */
+    private static final class Operation {
+
+        final Histogram nanos;
+
+        final Histogram allocatedBytes;
+
+        final LongAdder rows;
+
+        Operation(Histogram nanos, Histogram allocatedBytes, LongAdder rows) {
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Copy of all counters and histograms at one point in time.
+     */
+    public static final class Snapshot {
+
+        private final long timestamp;
+
+        private final Map<String, Long> counters;
+
+        private final Map<String, Histogram> histograms;
+
+        Snapshot(long timestamp, Map<String, Long> counters, Map<String, Histogram> histograms) {
+            this.timestamp = timestamp;
+            this.counters = Collections.unmodifiableMap(counters);
+            this.histograms = Collections.unmodifiableMap(histograms);
+        }
+
+        /**
+         * Returns the time the snapshot was taken.
+         *
+         * @return milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Returns the counters.
+         *
+         * @return counter values by name, in alphabetical order
+         */
+        public Map<String, Long> getCounters() {
+            return counters;
+        }
+
+        /**
+         * Returns the histograms.
+         *
+         * @return histogram copies by name, in alphabetical order
+         */
+        public Map<String, Histogram> getHistograms() {
+            return histograms;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("# metrics at ").append(Instant.ofEpochMilli(timestamp)).append(System.lineSeparator());
+            counters.forEach((name, value) -> sb.append(name).append(' ').append(value).append(System.lineSeparator()));
+            histograms.forEach((name, h) -> sb.append(name).append(' ').append(h).append(System.lineSeparator()));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package de.exxcellent.challenge;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * MultiFileReader is a subclass of TableReader that reads all CSV files of a directory whose
+ * path matches a glob pattern, e.g. {@code "*.csv"} for the files of the directory itself or
+ * {@code "station-*}{@code /2024-*.csv"} for the files of its subdirectories.
+ * <p>
+ * The files are read in the order of their paths by {@link CSVReader}s on a pool of at most
+ * {@link #getParallelism()} threads, which read ahead of the file being consumed, so the files are
+ * read and parsed concurrently while the results keep the file order. All files must have the
+ * same headers as the first one. The files are presented either as one concatenated table
+ * ({@link #readAsTable()}), whose columns are concatenated without going through strings, or as
+ * a stream of per-file {@link Batch batches} ({@link #readBatches()}), of which only a bounded
+ * number is in memory at a time.
+ */
+public class MultiFileReader extends TableReader {
+
+    /** Default glob, all CSV files of the directory itself. */
+    public static final String DEFAULT_GLOB = "*.csv";
+
+    private final Path directory;
+
+    private final String glob;
+
+    private final String delimiter;
+
+    private final CSVReader.Mode mode;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructor that accepts a directory, a glob pattern, a delimiter and the parsing mode of the files.
+     *
+     * @param directory the directory to search
+     * @param glob Glob pattern matched against the paths of the files relative to the directory
+     * @param delimiter Delimiter used in the CSV files
+     * @param mode Mode used to parse every file
+     */
+    public MultiFileReader(Path directory, String glob, String delimiter, CSVReader.Mode mode) {
+        if (directory == null || glob == null || delimiter == null || mode == null)
+            throw new IllegalArgumentException("Directory, glob, delimiter and mode must not be null!");
+        this.directory = directory;
+        this.glob = glob;
+        this.delimiter = delimiter;
+        this.mode = mode;
+    }
+
+    /**
+     * Constructor that accepts a directory and a glob pattern.
+     * The files use a comma (,) as delimiter and are parsed sequentially.
+     *
+     * @param directory the directory to search
+     * @param glob Glob pattern matched against the paths of the files relative to the directory
+     */
+    public MultiFileReader(Path directory, String glob) {
+        this(directory, glob, ",", CSVReader.Mode.SEQUENTIAL);
+    }
+
+    /**
+     * Constructor that accepts only a directory and reads all its CSV files.
+     *
+     * @param directory the directory to search
+     */
+    public MultiFileReader(Path directory) {
+        this(directory, DEFAULT_GLOB);
+    }
+
+    /**
+     * Returns the directory searched for files.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the glob pattern of the files.
+     *
+     * @return the pattern
+     */
+    public String getGlob() {
+        return glob;
+    }
+
+    /**
+     * Returns the maximum number of files read at the same time.
+     *
+     * @return number of threads
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the maximum number of files read at the same time; once the disk is saturated more
+     * threads do not read faster but need more memory for the files read ahead.
+     *
+     * @param parallelism number of threads
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive!");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the files matching the glob pattern, sorted by path.
+     *
+     * @return the files
+     * @throws IOException if the directory cannot be searched
+     */
+    public List<Path> getFiles() throws IOException {
+        PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(directory.relativize(file)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads all files and concatenates them into one table, in the order of their paths.
+     *
+     * @return Table holding the rows of all files
+     * @throws IOException if no file matches, a file cannot be read or its headers differ from the first file
+     */
+    @Override
+    public Table readAsTable() throws IOException {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        List<Table> tables = new ArrayList<>();
+        try (Stream<Batch> batches = readBatches()) {
+            batches.forEach(batch -> tables.add(batch.getTable()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<String> headers = tables.get(0).getHeaders();
+        List<Column> columns = new ArrayList<>();
+        List<Column> parts = new ArrayList<>();
+        int rowCount = 0;
+        for (Table table : tables) {
+            rowCount += table.getRowCount();
+        }
+        for (int c = 0; c < headers.size(); c++) {
+            parts.clear();
+            for (Table table : tables) {
+                parts.add(table.getTypedColumn(c));
+            }
+            columns.add(Column.concat(parts));
+        }
+        Table table = new Table(headers, columns, rowCount);
+        timer.stop("read.multi", rowCount);
+        return table;
+    }
+
+    /**
+     * Reads all files and pushes their rows into the sink, in the order of the paths of the files.
+     *
+     * @param sink the sink receiving the headers and rows
+     * @throws IOException if no file matches, a file cannot be read or its headers differ from the first file
+     */
+    @Override
+    public void readRows(RowSink sink) throws IOException {
+        try (Stream<Batch> batches = readBatches()) {
+            Iterator<Batch> it = batches.iterator();
+            Batch first = it.next();
+            sink.start(first.getTable().getHeaders());
+            for (Batch batch = first; batch != null; batch = it.hasNext() ? it.next() : null) {
+                RowCursor cursor = batch.getTable().cursor();
+                while (cursor.next()) {
+                    sink.accept(cursor);
+                }
+            }
+            sink.end();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the files as a stream of one table per file, in the order of their paths.
+     * While the stream is consumed, the next files are already read on the thread pool; the stream
+     * must be closed to stop the pool. A file that cannot be read, or whose headers differ from the
+     * first file, ends the stream with an {@link UncheckedIOException}.
+     *
+     * @return the stream of batches
+     * @throws IOException if the directory cannot be searched or no file matches
+     */
+    public Stream<Batch> readBatches() throws IOException {
+        List<Path> files = getFiles();
+        if (files.isEmpty())
+            throw new IOException("No file in " + directory + " matches " + glob);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, files.size()), task -> {
+            Thread thread = new Thread(task, "table-reader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BatchIterator batches = new BatchIterator(files, executor);
+        // not sized, so that terminal operations such as count() still read and check every file
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(executor::shutdownNow);
+    }
+
+    /**
+     * Reads one file.
+     */
+    private Batch read(Path file) throws IOException {
+        return new Batch(file, new CSVReader(file, delimiter, mode, null).readAsTable());
+    }
+
+    /**
+     * Iterates over the batches in file order and keeps up to twice the parallelism of files submitted
+     * ahead, so that the pool is busy while the consumer works on a batch.
+     */
+    private final class BatchIterator implements Iterator<Batch> {
+
+        private final List<Path> files;
+
+        private final ExecutorService executor;
+
+        private final List<Future<Batch>> pending = new ArrayList<>();
+
+        private int submitted;
+
+        private int consumed;
+
+        private List<String> headers;
+
+        BatchIterator(List<Path> files, ExecutorService executor) {
+            this.files = files;
+            this.executor = executor;
+            int window = (int) Math.min(files.size(), 2L * parallelism);
+            while (submitted < window) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            Path file = files.get(submitted++);
+            pending.add(executor.submit(() -> read(file)));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return consumed < files.size();
+        }
+
+        @Override
+        public Batch next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Future<Batch> future = pending.remove(0);
+            consumed++;
+            if (submitted < files.size()) {
+                submit();
+            }
+            Batch batch;
+            try {
+                batch = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new IOException("Interrupted while reading " + files.get(consumed - 1), e));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw new UncheckedIOException((IOException) cause);
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IllegalStateException(cause);
+            }
+            List<String> batchHeaders = batch.getTable().getHeaders();
+            if (headers == null) {
+                headers = batchHeaders;
+            } else if (!headers.equals(batchHeaders)) {
+                throw new UncheckedIOException(new IOException("Headers of " + batch.getFile() + " " + batchHeaders
+                        + " differ from " + files.get(0) + " " + headers));
+            }
+            return batch;
+        }
+    }
+
+    /**
+     * The table read from one file.
+     */
+    public static final class Batch {
+
+        private final Path file;
+
+        private final Table table;
+
+        Batch(Path file, Table table) {
+            this.file = file;
+            this.table = table;
+        }
+
+        /**
+         * Returns the file the table was read from.
+         *
+         * @return the file
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Returns the rows of the file.
+         *
+         * @return the table
+         */
+        public Table getTable() {
+            return table;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package de.exxcellent.challenge;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers directly from a range of characters or bytes, without creating
+ * strings and without throwing exceptions for values that are not numeric.
+ * <p>
+ * {@link #parse(CharSequence, int, int)} returns the kind of the value as status code,
+ * the parsed value is then available from {@link #longValue()} or {@link #doubleValue()}.
+ * Everything {@link Double#parseDouble(String)} accepts is numeric. Plain decimal numbers
+ * of up to 15 significant digits and a small exponent are converted exactly on the fast
+ * path; longer numbers and the rare hexadecimal form fall back to {@link Double#parseDouble(String)}.
+ * A parser keeps the last value, so an instance must not be shared between threads.
+ */
+final class NumberParser {
+
+    /** The range is empty. */
+    static final int EMPTY = 0;
+
+    /**
+     * The value is an integer written exactly as {@link Long#toString(long)} writes it,
+     * so it can be stored as long without losing its text.
+     */
+    static final int LONG = 1;
+
+    /** The value is any other number. */
+    static final int DOUBLE = 2;
+
+    /** The value is not numeric. */
+    static final int INVALID = 3;
+
+    /** Exactly representable powers of ten for the fast path. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Significant digits that always fit exactly into the 53 bits of a double. */
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private CharSequence text;
+
+    private byte[] bytes;
+
+    private long longValue;
+
+    private double doubleValue;
+
+    private int scale;
+
+    /**
+     * Parses a whole string.
+     *
+     * @param text the text, not null
+     * @return one of {@link #EMPTY}, {@link #LONG}, {@link #DOUBLE} and {@link #INVALID}
+     */
+    int parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses the characters in the given range.
+     *
+     * @param text the characters
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @return one of {@link #EMPTY}, {@link #LONG}, {@link #DOUBLE} and {@link #INVALID}
+     */
+    int parse(CharSequence text, int from, int to) {
+        this.text = text;
+        this.bytes = null;
+        return parseRange(from, to);
+    }
+
+    /**
+     * Parses the bytes in the given range, which must be in an ASCII-compatible encoding.
+     *
+     * @param data the bytes
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @return one of {@link #EMPTY}, {@link #LONG}, {@link #DOUBLE} and {@link #INVALID}
+     */
+    int parse(byte[] data, int from, int to) {
+        this.text = null;
+        this.bytes = data;
+        return parseRange(from, to);
+    }
+
+    /**
+     * Returns the value of the last parse that returned {@link #LONG}.
+     *
+     * @return the value
+     */
+    long longValue() {
+        return longValue;
+    }
+
+    /**
+     * Returns the value of the last parse that returned {@link #LONG} or {@link #DOUBLE}.
+     *
+     * @return the value
+     */
+    double doubleValue() {
+        return doubleValue;
+    }
+
+    /**
+     * Returns the number of fraction digits of the value of the last parse if its text is a plain
+     * decimal of at most {@link DoubleColumn#MAX_PLAIN_DIGITS} digits, such as "50", "53.8" or "0.00",
+     * so that {@link DoubleColumn#format(double, int)} reproduces the text from the value.
+     *
+     * @return the number of fraction digits, or -1 if the text is not a plain decimal
+     */
+    int scale() {
+        return scale;
+    }
+
+    /**
+     * Parses a string into a double.
+     *
+     * @param text the text (may be null)
+     * @return the value, or NaN if the text is null, empty or not numeric
+     */
+    static double toDouble(String text) {
+        if (text == null) return Double.NaN;
+        NumberParser parser = new NumberParser();
+        int kind = parser.parse(text);
+        return kind == LONG || kind == DOUBLE ? parser.doubleValue : Double.NaN;
+    }
+
+    private char charAt(int i) {
+        return bytes != null ? (char) (bytes[i] & 0xFF) : text.charAt(i);
+    }
+
+    private int parseRange(int from, int to) {
+        scale = -1;
+        if (from >= to) return EMPTY;
+        int start = from;
+        int end = to;
+        // Double.parseDouble ignores surrounding whitespace like String.trim()
+        while (start < end && charAt(start) <= ' ') start++;
+        while (end > start && charAt(end - 1) <= ' ') end--;
+        if (start == end) return INVALID;
+        boolean canonical = start == from && end == to;
+
+        int pos = start;
+        boolean negative = false;
+        char c = charAt(pos);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            canonical &= negative;
+            pos++;
+        }
+        if (pos == end) return INVALID;
+        c = charAt(pos);
+        if (c == 'N' || c == 'I') {
+            return parseSpecial(pos, end, negative);
+        }
+        if (c == '0' && pos + 1 < end && (charAt(pos + 1) == 'x' || charAt(pos + 1) == 'X')) {
+            return parseSlow(start, end);
+        }
+
+        // Integer digits, accumulated negatively like Long.parseLong so that Long.MIN_VALUE fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long acc = 0;
+        boolean fitsLong = true;
+        long mantissa = 0;
+        int significant = 0;
+        int intStart = pos;
+        for (; pos < end && (c = charAt(pos)) >= '0' && c <= '9'; pos++) {
+            int digit = c - '0';
+            if (fitsLong) {
+                if (acc < limit / 10 || acc * 10 < limit + digit) {
+                    fitsLong = false;
+                } else {
+                    acc = acc * 10 - digit;
+                }
+            }
+            if (significant > 0 || digit != 0) {
+                if (significant < 18) mantissa = mantissa * 10 + digit;
+                significant++;
+            }
+        }
+        int intDigits = pos - intStart;
+        if (intDigits > 1 && charAt(intStart) == '0') canonical = false;
+        // a plain decimal has the form of a canonical integer with an optional non-empty fraction
+        boolean plain = canonical && intDigits > 0;
+        int fracLength = 0;
+
+        int fracDigits = 0;
+        int droppedIntDigits = Math.max(0, significant - 18);
+        if (pos < end && charAt(pos) == '.') {
+            canonical = false;
+            pos++;
+            int fracStart = pos;
+            for (; pos < end && (c = charAt(pos)) >= '0' && c <= '9'; pos++) {
+                int digit = c - '0';
+                if (significant > 0 || digit != 0) {
+                    if (significant < 18) {
+                        mantissa = mantissa * 10 + digit;
+                        fracDigits++;
+                    }
+                    significant++;
+                } else {
+                    fracDigits++;
+                }
+            }
+            if (intDigits == 0 && pos == fracStart) return INVALID;
+            fracLength = pos - fracStart;
+            plain &= fracLength > 0;
+        } else if (intDigits == 0) {
+            return INVALID;
+        }
+
+        int exponent = 0;
+        if (pos < end && (charAt(pos) == 'e' || charAt(pos) == 'E')) {
+            canonical = false;
+            plain = false;
+            pos++;
+            boolean negativeExp = false;
+            if (pos < end && (charAt(pos) == '-' || charAt(pos) == '+')) {
+                negativeExp = charAt(pos) == '-';
+                pos++;
+            }
+            int expStart = pos;
+            for (; pos < end && (c = charAt(pos)) >= '0' && c <= '9'; pos++) {
+                // Saturate; such exponents over- or underflow anyway
+                if (exponent < 100000) exponent = exponent * 10 + (c - '0');
+            }
+            if (pos == expStart) return INVALID;
+            if (negativeExp) exponent = -exponent;
+        }
+        if (pos < end && pos + 1 == end) {
+            c = charAt(pos);
+            if (c != 'd' && c != 'D' && c != 'f' && c != 'F') return INVALID;
+            canonical = false;
+            plain = false;
+            pos++;
+        }
+        if (pos != end) return INVALID;
+        // -0 and -0.0 parse to -0.0, which is written without its sign
+        if (plain && intDigits + fracLength <= DoubleColumn.MAX_PLAIN_DIGITS && !(negative && mantissa == 0)) {
+            scale = fracLength;
+        }
+
+        if (canonical && fitsLong && !(negative && acc == 0)) {
+            longValue = negative ? acc : -acc;
+            doubleValue = longValue;
+            return LONG;
+        }
+        int power = exponent + droppedIntDigits - fracDigits;
+        if (significant <= MAX_FAST_DIGITS && Math.abs(power) < POWERS_OF_TEN.length) {
+            double value = power >= 0 ? mantissa * POWERS_OF_TEN[power] : mantissa / POWERS_OF_TEN[-power];
+            doubleValue = negative ? -value : value;
+            return DOUBLE;
+        }
+        if (mantissa == 0) {
+            doubleValue = negative ? -0.0 : 0.0;
+            return DOUBLE;
+        }
+        return parseSlow(start, end);
+    }
+
+    private int parseSpecial(int pos, int end, boolean negative) {
+        if (matches(pos, end, "NaN")) {
+            doubleValue = Double.NaN;
+            return DOUBLE;
+        }
+        if (matches(pos, end, "Infinity")) {
+            doubleValue = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return DOUBLE;
+        }
+        return INVALID;
+    }
+
+    private boolean matches(int pos, int end, String word) {
+        if (end - pos != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (charAt(pos + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Converts a range that has too many digits for the fast path, or is hexadecimal, with
+     * {@link Double#parseDouble(String)}. Only reached for rare values.
+     */
+    private int parseSlow(int from, int to) {
+        String val = bytes != null
+                ? new String(bytes, from, to - from, StandardCharsets.ISO_8859_1)
+                : text.subSequence(from, to).toString();
+        try {
+            doubleValue = Double.parseDouble(val);
+            return DOUBLE;
+        } catch (NumberFormatException e) {
+            return INVALID;
+        }
+    }
+}
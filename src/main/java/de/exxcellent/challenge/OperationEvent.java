@@ -0,0 +1,33 @@
+package de.exxcellent.challenge;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a timed read or query operation, see {@link Metrics}.
+ * It is only recorded while a recording is running, e.g. one started with
+ * {@code -XX:StartFlightRecording}; the event duration is the time of the operation.
+ */
+@Name("de.exxcellent.challenge.Operation")
+@Label("Table Operation")
+@Category("Challenge")
+@Description("Read or query operation on a table")
+@StackTrace(false)
+final class OperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the calling thread, or -1 if not measured")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,112 @@
+package de.exxcellent.challenge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes which part of a source {@link TableReader#readAsTable(ReadRequest)} returns:
+ * the projected columns, in the requested order, of the rows matching all predicates.
+ * Readers that support it apply the request while reading, so unused values and
+ * dropped rows are never stored.
+ *
+ * <pre>
+ * Table hot = reader.readAsTable(new ReadRequest(
+ *         Arrays.asList("Day", "MxT"), Arrays.asList(ColumnPredicate.parse("MxT &gt; 80"))));
+ * </pre>
+ */
+public final class ReadRequest {
+
+    private final List<String> columns;
+
+    private final List<ColumnPredicate> predicates;
+
+    /**
+     * Creates a request for the given columns of the rows matching all predicates.
+     * The predicates may refer to columns that are not projected.
+     *
+     * @param columns Names of the columns to return, or null for all columns
+     * @param predicates Conditions every returned row must fulfil
+     */
+    public ReadRequest(List<String> columns, List<ColumnPredicate> predicates) {
+        if (predicates == null)
+            throw new IllegalArgumentException("Predicates must not be null!");
+        this.columns = columns == null ? null : Collections.unmodifiableList(new ArrayList<>(columns));
+        this.predicates = Collections.unmodifiableList(new ArrayList<>(predicates));
+    }
+
+    /**
+     * Creates a request for the given columns of all rows.
+     *
+     * @param columns Names of the columns to return
+     */
+    public ReadRequest(String... columns) {
+        this(Arrays.asList(columns), Collections.emptyList());
+    }
+
+    /**
+     * Returns the names of the projected columns.
+     *
+     * @return the column names, or null if all columns are returned
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the conditions every returned row must fulfil.
+     *
+     * @return the predicates
+     */
+    public List<ColumnPredicate> getPredicates() {
+        return predicates;
+    }
+
+    /**
+     * Resolves the projected columns against the headers of the source.
+     *
+     * @param headers headers of the source
+     * @return the indexes of the projected columns within the headers
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    int[] projection(List<String> headers) {
+        if (columns == null) {
+            int[] all = new int[headers.size()];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[] indexes = new int[columns.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = indexOf(headers, columns.get(i));
+        }
+        return indexes;
+    }
+
+    /**
+     * Resolves the columns of the predicates against the headers of the source.
+     *
+     * @param headers headers of the source
+     * @return the index of the column of every predicate within the headers
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    int[] predicateColumns(List<String> headers) {
+        int[] indexes = new int[predicates.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = indexOf(headers, predicates.get(i).getHeader());
+        }
+        return indexes;
+    }
+
+    private static int indexOf(List<String> headers, String header) {
+        int index = headers.indexOf(header);
+        if (index < 0)
+            throw new IllegalArgumentException("Column does not exist: " + header);
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return "select " + (columns == null ? "*" : String.join(", ", columns)) + " where " + predicates;
+    }
+}
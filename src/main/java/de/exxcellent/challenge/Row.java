@@ -0,0 +1,33 @@
+package de.exxcellent.challenge;
+
+/**
+ * Read access to a single row that is pushed through a {@link RowSink}.
+ * A row is only valid during the call it is passed to; readers may reuse the instance.
+ */
+public interface Row {
+
+    /**
+     * Returns the number of values in this row.
+     *
+     * @return number of values
+     */
+    int size();
+
+    /**
+     * Returns the value at the given column index.
+     *
+     * @param colIndex index of the column
+     * @return the value as String
+     */
+    String get(int colIndex);
+
+    /**
+     * Returns the value at the given column index as double.
+     *
+     * @param colIndex index of the column
+     * @return the numeric value, or NaN if the value is missing or not numeric
+     */
+    default double getDouble(int colIndex) {
+        return NumberParser.toDouble(get(colIndex));
+    }
+}
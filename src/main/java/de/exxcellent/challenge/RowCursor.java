@@ -0,0 +1,98 @@
+package de.exxcellent.challenge;
+
+/**
+ * Cursor that moves over the rows of a {@link Table} and reads the cells directly
+ * from the typed columns. The same instance is moved from row to row, so no values
+ * are copied and nothing is allocated per row.
+ * A cursor is only valid as long as the table is not modified.
+ *
+ * <pre>
+ * RowCursor cursor = table.cursor();
+ * while (cursor.next()) {
+ *     String day = cursor.get(dayIndex);
+ * }
+ * </pre>
+ */
+public final class RowCursor implements Row {
+
+    private final Column[] columns;
+
+    private final int rowCount;
+
+    private int rowIndex = -1;
+
+    /**
+     * Creates a cursor over the given columns, positioned before the first row.
+     *
+     * @param columns the columns of the table
+     * @param rowCount number of rows of the table
+     */
+    RowCursor(Column[] columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Moves the cursor to the next row.
+     *
+     * @return true if the cursor points to a row, false if there are no more rows
+     */
+    public boolean next() {
+        if (rowIndex < rowCount) {
+            rowIndex++;
+        }
+        return rowIndex < rowCount;
+    }
+
+    /**
+     * Moves the cursor to the given row.
+     *
+     * @param rowIndex index of the row
+     * @return this cursor
+     * @throws IllegalArgumentException if rowIndex is negative or >= number of rows
+     */
+    public RowCursor moveTo(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IllegalArgumentException("Invalid row index: " + rowIndex);
+        }
+        this.rowIndex = rowIndex;
+        return this;
+    }
+
+    /**
+     * Returns the index of the row the cursor points to.
+     *
+     * @return the current row index
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    @Override
+    public int size() {
+        return columns.length;
+    }
+
+    @Override
+    public String get(int colIndex) {
+        return column(colIndex).getString(rowIndex);
+    }
+
+    @Override
+    public double getDouble(int colIndex) {
+        Column col = column(colIndex);
+        return col.isNumeric(rowIndex) ? col.getDouble(rowIndex) : Double.NaN;
+    }
+
+    /**
+     * Returns the column at the given index, loading a lazily loaded column on first access.
+     */
+    private Column column(int colIndex) {
+        Column col = columns[colIndex];
+        if (col instanceof LazyColumn) {
+            col = ((LazyColumn) col).load();
+            columns[colIndex] = col;
+        }
+        return col;
+    }
+}
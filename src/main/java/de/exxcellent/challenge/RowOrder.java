@@ -0,0 +1,271 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Order of the rows of a table by one or more {@link SortKey sort keys}.
+ * <p>
+ * Every key column is mapped once to one long rank per row that orders like the values:
+ * integers are their own rank, decimals get their bits in an order-preserving form, and strings
+ * get the position of their dictionary entry in the sorted dictionary, so the sort itself only
+ * compares primitive longs and never parses or compares strings. The row indices are sorted by
+ * a stable merge sort, so rows with equal keys keep their order.
+ */
+final class RowOrder {
+
+    /** Length of the runs sorted by insertion sort before merging. */
+    private static final int INSERTION_RUN = 32;
+
+    private final long[][] ranks;
+
+    private final BitSet[] missing;
+
+    private final boolean[] descending;
+
+    /**
+     * Prepares the order.
+     *
+     * @param columns the key columns, most significant first
+     * @param descending per key column, true to sort the largest values first
+     * @param rowCount number of rows
+     */
+    RowOrder(Column[] columns, boolean[] descending, int rowCount) {
+        this.ranks = new long[columns.length][];
+        this.missing = new BitSet[columns.length];
+        this.descending = descending;
+        for (int k = 0; k < columns.length; k++) {
+            missing[k] = new BitSet();
+            ranks[k] = ranks(columns[k], rowCount, missing[k]);
+        }
+    }
+
+    /**
+     * Compares two rows; empty values come last in both directions.
+     *
+     * @param a index of the first row
+     * @param b index of the second row
+     * @return negative, zero or positive if row a comes before, with or after row b
+     */
+    int compare(int a, int b) {
+        for (int k = 0; k < ranks.length; k++) {
+            boolean missingA = missing[k].get(a);
+            boolean missingB = missing[k].get(b);
+            if (missingA || missingB) {
+                if (missingA != missingB) return missingA ? 1 : -1;
+                continue;
+            }
+            int c = Long.compare(ranks[k][a], ranks[k][b]);
+            if (c != 0) return descending[k] ? -c : c;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the row indices in sorted order.
+     *
+     * @param rowCount number of rows
+     * @return the sorted row indices
+     */
+    int[] sortedRows(int rowCount) {
+        int[] rows = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = i;
+        }
+        sort(rows, this::compare);
+        return rows;
+    }
+
+    /**
+     * Compares two values like the ranks of a column compare them: integers exactly, other numbers
+     * by value, numbers before other strings, which are compared lexicographically; empty values
+     * and NaN last in both directions.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @param descending true to sort the largest values first
+     * @return negative, zero or positive if a comes before, with or after b
+     */
+    static int compareValues(Value a, Value b, boolean descending) {
+        if (a.missing || b.missing) {
+            return a.missing == b.missing ? 0 : a.missing ? 1 : -1;
+        }
+        int c;
+        if (!a.numeric) {
+            c = b.numeric ? 1 : a.text.compareTo(b.text);
+        } else if (!b.numeric) {
+            c = -1;
+        } else if (a.integral) {
+            c = b.integral ? Long.compare(a.longValue, b.longValue) : compareExact(a.longValue, b.doubleValue);
+        } else {
+            c = b.integral ? -compareExact(b.longValue, a.doubleValue)
+                    : Long.compare(sortable(a.doubleValue), sortable(b.doubleValue));
+        }
+        return descending ? -c : c;
+    }
+
+    /**
+     * Compares a long with a double, which is not NaN, by their exact values.
+     */
+    private static int compareExact(long l, double d) {
+        if (d >= 0x1p63) return -1;
+        if (d < -0x1p63) return 1;
+        long truncated = (long) d;
+        if (l != truncated) return Long.compare(l, truncated);
+        // beyond 2^53 a double has no fraction; below, the truncated value converts back exactly
+        return d > truncated ? -1 : d < truncated ? 1 : 0;
+    }
+
+    /**
+     * Sorts int values with a comparator by a stable merge sort.
+     *
+     * @param values the values to sort in place
+     * @param comparator comparator of two values
+     */
+    static void sort(int[] values, IntBinaryOperator comparator) {
+        int n = values.length;
+        for (int lo = 0; lo < n; lo += INSERTION_RUN) {
+            int hi = Math.min(lo + INSERTION_RUN, n);
+            for (int i = lo + 1; i < hi; i++) {
+                int value = values[i];
+                int j = i - 1;
+                while (j >= lo && comparator.applyAsInt(values[j], value) > 0) {
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                values[j + 1] = value;
+            }
+        }
+        if (n <= INSERTION_RUN) return;
+        int[] src = values;
+        int[] dst = new int[n];
+        for (int width = INSERTION_RUN; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    dst[k] = j >= hi || (i < mid && comparator.applyAsInt(src[i], src[j]) <= 0) ? src[i++] : src[j++];
+                }
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != values) {
+            System.arraycopy(src, 0, values, 0, n);
+        }
+    }
+
+    /**
+     * Maps a column to ranks and marks its empty values as missing.
+     */
+    private static long[] ranks(Column col, int rowCount, BitSet missing) {
+        if (col instanceof LongColumn) {
+            missing.or(((LongColumn) col).getMissing());
+            return ((LongColumn) col).getValues();
+        }
+        long[] ranks = new long[rowCount];
+        if (col instanceof DoubleColumn) {
+            double[] values = ((DoubleColumn) col).getValues();
+            BitSet nulls = ((DoubleColumn) col).getMissing();
+            for (int i = 0; i < rowCount; i++) {
+                if (nulls.get(i) || Double.isNaN(values[i])) {
+                    missing.set(i);
+                } else {
+                    ranks[i] = sortable(values[i]);
+                }
+            }
+            return ranks;
+        }
+        StringColumn strings = col.toStringColumn();
+        long[] codeRanks = dictionaryRanks(strings);
+        for (int i = 0; i < rowCount; i++) {
+            int code = strings.getCode(i);
+            if (code < 0 || codeRanks[code] < 0) {
+                missing.set(i);
+            } else {
+                ranks[i] = codeRanks[code];
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Sorts the dictionary of a column and returns the rank of every code; equal values such as
+     * "1" and "1.0" get the same rank, the empty string and NaN get -1.
+     */
+    private static long[] dictionaryRanks(StringColumn strings) {
+        int size = strings.getDictionarySize();
+        NumberParser parser = new NumberParser();
+        Value[] values = new Value[size];
+        int[] codes = new int[size];
+        int count = 0;
+        for (int code = 0; code < size; code++) {
+            values[code] = new Value().set(strings.getDictionaryValue(code), parser);
+            if (!values[code].missing) {
+                codes[count++] = code;
+            }
+        }
+        int[] sorted = Arrays.copyOf(codes, count);
+        sort(sorted, (a, b) -> compareValues(values[a], values[b], false));
+        long[] codeRanks = new long[size];
+        Arrays.fill(codeRanks, -1);
+        long rank = -1;
+        for (int i = 0; i < count; i++) {
+            int code = sorted[i];
+            if (i == 0 || compareValues(values[sorted[i - 1]], values[code], false) != 0) {
+                rank++;
+            }
+            codeRanks[code] = rank;
+        }
+        return codeRanks;
+    }
+
+    /**
+     * Maps a double to a long with the same order; 0.0 and -0.0 get the same value.
+     */
+    static long sortable(double value) {
+        long bits = Double.doubleToLongBits(value == 0.0 ? 0.0 : value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * A value of a key column, parsed once to be compared by {@link #compareValues(Value, Value, boolean)}
+     * many times. An instance can be set to another value, so it is not shared between threads.
+     */
+    static final class Value {
+
+        private String text;
+
+        private boolean missing;
+
+        private boolean numeric;
+
+        private boolean integral;
+
+        private long longValue;
+
+        private double doubleValue;
+
+        /**
+         * Sets the value.
+         *
+         * @param text the value (may be null)
+         * @param parser parser reused for all values
+         * @return this value
+         */
+        Value set(String text, NumberParser parser) {
+            int kind = text == null ? NumberParser.EMPTY : parser.parse(text);
+            this.text = text;
+            numeric = kind == NumberParser.LONG || kind == NumberParser.DOUBLE;
+            integral = kind == NumberParser.LONG;
+            longValue = parser.longValue();
+            doubleValue = parser.doubleValue();
+            missing = kind == NumberParser.EMPTY || numeric && Double.isNaN(doubleValue);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package de.exxcellent.challenge;
+
+import java.util.List;
+
+/**
+ * Receives the rows of a table one after another, see {@link TableReader#readRows(RowSink)}.
+ */
+public interface RowSink {
+
+    /**
+     * Called once before the first row with the headers of the table.
+     *
+     * @param headers List of column headers
+     */
+    void start(List<String> headers);
+
+    /**
+     * Called once for every row of the table, in order.
+     *
+     * @param row the current row; only valid during this call
+     */
+    void accept(Row row);
+
+    /**
+     * Called once after the last row.
+     */
+    default void end() {
+    }
+}
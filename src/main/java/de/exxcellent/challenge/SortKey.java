@@ -0,0 +1,49 @@
+package de.exxcellent.challenge;
+
+/**
+ * One column to sort by, see {@link Table#sort(java.util.List)} and {@link ExternalSort}.
+ * Numbers are compared by value and come before all other strings, which are compared
+ * lexicographically. Empty values and NaN come last in both directions.
+ */
+public final class SortKey {
+
+    private final String header;
+
+    private final boolean descending;
+
+    /**
+     * Creates a sort key.
+     *
+     * @param header Name of the column
+     * @param descending true to sort the largest values first
+     */
+    public SortKey(String header, boolean descending) {
+        if (header == null)
+            throw new IllegalArgumentException("Header must not be null!");
+        this.header = header;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns the name of the column.
+     *
+     * @return column name
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns whether the largest values come first.
+     *
+     * @return true for descending order
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public String toString() {
+        return header + (descending ? " desc" : " asc");
+    }
+}
@@ -0,0 +1,142 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Sorted index over the numeric values of a column for minimum, maximum and range lookups.
+ * The row numbers are kept sorted by value in a primitive array, together with the sorted values
+ * for binary search.
+ */
+final class SortedIndex {
+
+    private final double[] values;
+
+    private final int[] rows;
+
+    /**
+     * Builds the index over all numeric values of the column.
+     *
+     * @param col the column to index
+     * @param rowCount number of rows to index
+     */
+    SortedIndex(Column col, int rowCount) {
+        int numeric = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (col.isNumeric(i) && !Double.isNaN(col.getDouble(i))) numeric++;
+        }
+        values = new double[numeric];
+        rows = new int[numeric];
+        int n = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (col.isNumeric(i) && !Double.isNaN(col.getDouble(i))) {
+                values[n] = col.getDouble(i);
+                rows[n++] = i;
+            }
+        }
+        sort(0, numeric - 1);
+    }
+
+    /**
+     * Returns the number of indexed values.
+     *
+     * @return number of numeric rows
+     */
+    int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the smallest indexed value. Only valid if the index is not empty.
+     *
+     * @return the minimum
+     */
+    double min() {
+        return values[0];
+    }
+
+    /**
+     * Returns the largest indexed value. Only valid if the index is not empty.
+     *
+     * @return the maximum
+     */
+    double max() {
+        return values[values.length - 1];
+    }
+
+    /**
+     * Returns the rows whose value lies in the given closed range, in row order.
+     *
+     * @param from lower bound (inclusive)
+     * @param to upper bound (inclusive)
+     * @return the matching row indices
+     */
+    int[] range(double from, double to) {
+        int start = lowerBound(from);
+        int end = upperBound(to);
+        if (start >= end) return new int[0];
+        int[] result = Arrays.copyOfRange(rows, start, end);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the index of the first value >= key.
+     */
+    private int lowerBound(double key) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of the first value > key.
+     */
+    private int upperBound(double key) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Sorts values and rows together by value (quicksort on both arrays).
+     */
+    private void sort(int lo, int hi) {
+        while (lo < hi) {
+            double pivot = values[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller part to bound the stack depth
+            if (j - lo < hi - i) {
+                sort(lo, j);
+                lo = i;
+            } else {
+                sort(i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        double v = values[i];
+        values[i] = values[j];
+        values[j] = v;
+        int r = rows[i];
+        rows[i] = rows[j];
+        rows[j] = r;
+    }
+}
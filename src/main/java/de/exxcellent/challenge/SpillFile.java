@@ -0,0 +1,176 @@
+package de.exxcellent.challenge;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Temporary file holding rows that do not fit into memory, e.g. a partition of a {@link HashJoin}
+ * or a sorted run of an {@link ExternalSort}.
+ * Rows are appended with {@link #write(Row)} and, after {@link #finish(String)}, read back in the same
+ * order with {@link #open()}; every value is stored as its length followed by its UTF-8 bytes.
+ * Closing the file deletes it.
+ */
+final class SpillFile implements Closeable {
+
+    private final Path path;
+
+    private final int columnCount;
+
+    private DataOutputStream out;
+
+    private int rowCount;
+
+    /**
+     * Creates an empty spill file.
+     *
+     * @param directory directory of the file, or null for the default temporary directory
+     * @param prefix prefix of the file name
+     * @param columnCount number of values per row
+     * @throws IOException if the file cannot be created
+     */
+    SpillFile(Path directory, String prefix, int columnCount) throws IOException {
+        this.path = directory == null ? Files.createTempFile(prefix, ".spill") : Files.createTempFile(directory, prefix, ".spill");
+        this.columnCount = columnCount;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    }
+
+    /**
+     * Appends a row; missing values of a short row are written as empty strings.
+     *
+     * @param row the row
+     * @throws IOException if the row cannot be written
+     */
+    void write(Row row) throws IOException {
+        for (int c = 0; c < columnCount; c++) {
+            String value = c < row.size() ? row.get(c) : null;
+            byte[] data = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(data.length);
+            out.write(data);
+        }
+        rowCount++;
+    }
+
+    /**
+     * Ends writing and counts the bytes written in the given metric.
+     *
+     * @param metric Name of the counter of the bytes written
+     * @throws IOException if the file cannot be written
+     */
+    void finish(String metric) throws IOException {
+        if (out == null) return;
+        out.close();
+        out = null;
+        Metrics.global().count(metric, Files.size(path));
+    }
+
+    /**
+     * Returns the number of rows written.
+     *
+     * @return number of rows
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Reads all rows of the finished file into a table.
+     *
+     * @param headers headers of the table
+     * @return table with all rows of the file
+     * @throws IOException if the file cannot be read
+     */
+    Table readTable(List<String> headers) throws IOException {
+        ColumnBuilder[] builders = new ColumnBuilder[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            builders[c] = new ColumnBuilder(Math.max(rowCount, Column.DEFAULT_CAPACITY));
+        }
+        try (Reader reader = open()) {
+            while (reader.next()) {
+                for (int c = 0; c < columnCount; c++) {
+                    builders[c].add(reader.get(c));
+                }
+            }
+        }
+        List<Column> columns = new ArrayList<>();
+        for (ColumnBuilder builder : builders) {
+            columns.add(builder.build());
+        }
+        return new Table(headers, columns, rowCount);
+    }
+
+    /**
+     * Opens the finished file for reading.
+     *
+     * @return reader positioned before the first row
+     * @throws IOException if the file cannot be opened
+     */
+    Reader open() throws IOException {
+        return new Reader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Reads the rows of a spill file one after another; the reader is the current row.
+     */
+    final class Reader implements Row, Closeable {
+
+        private final DataInputStream in;
+
+        private final String[] values = new String[columnCount];
+
+        private int remaining = rowCount;
+
+        private Reader() throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        }
+
+        /**
+         * Moves to the next row.
+         *
+         * @return false if there are no more rows
+         * @throws IOException if the file cannot be read
+         */
+        boolean next() throws IOException {
+            if (remaining == 0) return false;
+            for (int c = 0; c < columnCount; c++) {
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                values[c] = new String(data, StandardCharsets.UTF_8);
+            }
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return columnCount;
+        }
+
+        @Override
+        public String get(int colIndex) {
+            return values[colIndex];
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
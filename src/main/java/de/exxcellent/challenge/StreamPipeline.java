@@ -0,0 +1,197 @@
+package de.exxcellent.challenge;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+
+/**
+ * Pipeline of row operators that is evaluated while a {@link TableReader} streams its rows.
+ * The table is never materialized: every row passes the derived column and filter steps
+ * in the order they were added and is then handed to a running aggregation, so the memory
+ * needed is independent of the number of rows.
+ *
+ * <pre>
+ * List&lt;String&gt; days = new StreamPipeline()
+ *         .derive("Spread", "MxT", "MnT", (x, y) -&gt; Math.abs(x - y))
+ *         .findExtreme(reader, "Spread", false, "Day");
+ * </pre>
+ */
+public class StreamPipeline {
+
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Adds a derived numeric column computed from two other columns.
+     * Rows in which one of the values is missing or not numeric get NaN as derived value.
+     *
+     * @param header Name of the derived column
+     * @param header1 Name of the first input column
+     * @param header2 Name of the second input column
+     * @param operator Operation applied to the two input values
+     * @return this pipeline
+     */
+    public StreamPipeline derive(String header, String header1, String header2, DoubleBinaryOperator operator) {
+        steps.add(new Step(header, header1, header2, operator, null));
+        return this;
+    }
+
+    /**
+     * Adds a filter that only passes rows whose numeric value in the given column matches the predicate.
+     * Rows with a missing or non-numeric value are dropped.
+     *
+     * @param header Name of the column to test (input or derived column)
+     * @param predicate Condition the value must fulfil
+     * @return this pipeline
+     */
+    public StreamPipeline filter(String header, DoublePredicate predicate) {
+        steps.add(new Step(header, null, null, null, predicate));
+        return this;
+    }
+
+    /**
+     * Streams all rows of the reader through the pipeline and returns the keys of the rows
+     * in which the given column has its extreme (maximum or minimum) value.
+     * Only the current extreme and the keys of the rows tied at it are kept in memory.
+     *
+     * @param reader Reader providing the rows
+     * @param header Name of the column to compare (input or derived column)
+     * @param findMax true for maximum, false for minimum
+     * @param keyHeader Name of the column whose values identify the extreme rows
+     * @return the key values of all rows with the extreme value, in row order
+     * @throws IOException if reading from the source fails
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public List<String> findExtreme(TableReader reader, String header, boolean findMax, String keyHeader) throws IOException {
+        ExtremeSink sink = new ExtremeSink(header, findMax, keyHeader);
+        reader.readRows(sink);
+        return sink.keys;
+    }
+
+    /**
+     * A single derive or filter step of the pipeline.
+     */
+    private static final class Step {
+
+        final String header;
+
+        final String header1;
+
+        final String header2;
+
+        final DoubleBinaryOperator operator;
+
+        final DoublePredicate predicate;
+
+        Step(String header, String header1, String header2, DoubleBinaryOperator operator, DoublePredicate predicate) {
+            this.header = header;
+            this.header1 = header1;
+            this.header2 = header2;
+            this.operator = operator;
+            this.predicate = predicate;
+        }
+    }
+
+    /**
+     * Sink that evaluates the steps of the pipeline and tracks the running extreme.
+     */
+    private final class ExtremeSink implements RowSink {
+
+        private final String header;
+
+        private final boolean findMax;
+
+        private final String keyHeader;
+
+        private final List<String> keys = new ArrayList<>();
+
+        private int inputCount;
+
+        /** Index into the extended columns (input columns followed by derived columns) per step. */
+        private int[] targets;
+
+        private int[] inputs1;
+
+        private int[] inputs2;
+
+        private double[] derived;
+
+        private int valueIndex;
+
+        private int keyIndex;
+
+        private boolean found;
+
+        private double extreme;
+
+        ExtremeSink(String header, boolean findMax, String keyHeader) {
+            this.header = header;
+            this.findMax = findMax;
+            this.keyHeader = keyHeader;
+        }
+
+        @Override
+        public void start(List<String> headers) {
+            List<String> columns = new ArrayList<>(headers);
+            inputCount = headers.size();
+            targets = new int[steps.size()];
+            inputs1 = new int[steps.size()];
+            inputs2 = new int[steps.size()];
+            for (int i = 0; i < steps.size(); i++) {
+                Step step = steps.get(i);
+                if (step.operator != null) {
+                    inputs1[i] = indexOf(columns, step.header1);
+                    inputs2[i] = indexOf(columns, step.header2);
+                    columns.add(step.header);
+                    targets[i] = columns.size() - 1;
+                } else {
+                    targets[i] = indexOf(columns, step.header);
+                }
+            }
+            derived = new double[columns.size() - inputCount];
+            valueIndex = indexOf(columns, header);
+            keyIndex = indexOf(columns, keyHeader);
+        }
+
+        @Override
+        public void accept(Row row) {
+            for (int i = 0; i < targets.length; i++) {
+                Step step = steps.get(i);
+                if (step.operator != null) {
+                    double val1 = value(row, inputs1[i]);
+                    double val2 = value(row, inputs2[i]);
+                    derived[targets[i] - inputCount] = Double.isNaN(val1) || Double.isNaN(val2)
+                            ? Double.NaN : step.operator.applyAsDouble(val1, val2);
+                } else {
+                    double val = value(row, targets[i]);
+                    if (Double.isNaN(val) || !step.predicate.test(val)) return;
+                }
+            }
+            double val = value(row, valueIndex);
+            if (Double.isNaN(val)) return;
+            if (!found || (findMax && val > extreme) || (!findMax && val < extreme)) {
+                extreme = val;
+                found = true;
+                keys.clear();
+                keys.add(key(row));
+            } else if (val == extreme) {
+                keys.add(key(row));
+            }
+        }
+
+        private double value(Row row, int colIndex) {
+            return colIndex < inputCount ? row.getDouble(colIndex) : derived[colIndex - inputCount];
+        }
+
+        private String key(Row row) {
+            return keyIndex < inputCount ? row.get(keyIndex) : Double.toString(derived[keyIndex - inputCount]);
+        }
+
+        private int indexOf(List<String> columns, String name) {
+            int idx = columns.indexOf(name);
+            if (idx == -1) throw new IllegalArgumentException("Column does not exist: " + name);
+            return idx;
+        }
+    }
+}
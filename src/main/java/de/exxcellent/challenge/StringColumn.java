@@ -0,0 +1,419 @@
+package de.exxcellent.challenge;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Column of arbitrary strings stored dictionary-encoded:
+ * every distinct value is kept once and the rows only hold an int code into the dictionary.
+ * The numeric interpretation of each dictionary entry is computed once, so numeric access
+ * to a string column costs a lookup instead of a parse per row, and equality lookups
+ * compare codes instead of strings.
+ * <p>
+ * The dictionary is indexed by an open-addressing hash table of codes. Values can be added as
+ * ranges of a line or of raw bytes: they are hashed and compared in place, so a string is only
+ * created for a value that is not yet in the dictionary. Columns with few distinct values, like
+ * team names or wind directions, therefore cost one int per row and hardly any garbage while loading.
+ */
+public class StringColumn extends Column {
+
+    /** Code used for null cells. */
+    private static final int NULL_CODE = -1;
+
+    private int[] codes;
+
+    private int size;
+
+    private List<String> dictionary = new ArrayList<>();
+
+    /** Hash table of dictionary codes, -1 for a free slot; the length is a power of two. */
+    private int[] slots = emptySlots(16);
+
+    /** {@link String#hashCode()} of every dictionary entry. */
+    private int[] hashes = new int[DEFAULT_CAPACITY];
+
+    private double[] dictValues = new double[DEFAULT_CAPACITY];
+
+    private BitSet dictNumeric = new BitSet();
+
+    /**
+     * True while the dictionary and its hash table are shared with another column
+     * (see {@link #select(int[], int)}); they are copied before this column adds a new entry.
+     */
+    private boolean sharedDictionary;
+
+    private final NumberParser parser = new NumberParser();
+
+    /**
+     * Creates an empty column with the given initial capacity.
+     *
+     * @param capacity initial capacity of the backing array
+     */
+    StringColumn(int capacity) {
+        this.codes = new int[capacity];
+    }
+
+    /**
+     * Creates a column from a dictionary and the codes of the rows.
+     *
+     * @param dictionary the distinct values; code i refers to entry i
+     * @param codes the code of every row, -1 for null; the array may be larger than size
+     * @param size number of values
+     */
+    StringColumn(List<String> dictionary, int[] codes, int size) {
+        for (String val : dictionary) {
+            encode(val);
+        }
+        this.codes = codes;
+        this.size = size;
+    }
+
+    /**
+     * Creates a column of the given codes that shares the dictionary of another column.
+     *
+     * @param source the column whose dictionary the codes refer to
+     * @param codes the code of every row, -1 for null; the array may be larger than size
+     * @param size number of values
+     */
+    private StringColumn(StringColumn source, int[] codes, int size) {
+        source.sharedDictionary = true;
+        this.sharedDictionary = true;
+        this.dictionary = source.dictionary;
+        this.slots = source.slots;
+        this.hashes = source.hashes;
+        this.dictValues = source.dictValues;
+        this.dictNumeric = source.dictNumeric;
+        this.codes = codes;
+        this.size = size;
+    }
+
+    /**
+     * Adds a value to the column.
+     *
+     * @param val the value to add (may be null)
+     */
+    void add(String val) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(DEFAULT_CAPACITY, size * 2));
+        }
+        codes[size++] = val == null ? NULL_CODE : encode(val);
+    }
+
+    /**
+     * Adds the value in the given range of a string, without creating a string for it
+     * if it is already in the dictionary.
+     *
+     * @param seq the characters, e.g. a line
+     * @param from start of the value (inclusive)
+     * @param to end of the value (exclusive)
+     */
+    void add(CharSequence seq, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + seq.charAt(i);
+        }
+        int code = find(seq, from, to, h);
+        addCode(code >= 0 ? code : insert(seq.subSequence(from, to).toString(), h, -code - 1));
+    }
+
+    /**
+     * Adds the value encoded in the given byte range, without creating a string for it if it
+     * is already in the dictionary. Only ASCII values are handled, so the charset of the bytes
+     * does not matter as long as it encodes ASCII as single bytes.
+     *
+     * @param data the bytes
+     * @param from start of the value (inclusive)
+     * @param to end of the value (exclusive)
+     * @return false if the value contains a non-ASCII byte and was not added
+     */
+    boolean addAscii(byte[] data, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            if (data[i] < 0) return false;
+            h = 31 * h + data[i];
+        }
+        int code = find(data, from, to, h);
+        if (code < 0) {
+            code = insert(new String(data, from, to - from, StandardCharsets.ISO_8859_1), h, -code - 1);
+        }
+        addCode(code);
+        return true;
+    }
+
+    private void addCode(int code) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(DEFAULT_CAPACITY, size * 2));
+        }
+        codes[size++] = code;
+    }
+
+    /**
+     * Concatenates string columns; the dictionary of every part is translated into the merged
+     * dictionary once, and the codes of the rows are then mapped without looking at their strings.
+     *
+     * @param parts the columns, in row order
+     * @param size total number of rows
+     * @return the concatenated column
+     */
+    static StringColumn concat(List<StringColumn> parts, int size) {
+        StringColumn merged = new StringColumn(Math.max(size, DEFAULT_CAPACITY));
+        for (StringColumn part : parts) {
+            int[] translated = new int[part.dictionary.size()];
+            for (int code = 0; code < translated.length; code++) {
+                translated[code] = merged.encode(part.dictionary.get(code));
+            }
+            for (int i = 0; i < part.size; i++) {
+                int code = part.codes[i];
+                merged.codes[merged.size++] = code == NULL_CODE ? NULL_CODE : translated[code];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the dictionary code of the given value and adds it to the dictionary if necessary.
+     *
+     * @param val the value to encode
+     * @return the dictionary code
+     */
+    private int encode(String val) {
+        int h = val.hashCode();
+        int code = find(val, 0, val.length(), h);
+        return code >= 0 ? code : insert(val, h, -code - 1);
+    }
+
+    /**
+     * Returns the dictionary code of the given value.
+     *
+     * @param val the value
+     * @return the code, or -1 if the value does not occur in the column
+     */
+    int codeOf(String val) {
+        if (val == null) return NULL_CODE;
+        int code = find(val, 0, val.length(), val.hashCode());
+        return Math.max(code, NULL_CODE);
+    }
+
+    /**
+     * Looks up a character range in the dictionary.
+     *
+     * @return the code, or -(slot + 1) of the free slot where the value belongs
+     */
+    private int find(CharSequence seq, int from, int to, int h) {
+        int mask = slots.length - 1;
+        for (int slot = mix(h) & mask; ; slot = (slot + 1) & mask) {
+            int code = slots[slot];
+            if (code < 0) return -slot - 1;
+            if (hashes[code] == h && matches(dictionary.get(code), seq, from, to)) return code;
+        }
+    }
+
+    /**
+     * Looks up an ASCII byte range in the dictionary.
+     *
+     * @return the code, or -(slot + 1) of the free slot where the value belongs
+     */
+    private int find(byte[] data, int from, int to, int h) {
+        int mask = slots.length - 1;
+        for (int slot = mix(h) & mask; ; slot = (slot + 1) & mask) {
+            int code = slots[slot];
+            if (code < 0) return -slot - 1;
+            if (hashes[code] == h && matches(dictionary.get(code), data, from, to)) return code;
+        }
+    }
+
+    /**
+     * Adds a value to the dictionary.
+     *
+     * @param val the new value
+     * @param h hash of the value
+     * @param slot free slot of the value in the hash table
+     * @return the code of the value
+     */
+    private int insert(String val, int h, int slot) {
+        if (sharedDictionary) {
+            unshareDictionary();
+        }
+        int newCode = dictionary.size();
+        dictionary.add(val);
+        if (newCode == dictValues.length) {
+            dictValues = Arrays.copyOf(dictValues, newCode * 2);
+        }
+        if (newCode == hashes.length) {
+            hashes = Arrays.copyOf(hashes, newCode * 2);
+        }
+        hashes[newCode] = h;
+        slots[slot] = newCode;
+        if (2 * dictionary.size() > slots.length) {
+            rehash();
+        }
+        int kind = parser.parse(val);
+        if (kind == NumberParser.LONG || kind == NumberParser.DOUBLE) {
+            dictValues[newCode] = parser.doubleValue();
+            dictNumeric.set(newCode);
+        }
+        return newCode;
+    }
+
+    /**
+     * Copies a shared dictionary and its hash table, so that new entries are not seen by the other columns.
+     */
+    private void unshareDictionary() {
+        dictionary = new ArrayList<>(dictionary);
+        slots = slots.clone();
+        hashes = hashes.clone();
+        dictValues = dictValues.clone();
+        dictNumeric = (BitSet) dictNumeric.clone();
+        sharedDictionary = false;
+    }
+
+    /**
+     * Doubles the hash table, so it stays at most half full.
+     */
+    private void rehash() {
+        int[] table = emptySlots(slots.length * 2);
+        int mask = table.length - 1;
+        for (int code = 0; code < dictionary.size(); code++) {
+            int slot = mix(hashes[code]) & mask;
+            while (table[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code;
+        }
+        slots = table;
+    }
+
+    private static int[] emptySlots(int length) {
+        int[] table = new int[length];
+        Arrays.fill(table, -1);
+        return table;
+    }
+
+    /** Spreads the bits of a string hash, whose low bits are weak for short values. */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String val, CharSequence seq, int from, int to) {
+        if (val.length() != to - from) return false;
+        for (int i = 0; i < val.length(); i++) {
+            if (val.charAt(i) != seq.charAt(from + i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(String val, byte[] data, int from, int to) {
+        if (val.length() != to - from) return false;
+        for (int i = 0; i < val.length(); i++) {
+            if (val.charAt(i) != data[from + i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    Column append(String value) {
+        add(value);
+        return this;
+    }
+
+    @Override
+    StringColumn toStringColumn() {
+        return this;
+    }
+
+    /**
+     * Shares the dictionary and its hash table instead of encoding the selected values again;
+     * only the codes are copied. The dictionary is copied only if the empty string has to be
+     * added for a padded row, or when either column later adds a new value.
+     */
+    @Override
+    Column select(int[] rows, int count) {
+        int[] selected = new int[Math.max(count, DEFAULT_CAPACITY)];
+        StringColumn column = new StringColumn(this, selected, count);
+        int emptyCode = NULL_CODE;
+        for (int i = 0; i < count; i++) {
+            if (rows[i] >= 0) {
+                selected[i] = codes[rows[i]];
+            } else {
+                if (emptyCode == NULL_CODE) emptyCode = column.encode("");
+                selected[i] = emptyCode;
+            }
+        }
+        return column;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getString(int row) {
+        int code = codes[row];
+        return code == NULL_CODE ? null : dictionary.get(code);
+    }
+
+    @Override
+    public boolean isNumeric(int row) {
+        int code = codes[row];
+        return code != NULL_CODE && dictNumeric.get(code);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return dictValues[codes[row]];
+    }
+
+    /**
+     * Returns the dictionary code of the given row.
+     *
+     * @param row index of the row
+     * @return the code, or -1 for null
+     */
+    int getCode(int row) {
+        return codes[row];
+    }
+
+    /**
+     * Returns whether the dictionary entry for the given code is numeric.
+     *
+     * @param code a dictionary code
+     * @return true if the entry is an integer or decimal number
+     */
+    boolean isNumericCode(int code) {
+        return dictNumeric.get(code);
+    }
+
+    /**
+     * Returns the numeric value of the dictionary entry for the given code.
+     *
+     * @param code a dictionary code of a numeric entry
+     * @return the value as double
+     */
+    double getDictionaryDouble(int code) {
+        return dictValues[code];
+    }
+
+    /**
+     * Returns the dictionary entry for the given code.
+     *
+     * @param code a dictionary code
+     * @return the value
+     */
+    String getDictionaryValue(int code) {
+        return dictionary.get(code);
+    }
+
+    /**
+     * Returns the number of distinct non-null values in this column.
+     *
+     * @return size of the dictionary
+     */
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+}
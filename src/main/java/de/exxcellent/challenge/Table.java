@@ -1,35 +1,113 @@
 package de.exxcellent.challenge;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Represents a table with headers and rows.
- * Each row is a list of strings.
+ * The data is stored column by column: numeric columns are parsed once at load time
+ * and held in primitive arrays, all other columns are dictionary-encoded strings
+ * (see {@link Column}). Rows are still exposed as lists of strings.
+ * Column names are resolved through a hash map; numeric columns can additionally
+ * get secondary indexes for equality, range and extreme lookups.
+ * Scans over tables with at least {@link #getParallelThreshold()} rows run in parallel.
+ * Cells that cannot be read as number are reported to the {@link #getDiagnostics() diagnostics}
+ * of the table instead of being printed. The time and allocations of building a table and of
+ * the main queries are recorded in the {@link Metrics#global() global metrics}.
  */
 public class Table {
-    
+
+    /** Default number of rows from which column operations run in parallel. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 18;
+
+    /** Number of rows {@link #analyze(List)} decodes at once, small enough to stay in the CPU cache. */
+    private static final int ANALYSIS_BLOCK_SIZE = 2048;
+
+    /** Row ranges start at multiples of this, so two ranges never share a word of a null bitmap. */
+    private static final int RANGE_ALIGNMENT = 64;
+
 	private List<String> headers;
-    
-    private List<List<String>> rows;
-    
+
+    private List<Column> columns;
+
+    private int rowCount;
+
+    private Map<String, Integer> columnIndexes = new HashMap<>();
+
+    /** Hash indexes by column index; a null value marks an index that must be rebuilt before use. */
+    private Map<Integer, HashIndex> hashIndexes = new HashMap<>();
+
+    /** Sorted indexes by column index; a null value marks an index that must be rebuilt before use. */
+    private Map<Integer, SortedIndex> sortedIndexes = new HashMap<>();
+
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private final Diagnostics diagnostics = new Diagnostics();
+
     /**
      * Constructor: Creates a table with given headers and rows.
-     * Copies of the passed lists are made to protect the internal structure
-     * from external modifications.
+     * The rows are converted into typed columns, so later changes to the passed
+     * lists do not affect the internal structure.
      *
      * @param headers List of column headers
      * @param rows List of rows
+     * @throws IllegalArgumentException if a row does not have as many values as there are headers
      */
     public Table(List<String> headers, List<List<String>> rows) {
+        Metrics.Timer timer = Metrics.global().startTimer();
         this.headers = new ArrayList<>(headers);
-        this.rows = new ArrayList<>();
-        for (List<String> row : rows) {
-            this.rows.add(new ArrayList<>(row));
+        this.columns = new ArrayList<>();
+        this.rowCount = rows.size();
+        indexHeaders();
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).size() != headers.size())
+                throw new IllegalArgumentException("Wrong number of values in row " + i + "!");
+        }
+        for (int c = 0; c < headers.size(); c++) {
+            final int colIndex = c;
+            columns.add(Column.of(new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    return rows.get(index).get(colIndex);
+                }
+
+                @Override
+                public int size() {
+                    return rows.size();
+                }
+            }));
         }
+        timer.stop("table.build", rowCount);
     }
-    
+
+    /**
+     * Creates a table directly from typed columns, e.g. columns that are loaded lazily by a reader.
+     * The columns are used as they are and not copied.
+     *
+     * @param headers List of column headers
+     * @param columns List of columns, one per header
+     * @param rowCount number of rows; every column must have this size
+     */
+    Table(List<String> headers, List<Column> columns, int rowCount) {
+        this.headers = new ArrayList<>(headers);
+        this.columns = new ArrayList<>(columns);
+        this.rowCount = rowCount;
+        indexHeaders();
+    }
+
     /**
      * Returns the headers of the table.
      * A copy is returned to protect the internal list from external changes.
@@ -48,12 +126,12 @@ public class Table {
      */
     public List<List<String>> getRows() {
         List<List<String>> copy = new ArrayList<>();
-        for (List<String> row : rows) {
-            copy.add(new ArrayList<>(row));
+        for (int i = 0; i < rowCount; i++) {
+            copy.add(buildRow(i));
         }
         return copy;
     }
-    
+
     /**
      * Returns a copy of the row at the specified index.
      * A new list is returned to prevent external modification of the internal table data.
@@ -63,26 +141,108 @@ public class Table {
      * @throws IllegalArgumentException if rowIndex is negative or >= number of rows
      */
     public List<String> getRow(int rowIndex) {
-        if (rowIndex < 0 || rowIndex >= rows.size()) {
-            throw new IllegalArgumentException("Invalid row index: " + rowIndex);
-        }
-        return new ArrayList<>(rows.get(rowIndex));
+        checkRowIndex(rowIndex);
+        return buildRow(rowIndex);
+    }
+
+    /**
+     * Returns an unmodifiable view of the row at the specified index.
+     * In contrast to {@link #getRow(int)} no values are copied; the view reads
+     * the cells from the table when they are accessed.
+     *
+     * @param rowIndex the index of the row
+     * @return an unmodifiable view of the row
+     * @throws IllegalArgumentException if rowIndex is negative or >= number of rows
+     */
+    public List<String> getRowView(int rowIndex) {
+        checkRowIndex(rowIndex);
+        return Collections.unmodifiableList(new AbstractList<String>() {
+            @Override
+            public String get(int colIndex) {
+                return column(colIndex).getString(rowIndex);
+            }
+
+            @Override
+            public int size() {
+                return columns.size();
+            }
+        });
+    }
+
+    /**
+     * Returns a cursor positioned before the first row.
+     * The cursor reads the cells directly from the columns and is valid as long as
+     * the table is not modified; a lazily loaded column is only loaded when the cursor
+     * reads one of its cells.
+     *
+     * @return a new row cursor
+     */
+    public RowCursor cursor() {
+        // Lazily loaded columns stay lazy until the cursor reads them
+        return new RowCursor(columns.toArray(new Column[0]), rowCount);
+    }
+
+    /**
+     * Returns the number of rows of the table.
+     *
+     * @return number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
     }
-    
+
+    /**
+     * Returns the number of rows from which column operations run in parallel.
+     *
+     * @return the row-count threshold
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the number of rows from which column operations run in parallel.
+     * Tables with at least this many rows split their rows into ranges which are processed
+     * on the common ForkJoinPool by {@link #processColumnsAsDouble(String, String, DoubleBinaryOperator)},
+     * {@link #processColumnsAsLong(String, String, LongBinaryOperator)}, {@link #getExtremeValue(String, boolean)},
+     * {@link #getIndicesOfValue(String, double)} and the extreme-index searches (and the methods built on them).
+     * The partial results are combined in row order, so the results do not depend on the threshold.
+     *
+     * @param threshold minimum number of rows for parallel execution; {@link Integer#MAX_VALUE} disables it
+     * @throws IllegalArgumentException if threshold is negative
+     */
+    public void setParallelThreshold(int threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("Parallel threshold must not be negative: " + threshold);
+        this.parallelThreshold = threshold;
+    }
+
+    /**
+     * Returns the diagnostics of this table, which count the cells its operations could not read
+     * as number and the empty cells they skipped, and keep samples of the failed cells.
+     *
+     * @return the diagnostics
+     */
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
     /**
      * Returns the index of the specified column header.
+     * If several columns have the same header, the first one is returned.
      *
      * @param header the name of the column
-     * @return the index of the column, or -1 if the column does not exist
+     * @return the index of the column
+     * @throws IllegalArgumentException if the column does not exist
      */
     public int getColumnIndex(String header) {
-    	int colIndex = headers.indexOf(header);  	
-    	if (colIndex == -1) throw new IllegalArgumentException("Column does not exist: " + header);
+    	Integer colIndex = columnIndexes.get(header);
+    	if (colIndex == null) throw new IllegalArgumentException("Column does not exist: " + header);
     	return colIndex ;
-        		
+
     }
 
-    
+
     /**
      * Returns the value at the specified row and column (by header name).
      *
@@ -93,7 +253,25 @@ public class Table {
      */
     public String getValue(int rowIndex, String header) {
         int colIndex = getColumnIndex(header);
-        return getRow(rowIndex).get(colIndex);
+        checkRowIndex(rowIndex);
+        return column(colIndex).getString(rowIndex);
+    }
+
+    /**
+     * Returns the value at the specified row and column index.
+     * Use together with {@link #getColumnIndex(String)} to resolve the header only once.
+     *
+     * @param rowIndex the index of the row
+     * @param colIndex the index of the column
+     * @return the value as a String
+     * @throws IllegalArgumentException if the row or column index is invalid
+     */
+    public String getValue(int rowIndex, int colIndex) {
+        checkRowIndex(rowIndex);
+        if (colIndex < 0 || colIndex >= columns.size()) {
+            throw new IllegalArgumentException("Invalid column index: " + colIndex);
+        }
+        return column(colIndex).getString(rowIndex);
     }
 
     /**
@@ -104,14 +282,39 @@ public class Table {
      * @throws IllegalArgumentException if the header does not exist
      */
     public List<String> getColumn(String header) {
-        int colIndex = getColumnIndex(header);
+        Column col = column(getColumnIndex(header));
         List<String> column = new ArrayList<>();
-        for (List<String> row : rows) {
-            column.add(row.get(colIndex));
+        for (int i = 0; i < rowCount; i++) {
+            column.add(col.getString(i));
         }
         return column;
     }
-    
+
+    /**
+     * Returns an unmodifiable view of the column for the given header.
+     * In contrast to {@link #getColumn(String)} no values are copied; the view reads
+     * the cells from the table when they are accessed.
+     *
+     * @param header the name of the column
+     * @return an unmodifiable view of the column values
+     * @throws IllegalArgumentException if the header does not exist
+     */
+    public List<String> getColumnView(String header) {
+        int colIndex = getColumnIndex(header);
+        return Collections.unmodifiableList(new AbstractList<String>() {
+            @Override
+            public String get(int rowIndex) {
+                checkRowIndex(rowIndex);
+                return column(colIndex).getString(rowIndex);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        });
+    }
+
     /**
      * Adds a new column to the table with the specified header and values.
      * The number of values must match the current number of rows in the table.
@@ -121,31 +324,77 @@ public class Table {
      * @throws IllegalArgumentException if the number of values does not match the number of rows
      */
     public void addColumn(String header, List<String> values) {
-        if (values.size() != rows.size()) 
+        if (values.size() != rowCount)
             throw new IllegalArgumentException("Too many values in column!");
         headers.add(header);
-        for (int i = 0; i < rows.size(); i++) {
-            rows.get(i).add(values.get(i));
-        }
+        columns.add(Column.of(values));
+        columnIndexes.putIfAbsent(header, headers.size() - 1);
     }
 
     /**
      * Adds a new row to the table.
      * The row must have the same number of values as the number of headers.
+     * A column whose type does not fit a new value is converted into a string column.
+     * Existing secondary indexes are invalidated and rebuilt on their next use.
      *
      * @param row List of values for the new row
      * @throws IllegalArgumentException if the row size does not match the number of headers
      */
     public void addRow(List<String> row) {
-        if (row.size() != headers.size()) 
+        if (row.size() != headers.size())
             throw new IllegalArgumentException("Too less values in row!");
-        rows.add(new ArrayList<>(row));
+        for (int c = 0; c < columns.size(); c++) {
+            columns.set(c, column(c).append(row.get(c)));
+        }
+        rowCount++;
+        hashIndexes.replaceAll((colIndex, index) -> null);
+        sortedIndexes.replaceAll((colIndex, index) -> null);
     }
-    
+
+    /**
+     * Creates a hash index over the numeric values of the column, so that
+     * {@link #getIndicesOfValue(String, double)} no longer scans the column.
+     * The index is kept up to date when rows are added.
+     *
+     * @param header the name of the column
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public void createHashIndex(String header) {
+        int colIndex = getColumnIndex(header);
+        hashIndexes.put(colIndex, new HashIndex(column(colIndex), rowCount));
+    }
+
+    /**
+     * Creates a sorted index over the numeric values of the column, so that
+     * minimum, maximum and range lookups take O(log n) instead of a scan.
+     * The index is kept up to date when rows are added.
+     *
+     * @param header the name of the column
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public void createSortedIndex(String header) {
+        int colIndex = getColumnIndex(header);
+        sortedIndexes.put(colIndex, new SortedIndex(column(colIndex), rowCount));
+    }
+
+    /**
+     * Removes all secondary indexes of the column.
+     *
+     * @param header the name of the column
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public void dropIndexes(String header) {
+        int colIndex = getColumnIndex(header);
+        hashIndexes.remove(colIndex);
+        sortedIndexes.remove(colIndex);
+    }
+
     /**
      * Applies a binary operation to two columns of the table and returns the result as a list of strings.
      * Each row is processed independently. If a value cannot be parsed as double, null is returned for that row.
      *
+     * This is an adapter over {@link #processColumnsAsDouble(String, String, DoubleBinaryOperator)}.
+     *
      * @param header1 Name of the first column
      * @param header2 Name of the second column
      * @param operator A BiFunction that defines the mathematical operation to perform on the two column values
@@ -153,38 +402,255 @@ public class Table {
      * @throws IllegalArgumentException if one or both columns do not exist
      */
     public List<String> processColumns(String header1, String header2, BiFunction<Double, Double, Double> operator) {
-        int idx1 = getColumnIndex(header1);
-        int idx2 = getColumnIndex(header2);
+        DoubleColumn calcRes = processColumnsAsDouble(header1, header2, operator::apply);
 
         List<String> result = new ArrayList<>();
 
-        for (List<String> row : rows) {
-            try {
-                double val1 = Double.parseDouble(row.get(idx1));
-                double val2 = Double.parseDouble(row.get(idx2));
+        for (int i = 0; i < rowCount; i++) {
+            result.add(calcRes.isMissing(i) ? null : calcRes.getString(i));
+        }
 
-                double calcRes = operator.apply(val1, val2);
+        return result;
+    }
 
-                result.add(Double.toString(calcRes));
-            } catch (NumberFormatException e) {
-                result.add(null);
-                System.out.println("Parsing String to Double not possible! " + e.getMessage());
+    /**
+     * Applies a binary operation to two numeric columns and returns the results as a primitive column.
+     * Neither the inputs nor the results are boxed or converted to strings, so the operator
+     * can be inlined into the loop. Rows in which one of the values is not numeric are missing in the result.
+     * A {@link ColumnOp} on two integer or decimal columns runs as whole-column kernel.
+     * On large tables the operator is called from several threads.
+     *
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param operator Operation to perform on the two column values
+     * @return column of results, one per row
+     * @throws IllegalArgumentException if one or both columns do not exist
+     */
+    public DoubleColumn processColumnsAsDouble(String header1, String header2, DoubleBinaryOperator operator) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        DoubleColumn result = computeColumnsAsDouble(header1, header2, operator);
+        timer.stop("query.processColumnsAsDouble", rowCount);
+        return result;
+    }
+
+    /**
+     * Implementation of {@link #processColumnsAsDouble(String, String, DoubleBinaryOperator)}.
+     */
+    private DoubleColumn computeColumnsAsDouble(String header1, String header2, DoubleBinaryOperator operator) {
+        Column col1 = column(getColumnIndex(header1));
+        Column col2 = column(getColumnIndex(header2));
+
+        if (operator instanceof ColumnOp) {
+            DoubleColumn result = applyKernel("processColumns", (ColumnOp) operator, col1, col2);
+            if (result != null) return result;
+        }
+
+        double[] values = new double[Math.max(rowCount, Column.DEFAULT_CAPACITY)];
+        BitSet missing = new BitSet();
+        for (BitSet failed : mapRanges((from, to) -> {
+            BitSet rangeFailed = new BitSet();
+            for (int i = from; i < to; i++) {
+                if (col1.isNumeric(i) && col2.isNumeric(i)) {
+                    values[i] = operator.applyAsDouble(col1.getDouble(i), col2.getDouble(i));
+                } else {
+                    rangeFailed.set(i);
+                }
             }
+            return rangeFailed;
+        })) {
+            missing.or(failed);
         }
+        reportFailures("processColumns", header1, header2, col1, col2, missing);
 
-        return result;
+        return new DoubleColumn(values, missing, rowCount);
+    }
+
+    /**
+     * Applies the operation as whole-column kernel if both columns are integer or decimal columns.
+     *
+     * @param operation Name of the calling operation for the diagnostics
+     * @param op the operation
+     * @param col1 the first column
+     * @param col2 the second column
+     * @return column of results, or null if one of the columns holds strings
+     */
+    private DoubleColumn applyKernel(String operation, ColumnOp op, Column col1, Column col2) {
+        double[] out = new double[Math.max(rowCount, Column.DEFAULT_CAPACITY)];
+        ColumnKernels kernels = ColumnKernels.get();
+        if (col1 instanceof LongColumn && col2 instanceof LongColumn) {
+            long[] values1 = ((LongColumn) col1).getValues();
+            long[] values2 = ((LongColumn) col2).getValues();
+            mapRanges((from, to) -> {
+                kernels.apply(op, values1, values2, out, from, to);
+                return null;
+            });
+        } else {
+            double[] values1 = doubleValues(col1);
+            double[] values2 = doubleValues(col2);
+            if (values1 == null || values2 == null) return null;
+            mapRanges((from, to) -> {
+                kernels.apply(op, values1, values2, out, from, to);
+                return null;
+            });
+        }
+        BitSet missing = (BitSet) missing(col1).clone();
+        missing.or(missing(col2));
+        // Integer and decimal columns cannot hold unparsable cells, only empty ones
+        diagnostics.missingValues(operation, missing.cardinality());
+        return new DoubleColumn(out, missing, rowCount);
     }
-    
+
+    /**
+     * Reports the rows in which one of the two columns is not numeric to the diagnostics,
+     * as parse failure if one of the values is not empty and as missing value otherwise.
+     *
+     * @param operation Name of the calling operation
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param col1 the first column
+     * @param col2 the second column
+     * @param failed the rows in which one of the values is not numeric
+     */
+    private void reportFailures(String operation, String header1, String header2, Column col1, Column col2, BitSet failed) {
+        long missingCount = 0;
+        for (int i = failed.nextSetBit(0); i >= 0; i = failed.nextSetBit(i + 1)) {
+            if (!col1.isNumeric(i) && !col1.isMissing(i)) {
+                diagnostics.parseFailure(operation, header1, col1, i);
+            } else if (!col2.isNumeric(i) && !col2.isMissing(i)) {
+                diagnostics.parseFailure(operation, header2, col2, i);
+            } else {
+                missingCount++;
+            }
+        }
+        diagnostics.missingValues(operation, missingCount);
+    }
+
+    /**
+     * Returns the values of an integer or decimal column as double array.
+     *
+     * @param col the column
+     * @return the values, or null if the column holds strings
+     */
+    private double[] doubleValues(Column col) {
+        if (col instanceof DoubleColumn) {
+            return ((DoubleColumn) col).getValues();
+        }
+        if (col instanceof LongColumn) {
+            long[] values = ((LongColumn) col).getValues();
+            double[] converted = new double[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                converted[i] = values[i];
+            }
+            return converted;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the null bitmap of an integer or decimal column.
+     *
+     * @param col the column
+     * @return the null bitmap
+     */
+    private static BitSet missing(Column col) {
+        return col instanceof LongColumn ? ((LongColumn) col).getMissing() : ((DoubleColumn) col).getMissing();
+    }
+
+    /**
+     * Applies a binary operation to two integer columns and returns the results as a primitive column.
+     * Rows in which one of the values is not a whole number are missing in the result.
+     * On large tables the operator is called from several threads.
+     *
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param operator Operation to perform on the two column values
+     * @return column of results, one per row
+     * @throws IllegalArgumentException if one or both columns do not exist
+     */
+    public LongColumn processColumnsAsLong(String header1, String header2, LongBinaryOperator operator) {
+        Column col1 = column(getColumnIndex(header1));
+        Column col2 = column(getColumnIndex(header2));
+
+        long[] values = new long[Math.max(rowCount, Column.DEFAULT_CAPACITY)];
+        BitSet missing = new BitSet();
+        for (BitSet failed : mapRanges((from, to) -> {
+            BitSet rangeFailed = new BitSet();
+            for (int i = from; i < to; i++) {
+                if (col1.isIntegral(i) && col2.isIntegral(i)) {
+                    values[i] = operator.applyAsLong(col1.getLong(i), col2.getLong(i));
+                } else {
+                    rangeFailed.set(i);
+                }
+            }
+            return rangeFailed;
+        })) {
+            missing.or(failed);
+        }
+
+        return new LongColumn(values, missing, rowCount);
+    }
+
     /**
      * Returns the extreme (maximum or minimum) value in the column (by header).
+     * The values are read directly from the typed column without parsing,
+     * or from the sorted index of the column if there is one.
+     * Integer and decimal columns are reduced by a whole-column kernel.
      *
      * @param header Name of the column
      * @param findMax true to find maximum, false to find minimum
      * @return the extreme value as Double, or null if no numeric values exist
      */
     public Double getExtremeValue(String header, boolean findMax) {
-        List<String> col = getColumn(header);
-        return getExtremeValue(col, findMax);
+        Metrics.Timer timer = Metrics.global().startTimer();
+        Double result = extremeValue(header, findMax);
+        timer.stop("query.getExtremeValue", rowCount);
+        return result;
+    }
+
+    /**
+     * Implementation of {@link #getExtremeValue(String, boolean)}.
+     */
+    private Double extremeValue(String header, boolean findMax) {
+        int colIndex = getColumnIndex(header);
+        SortedIndex index = sortedIndex(colIndex);
+        if (index != null) {
+            if (index.size() == 0) return null;
+            return findMax ? index.max() : index.min();
+        }
+        Column col = column(colIndex);
+        if (col instanceof LongColumn || col instanceof DoubleColumn) {
+            ColumnKernels kernels = ColumnKernels.get();
+            BitSet missing = missing(col);
+            diagnostics.missingValues("getExtremeValue", missing.cardinality());
+            long[] skip = missing.toLongArray();
+            double extreme = Double.NaN;
+            for (double part : mapRanges((from, to) -> col instanceof LongColumn
+                    ? kernels.extreme(((LongColumn) col).getValues(), skip, from, to, findMax)
+                    : kernels.extreme(((DoubleColumn) col).getValues(), skip, from, to, findMax))) {
+                extreme = ColumnKernels.combine(extreme, part, findMax);
+            }
+            return Double.isNaN(extreme) ? null : extreme;
+        }
+        boolean found = false;
+        double extreme = 0;
+        long missingCount = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (col.isMissing(i)) {
+                missingCount++;
+                continue;
+            }
+            if (!col.isNumeric(i)) {
+                diagnostics.parseFailure("getExtremeValue", header, col, i);
+                continue;
+            }
+            double num = col.getDouble(i);
+            if (!found || (findMax && num > extreme) || (!findMax && num < extreme)) {
+                extreme = num;
+                found = true;
+            }
+        }
+        diagnostics.missingValues("getExtremeValue", missingCount);
+        return found ? extreme : null;
     }
 
     /**
@@ -196,30 +662,200 @@ public class Table {
      */
     public Double getExtremeValue(List<String> col, boolean findMax) {
         Double extreme = null;
-        for (String val : col) {
-            if (val == null || val.isEmpty()) continue;
-            try {
-                double num = Double.parseDouble(val);
-                if (extreme == null || (findMax && num > extreme) || (!findMax && num < extreme)) {
-                    extreme = num;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Parsing failed: " + e.getMessage());
+        NumberParser parser = new NumberParser();
+        long missingCount = 0;
+        for (int i = 0; i < col.size(); i++) {
+            String val = col.get(i);
+            int kind = val == null ? NumberParser.EMPTY : parser.parse(val);
+            if (kind == NumberParser.EMPTY) {
+                missingCount++;
+                continue;
+            }
+            if (kind == NumberParser.INVALID) {
+                diagnostics.parseFailure("getExtremeValue", i, val);
+                continue;
+            }
+            double num = parser.doubleValue();
+            if (extreme == null || (findMax && num > extreme) || (!findMax && num < extreme)) {
+                extreme = num;
             }
         }
+        diagnostics.missingValues("getExtremeValue", missingCount);
         return extreme;
     }
 
     /**
      * Returns all indices in the column (by header) that match the given value.
+     * The values are read directly from the typed column without parsing,
+     * or looked up in a secondary index of the column if there is one.
+     * On a string column every distinct value is compared once and the rows only by their dictionary codes.
      *
      * @param header Name of the column
      * @param value The value to search for
      * @return List of row indices where the column equals the given value
      */
     public List<Integer> getIndicesOfValue(String header, double value) {
-        List<String> col = getColumn(header);
-        return getIndicesOfValue(col, value);
+        Metrics.Timer timer = Metrics.global().startTimer();
+        List<Integer> result = indicesOfValue(header, value);
+        timer.stop("query.getIndicesOfValue", rowCount);
+        return result;
+    }
+
+    /**
+     * Implementation of {@link #getIndicesOfValue(String, double)}.
+     */
+    private List<Integer> indicesOfValue(String header, double value) {
+        int colIndex = getColumnIndex(header);
+        HashIndex hashIndex = hashIndex(colIndex);
+        if (hashIndex != null) {
+            return toList(hashIndex.lookup(value));
+        }
+        SortedIndex sortedIndex = sortedIndex(colIndex);
+        if (sortedIndex != null) {
+            return toList(sortedIndex.range(value, value));
+        }
+        Column col = column(colIndex);
+        ColumnKernels kernels = ColumnKernels.get();
+        if (col instanceof DoubleColumn || col instanceof LongColumn) {
+            diagnostics.missingValues("getIndicesOfValue", missing(col).cardinality());
+        }
+        if (col instanceof DoubleColumn) {
+            double[] values = ((DoubleColumn) col).getValues();
+            long[] skip = missing(col).toLongArray();
+            return toList(mapRanges((from, to) -> kernels.indicesOf(values, skip, from, to, value)));
+        }
+        if (col instanceof LongColumn) {
+            if (value != Math.rint(value)) return new ArrayList<>();
+            long[] values = ((LongColumn) col).getValues();
+            BitSet missing = missing(col);
+            if (Math.abs(value) >= 0x1p53) {
+                // several longs round to such a double, e.g. the result of getExtremeValue; match all of them
+                List<Integer> indices = new ArrayList<>();
+                for (int i = 0; i < rowCount; i++) {
+                    if (!missing.get(i) && values[i] == value) {
+                        indices.add(i);
+                    }
+                }
+                return indices;
+            }
+            long[] skip = missing.toLongArray();
+            return toList(mapRanges((from, to) -> kernels.indicesOf(values, skip, from, to, (long) value)));
+        }
+        if (col instanceof StringColumn) {
+            return indicesOfCodes((StringColumn) col, header, value);
+        }
+        List<Integer> indices = new ArrayList<>();
+        long missingCount = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (col.isNumeric(i)) {
+                if (col.getDouble(i) == value) {
+                    indices.add(i);
+                }
+            } else if (col.isMissing(i)) {
+                missingCount++;
+            } else {
+                diagnostics.parseFailure("getIndicesOfValue", header, col, i);
+            }
+        }
+        diagnostics.missingValues("getIndicesOfValue", missingCount);
+        return indices;
+    }
+
+    /**
+     * Numeric equality lookup on a string column: the dictionary entries are classified once,
+     * then the rows are matched by their codes.
+     */
+    private List<Integer> indicesOfCodes(StringColumn col, String header, double value) {
+        // Per code: 1 match, 0 other number, 2 missing, 3 not numeric
+        byte[] classes = new byte[col.getDictionarySize()];
+        for (int code = 0; code < classes.length; code++) {
+            if (col.isNumericCode(code)) {
+                classes[code] = (byte) (col.getDictionaryDouble(code) == value ? 1 : 0);
+            } else {
+                classes[code] = (byte) (col.getDictionaryValue(code).isEmpty() ? 2 : 3);
+            }
+        }
+        List<Integer> indices = new ArrayList<>();
+        long missingCount = 0;
+        for (int i = 0; i < rowCount; i++) {
+            int code = col.getCode(i);
+            byte cls = code < 0 ? 2 : classes[code];
+            if (cls == 1) {
+                indices.add(i);
+            } else if (cls == 2) {
+                missingCount++;
+            } else if (cls == 3) {
+                diagnostics.parseFailure("getIndicesOfValue", header, col, i);
+            }
+        }
+        diagnostics.missingValues("getIndicesOfValue", missingCount);
+        return indices;
+    }
+
+    /**
+     * Returns all indices in the column (by header) whose text equals the given value.
+     * On a string column the value is looked up in the dictionary once and the rows are
+     * compared by their int codes, so no string is compared per row; other columns
+     * compare the text of every cell. An empty string finds the missing values.
+     *
+     * @param header Name of the column
+     * @param value The text to search for
+     * @return List of row indices where the column holds the given text, in row order
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public List<Integer> getIndicesOfValue(String header, String value) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        Column col = column(getColumnIndex(header));
+        List<Integer> result;
+        if (col instanceof StringColumn) {
+            StringColumn strings = (StringColumn) col;
+            int code = strings.codeOf(value);
+            result = value != null && code < 0 ? new ArrayList<>() : toList(mapRanges((from, to) -> {
+                int[] indices = new int[0];
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    if (strings.getCode(i) == code) {
+                        indices = ColumnKernels.append(indices, count++, i);
+                    }
+                }
+                return Arrays.copyOf(indices, count);
+            }));
+        } else {
+            result = new ArrayList<>();
+            for (int i = 0; i < rowCount; i++) {
+                if (Objects.equals(value, col.getString(i))) {
+                    result.add(i);
+                }
+            }
+        }
+        timer.stop("query.getIndicesOfText", rowCount);
+        return result;
+    }
+
+    /**
+     * Returns all indices in the column (by header) whose value lies in the given closed range.
+     * Uses the sorted index of the column if there is one, otherwise the column is scanned.
+     *
+     * @param header Name of the column
+     * @param from lower bound (inclusive)
+     * @param to upper bound (inclusive)
+     * @return List of row indices in row order
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public List<Integer> getIndicesInRange(String header, double from, double to) {
+        int colIndex = getColumnIndex(header);
+        SortedIndex index = sortedIndex(colIndex);
+        if (index != null) {
+            return toList(index.range(from, to));
+        }
+        Column col = column(colIndex);
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            if (col.isNumeric(i) && col.getDouble(i) >= from && col.getDouble(i) <= to) {
+                indices.add(i);
+            }
+        }
+        return indices;
     }
 
     /**
@@ -231,16 +867,20 @@ public class Table {
      */
     public List<Integer> getIndicesOfValue(List<String> col, double value) {
         List<Integer> indices = new ArrayList<>();
+        NumberParser parser = new NumberParser();
+        long missingCount = 0;
         for (int i = 0; i < col.size(); i++) {
             String val = col.get(i);
-            try {
-                if (val != null && !val.isEmpty() && Double.parseDouble(val) == value) {
-                    indices.add(i);
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Parsing failed: " + e.getMessage());
+            int kind = val == null ? NumberParser.EMPTY : parser.parse(val);
+            if (kind == NumberParser.EMPTY) {
+                missingCount++;
+            } else if (kind == NumberParser.INVALID) {
+                diagnostics.parseFailure("getIndicesOfValue", i, val);
+            } else if (parser.doubleValue() == value) {
+                indices.add(i);
             }
         }
+        diagnostics.missingValues("getIndicesOfValue", missingCount);
         return indices;
     }
 
@@ -254,7 +894,6 @@ public class Table {
     public List<Integer> getExtremeIndices(String header, boolean findMax) {
         Double extreme = getExtremeValue(header, findMax);
         if (extreme == null) {
-        	System.out.println("No extreme values, emptyl is returned.");
         	return new ArrayList<>();
         }
         return getIndicesOfValue(header, extreme);
@@ -270,14 +909,736 @@ public class Table {
     public List<Integer> getExtremeIndices(List<String> col, boolean findMax) {
         Double extreme = getExtremeValue(col, findMax);
         if (extreme == null) {
-        	System.out.println("No extreme values, emptyl is returned.");
         	return new ArrayList<>();
         }
         return getIndicesOfValue(col, extreme);
     }
 
+    /**
+     * Returns the indices of the rows for which operator(header1, header2) is extreme.
+     * The derived value of each row is computed, compared against the current extreme and
+     * collected as tie in a single pass over the two columns; no intermediate result column is built.
+     * Rows in which one of the values is not numeric, or for which the operator yields NaN, are skipped.
+     *
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param operator Operation that derives the compared value from the two column values
+     * @param findMax true for maximum, false for minimum
+     * @return List of row indices where the extreme derived value occurs, in row order
+     * @throws IllegalArgumentException if one or both columns do not exist
+     */
+    public List<Integer> getExtremeIndices(String header1, String header2, BiFunction<Double, Double, Double> operator, boolean findMax) {
+        return getExtremeIndicesAsDouble(header1, header2, operator::apply, findMax);
+    }
+
+    /**
+     * Returns the indices of the rows for which operator(header1, header2) is extreme,
+     * using a primitive operator so that no value is boxed.
+     * See {@link #getExtremeIndices(String, String, BiFunction, boolean)}.
+     * A {@link ColumnOp} on two integer or decimal columns runs as whole-column kernels instead:
+     * the derived column is computed, reduced and scanned for the extreme value with SIMD instructions.
+     *
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param operator Operation that derives the compared value from the two column values
+     * @param findMax true for maximum, false for minimum
+     * @return List of row indices where the extreme derived value occurs, in row order
+     * @throws IllegalArgumentException if one or both columns do not exist
+     */
+    public List<Integer> getExtremeIndicesAsDouble(String header1, String header2, DoubleBinaryOperator operator, boolean findMax) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        List<Integer> result = extremeIndicesAsDouble(header1, header2, operator, findMax);
+        timer.stop("query.getExtremeIndicesAsDouble", rowCount);
+        return result;
+    }
+
+    /**
+     * Implementation of {@link #getExtremeIndicesAsDouble(String, String, DoubleBinaryOperator, boolean)}.
+     */
+    private List<Integer> extremeIndicesAsDouble(String header1, String header2, DoubleBinaryOperator operator, boolean findMax) {
+        Column col1 = column(getColumnIndex(header1));
+        Column col2 = column(getColumnIndex(header2));
+
+        if (operator instanceof ColumnOp) {
+            DoubleColumn derived = applyKernel("getExtremeIndices", (ColumnOp) operator, col1, col2);
+            if (derived != null) {
+                ColumnKernels kernels = ColumnKernels.get();
+                double[] values = derived.getValues();
+                long[] skip = derived.getMissing().toLongArray();
+                return toList(combineExtremes(mapRanges((from, to) -> {
+                    double extreme = kernels.extreme(values, skip, from, to, findMax);
+                    int[] indices = Double.isNaN(extreme) ? new int[0] : kernels.indicesOf(values, skip, from, to, extreme);
+                    return new RangeExtreme(extreme, indices, null);
+                }), findMax).indices);
+            }
+        }
 
+        List<RangeExtreme> parts = mapRanges((from, to) -> {
+            int[] indices = new int[0];
+            int count = 0;
+            BitSet failed = new BitSet();
+            double extreme = Double.NaN;
+            for (int i = from; i < to; i++) {
+                if (!col1.isNumeric(i) || !col2.isNumeric(i)) {
+                    failed.set(i);
+                    continue;
+                }
+                double val = operator.applyAsDouble(col1.getDouble(i), col2.getDouble(i));
+                if (Double.isNaN(val)) continue;
+                if (Double.isNaN(extreme) || (findMax && val > extreme) || (!findMax && val < extreme)) {
+                    extreme = val;
+                    count = 0;
+                    indices = ColumnKernels.append(indices, count++, i);
+                } else if (val == extreme) {
+                    indices = ColumnKernels.append(indices, count++, i);
+                }
+            }
+            return new RangeExtreme(extreme, Arrays.copyOf(indices, count), failed);
+        });
+        BitSet failed = new BitSet();
+        for (RangeExtreme part : parts) {
+            failed.or(part.failed);
+        }
+        reportFailures("getExtremeIndices", header1, header2, col1, col2, failed);
+        return toList(combineExtremes(parts, findMax).indices);
+    }
+
+    /**
+     * Returns the indices of the k rows with the largest or smallest values in the column (by header),
+     * best first; rows with equal values are ranked by row index.
+     * The rows are ranked with a bounded heap of k entries instead of sorting the column, and on large
+     * tables every row range is ranked on its own and the heaps are merged.
+     * Rows that are not numeric are skipped and reported to the diagnostics.
+     *
+     * @param header Name of the column
+     * @param k maximum number of rows returned
+     * @param findMax true for the largest values, false for the smallest ones
+     * @return at most k row indices in rank order
+     * @throws IllegalArgumentException if the column does not exist or k is negative
+     */
+    public List<Integer> getTopIndices(String header, int k, boolean findMax) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative!");
+        Column col = column(getColumnIndex(header));
+        TopK top;
+        if (col instanceof LongColumn || col instanceof DoubleColumn) {
+            top = topOf(col, "getTopIndices", k, findMax);
+        } else {
+            List<RangeTop> parts = mapRanges((from, to) -> {
+                TopK range = new TopK(k, findMax);
+                BitSet failed = new BitSet();
+                for (int i = from; i < to; i++) {
+                    if (col.isNumeric(i)) {
+                        range.offer(col.getDouble(i), i);
+                    } else {
+                        failed.set(i);
+                    }
+                }
+                return new RangeTop(range, failed);
+            });
+            long missingCount = 0;
+            for (RangeTop part : parts) {
+                for (int i = part.failed.nextSetBit(0); i >= 0; i = part.failed.nextSetBit(i + 1)) {
+                    if (col.isMissing(i)) {
+                        missingCount++;
+                    } else {
+                        diagnostics.parseFailure("getTopIndices", header, col, i);
+                    }
+                }
+            }
+            diagnostics.missingValues("getTopIndices", missingCount);
+            top = mergeTops(parts, k, findMax);
+        }
+        List<Integer> result = toList(top.rows());
+        timer.stop("query.getTopIndices", rowCount);
+        return result;
+    }
 
+    /**
+     * Returns the indices of the k rows with the largest or smallest values derived from two numeric
+     * columns, best first; rows with equal derived values are ranked by row index.
+     * This generalizes {@link #getExtremeIndicesAsDouble(String, String, DoubleBinaryOperator, boolean)}
+     * from the rows tied at the extreme to a ranking, e.g. the ten days with the smallest temperature spread.
+     * The rows are ranked with a bounded heap of k entries, per row range on large tables; a {@link ColumnOp}
+     * on two integer or decimal columns derives the values with a whole-column kernel first.
+     * Rows in which one of the values is not numeric, or for which the operator yields NaN, are skipped.
+     *
+     * @param header1 Name of the first column
+     * @param header2 Name of the second column
+     * @param operator Operation that derives the ranked value from the two column values
+     * @param k maximum number of rows returned
+     * @param findMax true for the largest derived values, false for the smallest ones
+     * @return at most k row indices in rank order
+     * @throws IllegalArgumentException if one or both columns do not exist or k is negative
+     */
+    public List<Integer> getTopIndicesAsDouble(String header1, String header2, DoubleBinaryOperator operator, int k, boolean findMax) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative!");
+        Column col1 = column(getColumnIndex(header1));
+        Column col2 = column(getColumnIndex(header2));
+        DoubleColumn derived = operator instanceof ColumnOp
+                ? applyKernel("getTopIndices", (ColumnOp) operator, col1, col2) : null;
+        TopK top;
+        if (derived != null) {
+            top = topOf(derived, null, k, findMax);
+        } else {
+            List<RangeTop> parts = mapRanges((from, to) -> {
+                TopK range = new TopK(k, findMax);
+                BitSet failed = new BitSet();
+                for (int i = from; i < to; i++) {
+                    if (!col1.isNumeric(i) || !col2.isNumeric(i)) {
+                        failed.set(i);
+                        continue;
+                    }
+                    range.offer(operator.applyAsDouble(col1.getDouble(i), col2.getDouble(i)), i);
+                }
+                return new RangeTop(range, failed);
+            });
+            BitSet failed = new BitSet();
+            for (RangeTop part : parts) {
+                failed.or(part.failed);
+            }
+            reportFailures("getTopIndices", header1, header2, col1, col2, failed);
+            top = mergeTops(parts, k, findMax);
+        }
+        List<Integer> result = toList(top.rows());
+        timer.stop("query.getTopIndicesAsDouble", rowCount);
+        return result;
+    }
 
+    /**
+     * Ranks the present values of an integer or decimal column.
+     *
+     * @param col the column
+     * @param operation Name of the calling operation to report the missing values to, or null if they are reported already
+     * @param k maximum number of rows kept
+     * @param findMax true for the largest values
+     * @return the merged heap
+     */
+    private TopK topOf(Column col, String operation, int k, boolean findMax) {
+        long[] longs = col instanceof LongColumn ? ((LongColumn) col).getValues() : null;
+        double[] doubles = col instanceof DoubleColumn ? ((DoubleColumn) col).getValues() : null;
+        BitSet skip = missing(col);
+        if (operation != null) {
+            diagnostics.missingValues(operation, skip.cardinality());
+        }
+        return mergeTops(mapRanges((from, to) -> {
+            TopK range = new TopK(k, findMax);
+            for (int i = from; i < to; i++) {
+                if (!skip.get(i)) range.offer(longs != null ? longs[i] : doubles[i], i);
+            }
+            return new RangeTop(range, null);
+        }), k, findMax);
+    }
+
+    private static TopK mergeTops(List<RangeTop> parts, int k, boolean findMax) {
+        TopK top = new TopK(k, findMax);
+        for (RangeTop part : parts) {
+            top.merge(part.top);
+        }
+        return top;
+    }
+
+    /**
+     * Returns a copy of this table with the rows sorted by the given keys, e.g. by MxT descending and
+     * then by Day. Numbers are compared by value and come before other strings, which are compared
+     * lexicographically; empty values and NaN come last in both directions, and rows with equal keys
+     * keep their order. The key columns are mapped to primitive ranks once, so the sort compares no strings.
+     * Sources too large for the heap are sorted by {@link ExternalSort}.
+     *
+     * @param keys the sort keys, most significant first
+     * @return the sorted table
+     * @throws IllegalArgumentException if there are no keys or a key column does not exist
+     */
+    public Table sort(List<SortKey> keys) {
+        if (keys == null || keys.isEmpty())
+            throw new IllegalArgumentException("Sort keys must not be empty!");
+        Metrics.Timer timer = Metrics.global().startTimer();
+        Column[] keyColumns = new Column[keys.size()];
+        boolean[] descending = new boolean[keys.size()];
+        for (int k = 0; k < keyColumns.length; k++) {
+            keyColumns[k] = column(getColumnIndex(keys.get(k).getHeader()));
+            descending[k] = keys.get(k).isDescending();
+        }
+        int[] rows = new RowOrder(keyColumns, descending, rowCount).sortedRows(rowCount);
+        List<Column> sorted = new ArrayList<>();
+        for (int c = 0; c < columns.size(); c++) {
+            sorted.add(column(c).select(rows, rowCount));
+        }
+        Table result = new Table(headers, sorted, rowCount);
+        timer.stop("query.sort", rowCount);
+        return result;
+    }
+
+    /**
+     * Joins this table with another one on equal keys, e.g. weather rows with match results by date.
+     * The result has the columns of this table followed by the columns of the right table without its
+     * key column, and one row per pair of rows with equal keys, in the order of the rows of this table
+     * and then of the right table; a {@link JoinType#LEFT left join} also keeps the rows of this table
+     * without a match, with empty right values. Right headers that also occur in this table get the
+     * suffix {@value HashJoin#RIGHT_SUFFIX}.
+     * <p>
+     * A hash index is built over the keys of the smaller table and probed with the keys of the larger
+     * one; the result columns are gathered from the typed columns by row number. Numeric keys are
+     * compared by value, other keys as strings; empty keys never match. Sources too large for the heap
+     * are joined by {@link HashJoin#join(TableReader, TableReader, RowSink)}.
+     *
+     * @param right the right table
+     * @param leftKey Name of the key column of this table
+     * @param rightKey Name of the key column of the right table
+     * @param type the kind of join
+     * @return the joined table
+     * @throws IllegalArgumentException if a key column does not exist
+     */
+    public Table join(Table right, String leftKey, String rightKey, JoinType type) {
+        if (right == null || type == null)
+            throw new IllegalArgumentException("Right table and join type must not be null!");
+        Metrics.Timer timer = Metrics.global().startTimer();
+        Table result = HashJoin.join(this, right, leftKey, rightKey, type);
+        timer.stop("query.join", (long) rowCount + right.rowCount);
+        return result;
+    }
+
+    /**
+     * Groups the rows by the values of the key columns and computes the aggregates per group,
+     * e.g. the smallest temperature spread and the day it occurs per month.
+     * The result has the key columns followed by one column per aggregate, named by
+     * {@link Aggregate#getName()}, and one row per group in the order of the first row of each group.
+     * Empty key values form a group of their own.
+     * <p>
+     * Keys and aggregate states are kept in primitive open-addressing hash tables (string keys by their
+     * dictionary codes), so millions of groups need no boxing. On large tables every row range is
+     * grouped on its own and the partial groups are merged.
+     * Cells that are not numeric are skipped and reported to the diagnostics.
+     *
+     * @param keyHeaders Names of the key columns; an empty list puts all rows into one group
+     * @param aggregates the aggregates to compute per group
+     * @return table with one row per group
+     * @throws IllegalArgumentException if a column does not exist or there are more than 63 key columns
+     */
+    public Table groupBy(List<String> keyHeaders, List<Aggregate> aggregates) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        if (keyHeaders.size() > 63)
+            throw new IllegalArgumentException("At most 63 key columns are supported!");
+        Column[] keys = new Column[keyHeaders.size()];
+        for (int c = 0; c < keys.length; c++) {
+            keys[c] = column(getColumnIndex(keyHeaders.get(c)));
+        }
+        Column[] values = new Column[aggregates.size()];
+        for (int a = 0; a < values.length; a++) {
+            Aggregate aggregate = aggregates.get(a);
+            if (aggregate.getHeader2() != null) {
+                values[a] = processColumnsAsDouble(aggregate.getHeader1(), aggregate.getHeader2(), aggregate.getOperator());
+            } else if (aggregate.getHeader1() != null) {
+                values[a] = column(getColumnIndex(aggregate.getHeader1()));
+            }
+        }
+        Column ids = headers.isEmpty() ? null : column(0);
+        GroupBy groupBy = new GroupBy(keyHeaders, keys, aggregates, values, ids, diagnostics);
+        Table result = groupBy.toTable(groupBy.merge(mapRanges(groupBy::aggregate)));
+        timer.stop("query.groupBy", rowCount);
+        return result;
+    }
+
+    /**
+     * Answers several extreme-value questions in a single pass over the rows.
+     * The rows are processed in cache-sized blocks: every column used by one of the specs is decoded
+     * once per block, no matter how many specs use it, and all specs are evaluated on the decoded
+     * block with the column kernels; on large tables the pass runs in parallel like the other scans. Rows in which a value used by a spec is not numeric, or for which
+     * its operator yields NaN, are skipped for that spec.
+     *
+     * @param specs the questions to answer
+     * @return one result per spec, in the order of the specs
+     * @throws IllegalArgumentException if a column of a spec does not exist
+     */
+    public List<AnalysisResult> analyze(List<AnalysisSpec> specs) {
+        Metrics.Timer timer = Metrics.global().startTimer();
+        List<AnalysisResult> result = analyzeSpecs(specs);
+        timer.stop("query.analyze", rowCount);
+        return result;
+    }
+
+    /**
+     * Implementation of {@link #analyze(List)}.
+     */
+    private List<AnalysisResult> analyzeSpecs(List<AnalysisSpec> specs) {
+        // Every distinct column gets a slot, shared by all specs using it
+        Map<String, Integer> slots = new HashMap<>();
+        List<Column> cols = new ArrayList<>();
+        int specCount = specs.size();
+        int[] first = new int[specCount];
+        int[] second = new int[specCount];
+        DoubleBinaryOperator[] operators = new DoubleBinaryOperator[specCount];
+        boolean[] findMax = new boolean[specCount];
+        for (int s = 0; s < specCount; s++) {
+            AnalysisSpec spec = specs.get(s);
+            first[s] = slot(spec.getHeader1(), slots, cols);
+            second[s] = spec.getHeader2() == null ? -1 : slot(spec.getHeader2(), slots, cols);
+            operators[s] = spec.getOperator();
+            findMax[s] = spec.isFindMax();
+        }
+
+        ColumnKernels kernels = ColumnKernels.get();
+        long[] noSkip = new long[0];
+        List<RangeExtreme[]> parts = mapRanges((from, to) -> {
+            // The columns are decoded block by block into doubles, NaN marking non-numeric cells,
+            // and every spec is evaluated on the decoded blocks with the column kernels
+            double[][] values = new double[cols.size()][ANALYSIS_BLOCK_SIZE];
+            double[] derived = new double[ANALYSIS_BLOCK_SIZE];
+            double[] extremes = new double[specCount];
+            Arrays.fill(extremes, Double.NaN);
+            int[][] indices = new int[specCount][0];
+            int[] counts = new int[specCount];
+            for (int blockStart = from; blockStart < to; blockStart += ANALYSIS_BLOCK_SIZE) {
+                int len = Math.min(ANALYSIS_BLOCK_SIZE, to - blockStart);
+                for (int c = 0; c < values.length; c++) {
+                    decode(cols.get(c), blockStart, len, values[c]);
+                }
+                for (int s = 0; s < specCount; s++) {
+                    double[] block = values[first[s]];
+                    if (second[s] >= 0) {
+                        block = derived;
+                        double[] values1 = values[first[s]];
+                        double[] values2 = values[second[s]];
+                        if (operators[s] instanceof ColumnOp) {
+                            // NaN inputs yield NaN results for all column ops
+                            kernels.apply((ColumnOp) operators[s], values1, values2, derived, 0, len);
+                        } else {
+                            for (int j = 0; j < len; j++) {
+                                derived[j] = Double.isNaN(values1[j]) || Double.isNaN(values2[j])
+                                        ? Double.NaN : operators[s].applyAsDouble(values1[j], values2[j]);
+                            }
+                        }
+                    }
+                    double blockExtreme = kernels.extreme(block, noSkip, 0, len, findMax[s]);
+                    if (Double.isNaN(blockExtreme)) continue;
+                    double extreme = extremes[s];
+                    boolean better = Double.isNaN(extreme) || (findMax[s] ? blockExtreme > extreme : blockExtreme < extreme);
+                    if (!better && blockExtreme != extreme) continue;
+                    if (better) {
+                        extremes[s] = blockExtreme;
+                        counts[s] = 0;
+                    }
+                    for (int j : kernels.indicesOf(block, noSkip, 0, len, blockExtreme)) {
+                        indices[s] = ColumnKernels.append(indices[s], counts[s]++, blockStart + j);
+                    }
+                }
+            }
+            RangeExtreme[] result = new RangeExtreme[specCount];
+            for (int s = 0; s < specCount; s++) {
+                result[s] = new RangeExtreme(extremes[s], Arrays.copyOf(indices[s], counts[s]), null);
+            }
+            return result;
+        });
+
+        List<AnalysisResult> results = new ArrayList<>();
+        for (int s = 0; s < specCount; s++) {
+            List<RangeExtreme> specParts = new ArrayList<>();
+            for (RangeExtreme[] part : parts) {
+                specParts.add(part[s]);
+            }
+            RangeExtreme combined = combineExtremes(specParts, findMax[s]);
+            Double extreme = Double.isNaN(combined.extreme) ? null : combined.extreme;
+            results.add(new AnalysisResult(specs.get(s), extreme, toList(combined.indices)));
+        }
+        return results;
+    }
+
+    /**
+     * Decodes a block of rows of a column into doubles.
+     *
+     * @param col the column
+     * @param from first row of the block
+     * @param len number of rows
+     * @param out receives the values; NaN for cells that are not numeric
+     */
+    private static void decode(Column col, int from, int len, double[] out) {
+        if (col instanceof LongColumn) {
+            long[] values = ((LongColumn) col).getValues();
+            for (int j = 0; j < len; j++) {
+                out[j] = values[from + j];
+            }
+        } else if (col instanceof DoubleColumn) {
+            System.arraycopy(((DoubleColumn) col).getValues(), from, out, 0, len);
+        } else {
+            for (int j = 0; j < len; j++) {
+                out[j] = col.isNumeric(from + j) ? col.getDouble(from + j) : Double.NaN;
+            }
+            return;
+        }
+        BitSet missing = missing(col);
+        for (int i = missing.nextSetBit(from); i >= 0 && i < from + len; i = missing.nextSetBit(i + 1)) {
+            out[i - from] = Double.NaN;
+        }
+    }
+
+    /**
+     * Returns the slot of the column with the given header, adding the column if it has no slot yet.
+     *
+     * @param header the name of the column
+     * @param slots slots by header
+     * @param cols columns by slot
+     * @return the slot of the column
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    private int slot(String header, Map<String, Integer> slots, List<Column> cols) {
+        Integer slot = slots.get(header);
+        if (slot == null) {
+            slot = cols.size();
+            cols.add(column(getColumnIndex(header)));
+            slots.put(header, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Combines the extremes of consecutive row ranges: the indices of all ranges whose
+     * extreme equals the overall extreme are concatenated in row order.
+     *
+     * @param parts the results of the ranges in row order
+     * @param findMax true for maximum, false for minimum
+     * @return the overall extreme (NaN if there is none) and its row indices
+     */
+    private static RangeExtreme combineExtremes(List<RangeExtreme> parts, boolean findMax) {
+        double extreme = Double.NaN;
+        for (RangeExtreme part : parts) {
+            extreme = ColumnKernels.combine(extreme, part.extreme, findMax);
+        }
+        List<int[]> matching = new ArrayList<>();
+        int size = 0;
+        for (RangeExtreme part : parts) {
+            if (part.extreme == extreme) {
+                matching.add(part.indices);
+                size += part.indices.length;
+            }
+        }
+        int[] indices = new int[size];
+        int pos = 0;
+        for (int[] part : matching) {
+            System.arraycopy(part, 0, indices, pos, part.length);
+            pos += part.length;
+        }
+        return new RangeExtreme(extreme, indices, null);
+    }
+
+    /**
+     * Splits the rows into ranges and runs the task for every range.
+     * Tables with fewer rows than the parallel threshold are processed as a single range
+     * on the calling thread; otherwise the ranges are processed on the common ForkJoinPool.
+     *
+     * @param task the task to run for a range of rows
+     * @return the results of the ranges in row order
+     */
+    private <T> List<T> mapRanges(RangeTask<T> task) {
+        if (rowCount < parallelThreshold || rowCount <= RANGE_ALIGNMENT) {
+            return Collections.singletonList(task.run(0, rowCount));
+        }
+        int ranges = Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, (rowCount + RANGE_ALIGNMENT - 1) / RANGE_ALIGNMENT);
+        int[] bounds = new int[ranges + 1];
+        for (int i = 1; i < ranges; i++) {
+            bounds[i] = (int) ((long) rowCount * i / ranges) / RANGE_ALIGNMENT * RANGE_ALIGNMENT;
+        }
+        bounds[ranges] = rowCount;
+        return IntStream.range(0, ranges)
+                .parallel()
+                .mapToObj(i -> task.run(bounds[i], bounds[i + 1]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A computation over the rows [from, to) of the table.
+     */
+    private interface RangeTask<T> {
+        T run(int from, int to);
+    }
+
+    /**
+     * The best rows of a row range and the rows in which a value is not numeric.
+     */
+    private static final class RangeTop {
+
+        final TopK top;
+
+        final BitSet failed;
+
+        RangeTop(TopK top, BitSet failed) {
+            this.top = top;
+            this.failed = failed;
+        }
+    }
+
+    /**
+     * The extreme value of a row range and the rows in which it occurs.
+     */
+    private static final class RangeExtreme {
+
+        final double extreme;
+
+        final int[] indices;
+
+        final BitSet failed;
+
+        RangeExtreme(double extreme, int[] indices, BitSet failed) {
+            this.extreme = extreme;
+            this.indices = indices;
+            this.failed = failed;
+        }
+    }
+
+    /**
+     * Returns the typed column for the given header.
+     *
+     * @param header the name of the column
+     * @return the column
+     * @throws IllegalArgumentException if the header does not exist
+     */
+    Column getTypedColumn(String header) {
+        return column(getColumnIndex(header));
+    }
+
+    /**
+     * Returns the typed column at the given index.
+     *
+     * @param colIndex index of the column
+     * @return the column
+     */
+    Column getTypedColumn(int colIndex) {
+        return column(colIndex);
+    }
+
+    /**
+     * Returns the column at the given index for a single pass over its values.
+     * In contrast to {@link #getTypedColumn(int)}, a lazily loaded column that is not loaded yet
+     * is materialized for the caller only and stays lazy in this table.
+     *
+     * @param colIndex index of the column
+     * @return the materialized column
+     */
+    Column peekTypedColumn(int colIndex) {
+        Column col = columns.get(colIndex);
+        return col instanceof LazyColumn ? ((LazyColumn) col).peek() : col;
+    }
+
+    /**
+     * Returns whether the column at the given index is materialized, i.e. not a lazily loaded
+     * column that was never accessed.
+     *
+     * @param colIndex index of the column
+     * @return true if the column is materialized
+     */
+    boolean isColumnLoaded(int colIndex) {
+        Column col = columns.get(colIndex);
+        return !(col instanceof LazyColumn) || ((LazyColumn) col).isLoaded();
+    }
+
+    /**
+     * Returns the column at the given index.
+     * A lazily loaded column is materialized and replaced by its loaded form,
+     * so hot loops never pay for the lazy indirection.
+     *
+     * @param colIndex index of the column
+     * @return the materialized column
+     */
+    private Column column(int colIndex) {
+        Column col = columns.get(colIndex);
+        if (col instanceof LazyColumn) {
+            col = ((LazyColumn) col).load();
+            columns.set(colIndex, col);
+        }
+        return col;
+    }
+
+    /**
+     * Returns the hash index of the column, rebuilding it if it was invalidated.
+     *
+     * @param colIndex index of the column
+     * @return the index, or null if the column has no hash index
+     */
+    private HashIndex hashIndex(int colIndex) {
+        if (!hashIndexes.containsKey(colIndex)) return null;
+        return hashIndexes.computeIfAbsent(colIndex, c -> new HashIndex(column(c), rowCount));
+    }
+
+    /**
+     * Returns the sorted index of the column, rebuilding it if it was invalidated.
+     *
+     * @param colIndex index of the column
+     * @return the index, or null if the column has no sorted index
+     */
+    private SortedIndex sortedIndex(int colIndex) {
+        if (!sortedIndexes.containsKey(colIndex)) return null;
+        return sortedIndexes.computeIfAbsent(colIndex, c -> new SortedIndex(column(c), rowCount));
+    }
+
+    /**
+     * Maps every header to its column index; for duplicate headers the first column wins.
+     */
+    private void indexHeaders() {
+        for (int c = 0; c < headers.size(); c++) {
+            columnIndexes.putIfAbsent(headers.get(c), c);
+        }
+    }
+
+    /**
+     * Converts an array of row indices into a list.
+     *
+     * @param indices the row indices
+     * @return a new list with the same indices
+     */
+    private static List<Integer> toList(int[] indices) {
+        List<Integer> list = new ArrayList<>(indices.length);
+        for (int idx : indices) {
+            list.add(idx);
+        }
+        return list;
+    }
+
+    /**
+     * Concatenates row index arrays into a list.
+     *
+     * @param parts the row indices, in row order
+     * @return list of row indices
+     */
+    private static List<Integer> toList(List<int[]> parts) {
+        int size = 0;
+        for (int[] part : parts) {
+            size += part.length;
+        }
+        List<Integer> list = new ArrayList<>(size);
+        for (int[] part : parts) {
+            for (int idx : part) {
+                list.add(idx);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Checks that the given row index is valid.
+     *
+     * @param rowIndex the index to check
+     * @throws IllegalArgumentException if rowIndex is negative or >= number of rows
+     */
+    private void checkRowIndex(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IllegalArgumentException("Invalid row index: " + rowIndex);
+        }
+    }
+
+    /**
+     * Builds a new list holding the values of the given row.
+     *
+     * @param rowIndex the index of the row
+     * @return a new list with the row values
+     */
+    private List<String> buildRow(int rowIndex) {
+        List<String> row = new ArrayList<>(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            row.add(column(c).getString(rowIndex));
+        }
+        return row;
+    }
 
-}
\ No newline at end of file
+}
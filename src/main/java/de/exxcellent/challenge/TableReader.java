@@ -1,6 +1,8 @@
 package de.exxcellent.challenge;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Abstract base class for reading tables from various sources (e.g., CSV, JSON, etc.).
@@ -15,4 +17,139 @@ abstract class TableReader {
      * @throws IOException if reading from the source fails
      */
     public abstract Table readAsTable() throws IOException;
+
+    /**
+     * Reads data from the source and pushes it row by row into the given sink.
+     * The default implementation reads the whole table first; subclasses which can
+     * read their source incrementally override it, so that the memory needed does
+     * not depend on the number of rows.
+     *
+     * @param sink the sink receiving the headers and rows
+     * @throws IOException if reading from the source fails
+     */
+    public void readRows(RowSink sink) throws IOException {
+        Table table = readAsTable();
+        sink.start(table.getHeaders());
+        RowCursor cursor = table.cursor();
+        while (cursor.next()) {
+            sink.accept(cursor);
+        }
+        sink.end();
+    }
+
+    /**
+     * Reads the projected columns of the rows matching all predicates of the request.
+     * The default implementation streams the rows through {@link #readRows(RowSink)} and
+     * only keeps the projected values of matching rows; subclasses may also skip the
+     * unused values while reading.
+     *
+     * @param request the columns and predicates to apply
+     * @return Table holding the projected columns of the matching rows
+     * @throws IOException if reading from the source fails
+     * @throws IllegalArgumentException if the request refers to a column that does not exist
+     */
+    public Table readAsTable(ReadRequest request) throws IOException {
+        RequestSink sink = new RequestSink(request);
+        readRows(sink);
+        return sink.toTable();
+    }
+
+    /**
+     * Sink that collects the projected values of the rows matching a {@link ReadRequest}.
+     * Only the projected columns and the columns of the predicates are read from a row.
+     */
+    static final class RequestSink implements RowSink {
+
+        private final ReadRequest request;
+
+        private final List<String> headers = new ArrayList<>();
+
+        private int[] projection;
+
+        private int[] predicateColumns;
+
+        private List<List<String>> values;
+
+        private int rowCount;
+
+        private final NumberParser parser = new NumberParser();
+
+        RequestSink(ReadRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public void start(List<String> headers) {
+            projection = request.projection(headers);
+            predicateColumns = request.predicateColumns(headers);
+            values = new ArrayList<>();
+            for (int colIndex : projection) {
+                this.headers.add(headers.get(colIndex));
+                values.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Returns which values of a row the sink reads.
+         *
+         * @param colCount number of columns of the source
+         * @return flag per column of the source, true if the column is projected or tested
+         */
+        boolean[] usedColumns(int colCount) {
+            boolean[] used = new boolean[colCount];
+            for (int colIndex : projection) used[colIndex] = true;
+            for (int colIndex : predicateColumns) used[colIndex] = true;
+            return used;
+        }
+
+        @Override
+        public void accept(Row row) {
+            List<ColumnPredicate> predicates = request.getPredicates();
+            for (int p = 0; p < predicateColumns.length; p++) {
+                String cell = row.get(predicateColumns[p]);
+                if (!predicates.get(p).test(cell, 0, cell.length(), parser)) return;
+            }
+            for (int i = 0; i < projection.length; i++) {
+                values.get(i).add(row.get(projection[i]));
+            }
+            rowCount++;
+        }
+
+        /**
+         * Collects a row given as ranges of a line. The predicates are tested on the ranges,
+         * so strings are only created for the projected values of matching rows.
+         *
+         * @param line the line
+         * @param starts start of the trimmed value per column of the source, set for the used columns
+         * @param ends end of the trimmed value per column of the source, set for the used columns
+         */
+        void accept(String line, int[] starts, int[] ends) {
+            List<ColumnPredicate> predicates = request.getPredicates();
+            for (int p = 0; p < predicateColumns.length; p++) {
+                int colIndex = predicateColumns[p];
+                if (!predicates.get(p).test(line, starts[colIndex], ends[colIndex], parser)) return;
+            }
+            for (int i = 0; i < projection.length; i++) {
+                values.get(i).add(line.substring(starts[projection[i]], ends[projection[i]]));
+            }
+            rowCount++;
+        }
+
+        /**
+         * Returns the collected rows as table.
+         *
+         * @return Table holding the projected columns of the matching rows
+         */
+        Table toTable() {
+            if (values == null) {
+                // empty source without header line
+                start(new ArrayList<>());
+            }
+            List<Column> columns = new ArrayList<>();
+            for (List<String> colValues : values) {
+                columns.add(Column.of(colValues));
+            }
+            return new Table(headers, columns, rowCount);
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package de.exxcellent.challenge;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the k best rows of a scan by their double value, the largest or the smallest ones,
+ * in a bounded binary heap of primitive arrays.
+ * <p>
+ * The root of the heap is the worst row kept, so every further row is compared with it once and
+ * only replaces it if it is better: ranking n rows costs O(n log k) without sorting and without boxing.
+ * Equal values are ranked by row index, so the result does not depend on the order in which the
+ * rows are offered, and heaps of different row ranges can be {@link #merge(TopK) merged}.
+ * NaN values are ignored.
+ */
+final class TopK {
+
+    private final int k;
+
+    private final boolean findMax;
+
+    private double[] values;
+
+    private int[] rows;
+
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param k maximum number of rows kept
+     * @param findMax true to keep the largest values, false to keep the smallest ones
+     * @throws IllegalArgumentException if k is negative
+     */
+    TopK(int k, boolean findMax) {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative!");
+        this.k = k;
+        this.findMax = findMax;
+        int capacity = Math.min(k, Column.DEFAULT_CAPACITY);
+        this.values = new double[capacity];
+        this.rows = new int[capacity];
+    }
+
+    /**
+     * Offers a row.
+     *
+     * @param value the value the row is ranked by
+     * @param row index of the row
+     */
+    void offer(double value, int row) {
+        if (Double.isNaN(value)) return;
+        if (size < k) {
+            if (size == values.length) {
+                int capacity = (int) Math.min(k, 2L * size);
+                values = Arrays.copyOf(values, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+            }
+            values[size] = value;
+            rows[size] = row;
+            siftUp(size++);
+        } else if (k > 0 && better(value, row, values[0], rows[0])) {
+            values[0] = value;
+            rows[0] = row;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Offers all rows kept by another heap with the same k and direction.
+     *
+     * @param other the heap of another range of rows
+     * @return this heap
+     */
+    TopK merge(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.values[i], other.rows[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the number of rows kept.
+     *
+     * @return at most k
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the rows kept, best first.
+     *
+     * @return row indices in rank order
+     */
+    int[] rows() {
+        return sorted().rows;
+    }
+
+    /**
+     * Returns the values of the rows kept, best first.
+     *
+     * @return values in rank order
+     */
+    double[] values() {
+        return sorted().values;
+    }
+
+    /**
+     * Returns a copy of the heap whose arrays are sorted best first, by heapsort:
+     * the worst row is moved behind the heap until the heap is empty.
+     */
+    private TopK sorted() {
+        TopK copy = new TopK(k, findMax);
+        copy.values = Arrays.copyOf(values, size);
+        copy.rows = Arrays.copyOf(rows, size);
+        copy.size = size;
+        for (int end = size - 1; end > 0; end--) {
+            copy.swap(0, end);
+            copy.siftDown(0, end);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns whether row 1 ranks before row 2.
+     */
+    private boolean better(double value1, int row1, double value2, int row2) {
+        if (value1 != value2) return findMax ? value1 > value2 : value1 < value2;
+        return row1 < row2;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(values[parent], rows[parent], values[i], rows[i])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < end && better(values[worst], rows[worst], values[left], rows[left])) worst = left;
+            if (right < end && better(values[worst], rows[worst], values[right], rows[right])) worst = right;
+            if (worst == i) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+        int row = rows[i];
+        rows[i] = rows[j];
+        rows[j] = row;
+    }
+}
@@ -0,0 +1,173 @@
+package de.exxcellent.challenge;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Column kernels built on the JDK Vector API.
+ * The main loops process one preferred-size vector per iteration, the unaligned head and
+ * the remaining tail of a range are handled by the scalar kernels. Only created through {@link ColumnKernels#get()},
+ * so this class is never linked if the incubator module is missing.
+ */
+final class VectorKernels extends ColumnKernels {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Creates the vectorized kernels.
+     *
+     * @throws IllegalStateException if the CPU offers no vectors of at least two doubles
+     */
+    VectorKernels() {
+        if (DOUBLES.length() < 2 || DOUBLES.length() != LONGS.length())
+            throw new IllegalStateException("No SIMD support for doubles");
+    }
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    void apply(ColumnOp op, double[] a, double[] b, double[] out, int from, int to) {
+        int start = alignUp(from, to, DOUBLES.length());
+        int bound = start + DOUBLES.loopBound(to - start);
+        ScalarKernels.applyRange(op, a, b, out, from, start);
+        for (int i = start; i < bound; i += DOUBLES.length()) {
+            DoubleVector va = DoubleVector.fromArray(DOUBLES, a, i);
+            DoubleVector vb = DoubleVector.fromArray(DOUBLES, b, i);
+            lanewise(op, va, vb).intoArray(out, i);
+        }
+        ScalarKernels.applyRange(op, a, b, out, bound, to);
+    }
+
+    @Override
+    void apply(ColumnOp op, long[] a, long[] b, double[] out, int from, int to) {
+        int start = alignUp(from, to, LONGS.length());
+        int bound = start + LONGS.loopBound(to - start);
+        ScalarKernels.applyRange(op, a, b, out, from, start);
+        for (int i = start; i < bound; i += LONGS.length()) {
+            DoubleVector va = (DoubleVector) LongVector.fromArray(LONGS, a, i).convert(VectorOperators.L2D, 0);
+            DoubleVector vb = (DoubleVector) LongVector.fromArray(LONGS, b, i).convert(VectorOperators.L2D, 0);
+            lanewise(op, va, vb).intoArray(out, i);
+        }
+        ScalarKernels.applyRange(op, a, b, out, bound, to);
+    }
+
+    private static DoubleVector lanewise(ColumnOp op, DoubleVector a, DoubleVector b) {
+        switch (op) {
+            case SUBTRACT:
+                return a.sub(b);
+            case ABS_DIFF:
+                return a.sub(b).abs();
+            case RATIO:
+                return a.div(b);
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+
+    @Override
+    double extreme(double[] a, long[] skip, int from, int to, boolean findMax) {
+        double identity = findMax ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, identity);
+        int start = alignUp(from, to, DOUBLES.length());
+        int bound = start + DOUBLES.loopBound(to - start);
+        double partial = ScalarKernels.extremeRange(a, skip, from, start, findMax, Double.NaN);
+        for (int i = start; i < bound; i += DOUBLES.length()) {
+            if (hasSkipped(skip, i, DOUBLES.length())) {
+                partial = ScalarKernels.extremeRange(a, skip, i, i + DOUBLES.length(), findMax, partial);
+                continue;
+            }
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, a, i);
+            v = v.blend(identity, v.test(VectorOperators.IS_NAN));
+            acc = findMax ? acc.max(v) : acc.min(v);
+        }
+        double extreme = acc.reduceLanes(findMax ? VectorOperators.MAX : VectorOperators.MIN);
+        if (extreme == identity) {
+            // Either no value at all or an infinite extreme; rare enough to simply rescan
+            return ScalarKernels.extremeRange(a, skip, from, to, findMax, Double.NaN);
+        }
+        return ScalarKernels.extremeRange(a, skip, bound, to, findMax, combine(extreme, partial, findMax));
+    }
+
+    @Override
+    double extreme(long[] a, long[] skip, int from, int to, boolean findMax) {
+        long identity = findMax ? Long.MIN_VALUE : Long.MAX_VALUE;
+        LongVector acc = LongVector.broadcast(LONGS, identity);
+        int start = alignUp(from, to, LONGS.length());
+        int bound = start + LONGS.loopBound(to - start);
+        double partial = ScalarKernels.extremeRange(a, skip, from, start, findMax, Double.NaN);
+        for (int i = start; i < bound; i += LONGS.length()) {
+            if (hasSkipped(skip, i, LONGS.length())) {
+                partial = ScalarKernels.extremeRange(a, skip, i, i + LONGS.length(), findMax, partial);
+                continue;
+            }
+            LongVector v = LongVector.fromArray(LONGS, a, i);
+            acc = findMax ? acc.max(v) : acc.min(v);
+        }
+        long extreme = acc.reduceLanes(findMax ? VectorOperators.MAX : VectorOperators.MIN);
+        if (extreme == identity) {
+            return ScalarKernels.extremeRange(a, skip, from, to, findMax, Double.NaN);
+        }
+        return ScalarKernels.extremeRange(a, skip, bound, to, findMax, combine(extreme, partial, findMax));
+    }
+
+    @Override
+    int[] indicesOf(double[] a, long[] skip, int from, int to, double value) {
+        int start = alignUp(from, to, DOUBLES.length());
+        int bound = start + DOUBLES.loopBound(to - start);
+        int[] indices = ScalarKernels.indicesRange(a, skip, from, start, value, new int[0], 0);
+        int count = indices.length;
+        for (int i = start; i < bound; i += DOUBLES.length()) {
+            // Matches are rare compared to the rows scanned, so only matching vectors are looked at lane by lane
+            if (DoubleVector.fromArray(DOUBLES, a, i).compare(VectorOperators.EQ, value).anyTrue()) {
+                for (int j = i; j < i + DOUBLES.length(); j++) {
+                    if (a[j] == value && !isSkipped(skip, j)) {
+                        indices = append(indices, count++, j);
+                    }
+                }
+            }
+        }
+        return ScalarKernels.indicesRange(a, skip, bound, to, value, indices, count);
+    }
+
+    @Override
+    int[] indicesOf(long[] a, long[] skip, int from, int to, long value) {
+        int start = alignUp(from, to, LONGS.length());
+        int bound = start + LONGS.loopBound(to - start);
+        int[] indices = ScalarKernels.indicesRange(a, skip, from, start, value, new int[0], 0);
+        int count = indices.length;
+        for (int i = start; i < bound; i += LONGS.length()) {
+            if (LongVector.fromArray(LONGS, a, i).compare(VectorOperators.EQ, value).anyTrue()) {
+                for (int j = i; j < i + LONGS.length(); j++) {
+                    if (a[j] == value && !isSkipped(skip, j)) {
+                        indices = append(indices, count++, j);
+                    }
+                }
+            }
+        }
+        return ScalarKernels.indicesRange(a, skip, bound, to, value, indices, count);
+    }
+
+    /**
+     * Returns the first row at or after from that is a multiple of the lane count, but at most to.
+     * The vector loops start there, so that every vector lies in a single word of a null bitmap.
+     */
+    private static int alignUp(int from, int to, int lanes) {
+        return Math.min(to, (from + lanes - 1) / lanes * lanes);
+    }
+
+    /**
+     * Returns whether one of the lanes of the vector starting at row i is skipped.
+     * The lane count divides 64 and i is a multiple of it, so all lanes lie in the same bitmap word.
+     */
+    private static boolean hasSkipped(long[] skip, int i, int lanes) {
+        int word = i >>> 6;
+        return word < skip.length && ((skip[word] >>> (i & 63)) & ((1L << lanes) - 1)) != 0;
+    }
+}
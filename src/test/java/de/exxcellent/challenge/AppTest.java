@@ -68,6 +68,41 @@ class AppTest {
         assertEquals("Liverpool, Chelsea", team);
     }
 
+    /**
+     * Test ranking the teams by the absolute difference between goals scored and goals allowed.
+     */
+    @Test
+    void testAnalyzeTop() {
+        assertEquals("Liverpool, Chelsea", App.analyzeTop(footballTable, "Goals", "GoalsAllowed", ColumnOp.ABS_DIFF, 2, false));
+        assertEquals("Arsenal, Liverpool, Chelsea", App.analyzeTop(footballTable, "Goals", "GoalsAllowed", ColumnOp.ABS_DIFF, 5, true));
+    }
+
+    /**
+     * Test answering several questions about the football table with one batch analysis.
+     */
+    @Test
+    void testAnalyzeAll() {
+        List<String> answers = App.analyzeAll(footballTable, List.of(
+                new AnalysisSpec("Goals", "GoalsAllowed", ColumnOp.ABS_DIFF, false),
+                new AnalysisSpec("Goals", true),
+                new AnalysisSpec("GoalsAllowed", false)));
+        assertEquals(List.of("Liverpool, Chelsea", "Chelsea", "Arsenal, Liverpool"), answers);
+    }
+
+    /**
+     * Test that the fused search over two columns finds the same rows as processing the
+     * columns first and searching the processed column.
+     */
+    @Test
+    void testFusedExtremeIndices() {
+        BiFunction<Double, Double, Double> absDiff = (x, y) -> Math.abs(x - y);
+        assertEquals(List.of(2), weatherTable.getExtremeIndices("MxT", "MnT", absDiff, false));
+        assertEquals(List.of(0), weatherTable.getExtremeIndices("MxT", "MnT", absDiff, true));
+        assertEquals(List.of(1, 2), footballTable.getExtremeIndices("Goals", "GoalsAllowed", absDiff, false));
+        assertEquals(footballTable.getExtremeIndices(footballTable.processColumns("Goals", "GoalsAllowed", absDiff), true),
+                footballTable.getExtremeIndices("Goals", "GoalsAllowed", absDiff, true));
+    }
+
     /**
      * Helper method that performs a generic analysis to access the private function in App class:
       * Processes two numeric columns with a given operation (e.g., subtraction, abs difference)
@@ -0,0 +1,112 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BinaryTableReader and BinaryTableWriter classes.
+ */
+class BinaryTableReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a table with integer, decimal and string columns survives a round trip.
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("1", "25.5", "Arsenal", ""));
+        rows.add(Arrays.asList("", "", "", "x"));
+        rows.add(Arrays.asList("-3", "-0.5", "Ümlaut", "x"));
+        Table tab = new Table(Arrays.asList("Day", "MxT", "Team", "Flag"), rows);
+
+        Path file = tempDir.resolve("table.tbl");
+        new BinaryTableWriter(file).write(tab);
+        Table read = new BinaryTableReader(file).readAsTable();
+
+        assertEquals(tab.getHeaders(), read.getHeaders());
+        assertEquals(tab.getRows(), read.getRows());
+        assertTrue(read.getTypedColumn("Day") instanceof LongColumn);
+        assertTrue(read.getTypedColumn("MxT") instanceof DoubleColumn);
+        assertTrue(read.getTypedColumn("Team") instanceof StringColumn);
+        assertEquals(25.5, read.getExtremeValue("MxT", true));
+        assertEquals(Arrays.asList("", "x", "x"), read.getColumn("Flag"));
+    }
+
+    /**
+     * Tests that a decimal column keeps the text of integers, trailing zeros and other
+     * non-canonical numbers through a round trip.
+     */
+    @Test
+    void testDecimalTextsRoundTrip() throws IOException {
+        List<String> values = Arrays.asList("50", "53.8", "0.00", "", "1e3", "-0");
+        Table tab = new Table(Collections.singletonList("AvDP"), Collections.singletonList(Column.of(values)), values.size());
+        Path file = tempDir.resolve("decimals.tbl");
+        new BinaryTableWriter(file).write(tab);
+        Table read = new BinaryTableReader(file).readAsTable();
+        assertTrue(read.getTypedColumn("AvDP") instanceof DoubleColumn);
+        assertEquals(values, read.getColumn("AvDP"));
+        assertEquals(1000.0, read.getExtremeValue("AvDP", true));
+    }
+
+    /**
+     * Tests that a table read from the binary file can still be extended.
+     */
+    @Test
+    void testAddRowAfterRead() throws IOException {
+        Table tab = new CSVReader("de/exxcellent/challenge/test.csv").readAsTable();
+        Path file = tempDir.resolve("test.tbl");
+        new BinaryTableWriter(file).write(tab);
+
+        Table read = new BinaryTableReader(file).readAsTable();
+        read.addRow(new ArrayList<>(read.getRow(0)));
+        assertEquals(tab.getRowCount() + 1, read.getRowCount());
+        assertEquals(tab.getRow(0), read.getRow(tab.getRowCount()));
+    }
+
+    /**
+     * Tests that files which are not binary tables are rejected.
+     */
+    @Test
+    void testNotABinaryTable() throws IOException {
+        Path file = tempDir.resolve("plain.tbl");
+        Files.write(file, "Day,MxT\n1,2\n3,4\n5,6\n7,8\n".getBytes());
+        assertThrows(IOException.class, () -> new BinaryTableReader(file).readAsTable());
+    }
+
+    /**
+     * Tests that a corrupted column block is detected when the column is accessed, and before the
+     * table is returned when the file is read as cache.
+     */
+    @Test
+    void testCorruptBlock() throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("1", "2"));
+        rows.add(Arrays.asList("3", "4"));
+        Path file = tempDir.resolve("corrupt.tbl");
+        new BinaryTableWriter(file).write(new Table(Arrays.asList("A", "B"), rows));
+
+        byte[] bytes = Files.readAllBytes(file);
+        // Last value of the first column block
+        bytes[BinaryTableWriter.HEADER_SIZE + 4 + 15] ^= 1;
+        Files.write(file, bytes);
+
+        Table read = new BinaryTableReader(file).readAsTable();
+        assertEquals("4", read.getValue(1, "B"));
+        assertThrows(UncheckedIOException.class, () -> read.getValue(1, "A"));
+        assertNull(BinaryTableReader.readIfCurrent(file, 0L, -1L));
+    }
+}
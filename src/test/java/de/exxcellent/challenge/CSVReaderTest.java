@@ -1,8 +1,15 @@
 package de.exxcellent.challenge;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,6 +51,20 @@ class CSVReaderTest {
         assertThrows(IOException.class, reader::readAsTable);
     }
 
+    /**
+     * Tests that a file given as Path is only looked up in the file system, so a classpath
+     * resource of the same name does not shadow it.
+     */
+    @Test
+    void testPathIsNotLookedUpInClasspath(@TempDir Path tempDir) throws IOException {
+        Path resource = Path.of("de/exxcellent/challenge/weather.csv");
+        assertThrows(IOException.class, () -> new CSVReader(resource, ",", CSVReader.Mode.SEQUENTIAL, null).readAsTable());
+        Path csv = tempDir.resolve("weather.csv");
+        Files.write(csv, "Day,MxT\n1,88\n".getBytes(StandardCharsets.UTF_8));
+        Table tab = new CSVReader(csv, ",", CSVReader.Mode.SEQUENTIAL, null).readAsTable();
+        assertEquals(Arrays.asList("88"), tab.getColumn("MxT"));
+    }
+
     /**
      * Tests that CSV files with a custom delimiter (e.g., semicolon) are correctly parsed.
      */
@@ -57,4 +78,220 @@ class CSVReaderTest {
         assertEquals("MaxTemp", headers.get(1));
         assertEquals("MinTemp", headers.get(2));
     }
+
+    /**
+     * Tests that the parallel mode yields the same table as the sequential mode.
+     */
+    @Test
+    void testParallelSameAsSequential() throws IOException {
+        Table expected = new CSVReader("de/exxcellent/challenge/weather.csv").readAsTable();
+        Table tab = new CSVReader("de/exxcellent/challenge/weather.csv", ",", CSVReader.Mode.PARALLEL).readAsTable();
+
+        assertEquals(expected.getHeaders(), tab.getHeaders());
+        assertEquals(expected.getRows(), tab.getRows());
+    }
+
+    /**
+     * Tests that content split into many chunks keeps the original row order.
+     */
+    @Test
+    void testParallelKeepsRowOrder() {
+        StringBuilder csv = new StringBuilder("Day,MaxTemp,MinTemp\r\n");
+        List<String> days = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            csv.append(i).append(", ").append(i % 40).append(",").append(i % 7).append("\r\n");
+            days.add(Integer.toString(i));
+        }
+        CSVReader reader = new CSVReader("unused.csv", ",", CSVReader.Mode.PARALLEL);
+        Table tab = reader.parseParallel(csv.toString().getBytes(StandardCharsets.UTF_8), 16);
+
+        assertEquals(50000, tab.getRowCount());
+        assertEquals(days, tab.getColumn("Day"));
+        assertEquals("39", tab.getValue(39, "MaxTemp"));
+    }
+
+    /**
+     * Tests that a line with a wrong number of values is rejected in parallel mode.
+     */
+    @Test
+    void testParallelWrongNumberOfValues() {
+        CSVReader reader = new CSVReader("unused.csv", ",", CSVReader.Mode.PARALLEL);
+        byte[] data = "Day,MaxTemp\n1,25,15\n".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> reader.parseParallel(data, 4));
+    }
+
+    /**
+     * Tests that the lazy mode yields the same table as the sequential mode.
+     */
+    @Test
+    void testLazySameAsSequential() throws IOException {
+        Table expected = new CSVReader("de/exxcellent/challenge/weather.csv").readAsTable();
+        Table tab = new CSVReader("de/exxcellent/challenge/weather.csv", ",", CSVReader.Mode.LAZY).readAsTable();
+
+        assertEquals(expected.getHeaders(), tab.getHeaders());
+        assertEquals(expected.getRowCount(), tab.getRowCount());
+        assertEquals(expected.getExtremeValue("MxT", true), tab.getExtremeValue("MxT", true));
+        assertEquals(expected.getRows(), tab.getRows());
+    }
+
+    /**
+     * Tests that the lazy mode trims lines and values like the sequential mode and supports regex delimiters.
+     */
+    @Test
+    void testLazyTrimAndRegexDelimiter() {
+        byte[] data = " Day , Name \r\n 1 ,  a b \r\n2,c\r\n".getBytes(StandardCharsets.UTF_8);
+        Table tab = new CSVReader("unused.csv", ",", CSVReader.Mode.LAZY).parseLazy(data);
+        assertEquals(List.of("Day", "Name"), tab.getHeaders());
+        assertEquals(List.of("a b", "c"), tab.getColumn("Name"));
+        assertEquals(List.of("1", "2"), tab.getColumn("Day"));
+
+        byte[] regexData = "Day;;Name\n1;;a\n2;;b\n".getBytes(StandardCharsets.UTF_8);
+        Table regexTab = new CSVReader("unused.csv", ";+", CSVReader.Mode.LAZY).parseLazy(regexData);
+        assertEquals(List.of("a", "b"), regexTab.getColumn("Name"));
+    }
+
+    /**
+     * Tests that writing the cache and opening a cursor do not load the columns of a lazy table,
+     * and that reading a cell through the cursor loads only its column.
+     */
+    @Test
+    void testLazyStaysLazy(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("data.csv");
+        Files.write(csv, "Day, MaxTemp ,Name\n1, 25 ,a\n2,,b\n".getBytes(StandardCharsets.UTF_8));
+        CSVReader reader = new CSVReader(csv, ",", CSVReader.Mode.LAZY, tempDir.resolve("cache"));
+        Table tab = reader.readAsTable();
+        assertEquals(1, Files.list(tempDir.resolve("cache")).count());
+        RowCursor cursor = tab.cursor();
+        for (int c = 0; c < 3; c++) {
+            assertFalse(tab.isColumnLoaded(c));
+        }
+        assertTrue(cursor.next());
+        assertEquals("25", cursor.get(1));
+        assertTrue(tab.isColumnLoaded(1));
+        assertFalse(tab.isColumnLoaded(0));
+        assertFalse(tab.isColumnLoaded(2));
+        assertEquals(Arrays.asList("25", ""), tab.getColumn("MaxTemp"));
+        assertEquals(Arrays.asList("a", "b"), reader.readAsTable().getColumn("Name"));
+    }
+
+    /**
+     * Tests that a line with a wrong number of values is rejected when the file is indexed.
+     */
+    @Test
+    void testLazyWrongNumberOfValues() {
+        CSVReader reader = new CSVReader("unused.csv", ",", CSVReader.Mode.LAZY);
+        byte[] data = "Day,MaxTemp\n1,25,15\n".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> reader.parseLazy(data));
+    }
+
+    /**
+     * Tests that a read request returns the projected columns of the matching rows only.
+     */
+    @Test
+    void testReadRequest() throws IOException {
+        CSVReader reader = new CSVReader("de/exxcellent/challenge/weather.csv");
+        Table full = reader.readAsTable();
+        ReadRequest request = new ReadRequest(Arrays.asList("MnT", "Day"),
+                Arrays.asList(ColumnPredicate.parse("MxT > 80"), ColumnPredicate.parse("1HrP TPcpn = 0")));
+
+        Table tab = reader.readAsTable(request);
+
+        List<List<String>> expected = new ArrayList<>();
+        for (List<String> row : full.getRows()) {
+            if (Double.parseDouble(row.get(1)) > 80 && Double.parseDouble(row.get(5)) == 0) {
+                expected.add(Arrays.asList(row.get(2), row.get(0)));
+            }
+        }
+        assertEquals(Arrays.asList("MnT", "Day"), tab.getHeaders());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, tab.getRows());
+        // regex delimiter and the cached read give the same result
+        assertEquals(expected, new CSVReader("de/exxcellent/challenge/weather.csv", ",\\s*").readAsTable(request).getRows());
+    }
+
+    /**
+     * Tests that a read request is applied to the cached table and that unknown columns are rejected.
+     */
+    @Test
+    void testReadRequestWithCache(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("data.csv");
+        Files.write(csv, "Team,Goals\nA,3\n,5\nC,\n".getBytes(StandardCharsets.UTF_8));
+        CSVReader reader = new CSVReader(csv.toString(), ",", CSVReader.Mode.SEQUENTIAL, tempDir.resolve("cache"));
+        ReadRequest request = new ReadRequest(null, Arrays.asList(ColumnPredicate.parse("Team != ''")));
+
+        assertEquals(Arrays.asList(Arrays.asList("A", "3"), Arrays.asList("C", "")), reader.readAsTable(request).getRows());
+        assertEquals(Arrays.asList(Arrays.asList("A", "3"), Arrays.asList("C", "")), reader.readAsTable(request).getRows());
+        assertThrows(IllegalArgumentException.class, () -> reader.readAsTable(new ReadRequest("Unknown")));
+        assertThrows(IllegalArgumentException.class, () -> new CSVReader(csv.toString()).readAsTable(new ReadRequest("Unknown")));
+    }
+
+    /**
+     * Tests that a line with a wrong number of values is rejected by a read request.
+     */
+    @Test
+    void testReadRequestWrongNumberOfValues(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("data.csv");
+        Files.write(csv, "Day,MaxTemp\n1,25\n2,30,15\n".getBytes(StandardCharsets.UTF_8));
+        CSVReader reader = new CSVReader(csv.toString());
+        assertThrows(IllegalArgumentException.class, () -> reader.readAsTable(new ReadRequest("Day")));
+    }
+
+    /**
+     * Tests that a path which is not in the classpath is read from the file system.
+     */
+    @Test
+    void testReadFromFileSystem() throws IOException {
+        Table tab = new CSVReader("src/main/resources/de/exxcellent/challenge/test.csv").readAsTable();
+        assertEquals(3, tab.getRowCount());
+        assertEquals("MaxTemp", tab.getHeaders().get(1));
+    }
+
+    /**
+     * Tests that a cached read returns the same table and that a changed source invalidates the cache.
+     */
+    @Test
+    void testReadWithCache(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("data.csv");
+        Files.write(csv, "Day,MaxTemp,Name\n1,25,a\n2,,b\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(1_000_000L));
+        Path cacheDir = tempDir.resolve("cache");
+        CSVReader reader = new CSVReader(csv.toString(), ",", CSVReader.Mode.SEQUENTIAL, cacheDir);
+
+        Table first = reader.readAsTable();
+        assertEquals(1, Files.list(cacheDir).count());
+        Table second = reader.readAsTable();
+        assertEquals(first.getRows(), second.getRows());
+        assertEquals(25.0, second.getExtremeValue("MaxTemp", true));
+
+        Files.write(csv, "Day,MaxTemp,Name\n1,25,a\n2,31,b\n3,7,c\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(2_000_000L));
+        Table changed = reader.readAsTable();
+        assertEquals(3, changed.getRowCount());
+        assertEquals(31.0, changed.getExtremeValue("MaxTemp", true));
+    }
+
+    /**
+     * Tests that a cache file with a corrupt column block is detected before the table is returned,
+     * and that the CSV file is parsed again and the cache file rewritten.
+     */
+    @Test
+    void testCorruptCacheIsReparsed(@TempDir Path tempDir) throws IOException {
+        Path csv = tempDir.resolve("data.csv");
+        Files.write(csv, "Day,MaxTemp\n1,25\n2,31\n".getBytes(StandardCharsets.UTF_8));
+        Path cacheDir = tempDir.resolve("cache");
+        CSVReader reader = new CSVReader(csv, ",", CSVReader.Mode.SEQUENTIAL, cacheDir);
+        Table first = reader.readAsTable();
+
+        Path cacheFile = Files.list(cacheDir).findFirst().get();
+        byte[] written = Files.readAllBytes(cacheFile);
+        byte[] corrupt = written.clone();
+        // Last value of the block of the first column
+        corrupt[BinaryTableWriter.HEADER_SIZE + 4 + 15] ^= 1;
+        Files.write(cacheFile, corrupt);
+
+        Table second = reader.readAsTable();
+        assertEquals(first.getRows(), second.getRows());
+        assertEquals(2.0, second.getExtremeValue("Day", true));
+        assertArrayEquals(written, Files.readAllBytes(cacheFile));
+    }
 }
@@ -0,0 +1,142 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ColumnKernels classes.
+ * The kernels selected at runtime must give the same results as the scalar kernels.
+ */
+class ColumnKernelsTest {
+
+    private final ColumnKernels kernels = ColumnKernels.get();
+
+    private final ColumnKernels scalar = ColumnKernels.scalar();
+
+    /**
+     * Tests that the vectorized kernels are selected when the incubator module is present, as in the test runs.
+     */
+    @Test
+    void testVectorizedWhenModulePresent() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            assertTrue(kernels.isVectorized());
+        } else {
+            assertFalse(kernels.isVectorized());
+        }
+    }
+
+    /**
+     * Tests the binary operations on long and double arrays of various lengths, including the tails.
+     */
+    @Test
+    void testApply() {
+        Random random = new Random(42);
+        for (int n : new int[] { 0, 1, 7, 8, 63, 64, 65, 1000 }) {
+            long[] la = random.longs(n, -100, 100).toArray();
+            long[] lb = random.longs(n, -100, 100).toArray();
+            double[] da = random.doubles(n, -100, 100).toArray();
+            double[] db = random.doubles(n, -100, 100).toArray();
+            for (ColumnOp op : ColumnOp.values()) {
+                double[] expected = new double[n];
+                double[] actual = new double[n];
+                scalar.apply(op, la, lb, expected, 0, n);
+                kernels.apply(op, la, lb, actual, 0, n);
+                assertArrayEquals(expected, actual);
+                scalar.apply(op, da, db, expected, 0, n);
+                kernels.apply(op, da, db, actual, 0, n);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Tests that min/max reductions skip missing rows and NaN values.
+     */
+    @Test
+    void testExtreme() {
+        Random random = new Random(7);
+        for (int n : new int[] { 1, 5, 64, 130, 1001 }) {
+            long[] longs = random.longs(n, -1000, 1000).toArray();
+            double[] doubles = random.doubles(n, -1000, 1000).toArray();
+            BitSet missing = new BitSet();
+            for (int i = 0; i < n; i += 3) {
+                missing.set(i);
+                longs[i] = 5000;
+                doubles[i] = -5000;
+            }
+            doubles[n - 1] = Double.NaN;
+            long[] skip = missing.toLongArray();
+            for (boolean findMax : new boolean[] { true, false }) {
+                assertEquals(scalar.extreme(longs, skip, 0, n, findMax), kernels.extreme(longs, skip, 0, n, findMax));
+                assertEquals(scalar.extreme(doubles, skip, 0, n, findMax), kernels.extreme(doubles, skip, 0, n, findMax));
+            }
+        }
+        assertTrue(Double.isNaN(kernels.extreme(new double[] { Double.NaN, 1 }, new long[] { 2L }, 0, 2, true)));
+        assertTrue(Double.isNaN(kernels.extreme(new long[16], new long[] { 0xFFFFL }, 0, 16, false)));
+    }
+
+    /**
+     * Tests that equality scans return the matching rows in order and skip missing rows.
+     */
+    @Test
+    void testIndicesOf() {
+        int n = 200;
+        long[] longs = new long[n];
+        double[] doubles = new double[n];
+        for (int i = 0; i < n; i++) {
+            longs[i] = i % 7;
+            doubles[i] = (i % 7) / 2.0;
+        }
+        long[] skip = new BitSet().toLongArray();
+        BitSet missing = new BitSet();
+        missing.set(0);
+        missing.set(14);
+        missing.set(196);
+        long[] someSkipped = missing.toLongArray();
+
+        assertArrayEquals(scalar.indicesOf(longs, skip, 0, n, 0), kernels.indicesOf(longs, skip, 0, n, 0));
+        assertArrayEquals(scalar.indicesOf(longs, someSkipped, 0, n, 0), kernels.indicesOf(longs, someSkipped, 0, n, 0));
+        assertArrayEquals(scalar.indicesOf(doubles, someSkipped, 0, n, 0.0), kernels.indicesOf(doubles, someSkipped, 0, n, 0.0));
+        assertArrayEquals(scalar.indicesOf(doubles, skip, 0, n, 1.5), kernels.indicesOf(doubles, skip, 0, n, 1.5));
+        assertEquals(7, kernels.indicesOf(longs, skip, 0, n, 0)[1]);
+        assertEquals(0, kernels.indicesOf(doubles, skip, 0, n, 9.0).length);
+    }
+
+    /**
+     * Tests that kernels on unaligned ranges only look at the rows of the range.
+     */
+    @Test
+    void testRanges() {
+        int n = 300;
+        long[] longs = new long[n];
+        double[] doubles = new double[n];
+        for (int i = 0; i < n; i++) {
+            longs[i] = i;
+            doubles[i] = i % 10;
+        }
+        BitSet missing = new BitSet();
+        missing.set(5);
+        missing.set(130);
+        long[] skip = missing.toLongArray();
+
+        assertEquals(6.0, kernels.extreme(longs, skip, 5, 131, false));
+        assertEquals(129.0, kernels.extreme(longs, skip, 5, 131, true));
+        assertArrayEquals(new int[] { 13, 23, 33 }, kernels.indicesOf(doubles, skip, 11, 35, 3.0));
+        assertArrayEquals(scalar.indicesOf(doubles, skip, 3, 297, 0.0), kernels.indicesOf(doubles, skip, 3, 297, 0.0));
+
+        double[] out = new double[n];
+        kernels.apply(ColumnOp.SUBTRACT, longs, longs, out, 7, 250);
+        for (int i = 0; i < n; i++) {
+            assertEquals(0.0, out[i]);
+        }
+        kernels.apply(ColumnOp.RATIO, doubles, doubles, out, 7, 250);
+        assertEquals(0.0, out[6]);
+        assertTrue(Double.isNaN(out[10]));
+        assertEquals(1.0, out[249]);
+        assertEquals(0.0, out[250]);
+    }
+}
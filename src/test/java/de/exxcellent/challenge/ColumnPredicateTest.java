@@ -0,0 +1,79 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ColumnPredicate class.
+ */
+class ColumnPredicateTest {
+
+    /**
+     * Tests that expressions are parsed into column, comparison and unquoted literal.
+     */
+    @Test
+    void testParse() {
+        ColumnPredicate p = ColumnPredicate.parse(" 1HrP TPcpn >= 0.5 ");
+        assertEquals("1HrP TPcpn", p.getHeader());
+        assertEquals(ColumnPredicate.Comparison.GE, p.getComparison());
+        assertEquals("0.5", p.getValue());
+
+        ColumnPredicate q = ColumnPredicate.parse("Team != ''");
+        assertEquals(ColumnPredicate.Comparison.NE, q.getComparison());
+        assertEquals("", q.getValue());
+        assertEquals(ColumnPredicate.Comparison.EQ, ColumnPredicate.parse("Team == \"Arsenal\"").getComparison());
+        assertEquals("Arsenal", ColumnPredicate.parse("Team == \"Arsenal\"").getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> ColumnPredicate.parse("MxT 80"));
+        assertThrows(IllegalArgumentException.class, () -> ColumnPredicate.parse(null));
+    }
+
+    /**
+     * Tests numeric comparisons and the handling of missing and non-numeric values.
+     */
+    @Test
+    void testNumericComparison() {
+        ColumnPredicate gt = ColumnPredicate.parse("MxT > 80");
+        assertTrue(gt.test("81"));
+        assertTrue(gt.test("80.5"));
+        assertFalse(gt.test("80"));
+        assertFalse(gt.test(""));
+        assertFalse(gt.test("x"));
+
+        ColumnPredicate eq = ColumnPredicate.parse("MxT = 80");
+        assertTrue(eq.test("80.0"));
+        assertFalse(eq.test("x"));
+        assertTrue(ColumnPredicate.parse("MxT != 80").test(""));
+    }
+
+    /**
+     * Tests string comparisons, e.g. to drop rows with missing values.
+     */
+    @Test
+    void testStringComparison() {
+        ColumnPredicate ne = ColumnPredicate.parse("Team != ''");
+        assertTrue(ne.test("Arsenal"));
+        assertFalse(ne.test(""));
+        assertTrue(ColumnPredicate.parse("Team = Arsenal").test("Arsenal"));
+        assertFalse(ColumnPredicate.parse("Team < Arsenal").test("Aston Villa"));
+    }
+
+    /**
+     * Tests values given as ranges of a line with one parser reused for all values.
+     */
+    @Test
+    void testRange() {
+        NumberParser parser = new NumberParser();
+        String line = "1,81,x,Arsenal";
+        ColumnPredicate gt = ColumnPredicate.parse("MxT > 80");
+        assertTrue(gt.test(line, 2, 4, parser));
+        assertFalse(gt.test(line, 0, 1, parser));
+        assertFalse(gt.test(line, 5, 6, parser));
+        ColumnPredicate team = ColumnPredicate.parse("Team = Arsenal");
+        assertTrue(team.test(line, 7, 14, parser));
+        assertFalse(team.test(line, 7, 13, parser));
+        assertTrue(ColumnPredicate.parse("Team != ''").test(line, 7, 14, parser));
+        assertFalse(ColumnPredicate.parse("Team != ''").test(line, 2, 2, parser));
+    }
+}
@@ -0,0 +1,231 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the typed Column classes.
+ */
+class ColumnTest {
+
+    /**
+     * Tests that integer values are stored in a LongColumn and keep their text.
+     */
+    @Test
+    void testInferLongColumn() {
+        Column col = Column.of(Arrays.asList("1", "-20", ""));
+        assertTrue(col instanceof LongColumn);
+        assertEquals("-20", col.getString(1));
+        assertEquals(-20.0, col.getDouble(1));
+        assertTrue(col.isMissing(2));
+        assertFalse(col.isNumeric(2));
+        assertEquals("", col.getString(2));
+    }
+
+    /**
+     * Tests that decimal values are stored in a DoubleColumn.
+     */
+    @Test
+    void testInferDoubleColumn() {
+        Column col = Column.of(Arrays.asList("53.8", "1004.5"));
+        assertTrue(col instanceof DoubleColumn);
+        assertEquals("53.8", col.getString(0));
+        assertEquals(1004.5, col.getDouble(1));
+    }
+
+    /**
+     * Tests that integers and decimals mixed in one column are widened to a DoubleColumn
+     * which keeps the text of every cell, also texts that are not plain decimals.
+     */
+    @Test
+    void testWidenToDoubleColumn() {
+        List<String> values = Arrays.asList("50", "", "53.8", "0.00", "-0.5", "1e3", "-0", "007.5", "12345678901234567");
+        Column col = Column.of(values);
+        assertTrue(col instanceof DoubleColumn);
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i), col.getString(i));
+        }
+        assertEquals(50.0, col.getDouble(0));
+        assertEquals(1000.0, col.getDouble(5));
+        assertTrue(col.isMissing(1));
+
+        ColumnBuilder builder = new ColumnBuilder(3);
+        String line = "50,53.8,0.10";
+        builder.add(line, 0, 2);
+        builder.add(line, 3, 7);
+        builder.add(line.getBytes(StandardCharsets.UTF_8), 8, 12);
+        Column ranges = builder.build();
+        assertTrue(ranges instanceof DoubleColumn);
+        assertEquals(Arrays.asList("50", "53.8", "0.10"), Arrays.asList(ranges.getString(0), ranges.getString(1), ranges.getString(2)));
+    }
+
+    /**
+     * Tests that values which cannot be reproduced from a number are kept as strings,
+     * while numeric access still works for the parsable entries.
+     */
+    @Test
+    void testInferStringColumn() {
+        Column col = Column.of(Arrays.asList("74", "53.8", "abc", "74", null));
+        assertTrue(col instanceof StringColumn);
+        assertEquals("74", col.getString(0));
+        assertEquals(74.0, col.getDouble(3));
+        assertFalse(col.isNumeric(2));
+        assertNull(col.getString(4));
+        assertEquals(3, ((StringColumn) col).getDictionarySize());
+    }
+
+    /**
+     * Tests that values given as byte ranges are typed like strings.
+     */
+    @Test
+    void testBuildFromBytes() {
+        byte[] line = "25,,53.8,x".getBytes(StandardCharsets.UTF_8);
+        ColumnBuilder longs = new ColumnBuilder(2);
+        longs.add(line, 0, 2);
+        longs.add(line, 3, 3);
+        Column longCol = longs.build();
+        assertTrue(longCol instanceof LongColumn);
+        assertEquals(25L, longCol.getLong(0));
+        assertTrue(longCol.isMissing(1));
+
+        ColumnBuilder doubles = new ColumnBuilder(2);
+        doubles.add(line, 3, 3);
+        doubles.add(line, 4, 8);
+        Column doubleCol = doubles.build();
+        assertTrue(doubleCol instanceof DoubleColumn);
+        assertEquals(53.8, doubleCol.getDouble(1));
+        assertTrue(doubleCol.isMissing(0));
+
+        ColumnBuilder strings = new ColumnBuilder(3);
+        strings.add(line, 0, 2);
+        strings.add(line, 4, 8);
+        strings.add(line, 9, 10);
+        Column stringCol = strings.build();
+        assertTrue(stringCol instanceof StringColumn);
+        assertEquals(Arrays.asList("25", "53.8", "x"), Arrays.asList(stringCol.getString(0), stringCol.getString(1), stringCol.getString(2)));
+        assertEquals(53.8, stringCol.getDouble(1));
+    }
+
+    /**
+     * Tests that text values given as ranges are dictionary-encoded without duplicates,
+     * also when the dictionary grows and for values that are not ASCII.
+     */
+    @Test
+    void testDictionaryFromRanges() {
+        ColumnBuilder builder = new ColumnBuilder(4);
+        String line = " N ,NNE,N,x";
+        builder.add(line, 10, 11);
+        builder.add(line, 4, 7);
+        builder.add(line, 8, 9);
+        builder.add(line, 1, 2);
+        byte[] bytes = "N,Köln,Köln".getBytes(StandardCharsets.UTF_8);
+        builder.add(bytes, 0, 1);
+        builder.add(bytes, 2, 7);
+        builder.add(bytes, 8, 13);
+        for (int i = 0; i < 1000; i++) {
+            builder.add("v" + (i % 300));
+        }
+        StringColumn col = (StringColumn) builder.build();
+        assertEquals(4 + 300, col.getDictionarySize());
+        assertEquals(Arrays.asList("x", "NNE", "N", "N", "N", "Köln", "Köln"),
+                Arrays.asList(col.getString(0), col.getString(1), col.getString(2), col.getString(3),
+                        col.getString(4), col.getString(5), col.getString(6)));
+        assertEquals(col.getCode(2), col.getCode(4));
+        assertEquals(col.getCode(7), col.getCode(307));
+        assertEquals(col.getCode(2), col.codeOf("N"));
+        assertEquals(-1, col.codeOf("S"));
+    }
+
+    /**
+     * Tests that appending a value of a different type converts the column.
+     */
+    @Test
+    void testAppendConvertsColumn() {
+        Column col = Column.of(Arrays.asList("1", "2"));
+        col = col.append("3");
+        assertTrue(col instanceof LongColumn);
+        col = col.append("3.50");
+        assertTrue(col instanceof DoubleColumn);
+        col = col.append("Monday");
+        assertTrue(col instanceof StringColumn);
+        assertEquals(Arrays.asList("1", "2", "3", "3.50", "Monday"),
+                Arrays.asList(col.getString(0), col.getString(1), col.getString(2), col.getString(3), col.getString(4)));
+    }
+
+    /**
+     * Tests that selecting rows keeps the column type, and that row -1 gives a missing value.
+     */
+    @Test
+    void testSelect() {
+        int[] rows = { 2, -1, 0, 2 };
+        for (Column col : new Column[] { Column.of(Arrays.asList("1", "", "3")), Column.of(Arrays.asList("1.5", "", "3.5")),
+                Column.of(Arrays.asList("a", "", "c")), new LazyColumn(3, () -> Column.of(Arrays.asList("a", "", "c"))) }) {
+            Column selected = col.select(rows, rows.length);
+            assertEquals(4, selected.size());
+            assertEquals(col instanceof LazyColumn ? StringColumn.class : col.getClass(), selected.getClass());
+            assertEquals(Arrays.asList(col.getString(2), "", col.getString(0), col.getString(2)),
+                    Arrays.asList(selected.getString(0), selected.getString(1), selected.getString(2), selected.getString(3)));
+            assertTrue(selected.isMissing(1));
+        }
+    }
+
+    /**
+     * Tests that a selection shares the dictionary of a string column until either column adds a new value.
+     */
+    @Test
+    void testSelectSharesDictionary() {
+        StringColumn source = (StringColumn) Column.of(Arrays.asList("a", "b", "c"));
+        StringColumn shared = (StringColumn) source.select(new int[] { 2, 0 }, 2);
+        assertEquals(source.getDictionarySize(), shared.getDictionarySize());
+        assertEquals(2, shared.getCode(0));
+
+        StringColumn padded = (StringColumn) source.select(new int[] { 1, -1 }, 2);
+        assertEquals(4, padded.getDictionarySize());
+        assertEquals(3, source.getDictionarySize());
+        assertEquals("", padded.getString(1));
+
+        source.add("d");
+        shared.add("e");
+        assertEquals(Arrays.asList(4, 4, 4), Arrays.asList(source.getDictionarySize(), shared.getDictionarySize(),
+                padded.getDictionarySize()));
+        assertEquals(Arrays.asList("d", "e", "a"), Arrays.asList(source.getString(3), shared.getString(2), shared.getString(1)));
+        assertEquals(-1, shared.codeOf("d"));
+        assertEquals(-1, source.codeOf("e"));
+    }
+
+    /**
+     * Tests that concatenating columns keeps a common numeric type and falls back to strings otherwise.
+     */
+    @Test
+    void testConcat() {
+        Column longs = Column.concat(Arrays.asList(Column.of(Arrays.asList("1", "")), Column.of(Arrays.asList("3"))));
+        assertEquals(LongColumn.class, longs.getClass());
+        assertEquals(3, longs.size());
+        assertTrue(longs.isMissing(1));
+        assertEquals(3, longs.getDouble(2));
+
+        Column doubles = Column.concat(Arrays.asList(Column.of(Arrays.asList("1.5")), Column.of(Arrays.asList("", "2.5"))));
+        assertEquals(DoubleColumn.class, doubles.getClass());
+        assertTrue(doubles.isMissing(1));
+        assertEquals(2.5, doubles.getDouble(2));
+
+        Column widened = Column.concat(Arrays.asList(Column.of(Arrays.asList("50.5", "1e3")), Column.of(Arrays.asList("", "50")),
+                Column.of(Arrays.asList("53.80"))));
+        assertEquals(DoubleColumn.class, widened.getClass());
+        assertEquals(Arrays.asList("50.5", "1e3", "", "50", "53.80"), Arrays.asList(widened.getString(0), widened.getString(1),
+                widened.getString(2), widened.getString(3), widened.getString(4)));
+        assertEquals(50.0, widened.getDouble(3));
+
+        Column mixed = Column.concat(Arrays.asList(Column.of(Arrays.asList("1", "b")), Column.of(Arrays.asList("1.5")),
+                Column.of(Arrays.asList("b", ""))));
+        assertEquals(StringColumn.class, mixed.getClass());
+        assertEquals(Arrays.asList("1", "b", "1.5", "b", ""), Arrays.asList(mixed.getString(0), mixed.getString(1),
+                mixed.getString(2), mixed.getString(3), mixed.getString(4)));
+        assertTrue(mixed.isMissing(4));
+    }
+}
@@ -0,0 +1,124 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConcurrentTable class.
+ */
+class ConcurrentTableTest {
+
+    /**
+     * Tests that snapshots contain the rows published when they were taken and support all queries.
+     */
+    @Test
+    void testSnapshot() {
+        ConcurrentTable tab = new ConcurrentTable(Arrays.asList("Day", "MxT", "MnT"));
+        tab.addRow(Arrays.asList("1", "88", "59"));
+        tab.addRow(Arrays.asList("2", "79", ""));
+        Table first = tab.snapshot();
+        tab.addRow(Arrays.asList("3", "77", "55"));
+
+        assertEquals(2, first.getRowCount());
+        assertEquals(3, tab.getRowCount());
+        assertEquals(Arrays.asList("2", "79", ""), first.getRow(1));
+        assertEquals(88.0, first.getExtremeValue("MxT", true));
+        assertEquals(Arrays.asList(2), tab.snapshot().getExtremeIndicesAsDouble("MxT", "MnT", ColumnOp.ABS_DIFF, false));
+    }
+
+    /**
+     * Tests that changing a snapshot does not change the concurrent table.
+     */
+    @Test
+    void testSnapshotIsIsolated() {
+        ConcurrentTable tab = new ConcurrentTable(Arrays.asList("Day", "MxT"));
+        tab.addRow(Arrays.asList("1", "88"));
+        Table snapshot = tab.snapshot();
+        snapshot.addRow(Arrays.asList("2", "x"));
+
+        assertEquals(2, snapshot.getRowCount());
+        assertEquals("x", snapshot.getValue(1, "MxT"));
+        assertEquals(1, tab.getRowCount());
+        assertEquals(1, tab.snapshot().getRowCount());
+    }
+
+    /**
+     * Tests that a row with a wrong number of values is rejected.
+     */
+    @Test
+    void testWrongNumberOfValues() {
+        ConcurrentTable tab = new ConcurrentTable(Arrays.asList("Day", "MxT"));
+        assertThrows(IllegalArgumentException.class, () -> tab.addRow(Arrays.asList("1")));
+        assertEquals(0, tab.getRowCount());
+    }
+
+    /**
+     * Tests that concurrent writers publish every row exactly once, spanning several segments,
+     * while readers only ever see complete, growing prefixes.
+     */
+    @Test
+    void testConcurrentAppendsAndReads() throws Exception {
+        int writers = 4;
+        int rowsPerWriter = ConcurrentTable.SEGMENT_SIZE;
+        ConcurrentTable tab = new ConcurrentTable(Arrays.asList("Id", "Value", "Twice"));
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                final int writer = w;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < rowsPerWriter; i++) {
+                        int id = writer * rowsPerWriter + i;
+                        tab.addRow(Arrays.asList(Integer.toString(id), Integer.toString(i), Integer.toString(2 * i)));
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(pool.submit(() -> {
+                    int previous = 0;
+                    while (!done.get()) {
+                        Table snapshot = tab.snapshot();
+                        int rows = snapshot.getRowCount();
+                        assertTrue(rows >= previous);
+                        previous = rows;
+                        if (rows == 0) continue;
+                        // Every published row is complete
+                        int last = rows - 1;
+                        assertEquals(2 * Double.parseDouble(snapshot.getValue(last, "Value")),
+                                Double.parseDouble(snapshot.getValue(last, "Twice")));
+                        assertEquals(rows, snapshot.getColumn("Id").size());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Table snapshot = tab.snapshot();
+        assertEquals(writers * rowsPerWriter, snapshot.getRowCount());
+        Set<String> ids = new HashSet<>(snapshot.getColumn("Id"));
+        assertEquals(writers * rowsPerWriter, ids.size());
+        assertEquals(writers, snapshot.getIndicesOfValue("Value", 0).size());
+    }
+}
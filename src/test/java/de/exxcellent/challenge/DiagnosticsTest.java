@@ -0,0 +1,50 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Diagnostics class.
+ */
+class DiagnosticsTest {
+
+    /**
+     * Tests that only the first failures are sampled while all of them are counted.
+     */
+    @Test
+    void testSampleLimit() {
+        Diagnostics diagnostics = new Diagnostics(2);
+        Column col = Column.of(Arrays.asList("a", "b", "c"));
+        for (int row = 0; row < 3; row++) {
+            diagnostics.parseFailure("scan", "Name", col, row);
+        }
+        diagnostics.missingValues("scan", 5);
+
+        assertEquals(3, diagnostics.getParseFailures("scan"));
+        assertEquals(5, diagnostics.getMissingValues("scan"));
+        assertEquals(0, diagnostics.getParseFailures("other"));
+        assertEquals(2, diagnostics.getSamples().size());
+        assertEquals("b", diagnostics.getSamples().get(1).getValue());
+        assertEquals("Name", diagnostics.getSamples().get(1).getHeader());
+
+        diagnostics.reset();
+        diagnostics.parseFailure("scan", 7, "x");
+        assertEquals(1, diagnostics.getSamples().size());
+        assertEquals(7, diagnostics.getSamples().get(0).getRow());
+    }
+
+    /**
+     * Tests that a negative sample limit is rejected and that no samples are kept with limit 0.
+     */
+    @Test
+    void testNoSamples() {
+        assertThrows(IllegalArgumentException.class, () -> new Diagnostics(-1));
+        Diagnostics diagnostics = new Diagnostics(0);
+        diagnostics.parseFailure("scan", 0, "x");
+        assertEquals(1, diagnostics.getParseFailures("scan"));
+        assertTrue(diagnostics.getSamples().isEmpty());
+    }
+}
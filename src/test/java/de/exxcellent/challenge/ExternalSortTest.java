@@ -0,0 +1,104 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExternalSort class.
+ */
+class ExternalSortTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that sorting in memory and sorting with runs spilled to disk in several merge passes give
+     * the same rows as a stable sort of the row lists, and that the run files are deleted.
+     */
+    @Test
+    void testSameAsListSort() throws IOException {
+        Random random = new Random(31);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int max = random.nextInt(50);
+            String maxText = max == 0 ? "" : max < 40 ? Integer.toString(max) : max < 45 ? max + ".5" : "n/a";
+            rows.add(Arrays.asList(Integer.toString(random.nextInt(500)), maxText, "r" + i));
+        }
+        Table table = new Table(Arrays.asList("Day", "MxT", "Id"), rows);
+        List<SortKey> keys = Arrays.asList(new SortKey("MxT", true), new SortKey("Day", false));
+
+        NumberParser parser = new NumberParser();
+        Comparator<List<String>> byMax = (a, b) -> RowOrder.compareValues(new RowOrder.Value().set(a.get(1), parser),
+                new RowOrder.Value().set(b.get(1), parser), true);
+        List<List<String>> expected = new ArrayList<>(rows);
+        expected.sort(byMax.thenComparing(l -> Integer.parseInt(l.get(0))));
+        assertEquals(expected, table.sort(keys).getRows());
+
+        ExternalSort sort = new ExternalSort(keys);
+        sort.setSpillDirectory(tempDir);
+        assertEquals(expected, sort.sort(new InMemoryTableReader(table)).getRows());
+
+        long spilled = Metrics.global().getCounter("sort.spilledBytes");
+        sort.setMemoryBudget(2000);
+        sort.setMergeWidth(3);
+        assertEquals(expected, sort.sort(new InMemoryTableReader(table)).getRows());
+        assertTrue(Metrics.global().getCounter("sort.spilledBytes") > spilled);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Tests that merging runs orders integers beyond 2^53 exactly and NaN as missing, like the
+     * in-memory sort does within every run.
+     */
+    @Test
+    void testMergeUsesTypedOrder() throws IOException {
+        assertMergeOrder(Arrays.asList("9007199254740993", "9007199254740992", "", "-9007199254740993",
+                "-9007199254740994", "9007199254740995", "2"), Arrays.asList("-9007199254740994",
+                "-9007199254740993", "2", "9007199254740992", "9007199254740993", "9007199254740995", ""));
+        assertMergeOrder(Arrays.asList("NaN", "1.5", "", "-2", "NaN", "3"),
+                Arrays.asList("-2", "1.5", "3", "NaN", "", "NaN"));
+    }
+
+    private void assertMergeOrder(List<String> values, List<String> expected) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        for (String value : values) {
+            rows.add(Collections.singletonList(value));
+        }
+        Table table = new Table(Collections.singletonList("Key"), rows);
+        List<SortKey> keys = Collections.singletonList(new SortKey("Key", false));
+        assertEquals(expected, table.sort(keys).getColumn("Key"));
+
+        ExternalSort sort = new ExternalSort(keys);
+        sort.setSpillDirectory(tempDir);
+        sort.setMemoryBudget(0);
+        assertEquals(expected, sort.sort(new InMemoryTableReader(table)).getColumn("Key"));
+    }
+
+    /**
+     * Tests the validation of the arguments.
+     */
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(Collections.emptyList()));
+        ExternalSort sort = new ExternalSort(Collections.singletonList(new SortKey("Year", false)));
+        assertThrows(IllegalArgumentException.class, () -> sort.setMergeWidth(1));
+        assertThrows(IllegalArgumentException.class, () -> sort.setMemoryBudget(-1));
+        Table table = new Table(Collections.singletonList("Day"), Collections.singletonList(Collections.singletonList("1")));
+        assertThrows(IllegalArgumentException.class, () -> sort.sort(new InMemoryTableReader(table)));
+    }
+}
@@ -0,0 +1,129 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Table.groupBy and the GroupBy class.
+ */
+class GroupByTest {
+
+    private static Table weather() {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("1", "Jan", "10", "2"));
+        rows.add(Arrays.asList("2", "Jan", "12", "1"));
+        rows.add(Arrays.asList("3", "Feb", "9", "5"));
+        rows.add(Arrays.asList("4", "Jan", "", "3"));
+        rows.add(Arrays.asList("5", "", "20", "0"));
+        rows.add(Arrays.asList("6", "Feb", "x", "4"));
+        rows.add(Arrays.asList("7", "Feb", "15", "6"));
+        return new Table(Arrays.asList("Day", "Month", "MxT", "MnT"), rows);
+    }
+
+    /**
+     * Tests every aggregate function, missing keys and values, and cells that are not numeric.
+     */
+    @Test
+    void testAggregates() {
+        Table table = weather();
+        Table groups = table.groupBy(Collections.singletonList("Month"), Arrays.asList(
+                new Aggregate(Aggregate.Function.COUNT, null),
+                new Aggregate(Aggregate.Function.COUNT, "MxT"),
+                new Aggregate(Aggregate.Function.SUM, "MxT"),
+                new Aggregate(Aggregate.Function.MIN, "MnT"),
+                new Aggregate(Aggregate.Function.MAX, "MxT"),
+                new Aggregate(Aggregate.Function.AVG, "MnT"),
+                new Aggregate(Aggregate.Function.ARGMIN, "MxT", "MnT", ColumnOp.ABS_DIFF).named("minSpreadDay"),
+                new Aggregate(Aggregate.Function.ARGMAX, "MnT")));
+
+        assertEquals(Arrays.asList("Month", "count", "count(MxT)", "sum(MxT)", "min(MnT)", "max(MxT)", "avg(MnT)",
+                "minSpreadDay", "argmax(MnT)"), groups.getHeaders());
+        assertEquals(3, groups.getRowCount());
+        assertEquals(Arrays.asList("Jan", "3", "2", "22", "1", "12", "2.0", "1", "4"), groups.getRow(0));
+        assertEquals(Arrays.asList("Feb", "3", "2", "24", "4", "15", "5.0", "3", "7"), groups.getRow(1));
+        assertEquals(Arrays.asList("", "1", "1", "20", "0", "20", "0.0", "5", "5"), groups.getRow(2));
+        assertEquals(3, table.getDiagnostics().getParseFailures("groupBy"));
+        // The spread of days 4 and 6 is missing as well
+        assertEquals(5, table.getDiagnostics().getMissingValues("groupBy"));
+    }
+
+    /**
+     * Tests grouping by several keys of different types, all rows in one group,
+     * and groups without any numeric value.
+     */
+    @Test
+    void testKeysAndEmptyGroups() {
+        Table table = weather();
+        Table groups = table.groupBy(Arrays.asList("Month", "MnT"),
+                Collections.singletonList(new Aggregate(Aggregate.Function.MAX, "MxT")));
+        assertEquals(7, groups.getRowCount());
+        assertEquals(Arrays.asList("Feb", "5", "9"), groups.getRow(2));
+        assertEquals(Arrays.asList("Jan", "3", ""), groups.getRow(3));
+        assertEquals(Arrays.asList("Feb", "4", ""), groups.getRow(5));
+        assertTrue(groups.processColumnsAsDouble("MnT", "max(MxT)", ColumnOp.SUBTRACT).isMissing(5));
+
+        Table all = table.groupBy(Collections.emptyList(), Arrays.asList(
+                new Aggregate(Aggregate.Function.SUM, "MnT"), new Aggregate(Aggregate.Function.ARGMAX, "MxT")));
+        assertEquals(Arrays.asList("sum(MnT)", "argmax(MxT)"), all.getHeaders());
+        assertEquals(Arrays.asList("21", "5"), all.getRow(0));
+
+        Table decimals = new Table(Arrays.asList("Day", "Avg"), Arrays.asList(
+                Arrays.asList("1", "1.5"), Arrays.asList("2", "-0.5"), Arrays.asList("3", "1.5")));
+        Table byAvg = decimals.groupBy(Collections.singletonList("Avg"),
+                Collections.singletonList(new Aggregate(Aggregate.Function.COUNT, null)));
+        assertEquals(Arrays.asList("1.5", "2"), byAvg.getRow(0));
+        assertEquals(Arrays.asList("-0.5", "1"), byAvg.getRow(1));
+
+        assertThrows(IllegalArgumentException.class, () -> table.groupBy(Collections.singletonList("Year"),
+                Collections.singletonList(new Aggregate(Aggregate.Function.COUNT, null))));
+        assertThrows(IllegalArgumentException.class, () -> new Aggregate(Aggregate.Function.SUM, null));
+        assertThrows(IllegalArgumentException.class, () -> new Aggregate(Aggregate.Function.SUM, "MxT", null, ColumnOp.SUBTRACT));
+    }
+
+    /**
+     * Tests that many groups aggregated in parallel row ranges give the same table as a serial
+     * aggregation, and the same sums as a map of boxed values.
+     */
+    @Test
+    void testParallelSameAsSerial() {
+        Random random = new Random(5);
+        List<List<String>> rows = new ArrayList<>();
+        Map<String, Long> sums = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            String key = "k" + random.nextInt(3000);
+            int value = random.nextInt(1000) - 500;
+            rows.add(Arrays.asList(Integer.toString(i), key, Integer.toString(value), Integer.toString(i % 7)));
+            sums.merge(key + "/" + (i % 7), (long) value, Long::sum);
+        }
+        List<String> headers = Arrays.asList("Id", "Key", "Value", "Mod");
+        List<Aggregate> aggregates = Arrays.asList(
+                new Aggregate(Aggregate.Function.SUM, "Value"),
+                new Aggregate(Aggregate.Function.MIN, "Value"),
+                new Aggregate(Aggregate.Function.AVG, "Value"),
+                new Aggregate(Aggregate.Function.ARGMAX, "Value"),
+                new Aggregate(Aggregate.Function.COUNT, null));
+        Table serial = new Table(headers, rows);
+        serial.setParallelThreshold(Integer.MAX_VALUE);
+        Table parallel = new Table(headers, rows);
+        parallel.setParallelThreshold(0);
+
+        Table expected = serial.groupBy(Arrays.asList("Key", "Mod"), aggregates);
+        Table actual = parallel.groupBy(Arrays.asList("Key", "Mod"), aggregates);
+        assertEquals(sums.size(), expected.getRowCount());
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        for (int g = 0; g < expected.getRowCount(); g++) {
+            assertEquals(expected.getRow(g), actual.getRow(g));
+            List<String> row = actual.getRow(g);
+            assertEquals(sums.get(row.get(0) + "/" + row.get(1)), Long.valueOf(row.get(2)));
+        }
+    }
+}
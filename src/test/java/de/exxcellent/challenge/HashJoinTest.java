@@ -0,0 +1,141 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Table.join and the HashJoin class.
+ */
+class HashJoinTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Table weather() {
+        return new Table(Arrays.asList("Day", "MxT"), Arrays.asList(
+                Arrays.asList("1", "88"), Arrays.asList("2", "79"), Arrays.asList("3", "77"),
+                Arrays.asList("4", "77"), Arrays.asList("", "90")));
+    }
+
+    private static Table matches() {
+        return new Table(Arrays.asList("Date", "Team", "MxT"), Arrays.asList(
+                Arrays.asList("4.0", "Arsenal", "1"), Arrays.asList("2", "Chelsea", "2"),
+                Arrays.asList("x", "Leeds", "3"), Arrays.asList("2", "Fulham", "4"), Arrays.asList("", "Derby", "5")));
+    }
+
+    /**
+     * Tests inner and left joins with numeric keys of different types, several matches per key,
+     * empty keys and duplicate headers.
+     */
+    @Test
+    void testInnerAndLeft() {
+        Table inner = weather().join(matches(), "Day", "Date", JoinType.INNER);
+        assertEquals(Arrays.asList("Day", "MxT", "Team", "MxT" + HashJoin.RIGHT_SUFFIX), inner.getHeaders());
+        assertEquals(Arrays.asList(
+                Arrays.asList("2", "79", "Chelsea", "2"),
+                Arrays.asList("2", "79", "Fulham", "4"),
+                Arrays.asList("4", "77", "Arsenal", "1")), inner.getRows());
+
+        Table left = weather().join(matches(), "Day", "Date", JoinType.LEFT);
+        assertEquals(Arrays.asList(
+                Arrays.asList("1", "88", "", ""),
+                Arrays.asList("2", "79", "Chelsea", "2"),
+                Arrays.asList("2", "79", "Fulham", "4"),
+                Arrays.asList("3", "77", "", ""),
+                Arrays.asList("4", "77", "Arsenal", "1"),
+                Arrays.asList("", "90", "", "")), left.getRows());
+        assertTrue(left.getTypedColumn("MxT_right") instanceof LongColumn);
+        assertEquals(Arrays.asList(1), left.getIndicesOfValue("MxT_right", 2));
+
+        Table byText = matches().join(matches(), "Team", "Team", JoinType.INNER);
+        assertEquals(5, byText.getRowCount());
+        assertEquals(Arrays.asList("x", "Leeds", "3", "x", "3"), byText.getRow(2));
+
+        assertThrows(IllegalArgumentException.class, () -> weather().join(matches(), "Day", "Year", JoinType.INNER));
+        assertThrows(IllegalArgumentException.class, () -> weather().join(matches(), "Day", "Date", null));
+    }
+
+    /**
+     * Tests that the result is the same as the one of nested loops, whichever side the index is built on.
+     */
+    @Test
+    void testSameAsNestedLoops() {
+        Random random = new Random(23);
+        for (int[] sizes : new int[][] { { 300, 40 }, { 40, 300 }, { 100, 100 }, { 0, 10 } }) {
+            Table left = randomTable(random, sizes[0], "L");
+            Table right = randomTable(random, sizes[1], "R");
+            for (JoinType type : JoinType.values()) {
+                List<List<String>> expected = new ArrayList<>();
+                for (List<String> l : left.getRows()) {
+                    boolean matched = false;
+                    for (List<String> r : right.getRows()) {
+                        if (!l.get(0).isEmpty() && l.get(0).equals(r.get(0))) {
+                            expected.add(Arrays.asList(l.get(0), l.get(1), r.get(1)));
+                            matched = true;
+                        }
+                    }
+                    if (!matched && type == JoinType.LEFT) {
+                        expected.add(Arrays.asList(l.get(0), l.get(1), ""));
+                    }
+                }
+                assertEquals(expected, left.join(right, "Key", "Key", type).getRows(), Arrays.toString(sizes) + " " + type);
+            }
+        }
+    }
+
+    /**
+     * Tests that joining streamed sources gives the same rows as joining the tables, in memory
+     * and spilled to partition files, and that the partition files are deleted.
+     */
+    @Test
+    void testStreamedAndSpilled() throws IOException {
+        Random random = new Random(29);
+        Table left = randomTable(random, 2000, "L");
+        Table right = randomTable(random, 500, "R");
+        Comparator<List<String>> byValues = Comparator.comparing(Object::toString);
+
+        for (JoinType type : JoinType.values()) {
+            List<List<String>> expected = left.join(right, "Key", "Key", type).getRows();
+            HashJoin join = new HashJoin("Key", "Key", type);
+            join.setSpillDirectory(tempDir);
+            assertEquals(expected, join.join(new InMemoryTableReader(left), new InMemoryTableReader(right)).getRows());
+
+            long spilled = Metrics.global().getCounter("join.spilledBytes");
+            join.setMemoryBudget(1000);
+            join.setPartitionCount(7);
+            List<List<String>> actual = join.join(new InMemoryTableReader(left), new InMemoryTableReader(right)).getRows();
+            assertTrue(Metrics.global().getCounter("join.spilledBytes") > spilled);
+            expected.sort(byValues);
+            actual.sort(byValues);
+            assertEquals(expected, actual);
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(0, files.count());
+            }
+        }
+        HashJoin join = new HashJoin("Key", "Year", JoinType.INNER);
+        assertThrows(IllegalArgumentException.class, () -> join.join(new InMemoryTableReader(left), new InMemoryTableReader(right)));
+        assertThrows(IllegalArgumentException.class, () -> join.setPartitionCount(0));
+    }
+
+    private static Table randomTable(Random random, int rows, String prefix) {
+        List<List<String>> values = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            int k = random.nextInt(60);
+            String key = k == 0 ? "" : k < 40 ? Integer.toString(k) : "k" + k;
+            values.add(Arrays.asList(key, prefix + i));
+        }
+        return new Table(Arrays.asList("Key", prefix), values);
+    }
+}
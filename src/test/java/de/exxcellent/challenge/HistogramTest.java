@@ -0,0 +1,70 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Histogram class.
+ */
+class HistogramTest {
+
+    /**
+     * Tests that every value lies in a bucket whose upper bound is at most 1/64 above it.
+     */
+    @Test
+    void testBucketBounds() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int bucket = Histogram.bucket(value);
+            long upper = Histogram.upperBound(bucket);
+            assertTrue(upper >= value, Long.toString(value));
+            assertTrue(upper - value <= value / 64, Long.toString(value));
+            assertTrue(bucket == 0 || Histogram.upperBound(bucket - 1) < value, Long.toString(value));
+        }
+        assertEquals(Long.MAX_VALUE, Histogram.upperBound(Histogram.bucket(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Tests count, total, minimum, maximum, mean and percentiles.
+     */
+    @Test
+    void testStatistics() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertTrue(Double.isNaN(histogram.getMean()));
+
+        for (long v = 1; v <= 1000; v++) {
+            histogram.record(v * 1000);
+        }
+        histogram.record(-5);
+        assertEquals(1001, histogram.getCount());
+        assertEquals(500500000, histogram.getTotal());
+        assertEquals(0, histogram.getMin());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500000, histogram.getValueAtPercentile(50), 500000 / 64.0);
+        assertEquals(990000, histogram.getValueAtPercentile(99), 990000 / 64.0);
+        assertEquals(1000000, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+
+    /**
+     * Tests that a copy does not change when the original does.
+     */
+    @Test
+    void testCopy() {
+        Histogram histogram = new Histogram();
+        histogram.record(7);
+        Histogram copy = histogram.copy();
+        histogram.record(9);
+        assertEquals(1, copy.getCount());
+        assertEquals(7, copy.getMax());
+        assertEquals(7, copy.getValueAtPercentile(100));
+        assertEquals(2, histogram.getCount());
+    }
+}
@@ -0,0 +1,18 @@
+package de.exxcellent.challenge;
+
+/**
+ * Reader returning a table that is already in memory, for tests of classes reading from a {@link TableReader}.
+ */
+final class InMemoryTableReader extends TableReader {
+
+    private final Table table;
+
+    InMemoryTableReader(Table table) {
+        this.table = table;
+    }
+
+    @Override
+    public Table readAsTable() {
+        return table;
+    }
+}
@@ -0,0 +1,123 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MappedCSVReader class.
+ */
+class MappedCSVReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a CSV file is mapped into a Table with trimmed values.
+     */
+    @Test
+    void testReadAsTable() throws IOException {
+        Path file = write("Day, MaxTemp ,MinTemp\r\n1,25,15\r\n\r\n2, 30 ,\r\n");
+        Table tab = new MappedCSVReader(file).readAsTable();
+
+        assertEquals(Arrays.asList("Day", "MaxTemp", "MinTemp"), tab.getHeaders());
+        assertEquals(2, tab.getRowCount());
+        assertEquals(Arrays.asList("2", "30", ""), tab.getRow(1));
+        assertEquals(30.0, tab.getExtremeValue("MaxTemp", true));
+    }
+
+    /**
+     * Tests that the mapped reader yields the same table as the classpath CSVReader.
+     */
+    @Test
+    void testSameAsCSVReader() throws IOException {
+        Table expected = new CSVReader("de/exxcellent/challenge/weather.csv").readAsTable();
+        Table tab = new MappedCSVReader(Paths.get("src/main/resources/de/exxcellent/challenge/weather.csv")).readAsTable();
+
+        assertEquals(expected.getHeaders(), tab.getHeaders());
+        assertEquals(expected.getRows(), tab.getRows());
+    }
+
+    /**
+     * Tests that a custom single character delimiter is used and that UTF-8 is decoded.
+     */
+    @Test
+    void testDelimiter() throws IOException {
+        Path file = write("Team;Goals\nMünchen;3\n");
+        Table tab = new MappedCSVReader(file, ";").readAsTable();
+
+        List<String> column = tab.getColumn("Team");
+        assertEquals(Arrays.asList("München"), column);
+        assertThrows(IllegalArgumentException.class, () -> new MappedCSVReader(file, "::"));
+    }
+
+    /**
+     * Tests that a read request is applied to the rows streamed by the reader.
+     */
+    @Test
+    void testReadRequest() throws IOException {
+        Path file = write("Day,MaxTemp,MinTemp\n1,25,15\n2,30,\n3,x,9\n");
+        ReadRequest request = new ReadRequest(Arrays.asList("MinTemp", "Day"), Arrays.asList(ColumnPredicate.parse("MaxTemp >= 25")));
+        Table tab = new MappedCSVReader(file).readAsTable(request);
+
+        assertEquals(Arrays.asList("MinTemp", "Day"), tab.getHeaders());
+        assertEquals(Arrays.asList(Arrays.asList("15", "1"), Arrays.asList("", "2")), tab.getRows());
+    }
+
+    /**
+     * Tests that the columns of lines with more values than a checkpoint interval, which are
+     * located from the recorded starts of every sixteenth value, are loaded correctly.
+     */
+    @Test
+    void testWideLines() throws IOException {
+        int colCount = 2 * MappedCSVReader.CHECKPOINT_INTERVAL + 3;
+        StringBuilder content = new StringBuilder();
+        for (int r = -1; r < 3; r++) {
+            for (int c = 0; c < colCount; c++) {
+                if (c > 0) content.append(r == 1 ? " , " : ",");
+                content.append(r < 0 ? "c" + c : r == 2 && c % 5 == 0 ? "" : Integer.toString(100 * r + c));
+            }
+            content.append('\n');
+        }
+        Table tab = new MappedCSVReader(write(content.toString())).readAsTable();
+
+        assertEquals(3, tab.getRowCount());
+        for (int c : new int[] {0, 15, 16, 17, 31, 32, colCount - 1}) {
+            assertEquals(Arrays.asList(Integer.toString(c), Integer.toString(100 + c), c % 5 == 0 ? "" : Integer.toString(200 + c)),
+                    tab.getColumn("c" + c));
+        }
+    }
+
+    /**
+     * Tests that a line with a wrong number of values throws an IOException.
+     */
+    @Test
+    void testWrongNumberOfValues() throws IOException {
+        Path file = write("Day,MaxTemp\n1,25,15\n");
+        assertThrows(IOException.class, new MappedCSVReader(file)::readAsTable);
+    }
+
+    /**
+     * Tests that reading a non-existent file throws an IOException.
+     */
+    @Test
+    void testFileNotFound() {
+        MappedCSVReader reader = new MappedCSVReader(tempDir.resolve("notFound.csv"));
+        assertThrows(IOException.class, reader::readAsTable);
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("table.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
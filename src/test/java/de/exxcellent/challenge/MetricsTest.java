@@ -0,0 +1,136 @@
+package de.exxcellent.challenge;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Metrics class.
+ */
+class MetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that reading a CSV file and querying it are recorded in the global metrics.
+     */
+    @Test
+    void testReadAndQuery() throws IOException {
+        long size;
+        try (InputStream is = getClass().getResourceAsStream("/de/exxcellent/challenge/weather.csv")) {
+            size = is.readAllBytes().length;
+        }
+        Metrics metrics = Metrics.global();
+        long bytes = metrics.getCounter("read.bytes");
+        long rows = metrics.getCounter("read.csv.rows");
+        Histogram queries = metrics.getHistogram("query.getExtremeIndicesAsDouble.nanos");
+        long queryCount = queries == null ? 0 : queries.getCount();
+
+        Table table = new CSVReader("de/exxcellent/challenge/weather.csv").readAsTable();
+        App.analyze(table, "MxT", "MnT", ColumnOp.ABS_DIFF, false);
+
+        assertEquals(size, metrics.getCounter("read.bytes") - bytes);
+        assertEquals(30, metrics.getCounter("read.csv.rows") - rows);
+        assertEquals(queryCount + 1, metrics.getHistogram("query.getExtremeIndicesAsDouble.nanos").getCount());
+        Histogram parses = metrics.getHistogram("column.parse.nanos");
+        long parseCount = parses == null ? 0 : parses.getCount();
+        Table lazy = new CSVReader("de/exxcellent/challenge/weather.csv", ",", CSVReader.Mode.LAZY).readAsTable();
+        lazy.getExtremeValue("MxT", true);
+        assertEquals(parseCount + 1, metrics.getHistogram("column.parse.nanos").getCount());
+        assertNotNull(metrics.getHistogram("app.analyze.nanos"));
+        if (Metrics.isAllocationTrackingSupported()) {
+            assertTrue(metrics.getHistogram("read.csv.allocatedBytes").getMax() > 0);
+        }
+    }
+
+    /**
+     * Tests snapshots, reset and disabling.
+     */
+    @Test
+    void testSnapshot() {
+        Metrics metrics = new Metrics();
+        metrics.count("rows", 3);
+        metrics.record("latency", 42);
+        Metrics.Timer timer = metrics.startTimer();
+        timer.stop("op", 10);
+
+        Metrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(3L, snapshot.getCounters().get("rows"));
+        assertEquals(10L, snapshot.getCounters().get("op.rows"));
+        assertEquals(42, snapshot.getHistograms().get("latency").getMax());
+        assertEquals(1, snapshot.getHistograms().get("op.nanos").getCount());
+        assertTrue(snapshot.toString().contains("latency count=1"));
+
+        metrics.count("rows", 1);
+        assertEquals(3L, snapshot.getCounters().get("rows"));
+
+        metrics.setEnabled(false);
+        metrics.count("rows", 1);
+        metrics.startTimer().stop("op", 10);
+        assertEquals(4, metrics.getCounter("rows"));
+        assertEquals(10, metrics.getCounter("op.rows"));
+
+        metrics.reset();
+        assertTrue(metrics.snapshot().getCounters().isEmpty());
+        assertNull(metrics.getHistogram("latency"));
+    }
+
+    /**
+     * Tests that snapshots are dumped to a file, once and periodically.
+     */
+    @Test
+    void testDump() throws IOException, InterruptedException {
+        Metrics metrics = new Metrics();
+        metrics.count("read.rows", 5);
+        Path file = tempDir.resolve("metrics").resolve("metrics.txt");
+        metrics.dump(file);
+        assertTrue(Files.readAllLines(file).contains("read.rows 5"));
+
+        Closeable dumps = metrics.dumpPeriodically(file, 10, TimeUnit.MILLISECONDS);
+        metrics.count("read.rows", 1);
+        Thread.sleep(50);
+        metrics.count("read.rows", 1);
+        dumps.close();
+        assertTrue(Files.readAllLines(file).contains("read.rows 7"));
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(1, files.count());
+        }
+        assertThrows(IllegalArgumentException.class, () -> metrics.dumpPeriodically(file, 0, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that timed operations are recorded as Flight Recorder events while a recording runs.
+     */
+    @Test
+    void testFlightRecorderEvents() throws IOException {
+        Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(OperationEvent.class);
+            recording.start();
+            Metrics.Timer timer = new Metrics().startTimer();
+            timer.stop("jfr.test", 12);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent event = events.stream()
+                .filter(e -> e.getEventType().getName().equals("de.exxcellent.challenge.Operation"))
+                .filter(e -> "jfr.test".equals(e.getString("operation")))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(12, event.getLong("rows"));
+    }
+}
@@ -0,0 +1,111 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MultiFileReader class.
+ */
+class MultiFileReaderTest {
+
+    private static final String HEADER = "Day,MxT,MnT\n";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that the files of the weather data split into several files, also in subdirectories,
+     * read as the same table as the single file, whatever the number of threads.
+     */
+    @Test
+    void testSameAsSingleFile() throws IOException {
+        Table expected = new CSVReader("de/exxcellent/challenge/weather.csv").readAsTable();
+        List<List<String>> rows = expected.getRows();
+        List<String> lines = rows.stream().map(row -> String.join(",", row)).collect(Collectors.toList());
+        String header = String.join(",", expected.getHeaders()) + "\n";
+        for (int part = 0; part * 7 < lines.size(); part++) {
+            Path dir = Files.createDirectories(tempDir.resolve("month-" + part / 2));
+            List<String> slice = lines.subList(part * 7, Math.min(part * 7 + 7, lines.size()));
+            Files.write(dir.resolve("part-" + part + ".csv"), (header + String.join("\n", slice) + "\n").getBytes());
+        }
+        Files.write(tempDir.resolve("ignored.csv"), "x\n1\n".getBytes());
+
+        for (int parallelism : new int[] { 1, 2, 8 }) {
+            MultiFileReader reader = new MultiFileReader(tempDir, "month-*/*.csv");
+            reader.setParallelism(parallelism);
+            Table tab = reader.readAsTable();
+            assertEquals(expected.getHeaders(), tab.getHeaders());
+            assertEquals(rows, tab.getRows());
+            for (String col : expected.getHeaders()) {
+                assertEquals(expected.getTypedColumn(col).getClass(), tab.getTypedColumn(col).getClass());
+            }
+            assertEquals(App.analyze(expected, "MxT", "MnT", (a, b) -> a - b, true),
+                    App.analyze(tab, "MxT", "MnT", (a, b) -> a - b, true));
+        }
+    }
+
+    /**
+     * Tests that the batches come in file order with one table per file, that a single-file analysis
+     * works on every batch, and that streaming the rows gives the rows of all files.
+     */
+    @Test
+    void testBatches() throws IOException {
+        write("b.csv", "3,80,60\n4,81,70\n");
+        write("a.csv", "1,88,59\n2,79,63\n");
+        write("c.csv", "5,90,40\n");
+        MultiFileReader reader = new MultiFileReader(tempDir);
+        reader.setParallelism(2);
+
+        List<String> files = new ArrayList<>();
+        List<String> answers = new ArrayList<>();
+        try (Stream<MultiFileReader.Batch> batches = reader.readBatches()) {
+            batches.forEach(batch -> {
+                files.add(batch.getFile().getFileName().toString());
+                answers.add(App.analyze(batch.getTable(), "MxT", "MnT", (a, b) -> a - b, true));
+            });
+        }
+        assertEquals(Arrays.asList("a.csv", "b.csv", "c.csv"), files);
+        assertEquals(Arrays.asList("1", "3", "5"), answers);
+
+        TableReader.RequestSink sink = new TableReader.RequestSink(new ReadRequest(null, Collections.emptyList()));
+        reader.readRows(sink);
+        Table tab = sink.toTable();
+        assertEquals(Arrays.asList("Day", "MxT", "MnT"), tab.getHeaders());
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5"), tab.getColumn("Day"));
+    }
+
+    /**
+     * Tests that a file with other headers and a glob without matching files are reported.
+     */
+    @Test
+    void testErrors() throws IOException {
+        write("a.csv", "1,88,59\n");
+        Files.write(tempDir.resolve("b.csv"), "Day,MxT\n2,79\n".getBytes());
+        MultiFileReader reader = new MultiFileReader(tempDir);
+        IOException e = assertThrows(IOException.class, reader::readAsTable);
+        assertTrue(e.getMessage().contains("b.csv"));
+        try (Stream<MultiFileReader.Batch> batches = reader.readBatches()) {
+            assertThrows(UncheckedIOException.class, () -> batches.forEach(batch -> { }));
+        }
+
+        assertThrows(IOException.class, () -> new MultiFileReader(tempDir, "*.txt").readAsTable());
+        assertThrows(IllegalArgumentException.class, () -> reader.setParallelism(0));
+    }
+
+    private void write(String name, String rows) throws IOException {
+        Files.write(tempDir.resolve(name), (HEADER + rows).getBytes());
+    }
+}
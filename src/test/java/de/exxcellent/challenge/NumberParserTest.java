@@ -0,0 +1,133 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NumberParser class.
+ */
+class NumberParserTest {
+
+    /**
+     * Tests that canonical integers are recognized as long, including the limits of long.
+     */
+    @Test
+    void testLong() {
+        NumberParser parser = new NumberParser();
+        assertEquals(NumberParser.LONG, parser.parse("-20"));
+        assertEquals(-20L, parser.longValue());
+        assertEquals(NumberParser.LONG, parser.parse("0"));
+        assertEquals(NumberParser.LONG, parser.parse(Long.toString(Long.MAX_VALUE)));
+        assertEquals(Long.MAX_VALUE, parser.longValue());
+        assertEquals(NumberParser.LONG, parser.parse(Long.toString(Long.MIN_VALUE)));
+        assertEquals(Long.MIN_VALUE, parser.longValue());
+
+        // numeric, but the text cannot be reproduced from a long
+        assertEquals(NumberParser.DOUBLE, parser.parse("9223372036854775808"));
+        assertEquals(9223372036854775808.0, parser.doubleValue());
+        assertEquals(NumberParser.DOUBLE, parser.parse("007"));
+        assertEquals(NumberParser.DOUBLE, parser.parse("+5"));
+        assertEquals(NumberParser.DOUBLE, parser.parse("-0"));
+        assertEquals(NumberParser.DOUBLE, parser.parse(" 5"));
+        assertEquals(5.0, parser.doubleValue());
+    }
+
+    /**
+     * Tests empty, invalid and special values.
+     */
+    @Test
+    void testStatusCodes() {
+        NumberParser parser = new NumberParser();
+        assertEquals(NumberParser.EMPTY, parser.parse(""));
+        for (String invalid : new String[] {" ", "abc", "-", ".", "1.2.3", "1e", "1e+", "12a", "Manchester United", "NaNx", "1dd"}) {
+            assertEquals(NumberParser.INVALID, parser.parse(invalid), invalid);
+        }
+        assertEquals(NumberParser.DOUBLE, parser.parse("NaN"));
+        assertTrue(Double.isNaN(parser.doubleValue()));
+        assertEquals(NumberParser.DOUBLE, parser.parse("-Infinity"));
+        assertEquals(Double.NEGATIVE_INFINITY, parser.doubleValue());
+        assertEquals(NumberParser.DOUBLE, parser.parse("0x1p3"));
+        assertEquals(8.0, parser.doubleValue());
+        assertEquals(NumberParser.DOUBLE, parser.parse("1.5f"));
+        assertEquals(1.5, parser.doubleValue());
+    }
+
+    /**
+     * Tests that the scale is reported for plain decimals only, and reproduces their text.
+     */
+    @Test
+    void testScale() {
+        NumberParser parser = new NumberParser();
+        String[] plain = {"50", "53.8", "0.00", "-0.5", "1004.50", "0", "123456789012.345"};
+        int[] scales = {0, 1, 2, 1, 2, 0, 3};
+        for (int i = 0; i < plain.length; i++) {
+            parser.parse(plain[i]);
+            assertEquals(scales[i], parser.scale(), plain[i]);
+            assertEquals(plain[i], DoubleColumn.format(parser.doubleValue(), parser.scale()));
+        }
+        for (String other : new String[] {"1e3", "-0", "-0.00", "007.5", ".5", "5.", "+5", " 5", "1.5d", "NaN",
+                "1234567890123456", "0.1234567890123456", "abc", ""}) {
+            parser.parse(other);
+            assertEquals(-1, parser.scale(), other);
+        }
+        byte[] bytes = "x,0.10".getBytes(StandardCharsets.US_ASCII);
+        parser.parse(bytes, 2, 6);
+        assertEquals(2, parser.scale());
+    }
+
+    /**
+     * Tests that ranges of a string and of a byte array are parsed in place.
+     */
+    @Test
+    void testRanges() {
+        NumberParser parser = new NumberParser();
+        String line = "1,53.8,abc";
+        assertEquals(NumberParser.DOUBLE, parser.parse(line, 2, 6));
+        assertEquals(53.8, parser.doubleValue());
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(NumberParser.LONG, parser.parse(bytes, 0, 1));
+        assertEquals(1L, parser.longValue());
+        assertEquals(NumberParser.INVALID, parser.parse(bytes, 7, 10));
+        assertEquals(NumberParser.EMPTY, parser.parse(bytes, 7, 7));
+    }
+
+    /**
+     * Tests that every parsed value is exactly the value of Double.parseDouble.
+     */
+    @Test
+    void testSameAsParseDouble() {
+        NumberParser parser = new NumberParser();
+        Random random = new Random(42);
+        String[] fixed = {"0.1", "1004.5", "-0.0", "1e-3", "2.5E10", ".5", "5.", "123456789012345678901234567890",
+            "0.000000000000000000000000001", "4.9e-324", "1.7976931348623157E308", "1e400", "00012.5000"};
+        for (String val : fixed) {
+            assertEquals(NumberParser.DOUBLE, parser.parse(val), val);
+            assertEquals(Double.parseDouble(val), parser.doubleValue(), val);
+        }
+        for (int i = 0; i < 100000; i++) {
+            String val;
+            switch (i % 4) {
+                case 0:
+                    val = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(20) - 10));
+                    break;
+                case 1:
+                    val = String.format(Locale.ROOT, "%." + random.nextInt(8) + "f", (random.nextDouble() - 0.5) * 2000);
+                    break;
+                case 2:
+                    val = Double.toString(Double.longBitsToDouble(random.nextLong()));
+                    break;
+                default:
+                    val = random.nextInt(100000) + "." + random.nextInt(100000) + "e" + (random.nextInt(60) - 30);
+                    break;
+            }
+            int kind = parser.parse(val);
+            assertNotEquals(NumberParser.INVALID, kind, val);
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(val)), Double.doubleToLongBits(parser.doubleValue()), val);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the StreamPipeline class.
+ */
+class StreamPipelineTest {
+
+    /**
+     * Tests the smallest temperature spread on a streamed CSV file.
+     */
+    @Test
+    void testSmallestSpreadWeather() throws IOException {
+        List<String> days = new StreamPipeline()
+                .derive("Spread", "MxT", "MnT", (x, y) -> Math.abs(x - y))
+                .findExtreme(new CSVReader("de/exxcellent/challenge/weather.csv"), "Spread", false, "Day");
+        assertEquals(Arrays.asList("14"), days);
+    }
+
+    /**
+     * Tests the smallest goal spread on a memory-mapped CSV file.
+     */
+    @Test
+    void testSmallestSpreadFootball() throws IOException {
+        TableReader reader = new MappedCSVReader(Paths.get("src/main/resources/de/exxcellent/challenge/football.csv"));
+        List<String> teams = new StreamPipeline()
+                .derive("Spread", "Goals", "Goals Allowed", (x, y) -> Math.abs(x - y))
+                .findExtreme(reader, "Spread", false, "Team");
+        assertEquals(Arrays.asList("Aston_Villa"), teams);
+    }
+
+    /**
+     * Tests that filters drop rows before the aggregation and that ties are collected.
+     */
+    @Test
+    void testFilterAndTies() throws IOException {
+        TableReader reader = new TableReader() {
+            @Override
+            public Table readAsTable() {
+                return new Table(
+                        Arrays.asList("Day", "MxT", "MnT"),
+                        Arrays.asList(
+                                Arrays.asList("1", "30", "20"),
+                                Arrays.asList("2", "", "15"),
+                                Arrays.asList("3", "10", "9"),
+                                Arrays.asList("4", "25", "15")));
+            }
+        };
+        List<String> days = new StreamPipeline()
+                .filter("MxT", v -> v > 20)
+                .derive("Spread", "MxT", "MnT", (x, y) -> x - y)
+                .findExtreme(reader, "Spread", true, "Day");
+        assertEquals(Arrays.asList("1", "4"), days);
+    }
+
+    /**
+     * Tests that an unknown column is rejected.
+     */
+    @Test
+    void testUnknownColumn() {
+        StreamPipeline pipeline = new StreamPipeline().filter("DoesNotExist", v -> true);
+        assertThrows(IllegalArgumentException.class,
+                () -> pipeline.findExtreme(new CSVReader("de/exxcellent/challenge/test.csv"), "MaxTemp", true, "Day"));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.function.BiFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -263,8 +264,407 @@ class TableTest {
             List<Integer> indices = tab.getExtremeIndices(col, true);
             assertEquals(Arrays.asList(2), indices);
         }
+
+        /**
+         * Test that the extreme of an integer column above 2^53 finds its row, although the
+         * value is returned as rounded double.
+         */
+        @Test
+        void testGetExtremeIndicesOfLargeIntegers() {
+            Table large = new Table(Arrays.asList("v"), Arrays.asList(
+                    Arrays.asList("9007199254740993"), Arrays.asList("1"), Arrays.asList("")));
+            assertInstanceOf(LongColumn.class, large.getTypedColumn(0));
+            Double max = large.getExtremeValue("v", true);
+            assertEquals(9007199254740992.0, max);
+            assertEquals(Arrays.asList(0), large.getIndicesOfValue("v", max));
+            assertEquals(Arrays.asList(0), large.getExtremeIndices("v", true));
+            assertEquals(Arrays.asList(1), large.getExtremeIndices("v", false));
+        }
    
 
   
 
+    /**
+     * Test the fused extreme search over a derived value of two columns.
+     * Ties are collected in row order.
+     */
+    @Test
+    void testGetExtremeIndicesOfTwoColumns() {
+        tab.addRow(Arrays.asList("4", "25", "15"));
+        BiFunction<Double, Double, Double> spread = (x, y) -> Math.abs(x - y);
+        assertEquals(Arrays.asList(2, 3), tab.getExtremeIndices("MaxTemp", "MinTemp", spread, false));
+        assertEquals(Arrays.asList(0), tab.getExtremeIndices("MaxTemp", "MinTemp", spread, true));
+    }
+
+    /**
+     * Test that rows with non-numeric values are skipped by the fused extreme search.
+     */
+    @Test
+    void testGetExtremeIndicesOfTwoColumnsSkipsNonNumeric() {
+        tab.addRow(Arrays.asList("4", "abc", "0"));
+        BiFunction<Double, Double, Double> spread = (x, y) -> Math.abs(x - y);
+        assertEquals(Arrays.asList(2), tab.getExtremeIndices("MaxTemp", "MinTemp", spread, false));
+    }
+
+    /**
+     * Test that parse failures and missing values are counted per operation, sampled and passed to the listener.
+     */
+    @Test
+    void testDiagnostics() {
+        tab.addRow(Arrays.asList("4", "abc", "0"));
+        tab.addRow(Arrays.asList("5", "", "1"));
+        List<String> reported = new ArrayList<>();
+        tab.getDiagnostics().setListener((operation, header, row, value) -> reported.add(operation + ":" + header + ":" + row + ":" + value));
+
+        tab.getExtremeIndices("MaxTemp", "MinTemp", (x, y) -> Math.abs(x - y), false);
+        tab.getExtremeValue("MaxTemp", true);
+        tab.getExtremeValue(Arrays.asList("1", "x", ""), true);
+
+        Diagnostics diagnostics = tab.getDiagnostics();
+        assertEquals(1, diagnostics.getParseFailures("getExtremeIndices"));
+        assertEquals(1, diagnostics.getMissingValues("getExtremeIndices"));
+        assertEquals(2, diagnostics.getParseFailures("getExtremeValue"));
+        assertEquals(2, diagnostics.getMissingValues("getExtremeValue"));
+        assertEquals(Arrays.asList("getExtremeIndices:MaxTemp:3:abc", "getExtremeValue:MaxTemp:3:abc", "getExtremeValue:null:1:x"), reported);
+        assertEquals(3, diagnostics.getSamples().size());
+        assertEquals("abc", diagnostics.getSamples().get(0).getValue());
+
+        diagnostics.reset();
+        assertTrue(diagnostics.getOperations().isEmpty());
+        assertTrue(diagnostics.getSamples().isEmpty());
+    }
+
+    /**
+     * Test that the row and column views read the table without copying and cannot be modified.
+     */
+    @Test
+    void testViews() {
+        List<String> column = tab.getColumnView("MinTemp");
+        assertEquals(Arrays.asList("-15", "15", "-20"), column);
+        assertThrows(UnsupportedOperationException.class, () -> column.set(0, "0"));
+
+        List<String> row = tab.getRowView(1);
+        assertEquals(Arrays.asList("2", "30", "15"), row);
+        assertThrows(UnsupportedOperationException.class, () -> row.add("x"));
+
+        tab.addRow(Arrays.asList("4", "25", "5"));
+        assertEquals(4, column.size(), "Column view should reflect appended rows");
+        assertThrows(IllegalArgumentException.class, () -> tab.getRowView(4));
+    }
+
+    /**
+     * Test direct cell access by column index.
+     */
+    @Test
+    void testGetValueByIndex() {
+        int colIndex = tab.getColumnIndex("MaxTemp");
+        assertEquals("-10", tab.getValue(2, colIndex));
+        assertThrows(IllegalArgumentException.class, () -> tab.getValue(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> tab.getValue(3, 0));
+    }
+
+    /**
+     * Test that the cursor visits all rows in order.
+     */
+    @Test
+    void testCursor() {
+        RowCursor cursor = tab.cursor();
+        List<String> days = new ArrayList<>();
+        double sum = 0;
+        while (cursor.next()) {
+            days.add(cursor.get(0));
+            sum += cursor.getDouble(1);
+        }
+        assertEquals(Arrays.asList("1", "2", "3"), days);
+        assertEquals(50.0, sum);
+        assertFalse(cursor.next());
+        assertEquals("-20", cursor.moveTo(2).get(2));
+    }
+
+    /**
+     * Test that equality lookups give the same result with and without hash index,
+     * also after rows were added.
+     */
+    @Test
+    void testHashIndex() {
+        tab.createHashIndex("MaxTemp");
+        assertEquals(Arrays.asList(0, 1), tab.getIndicesOfValue("MaxTemp", 30));
+        assertEquals(Arrays.asList(), tab.getIndicesOfValue("MaxTemp", 31));
+
+        tab.addRow(Arrays.asList("4", "30", "5"));
+        assertEquals(Arrays.asList(0, 1, 3), tab.getIndicesOfValue("MaxTemp", 30));
+        assertEquals(Arrays.asList(0, 1, 3), tab.getExtremeIndices("MaxTemp", true));
+    }
+
+    /**
+     * Test extreme and range lookups through a sorted index.
+     */
+    @Test
+    void testSortedIndex() {
+        tab.createSortedIndex("MinTemp");
+        assertEquals(-20.0, tab.getExtremeValue("MinTemp", false));
+        assertEquals(15.0, tab.getExtremeValue("MinTemp", true));
+        assertEquals(Arrays.asList(0, 2), tab.getIndicesInRange("MinTemp", -20, -15));
+
+        tab.addRow(Arrays.asList("4", "25", "-30"));
+        assertEquals(Arrays.asList(3), tab.getExtremeIndices("MinTemp", false));
+
+        tab.dropIndexes("MinTemp");
+        assertEquals(Arrays.asList(0, 2, 3), tab.getIndicesInRange("MinTemp", -30, -15));
+    }
+
+    /**
+     * Test that the header lookup still works after a column was added.
+     */
+    @Test
+    void testColumnIndexAfterAddColumn() {
+        tab.addColumn("AvgTemp", Arrays.asList("1", "2", "3"));
+        assertEquals(3, tab.getColumnIndex("AvgTemp"));
+        tab.createHashIndex("MaxTemp");
+        tab.addColumn("Other", Arrays.asList("1", "2", "3"));
+        assertEquals(Arrays.asList(2), tab.getIndicesOfValue("MaxTemp", -10));
+    }
+
+    /**
+     * Test that indexed lookups match the scans on a larger table with many duplicates.
+     */
+    @Test
+    void testIndexesMatchScan() {
+        Random random = new Random(7);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            rows.add(Arrays.asList(Integer.toString(i), Integer.toString(random.nextInt(100) - 50)));
+        }
+        Table scanned = new Table(Arrays.asList("Day", "Temp"), rows);
+        Table indexed = new Table(Arrays.asList("Day", "Temp"), rows);
+        indexed.createHashIndex("Temp");
+        indexed.createSortedIndex("Temp");
+
+        for (int v = -51; v <= 50; v += 7) {
+            assertEquals(scanned.getIndicesOfValue("Temp", v), indexed.getIndicesOfValue("Temp", v));
+            assertEquals(scanned.getIndicesInRange("Temp", v, v + 10), indexed.getIndicesInRange("Temp", v, v + 10));
+        }
+        assertEquals(scanned.getExtremeIndices("Temp", true), indexed.getExtremeIndices("Temp", true));
+        assertEquals(scanned.getExtremeIndices("Temp", false), indexed.getExtremeIndices("Temp", false));
+    }
+
+    /**
+     * Tests the primitive double operator API.
+     * Rows with non-numeric values are missing in the result column.
+     */
+    @Test
+    void testProcessColumnsAsDouble() {
+        tab.addRow(Arrays.asList("4", "abc", "0"));
+        DoubleColumn result = tab.processColumnsAsDouble("MaxTemp", "MinTemp", (x, y) -> x - y);
+
+        assertEquals(4, result.size());
+        assertEquals(45.0, result.getDouble(0));
+        assertEquals(10.0, result.getDouble(2));
+        assertTrue(result.isMissing(3));
+        assertEquals(Arrays.asList(2), tab.getExtremeIndicesAsDouble("MaxTemp", "MinTemp", (x, y) -> x - y, false));
+    }
+
+    /**
+     * Tests the primitive long operator API.
+     * Values that are not whole numbers are missing in the result column.
+     */
+    @Test
+    void testProcessColumnsAsLong() {
+        tab.addColumn("AvgTemp", Arrays.asList("7.5", "22", ""));
+        LongColumn result = tab.processColumnsAsLong("MaxTemp", "AvgTemp", (x, y) -> x * y);
+
+        assertTrue(result.isMissing(0));
+        assertEquals(660L, result.getLong(1));
+        assertTrue(result.isMissing(2));
+        assertEquals(Arrays.asList("", "660", ""), Arrays.asList(result.getString(0), result.getString(1), result.getString(2)));
+    }
+
+    /**
+     * Tests that the column kernels behind ColumnOp agree with the equivalent lambdas,
+     * including missing values, mixed integer/decimal columns and ties.
+     */
+    @Test
+    void testColumnOpSameAsLambda() {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(Arrays.asList(Integer.toString(i), i % 10 == 3 ? "" : Integer.toString(50 + i % 13),
+                    Integer.toString(i % 11), (i % 4) + ".5"));
+        }
+        Table table = new Table(Arrays.asList("Day", "MxT", "MnT", "Avg"), rows);
+
+        for (ColumnOp op : ColumnOp.values()) {
+            DoubleColumn kernel = table.processColumnsAsDouble("MxT", "MnT", op);
+            DoubleColumn lambda = table.processColumnsAsDouble("MxT", "MnT", (x, y) -> op.applyAsDouble(x, y));
+            DoubleColumn mixed = table.processColumnsAsDouble("MxT", "Avg", op);
+            for (int i = 0; i < 100; i++) {
+                assertEquals(lambda.getString(i), kernel.getString(i));
+                assertEquals(i % 10 == 3, mixed.isMissing(i));
+            }
+            for (boolean findMax : new boolean[] { true, false }) {
+                assertEquals(table.getExtremeIndicesAsDouble("MxT", "MnT", (x, y) -> op.applyAsDouble(x, y), findMax),
+                        table.getExtremeIndicesAsDouble("MxT", "MnT", op, findMax));
+            }
+        }
+        assertEquals(62.0, table.getExtremeValue("MxT", true));
+        assertEquals(3.5, table.getExtremeValue("Avg", true));
+        assertEquals(Arrays.asList(3, 7, 11), table.getIndicesOfValue("Avg", 3.5).subList(0, 3));
+        assertEquals(new ArrayList<>(), table.getIndicesOfValue("MnT", 0.5));
+    }
+
+    /**
+     * Tests that parallel execution gives the same results as serial execution,
+     * including ties spread over several row ranges and non-numeric values.
+     */
+    @Test
+    void testParallelSameAsSerial() {
+        Random random = new Random(3);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int max = 50 + random.nextInt(50);
+            String min = i % 997 == 0 ? "" : Integer.toString(max - 1 - random.nextInt(40));
+            rows.add(Arrays.asList(Integer.toString(i), Integer.toString(max), min, (i % 17) + ".25", i == 42 ? "x" : "7"));
+        }
+        List<String> headers = Arrays.asList("Day", "MxT", "MnT", "Avg", "Mixed");
+        Table serial = new Table(headers, rows);
+        serial.setParallelThreshold(Integer.MAX_VALUE);
+        Table parallel = new Table(headers, rows);
+        parallel.setParallelThreshold(0);
+
+        for (boolean findMax : new boolean[] { true, false }) {
+            assertEquals(serial.getExtremeIndicesAsDouble("MxT", "MnT", ColumnOp.ABS_DIFF, findMax),
+                    parallel.getExtremeIndicesAsDouble("MxT", "MnT", ColumnOp.ABS_DIFF, findMax));
+            assertEquals(serial.getExtremeIndicesAsDouble("MxT", "Mixed", (x, y) -> x % 7 - y, findMax),
+                    parallel.getExtremeIndicesAsDouble("MxT", "Mixed", (x, y) -> x % 7 - y, findMax));
+            assertEquals(serial.getExtremeIndices("Avg", findMax), parallel.getExtremeIndices("Avg", findMax));
+            assertEquals(serial.getExtremeValue("MnT", findMax), parallel.getExtremeValue("MnT", findMax));
+        }
+        assertEquals(serial.getIndicesOfValue("MxT", 77), parallel.getIndicesOfValue("MxT", 77));
+        assertEquals(serial.getIndicesOfValue("Mixed", "7"), parallel.getIndicesOfValue("Mixed", "7"));
+        for (boolean findMax : new boolean[] { true, false }) {
+            assertEquals(serial.getTopIndicesAsDouble("MxT", "MnT", ColumnOp.ABS_DIFF, 25, findMax),
+                    parallel.getTopIndicesAsDouble("MxT", "MnT", ColumnOp.ABS_DIFF, 25, findMax));
+            assertEquals(serial.getTopIndicesAsDouble("MxT", "Mixed", (x, y) -> x % 7 - y, 25, findMax),
+                    parallel.getTopIndicesAsDouble("MxT", "Mixed", (x, y) -> x % 7 - y, 25, findMax));
+            assertEquals(serial.getTopIndices("Avg", 25, findMax), parallel.getTopIndices("Avg", 25, findMax));
+        }
+        assertEquals(serial.processColumns("MxT", "Mixed", (x, y) -> x * y), parallel.processColumns("MxT", "Mixed", (x, y) -> x * y));
+        assertEquals(serial.processColumnsAsLong("MxT", "MnT", (x, y) -> x - y).getString(997),
+                parallel.processColumnsAsLong("MxT", "MnT", (x, y) -> x - y).getString(997));
+        assertThrows(IllegalArgumentException.class, () -> parallel.setParallelThreshold(-1));
+    }
+
+    /**
+     * Tests the ranking of single columns and of derived values, including ties and non-numeric cells.
+     */
+    @Test
+    void testTopIndices() {
+        assertEquals(Arrays.asList(0, 1), tab.getTopIndices("MaxTemp", 2, true));
+        assertEquals(Arrays.asList(2, 0, 1), tab.getTopIndices("MinTemp", 5, false));
+        assertEquals(Arrays.asList(), tab.getTopIndices("MaxTemp", 0, true));
+        assertEquals(Arrays.asList(2, 1), tab.getTopIndicesAsDouble("MaxTemp", "MinTemp", ColumnOp.ABS_DIFF, 2, false));
+        assertEquals(Arrays.asList(0, 1), tab.getTopIndicesAsDouble("MaxTemp", "MinTemp", (x, y) -> x - y, 2, true));
+
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("a", "3"));
+        rows.add(Arrays.asList("b", "x"));
+        rows.add(Arrays.asList("c", ""));
+        rows.add(Arrays.asList("d", "1.5"));
+        Table table = new Table(Arrays.asList("Id", "Value"), rows);
+        assertEquals(Arrays.asList(0, 3), table.getTopIndices("Value", 3, true));
+        assertEquals(1, table.getDiagnostics().getParseFailures("getTopIndices"));
+        assertEquals(1, table.getDiagnostics().getMissingValues("getTopIndices"));
+        assertThrows(IllegalArgumentException.class, () -> tab.getTopIndices("MaxTemp", -1, true));
+        assertThrows(IllegalArgumentException.class, () -> tab.getTopIndices("Nope", 1, true));
+    }
+
+    /**
+     * Tests equality lookups on the dictionary codes of a string column.
+     */
+    @Test
+    void testIndicesOfValueOnStringColumn() {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("Arsenal", "N"));
+        rows.add(Arrays.asList("Chelsea", "5"));
+        rows.add(Arrays.asList("Arsenal", ""));
+        rows.add(Arrays.asList("Everton", "5.0"));
+        Table table = new Table(Arrays.asList("Team", "Wind"), rows);
+
+        assertEquals(Arrays.asList(0, 2), table.getIndicesOfValue("Team", "Arsenal"));
+        assertEquals(Arrays.asList(), table.getIndicesOfValue("Team", "Leeds"));
+        assertEquals(Arrays.asList(2), table.getIndicesOfValue("Wind", ""));
+        assertEquals(Arrays.asList(1), table.getIndicesOfValue("Wind", "5"));
+        assertEquals(Arrays.asList(1, 3), table.getIndicesOfValue("Wind", 5));
+        assertEquals(1, table.getDiagnostics().getParseFailures("getIndicesOfValue"));
+        assertEquals(1, table.getDiagnostics().getMissingValues("getIndicesOfValue"));
+        assertEquals(Arrays.asList(0), tab.getIndicesOfValue("MaxTemp", "30").subList(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.getIndicesOfValue("Nope", "x"));
+    }
+
+    /**
+     * Tests that the batch analysis gives the same answers as the individual queries,
+     * serially and in parallel.
+     */
+    @Test
+    void testAnalyzeSameAsSingleQueries() {
+        Random random = new Random(11);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int max = 50 + random.nextInt(50);
+            String min = i % 501 == 0 ? "" : Integer.toString(max - 1 - random.nextInt(40));
+            rows.add(Arrays.asList(Integer.toString(i), Integer.toString(max), min, i == 7 ? "n/a" : (i % 13) + ".5"));
+        }
+        Table table = new Table(Arrays.asList("Day", "MxT", "MnT", "Avg"), rows);
+        List<AnalysisSpec> specs = Arrays.asList(
+                new AnalysisSpec("MxT", "MnT", ColumnOp.ABS_DIFF, false),
+                new AnalysisSpec("MxT", "MnT", ColumnOp.SUBTRACT, true),
+                new AnalysisSpec("MxT", "Avg", (x, y) -> x / y, true),
+                new AnalysisSpec("MnT", false),
+                new AnalysisSpec("Avg", true));
+
+        for (int threshold : new int[] { Integer.MAX_VALUE, 0 }) {
+            table.setParallelThreshold(threshold);
+            List<AnalysisResult> results = table.analyze(specs);
+            assertEquals(specs.size(), results.size());
+            for (int s = 0; s < 3; s++) {
+                AnalysisSpec spec = specs.get(s);
+                assertSame(spec, results.get(s).getSpec());
+                assertEquals(table.getExtremeIndicesAsDouble(spec.getHeader1(), spec.getHeader2(), spec.getOperator(), spec.isFindMax()),
+                        results.get(s).getIndices());
+            }
+            assertEquals(table.getExtremeIndices("MnT", false), results.get(3).getIndices());
+            assertEquals(table.getExtremeValue("MnT", false), results.get(3).getExtreme());
+            assertEquals(12.5, results.get(4).getExtreme());
+            assertEquals(table.getExtremeIndices("Avg", true), results.get(4).getIndices());
+        }
+        assertThrows(IllegalArgumentException.class, () -> table.analyze(Arrays.asList(new AnalysisSpec("Nope", true))));
+    }
+
+    /**
+     * Tests sorting by integer, decimal and string columns in both directions, with empty values last
+     * and equal keys in their original order.
+     */
+    @Test
+    void testSort() {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(Arrays.asList("1", "30", "1.5", "b"));
+        rows.add(Arrays.asList("2", "", "-2.5", "10"));
+        rows.add(Arrays.asList("3", "-5", "", "a"));
+        rows.add(Arrays.asList("4", "30", "0.0", "9"));
+        rows.add(Arrays.asList("5", "12", "-0.0", ""));
+        Table table = new Table(Arrays.asList("Day", "Max", "Avg", "Text"), rows);
+
+        assertEquals(Arrays.asList("3", "5", "1", "4", "2"),
+                table.sort(Arrays.asList(new SortKey("Max", false))).getColumn("Day"));
+        assertEquals(Arrays.asList("4", "1", "5", "3", "2"),
+                table.sort(Arrays.asList(new SortKey("Max", true), new SortKey("Avg", false))).getColumn("Day"));
+        assertEquals(Arrays.asList("2", "4", "5", "1", "3"),
+                table.sort(Arrays.asList(new SortKey("Avg", false))).getColumn("Day"));
+        assertEquals(Arrays.asList("4", "2", "3", "1", "5"),
+                table.sort(Arrays.asList(new SortKey("Text", false))).getColumn("Day"));
+        assertEquals(Arrays.asList("1", "3", "2", "4", "5"),
+                table.sort(Arrays.asList(new SortKey("Text", true))).getColumn("Day"));
+        assertEquals("1", table.getValue(0, "Day"));
+        assertThrows(IllegalArgumentException.class, () -> table.sort(Arrays.asList(new SortKey("Year", true))));
+        assertThrows(IllegalArgumentException.class, () -> table.sort(new ArrayList<>()));
+    }
 }
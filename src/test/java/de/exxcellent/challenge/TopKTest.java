@@ -0,0 +1,62 @@
+package de.exxcellent.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TopK class.
+ */
+class TopKTest {
+
+    /**
+     * Tests that the heap keeps the same rows as a full sort, with ties ranked by row index.
+     */
+    @Test
+    void testSameAsSort() {
+        Random random = new Random(11);
+        double[] values = new double[2000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(300);
+        }
+        for (boolean findMax : new boolean[] { true, false }) {
+            for (int k : new int[] { 0, 1, 7, 100, 5000 }) {
+                TopK top = new TopK(k, findMax);
+                for (int i = 0; i < values.length; i++) {
+                    top.offer(values[i], i);
+                }
+                Comparator<Integer> byValue = Comparator.comparingDouble(i -> values[i]);
+                int[] expected = IntStream.range(0, values.length).boxed()
+                        .sorted((findMax ? byValue.reversed() : byValue).thenComparing(Comparator.naturalOrder()))
+                        .limit(k).mapToInt(Integer::intValue).toArray();
+                assertArrayEquals(expected, top.rows(), "k=" + k + " findMax=" + findMax);
+                assertEquals(Math.min(k, values.length), top.size());
+            }
+        }
+    }
+
+    /**
+     * Tests that merging the heaps of row ranges gives the heap of all rows, and that NaN is ignored.
+     */
+    @Test
+    void testMerge() {
+        TopK first = new TopK(3, false);
+        TopK second = new TopK(3, false);
+        double[] values = { 5, 1, Double.NaN, 4, 1, 9, 2, 4 };
+        TopK all = new TopK(3, false);
+        for (int i = 0; i < values.length; i++) {
+            (i < 4 ? first : second).offer(values[i], i);
+            all.offer(values[i], i);
+        }
+        TopK merged = second.merge(first);
+        assertArrayEquals(all.rows(), merged.rows());
+        assertArrayEquals(new int[] { 1, 4, 6 }, merged.rows());
+        assertArrayEquals(new double[] { 1, 1, 2 }, merged.values());
+        assertThrows(IllegalArgumentException.class, () -> new TopK(-1, true));
+    }
+}